@@ -23,6 +23,10 @@ OUTPUT_FILE_EL = "../results_{model}_el.json"
 INPUT_FILE_ELH = "../output_HermitReasoner/benchmark_output_with_elh.json"
 OUTPUT_FILE_ELH = "../results_{model}_elh.json"
 
+# Optional running BenchmarkService (e.g. http://localhost:8085); test cases are then fetched
+# from it instead of the files above
+BENCHMARK_SERVICE = os.getenv("BENCHMARK_SERVICE")
+
 # === 3. Prompt Builder ===
 def build_prompt(entry):
     axioms = entry["axioms"]
@@ -89,9 +93,16 @@ def call_llm(prompt, model_name="gpt-4o", retries=3):
     return "Error: LLM call failed after retries"
 
 # === 5. Evaluator Function ===
-def evaluate(input_file, output_file, model_name):
+def load_entries(input_file, profile):
+    if BENCHMARK_SERVICE:
+        res = requests.get(f"{BENCHMARK_SERVICE}/generate", params={"profile": profile}, timeout=600)
+        res.raise_for_status()
+        return [json.loads(line) for line in res.text.splitlines() if line.strip()]
     with open(input_file, "r") as f:
-        data = json.load(f)
+        return json.load(f)
+
+def evaluate(input_file, output_file, model_name, profile="EL"):
+    data = load_entries(input_file, profile)
 
     results = []
     for entry in tqdm(data, desc=f"Evaluating with {model_name}"):
@@ -144,6 +155,6 @@ if __name__ == "__main__":
 
         print(f"\n Running {model} on ELH")
         try:
-            evaluate(INPUT_FILE_ELH, OUTPUT_FILE_ELH.format(model=model.replace(":", "_")), model)
+            evaluate(INPUT_FILE_ELH, OUTPUT_FILE_ELH.format(model=model.replace(":", "_")), model, "ELH")
         except FileNotFoundError:
             print(f"  Skipped ELH: '{INPUT_FILE_ELH}' not found.")
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Shared setup for the JMH benchmarks: ontology loading and the query sets the
+ * benchmarks are parameterized by.
+ *
+ * Query sets:
+ * - targets: the target axiom of every axiom group, i.e. the queries {@link BenchmarkRunner} checks
+ * - named:   A ⊑ B for pairs of named classes (first 1000 pairs in signature order)
+ */
+final class BenchmarkFixtures {
+
+    private static final int MAX_NAMED_PAIRS = 1000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static OWLOntology load(String ontologyFile) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        return manager.loadOntologyFromOntologyDocument(new File(ontologyFile));
+    }
+
+    static List<OWLAxiom> queries(OWLOntology ontology, String querySet) {
+        return switch (querySet) {
+            case "targets" -> AxiomGrouper.inSubjectOrder(ontology).stream()
+                    .map(QueryGenerator::getQueryAxiom)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            case "named" -> namedSubsumptions(ontology);
+            default -> throw new IllegalArgumentException("Unknown query set: " + querySet);
+        };
+    }
+
+    private static List<OWLAxiom> namedSubsumptions(OWLOntology ontology) {
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        List<OWLClass> classes = ontology.classesInSignature().sorted().collect(Collectors.toList());
+        List<OWLAxiom> queries = new ArrayList<>();
+        for (OWLClass sub : classes) {
+            for (OWLClass sup : classes) {
+                if (queries.size() == MAX_NAMED_PAIRS) return queries;
+                if (!sub.equals(sup)) queries.add(df.getOWLSubClassOfAxiom(sub, sup));
+            }
+        }
+        return queries;
+    }
+}
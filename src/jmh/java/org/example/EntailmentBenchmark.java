@@ -0,0 +1,57 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single entailment check against an already classified reasoner.
+ * Each invocation checks the next query of the set, cycling through all of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntailmentBenchmark {
+
+    @Param({"src/main/resources/ontology/pizza-el.owl"})
+    public String ontologyFile;
+
+    @Param({"structural", "hermit", "el"})
+    public String reasoner;
+
+    @Param({"targets", "named"})
+    public String querySet;
+
+    private OWLReasoner owlReasoner;
+    private List<OWLAxiom> queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        OWLOntology ontology = BenchmarkFixtures.load(ontologyFile);
+        queries = BenchmarkFixtures.queries(ontology, querySet);
+        if (queries.isEmpty()) throw new IllegalStateException("Empty query set: " + querySet);
+        owlReasoner = BenchmarkRunner.reasonerFactory(reasoner).createReasoner(ontology);
+        owlReasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+    }
+
+    @Benchmark
+    public boolean isEntailed() {
+        OWLAxiom query = queries.get(next);
+        next = (next + 1) % queries.size();
+        return owlReasoner.isEntailed(query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        owlReasoner.dispose();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing an ontology document into a fresh manager, against reading its
+ * {@link OntologySnapshot}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OntologyLoadBenchmark {
+
+    @Param({"src/main/resources/ontology/pizza-el.owl"})
+    public String ontologyFile;
+
+    private Path snapshot;
+
+    @Setup
+    public void setUp() throws Exception {
+        snapshot = Files.createTempFile("ontology", ".snap");
+        OntologySnapshot.save(BenchmarkFixtures.load(ontologyFile), OntologySnapshot.checksum(Path.of(ontologyFile)), snapshot);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public OWLOntology load() throws OWLOntologyCreationException {
+        return BenchmarkFixtures.load(ontologyFile);
+    }
+
+    @Benchmark
+    public OWLOntology loadSnapshot() throws IOException {
+        return OntologySnapshot.load(snapshot, OWLManager.createOWLOntologyManager());
+    }
+}
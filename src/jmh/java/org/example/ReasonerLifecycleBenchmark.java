@@ -0,0 +1,76 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reasoner construction and classification separately.
+ *
+ * The reasoner parameter accepts the names known to {@link BenchmarkRunner#reasonerFactory(String)}
+ * (hermit, el, structural) or the class name of any other OWLReasonerFactory on the classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReasonerLifecycleBenchmark {
+
+    @Param({"src/main/resources/ontology/pizza-el.owl"})
+    public String ontologyFile;
+
+    @Param({"structural", "hermit", "el"})
+    public String reasoner;
+
+    private OWLOntology ontology;
+    private OWLReasonerFactory factory;
+
+    // the reasoner created (construct) or classified (classify) by the current invocation
+    private OWLReasoner current;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ontology = BenchmarkFixtures.load(ontologyFile);
+        factory = BenchmarkRunner.reasonerFactory(reasoner);
+    }
+
+    @Benchmark
+    public OWLReasoner construct() {
+        current = factory.createReasoner(ontology);
+        return current;
+    }
+
+    @Benchmark
+    public OWLReasoner classify(FreshReasoner fresh) {
+        current = fresh.reasoner;
+        current.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+        return current;
+    }
+
+    @TearDown(Level.Invocation)
+    public void dispose() {
+        if (current != null) {
+            current.dispose();
+            current = null;
+        }
+    }
+
+    /**
+     * Creates an unclassified reasoner before each classify invocation, outside the measurement.
+     */
+    @State(Scope.Thread)
+    public static class FreshReasoner {
+        OWLReasoner reasoner;
+
+        @Setup(Level.Invocation)
+        public void create(ReasonerLifecycleBenchmark benchmark) {
+            reasoner = benchmark.factory.createReasoner(benchmark.ontology);
+        }
+    }
+}
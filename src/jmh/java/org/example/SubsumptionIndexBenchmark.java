@@ -0,0 +1,61 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a named subsumption lookup in the closure index, for comparison with
+ * {@link EntailmentBenchmark} on the "named" query set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubsumptionIndexBenchmark {
+
+    @Param({"src/main/resources/ontology/pizza-el.owl"})
+    public String ontologyFile;
+
+    @Param({"hermit"})
+    public String reasoner;
+
+    private SubsumptionIndex index;
+    private OWLClass[] subs;
+    private OWLClass[] sups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        OWLOntology ontology = BenchmarkFixtures.load(ontologyFile);
+        List<OWLAxiom> queries = BenchmarkFixtures.queries(ontology, "named");
+        OWLReasoner owlReasoner = BenchmarkRunner.reasonerFactory(reasoner).createReasoner(ontology);
+        try {
+            index = SubsumptionIndex.build(ontology, owlReasoner);
+        } finally {
+            owlReasoner.dispose();
+        }
+        subs = new OWLClass[queries.size()];
+        sups = new OWLClass[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            OWLSubClassOfAxiom query = (OWLSubClassOfAxiom) queries.get(i);
+            subs[i] = query.getSubClass().asOWLClass();
+            sups[i] = query.getSuperClass().asOWLClass();
+        }
+    }
+
+    @Benchmark
+    public boolean isSubClassOf() {
+        int i = next;
+        next = (next + 1) % subs.length;
+        return index.isSubClassOf(subs[i], sups[i]);
+    }
+}
@@ -1,6 +1,8 @@
 package org.example;
 
 import org.semanticweb.owlapi.model.*;
+
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -9,9 +11,42 @@ import java.util.*;
  * - Functional: OWL functional syntax (e.g., SubClassOf(:Cat ObjectSomeValuesFrom(:hasPart :Tail)))
  *
  * This is primarily used for DL benchmarks to test human and LLM understanding.
+ *
+ * An instance renders with visitors into one reusable buffer and remembers the rendering of
+ * entities and complex subexpressions, so shared parts such as ∃hasTopping.Mozzarella are only
+ * rendered once. Nested conjunctions and existentials are written out in full (e.g.
+ * A ⊑ ∃r.(B ⊓ ∃s.C)). The functional form is the same text as the OWL API's toString() for the
+ * supported axiom types; other axioms fall back to toString(). Instances are not thread-safe,
+ * use one per thread.
  */
 public class AxiomFormatter {
 
+    // memoized renderings are dropped when a map grows past this size
+    private static final int MEMO_LIMIT = 100_000;
+
+    private final EntityDictionary names;
+    private final StringBuilder buf = new StringBuilder(256);
+    private final Map<OWLObject, String> symbolicMemo = new HashMap<>();
+    private final Map<OWLObject, String> functionalMemo = new HashMap<>();
+    private final SymbolicVisitor symbolic = new SymbolicVisitor();
+    private final FunctionalVisitor functional = new FunctionalVisitor();
+
+    /**
+     * Creates a formatter that takes entity names from the given symbol table.
+     *
+     * @param names the symbol table of the ontology
+     */
+    public AxiomFormatter(EntityDictionary names) {
+        this.names = names;
+    }
+
+    /**
+     * Returns the symbol table entity names are taken from.
+     */
+    public EntityDictionary names() {
+        return names;
+    }
+
     /**
      * Converts an OWLAxiom into both symbolic and functional formats.
      *
@@ -19,120 +54,314 @@ public class AxiomFormatter {
      * @return a map with keys "symbolic" and "functional"
      */
     public static Map<String, String> formatAxiom(OWLAxiom axiom) {
-        Map<String, String> formats = new HashMap<>();
+        return new AxiomFormatter(EntityDictionary.EMPTY).format(axiom);
+    }
+
+    /**
+     * Converts an OWLAxiom into both symbolic and functional formats.
+     *
+     * @param axiom the OWLAxiom to format
+     * @return a map with keys "symbolic-format" and "OWL-format"
+     */
+    public Map<String, String> format(OWLAxiom axiom) {
+        Map<String, String> formats = new LinkedHashMap<>(4);
 
         // Custom symbolic format
-        formats.put("symbolic-format", toSymbolicString(axiom));
+        formats.put("symbolic-format", symbolic(axiom));
 
         // Functional (default OWL)
-        formats.put("OWL-format", axiom.toString());
+        formats.put("OWL-format", functional(axiom));
 
         return formats;
     }
 
     /**
-     * Returns a symbolic (human-readable) string for supported axiom types.
+     * Returns the symbolic (human-readable) string of an axiom.
      * Falls back to OWL functional syntax for unsupported types.
-     *
-     * @param axiom the axiom to convert
-     * @return symbolic string representation
      */
-    private static String toSymbolicString(OWLAxiom axiom) {
-        if (axiom instanceof OWLSubClassOfAxiom) {
-            return formatSubClassOfAxiom((OWLSubClassOfAxiom) axiom);
-        } else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
-            return formatObjectPropertyAssertionAxiom((OWLObjectPropertyAssertionAxiom) axiom);
-        } else if (axiom instanceof OWLClassAssertionAxiom) {
-            return formatClassAssertionAxiom((OWLClassAssertionAxiom) axiom);
-        }
-        // Extend for other axiom types as needed
-        return axiom.toString(); // Default to functional string
+    public String symbolic(OWLAxiom axiom) {
+        buf.setLength(0);
+        axiom.accept(symbolic);
+        return buf.toString();
     }
 
     /**
-     * Formats a subclass axiom (e.g., Cat ⊑ ∃hasPart.Tail).
+     * Returns the OWL functional syntax of an axiom.
      */
-    //uses the extractName method to extract the class names and the formatClassExpression method to format the superclass
-    private static String formatSubClassOfAxiom(OWLSubClassOfAxiom sca) {
-        String sub = extractName(sca.getSubClass());
-        OWLClassExpression superExpr = sca.getSuperClass();
-        String sup = formatClassExpression(superExpr);
-        return sub + " ⊑ " + sup;
+    public String functional(OWLAxiom axiom) {
+        buf.setLength(0);
+        axiom.accept(functional);
+        return buf.toString();
     }
 
     /**
-     * Formats a class assertion axiom (e.g., pizza1 : Pizza).
+     * Writes the symbolic string of an axiom to a sink.
      */
-    // extracts the individual and class name using extractName
-    private static String formatClassAssertionAxiom(OWLClassAssertionAxiom axiom) {
-        String individual = extractName(axiom.getIndividual());
-        String className = extractName(axiom.getClassExpression());
-        return individual + " : " + className;
+    public void appendSymbolic(OWLAxiom axiom, Appendable out) throws IOException {
+        buf.setLength(0);
+        axiom.accept(symbolic);
+        out.append(buf);
     }
 
-
     /**
-     * Formats an object property assertion (e.g., pizza1 hasTopping Mozzarella).
+     * Writes the OWL functional syntax of an axiom to a sink.
      */
-    // extracts the subject, property, and object using extractName
-    private static String formatObjectPropertyAssertionAxiom(OWLObjectPropertyAssertionAxiom axiom) {
-        String individual = extractName(axiom.getSubject());
-        String property = extractName(axiom.getProperty());
-        String object = extractName(axiom.getObject());
-        return individual + " " + property + " " + object;
+    public void appendFunctional(OWLAxiom axiom, Appendable out) throws IOException {
+        buf.setLength(0);
+        axiom.accept(functional);
+        out.append(buf);
     }
 
-
     /**
-     * Formats an OWL class expression into symbolic form.
-     * supports:
-     * - Existential quantification: ∃property.Class
-     *
-     * For all other expressions (e.g. named class), returns the short name or fallback label.
-     *
-     * @param expr the OWLClassExpression to format
-     * @return symbolic string representation of the class expression
+     * Appends the memoized rendering of a complex object, if there is one.
      */
-    // formats class expressions, such as existential quantification (∃property.class) or role inversions (property^-1)
-    private static String formatClassExpression(OWLClassExpression expr) {
-        // // Check for existential quantification: ∃R.C
-        if (expr instanceof OWLObjectSomeValuesFrom some) {
-            String prop = extractName(some.getProperty()); // e.g., hasTopping
-            String filler = extractName(some.getFiller()); // e.g., Mozzarella
-            return "∃" + prop + "." + filler;
-        }
-
-        // For named classes or unsupported expressions, return readable name or fallback
-        return extractName(expr);
+    private boolean appendMemoized(OWLObject object, Map<OWLObject, String> memo) {
+        String cached = memo.get(object);
+        if (cached == null) return false;
+        buf.append(cached);
+        return true;
     }
 
     /**
-     * Extracts the local name of a class expression.
-     * If the expression is anonymous, returns a placeholder.
+     * Remembers what was rendered for an object since the given buffer position.
      */
-    // extracting human-readable names from various OWL objects
-    private static String extractName(OWLClassExpression expr) {
-        if (!expr.isAnonymous()) return expr.asOWLClass().getIRI().getShortForm();
-        return "AnonymousClass";
+    private void memoize(OWLObject object, Map<OWLObject, String> memo, int start) {
+        if (memo.size() >= MEMO_LIMIT) memo.clear();
+        memo.put(object, buf.substring(start));
     }
 
     /**
-     * Extracts the local name of an object property expression.
-     * If anonymous, returns a placeholder.
+     * Symbolic form: short names, ⊑, ≡, ⊓ and ∃r.C.
      */
-    private static String extractName(OWLObjectPropertyExpression propExpr) {
-        if (!propExpr.isAnonymous()) return propExpr.asOWLObjectProperty().getIRI().getShortForm();
-        return "AnonymousProperty";
+    private class SymbolicVisitor implements OWLAxiomVisitor, OWLClassExpressionVisitor {
+
+        // uses the class expression rendering for both sides (e.g., Cat ⊑ ∃hasPart.Tail)
+        @Override
+        public void visit(OWLSubClassOfAxiom axiom) {
+            axiom.getSubClass().accept(this);
+            buf.append(" ⊑ ");
+            axiom.getSuperClass().accept(this);
+        }
+
+        @Override
+        public void visit(OWLEquivalentClassesAxiom axiom) {
+            List<OWLClassExpression> operands = axiom.getOperandsAsList();
+            for (int i = 0; i < operands.size(); i++) {
+                if (i > 0) buf.append(" ≡ ");
+                operands.get(i).accept(this);
+            }
+        }
+
+        // role inclusion, e.g. hasTopping ⊑ hasIngredient
+        @Override
+        public void visit(OWLSubObjectPropertyOfAxiom axiom) {
+            property(axiom.getSubProperty());
+            buf.append(" ⊑ ");
+            property(axiom.getSuperProperty());
+        }
+
+        // e.g. pizza1 : Pizza
+        @Override
+        public void visit(OWLClassAssertionAxiom axiom) {
+            individual(axiom.getIndividual());
+            buf.append(" : ");
+            axiom.getClassExpression().accept(this);
+        }
+
+        // e.g. pizza1 hasTopping Mozzarella
+        @Override
+        public void visit(OWLObjectPropertyAssertionAxiom axiom) {
+            individual(axiom.getSubject());
+            buf.append(' ');
+            property(axiom.getProperty());
+            buf.append(' ');
+            individual(axiom.getObject());
+        }
+
+        @Override
+        public void visit(OWLClass cls) {
+            buf.append(names.shortForm(cls));
+        }
+
+        @Override
+        public void visit(OWLObjectIntersectionOf ce) {
+            if (appendMemoized(ce, symbolicMemo)) return;
+            int start = buf.length();
+            List<OWLClassExpression> operands = ce.getOperandsAsList();
+            for (int i = 0; i < operands.size(); i++) {
+                if (i > 0) buf.append(" ⊓ ");
+                operands.get(i).accept(this);
+            }
+            memoize(ce, symbolicMemo, start);
+        }
+
+        // ∃R.C, with parentheses around a conjunctive filler
+        @Override
+        public void visit(OWLObjectSomeValuesFrom ce) {
+            if (appendMemoized(ce, symbolicMemo)) return;
+            int start = buf.length();
+            buf.append('∃');
+            property(ce.getProperty());
+            buf.append('.');
+            OWLClassExpression filler = ce.getFiller();
+            boolean parens = filler instanceof OWLObjectIntersectionOf;
+            if (parens) buf.append('(');
+            filler.accept(this);
+            if (parens) buf.append(')');
+            memoize(ce, symbolicMemo, start);
+        }
+
+        // Extend for other axiom types and expressions as needed: default to functional syntax
+        @Override
+        public void doDefault(Object object) {
+            if (object instanceof OWLAxiom axiom) axiom.accept((OWLAxiomVisitor) functional);
+            else if (object instanceof OWLClassExpression ce) ce.accept((OWLClassExpressionVisitor) functional);
+            else functional.doDefault(object);
+        }
+
+        private void property(OWLObjectPropertyExpression property) {
+            if (property.isAnonymous()) {
+                property(property.getInverseProperty());
+                buf.append("^-1"); // inverted role
+            } else {
+                buf.append(names.shortForm(property.asOWLObjectProperty()));
+            }
+        }
+
+        private void individual(OWLIndividual individual) {
+            if (individual instanceof OWLNamedIndividual namedInd) {
+                buf.append(names.shortForm(namedInd));
+            } else {
+                buf.append("AnonymousIndividual");  // If the individual is anonymous, provide a fallback name
+            }
+        }
     }
 
     /**
-     * Extracts the local name of an OWL individual.
-     * If anonymous, returns a placeholder.
+     * Functional syntax, written the way the OWL API renders it.
      */
-    private static String extractName(OWLIndividual individual) {
-        if (individual instanceof OWLNamedIndividual namedInd) {
-            return namedInd.getIRI().getShortForm();
+    private class FunctionalVisitor implements OWLAxiomVisitor, OWLClassExpressionVisitor,
+            OWLPropertyExpressionVisitor, OWLIndividualVisitor {
+
+        @Override
+        public void visit(OWLSubClassOfAxiom axiom) {
+            if (axiom.isAnnotated()) {
+                doDefault(axiom);
+                return;
+            }
+            buf.append("SubClassOf(");
+            axiom.getSubClass().accept(this);
+            buf.append(' ');
+            axiom.getSuperClass().accept(this);
+            buf.append(')');
+        }
+
+        @Override
+        public void visit(OWLSubObjectPropertyOfAxiom axiom) {
+            if (axiom.isAnnotated()) {
+                doDefault(axiom);
+                return;
+            }
+            buf.append("SubObjectPropertyOf(");
+            axiom.getSubProperty().accept(this);
+            buf.append(' ');
+            axiom.getSuperProperty().accept(this);
+            buf.append(')');
+        }
+
+        @Override
+        public void visit(OWLClassAssertionAxiom axiom) {
+            if (axiom.isAnnotated()) {
+                doDefault(axiom);
+                return;
+            }
+            buf.append("ClassAssertion(");
+            axiom.getClassExpression().accept(this);
+            buf.append(' ');
+            axiom.getIndividual().accept(this);
+            buf.append(')');
+        }
+
+        @Override
+        public void visit(OWLObjectPropertyAssertionAxiom axiom) {
+            if (axiom.isAnnotated()) {
+                doDefault(axiom);
+                return;
+            }
+            buf.append("ObjectPropertyAssertion(");
+            axiom.getProperty().accept(this);
+            buf.append(' ');
+            axiom.getSubject().accept(this);
+            buf.append(' ');
+            axiom.getObject().accept(this);
+            buf.append(')');
+        }
+
+        @Override
+        public void visit(OWLObjectIntersectionOf ce) {
+            if (appendMemoized(ce, functionalMemo)) return;
+            int start = buf.length();
+            buf.append("ObjectIntersectionOf(");
+            List<OWLClassExpression> operands = ce.getOperandsAsList();
+            for (int i = 0; i < operands.size(); i++) {
+                if (i > 0) buf.append(' ');
+                operands.get(i).accept(this);
+            }
+            buf.append(')');
+            memoize(ce, functionalMemo, start);
+        }
+
+        @Override
+        public void visit(OWLObjectSomeValuesFrom ce) {
+            if (appendMemoized(ce, functionalMemo)) return;
+            int start = buf.length();
+            buf.append("ObjectSomeValuesFrom(");
+            ce.getProperty().accept(this);
+            buf.append(' ');
+            ce.getFiller().accept(this);
+            buf.append(')');
+            memoize(ce, functionalMemo, start);
+        }
+
+        @Override
+        public void visit(OWLObjectInverseOf property) {
+            buf.append("ObjectInverseOf(");
+            property.getInverse().accept(this);
+            buf.append(')');
+        }
+
+        @Override
+        public void visit(OWLClass cls) {
+            entity(cls);
+        }
+
+        @Override
+        public void visit(OWLObjectProperty property) {
+            entity(property);
+        }
+
+        @Override
+        public void visit(OWLNamedIndividual individual) {
+            entity(individual);
+        }
+
+        // entities and everything else: the OWL API rendering, remembered per object
+        @Override
+        public void doDefault(Object object) {
+            entity((OWLObject) object);
+        }
+
+        private void entity(OWLObject object) {
+            String cached = functionalMemo.get(object);
+            if (cached == null) {
+                cached = object.toString();
+                // axioms are rarely rendered twice, only remember their parts
+                if (!(object instanceof OWLAxiom)) {
+                    if (functionalMemo.size() >= MEMO_LIMIT) functionalMemo.clear();
+                    functionalMemo.put(object, cached);
+                }
+            }
+            buf.append(cached);
         }
-        return "AnonymousIndividual";  // If the individual is anonymous, provide a fallback name
     }
-}
\ No newline at end of file
+}
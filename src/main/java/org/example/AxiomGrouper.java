@@ -4,6 +4,8 @@ import org.semanticweb.owlapi.model.*;
 
 import java.util.*;
 import java.util.logging.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Groups axioms by their subclass (LHS) to help create coherent examples for each concept.
@@ -16,34 +18,121 @@ public class AxiomGrouper {
      * Groups OWL axioms by their subclass (left-hand side of a SubClassOf axiom).
      * Only groups SubClassOf axioms that are in EL form.
      *
+     * Groups are sorted by subclass name and the axioms of a group are sorted, so repeated
+     * runs over the same ontology produce the same groups in the same order.
+     *
      * @param ontology the loaded OWLOntology
      * @return a map from subclass name to a list of its related axioms
+     * @deprecated classes that share a short form are merged into one group; use
+     *             {@link #inSubjectOrder(OWLOntology)}
      */
     // group axioms by their subclass (LHS of ⊑) so that we can form coherent batches per concept
+    @Deprecated
     public static Map<String, List<OWLAxiom>> groupBySubject(OWLOntology ontology) {
-        Map<String, List<OWLAxiom>> groups = new HashMap<>();
+        return groupBySubject(ontology, EntityDictionary.of(ontology));
+    }
 
-        // loop through all axioms
-        for (OWLAxiom ax : ontology.getAxioms()) {
-            // filters for those of type OWLSubClassOfAxiom
-            if (ax instanceof OWLSubClassOfAxiom) {
-                OWLSubClassOfAxiom subAxiom = (OWLSubClassOfAxiom) ax;
+    /**
+     * Groups OWL axioms by subclass name, using the ontology's symbol table.
+     * Classes that share a short form end up in the same group.
+     *
+     * @param ontology the loaded OWLOntology
+     * @param names    the symbol table of the ontology
+     * @return a map from subclass name to a list of its related axioms
+     * @deprecated classes that share a short form are merged into one group; use
+     *             {@link #groupBySubjectId} and {@link #inSubjectOrder(List[], EntityDictionary)}
+     */
+    @Deprecated
+    public static Map<String, List<OWLAxiom>> groupBySubject(OWLOntology ontology, EntityDictionary names) {
+        Map<String, List<OWLAxiom>> groups = new TreeMap<>();
+        List<OWLAxiom>[] byId = groupBySubjectId(ontology, names);
+        for (int id = 0; id < byId.length; id++) {
+            if (byId[id] == null) continue;
+            // uses the class name (like MargheritaPizza) as a key
+            List<OWLAxiom> group = groups.putIfAbsent(names.shortForm(id), byId[id]);
+            if (group != null) {
+                group.addAll(byId[id]);
+                Collections.sort(group);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Groups OWL axioms by the dictionary ID of their subclass.
+     * Slot i holds the sorted SubClassOf axioms whose named subclass has ID i, or null if there are none.
+     *
+     * @param ontology the loaded OWLOntology
+     * @param names    the symbol table of the ontology
+     * @return the groups, indexed by subclass ID
+     * @throws IllegalArgumentException if a subclass is not in the dictionary, e.g. one built from another ontology
+     */
+    @SuppressWarnings("unchecked")
+    public static List<OWLAxiom>[] groupBySubjectId(OWLOntology ontology, EntityDictionary names) {
+        List<OWLAxiom>[] groups = (List<OWLAxiom>[]) new List<?>[names.size()];
+        String subject = ontology.getOntologyID().getOntologyIRI().map(IRI::toString).orElse("");
+        int count = 0;
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.GROUPING, subject, "")) {
+            // loop through the SubClassOf axioms
+            ontology.axioms(AxiomType.SUBCLASS_OF).forEach(subAxiom -> {
                 OWLClassExpression lhs = subAxiom.getSubClass();
 
                 // checks that the subclass (lhs) is a named class, not an anonymous one like intersections or unions
                 if (!lhs.isAnonymous()) {
-                    // uses the class name (like MargheritaPizza) as a key
-                    String className = lhs.asOWLClass().getIRI().getShortForm();
-                    groups.computeIfAbsent(className, k -> new ArrayList<>()).add(ax);
+                    int id = names.id(lhs.asOWLClass());
+                    if (id < 0) {
+                        throw new IllegalArgumentException("Class " + lhs + " is not in the dictionary; build it from the same ontology");
+                    }
+                    if (groups[id] == null) groups[id] = new ArrayList<>();
+                    groups[id].add(subAxiom);
                 } else {
                     // If the subclass is anonymous, log the case and skip or handle differently
                     logger.warning("Anonymous class detected in SubClassOfAxiom: " + lhs);
                 }
+            });
+
+            // axioms have no stable order, so sort each group
+            for (List<OWLAxiom> group : groups) {
+                if (group != null) {
+                    Collections.sort(group);
+                    count++;
+                }
             }
+            span.items(count);
         }
 
         // Log the size of the resulting groups
-        logger.info("Axioms grouped by subclass. Total groups: " + groups.size());
+        logger.info("Axioms grouped by subclass. Total groups: " + count);
         return groups;
     }
-}
\ No newline at end of file
+
+    /**
+     * Groups the axioms of an ontology by subclass, in subclass name order; the groups every
+     * generator numbers its test cases by.
+     *
+     * @param ontology the loaded OWLOntology
+     * @return the non-empty groups
+     * @see #inSubjectOrder(List[], EntityDictionary)
+     */
+    public static List<List<OWLAxiom>> inSubjectOrder(OWLOntology ontology) {
+        EntityDictionary names = EntityDictionary.of(ontology);
+        return inSubjectOrder(groupBySubjectId(ontology, names), names);
+    }
+
+    /**
+     * Lists the groups of {@link #groupBySubjectId} in subclass name order, the order of
+     * {@link #groupBySubject}; classes that share a short form stay separate groups, in ID order.
+     *
+     * @param groups the groups, indexed by subclass ID
+     * @param names  the dictionary the groups were built with
+     * @return the non-empty groups
+     */
+    public static List<List<OWLAxiom>> inSubjectOrder(List<OWLAxiom>[] groups, EntityDictionary names) {
+        return IntStream.range(0, groups.length)
+                .filter(id -> groups[id] != null)
+                .boxed()
+                .sorted(Comparator.comparing((Integer id) -> names.shortForm(id)).thenComparing(Comparator.naturalOrder()))
+                .map(id -> groups[id])
+                .collect(Collectors.toList());
+    }
+}
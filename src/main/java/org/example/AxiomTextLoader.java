@@ -0,0 +1,115 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * AxiomTextLoader reads line-oriented EL axioms, such as `data/pizza_el_axioms.txt`, in parallel.
+ *
+ * Every line is one axiom in the symbolic format written by {@link AxiomFormatter}:
+ * `A ⊑ B`, `A ⊑ ∃r.B`, nested `A ⊑ ∃r.∃s.B`, or `A ≡ B`. Names are local names in the given
+ * namespace; `Thing` and `Nothing` are owl:Thing and owl:Nothing. Blank lines and lines starting
+ * with `#` are skipped. Lines are independent, so they are split across the common fork-join pool
+ * (UTF-8 line streams split by byte ranges) and parsed without any shared state but the data factory.
+ */
+public final class AxiomTextLoader {
+
+    private static final Logger logger = Logger.getLogger(AxiomTextLoader.class.getName());
+
+    private AxiomTextLoader() {
+    }
+
+    /**
+     * Parses the axioms of a file and creates an ontology with them and the declarations of their
+     * signature.
+     *
+     * @param file        the axiom file
+     * @param ontologyIRI IRI of the new ontology; entity names are resolved against {@code ontologyIRI#}
+     * @param manager     manager the ontology is created in
+     * @return the ontology
+     * @throws IOException                  if the file cannot be read
+     * @throws OWLOntologyCreationException if the ontology cannot be created
+     * @throws IllegalArgumentException     if a line is not an axiom
+     */
+    public static OWLOntology load(Path file, IRI ontologyIRI, OWLOntologyManager manager)
+            throws IOException, OWLOntologyCreationException {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        List<OWLAxiom> axioms = parse(file, ontologyIRI + "#", df);
+        Set<OWLAxiom> all = new LinkedHashSet<>(axioms);
+        axioms.stream()
+                .flatMap(OWLAxiom::signature)
+                .filter(e -> !e.isBuiltIn())
+                .distinct()
+                .forEach(e -> all.add(df.getOWLDeclarationAxiom(e)));
+        OWLOntology ontology = manager.createOntology(all.stream(), ontologyIRI);
+        logger.info("Loaded " + axioms.size() + " axioms from " + file);
+        return ontology;
+    }
+
+    /**
+     * Parses the axioms of a file, in file order.
+     *
+     * @param file      the axiom file
+     * @param namespace prefix of every entity IRI
+     * @param df        data factory creating the axioms
+     * @return the axioms
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is not an axiom
+     */
+    public static List<OWLAxiom> parse(Path file, String namespace, OWLDataFactory df) throws IOException {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            return lines.parallel()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(line -> parseAxiom(line, namespace, df))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses one axiom line.
+     *
+     * @throws IllegalArgumentException if the line is not an axiom
+     */
+    static OWLAxiom parseAxiom(String line, String namespace, OWLDataFactory df) {
+        int sub = line.indexOf(" ⊑ ");
+        int eq = line.indexOf(" ≡ ");
+        int at = sub >= 0 ? sub : eq;
+        if (at <= 0) throw new IllegalArgumentException("Not an axiom: " + line);
+        OWLClassExpression left = parseClass(line.substring(0, at).strip(), namespace, df, line);
+        OWLClassExpression right = parseClass(line.substring(at + 3).strip(), namespace, df, line);
+        return sub >= 0 ? df.getOWLSubClassOfAxiom(left, right) : df.getOWLEquivalentClassesAxiom(left, right);
+    }
+
+    private static OWLClassExpression parseClass(String text, String namespace, OWLDataFactory df, String line) {
+        if (text.startsWith("∃")) {
+            int dot = text.indexOf('.');
+            if (dot < 2 || dot == text.length() - 1) throw new IllegalArgumentException("Not an axiom: " + line);
+            OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(namespace, name(text.substring(1, dot), line)));
+            return df.getOWLObjectSomeValuesFrom(r, parseClass(text.substring(dot + 1), namespace, df, line));
+        }
+        return switch (text) {
+            case "Thing" -> df.getOWLThing();
+            case "Nothing" -> df.getOWLNothing();
+            default -> df.getOWLClass(IRI.create(namespace, name(text, line)));
+        };
+    }
+
+    private static String name(String text, String line) {
+        if (text.isEmpty() || text.chars().anyMatch(ch -> Character.isWhitespace(ch) || "()⊑≡∃⊓".indexOf(ch) >= 0)) {
+            throw new IllegalArgumentException("Not an axiom: " + line);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * BenchmarkReader streams test cases out of a benchmark file one entry at a time.
+ * It accepts both layouts written by {@link BenchmarkWriter}: a JSON array (pretty or compact)
+ * and newline-delimited JSON objects.
+ */
+public class BenchmarkReader implements Iterator<JsonObject>, Closeable {
+
+    private final JsonReader json;
+    private final boolean array;
+
+    /**
+     * Opens a benchmark file (UTF-8).
+     *
+     * @param path the input file
+     * @throws IOException if the file cannot be opened or is not a benchmark file
+     */
+    public BenchmarkReader(String path) throws IOException {
+        this(new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Wraps an existing reader; it is closed together with this reader.
+     */
+    public BenchmarkReader(Reader in) throws IOException {
+        this.json = new JsonReader(in);
+        // lenient mode accepts several top-level objects (NDJSON)
+        json.setLenient(true);
+        this.array = json.peek() == JsonToken.BEGIN_ARRAY;
+        if (array) json.beginArray();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return array ? json.hasNext() : json.peek() != JsonToken.END_DOCUMENT;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public JsonObject next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        JsonElement entry = JsonParser.parseReader(json);
+        return entry.getAsJsonObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+}
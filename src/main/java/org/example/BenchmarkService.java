@@ -0,0 +1,378 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * BenchmarkService keeps the ontology and classified reasoners of a benchmark run in memory and
+ * serves the pipeline steps over local HTTP, so callers pay no JVM start, ontology load or
+ * classification per request.
+ *
+ * Endpoints (responses are NDJSON, one entry per line, streamed as they are built):
+ * - GET  /generate?profile=EL|ELH&amp;offset=0&amp;limit=N: test cases as written by
+ *   {@link BenchmarkRunner} and {@link ELHExtender}, with the same IDs
+ * - POST /entailment with {"axioms": ["A ⊑ ∃r.B", ...]}: {"axiom", "entailed"} per axiom,
+ *   or {"axiom", "error": "TIMEOUT"|"ERROR"} if the reasoner gave no answer;
+ *   names resolved against the ontology IRI (see {@link AxiomTextLoader})
+ * - POST /extend-elh with EL test cases (JSON array or NDJSON): the ELH cases built from their
+ *   axioms by {@link ELHExtender#extend}, names resolved like /entailment
+ * - GET  /health: a single JSON object
+ * - GET  /metrics?format=prometheus|json: the {@link Metrics#global()} registry, e.g. entailment
+ *   checks per outcome and latency histograms per pipeline stage
+ *
+ * Requests run on a fixed pool of worker threads, each with its own {@link ReasoningValidator}
+ * from a {@link ValidatorPool}; {@link #warm()} classifies all of them up front. New answers are
+ * appended to the entailment cache file after each request, so they survive a killed service.
+ * State that grows with the requests served is bounded: a session remembers at most
+ * -Dbenchmark.session.answers answers, and every ELH request gets its own {@link ELHExtender},
+ * so super roles of arbitrary posted roles do not pile up in one delta ontology.
+ */
+public class BenchmarkService implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(BenchmarkService.class.getName());
+    private static final Gson gson = new Gson();
+
+    private final OWLOntology ontology;
+    private final OWLDataFactory df;
+    private final String namespace;
+    private final List<List<OWLAxiom>> selected;
+    private final int threads;
+    private final ExecutorService workers;
+    private final ValidatorPool validators;
+    private final EntailmentCache cache;
+    private final ThreadLocal<AxiomFormatter> formatters;
+    private HttpServer server;
+
+    /**
+     * @param ontology        the ontology, loaded once
+     * @param reasonerFactory reasoner used for the answers
+     * @param cache           persistent entailment answers shared by all workers, or null
+     * @param threads         number of worker threads, each with its own reasoner
+     */
+    public BenchmarkService(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache, int threads) {
+        this.ontology = ontology;
+        this.df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        this.namespace = ontology.getOntologyID().getOntologyIRI().map(iri -> iri + "#").orElse("");
+        // the groups and IDs of BenchmarkRunner
+        EntityDictionary names = EntityDictionary.of(ontology);
+        this.selected = AxiomGrouper.inSubjectOrder(AxiomGrouper.groupBySubjectId(ontology, names), names).stream()
+                .filter(axioms -> QueryGenerator.getQueryAxiom(axioms) != null)
+                .collect(Collectors.toList());
+        this.formatters = ThreadLocal.withInitial(() -> new AxiomFormatter(names));
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.validators = new ValidatorPool(ontology, reasonerFactory, cache);
+        this.cache = cache;
+    }
+
+    /**
+     * Starts serving; port 0 picks a free port.
+     *
+     * @param address the address to bind
+     * @return the port the service listens on
+     * @throws IOException if the address cannot be bound
+     */
+    public int start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/health", exchange -> handle(exchange, "GET", this::health));
+        server.createContext("/generate", exchange -> handle(exchange, "GET", this::generate));
+        server.createContext("/entailment", exchange -> handle(exchange, "POST", this::entailment));
+        server.createContext("/extend-elh", exchange -> handle(exchange, "POST", this::extendELH));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+        server.setExecutor(workers);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Classifies the ontology once on every worker thread, so no request waits for it.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void warm() throws InterruptedException {
+        // the barrier keeps every task on its own thread
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                barrier.await();
+                return validators.get().index();
+            });
+        }
+        for (Future<Object> done : workers.invokeAll(tasks)) {
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Cannot classify the ontology", e.getCause());
+            }
+        }
+        logger.info("Classified the ontology on " + validators.size() + " workers");
+    }
+
+    // parses a request and returns the writer of its response body
+    private interface Handler {
+        Body prepare(HttpExchange exchange) throws IOException;
+    }
+
+    private interface Body {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                error(exchange, 405, method + " only");
+                return;
+            }
+            // the request is parsed before the headers are sent, so bad input still gets a status code
+            Body body;
+            try {
+                body = handler.prepare(exchange);
+            } catch (IllegalArgumentException | IllegalStateException | JsonParseException e) {
+                error(exchange, 400, String.valueOf(e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                logger.warning("Request " + exchange.getRequestURI() + " failed: " + e);
+                error(exchange, 500, String.valueOf(e.getMessage()));
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType(exchange) + "; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try {
+                body.write(exchange.getResponseBody());
+            } catch (RuntimeException e) {
+                // too late for a status code, the stream just ends
+                logger.warning("Request " + exchange.getRequestURI() + " failed while streaming: " + e);
+            }
+        } finally {
+            // before the response is completed, so a caller sees its answers on disk
+            flushCache();
+            exchange.close();
+        }
+    }
+
+    // appends the answers of the request; a no-op if there are none
+    private void flushCache() {
+        if (cache == null) return;
+        try {
+            cache.flush();
+        } catch (IOException e) {
+            logger.warning("Cannot save entailment cache: " + e.getMessage());
+        }
+    }
+
+    private static String contentType(HttpExchange exchange) {
+        return switch (exchange.getRequestURI().getPath()) {
+            case "/health" -> "application/json";
+            case "/metrics" -> "json".equals(query(exchange).get("format")) ? "application/json" : "text/plain; version=0.0.4";
+            default -> "application/x-ndjson";
+        };
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = gson.toJson(Map.of("error", message)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private Body health(HttpExchange exchange) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "ok");
+        status.put("ontology", namespace);
+        status.put("cases", selected.size());
+        status.put("workers", validators.size());
+        return out -> out.write(gson.toJson(status).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Body metrics(HttpExchange exchange) {
+        String format = query(exchange).getOrDefault("format", "prometheus");
+        String text = switch (format) {
+            case "prometheus" -> Metrics.global().prometheus();
+            case "json" -> Metrics.global().json();
+            default -> throw new IllegalArgumentException("Unknown metrics format: " + format);
+        };
+        return out -> out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Body generate(HttpExchange exchange) {
+        Map<String, String> params = query(exchange);
+        String profile = params.getOrDefault("profile", "EL").toUpperCase(Locale.ROOT);
+        if (!profile.equals("EL") && !profile.equals("ELH")) throw new IllegalArgumentException("Unknown profile: " + profile);
+        int offset = intParam(params, "offset", 0);
+        int limit = intParam(params, "limit", selected.size());
+        ReasoningValidator validator = validators.get();
+        AxiomFormatter formatter = formatters.get();
+        ELHExtender extender = profile.equals("ELH") ? extender() : null;
+        return out -> {
+            try (BenchmarkWriter writer = ndjson(out)) {
+                for (int i = offset; i < Math.min(selected.size(), (long) offset + limit); i++) {
+                    String id = "test_" + (i + 1);
+                    if (profile.equals("EL")) {
+                        writer.write(BenchmarkRunner.createTestCase(id, selected.get(i), formatter, validator, null));
+                    } else {
+                        ELHExtender.Extension extension = extender.extend(selected.get(i));
+                        if (extension == null) continue;
+                        writer.write(ELHExtender.createTestCase(id, extension, formatter, validator));
+                    }
+                    writer.flush();
+                }
+            }
+        };
+    }
+
+    private Body entailment(HttpExchange exchange) {
+        JsonElement body = JsonParser.parseReader(reader(exchange));
+        if (!body.isJsonObject() || !body.getAsJsonObject().has("axioms")) {
+            throw new IllegalArgumentException("Expected {\"axioms\": [...]}");
+        }
+        JsonArray lines = body.getAsJsonObject().getAsJsonArray("axioms");
+        List<OWLAxiom> axioms = new ArrayList<>();
+        for (JsonElement line : lines) axioms.add(AxiomTextLoader.parseAxiom(line.getAsString().strip(), namespace, df));
+
+        // one batch, so large requests are classified together
+        Map<OWLAxiom, ReasonerPool.Outcome> answers = validators.get().check(axioms);
+        return out -> {
+            try (BenchmarkWriter writer = ndjson(out)) {
+                for (int i = 0; i < axioms.size(); i++) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("axiom", lines.get(i).getAsString());
+                    ReasonerPool.Outcome outcome = answers.get(axioms.get(i));
+                    // a timeout or error is reported as such, not as "not entailed"
+                    if (outcome.known()) entry.put("entailed", outcome == ReasonerPool.Outcome.YES);
+                    else entry.put("error", outcome.name());
+                    writer.write(entry);
+                }
+            }
+        };
+    }
+
+    // entries are read while the response is written, so a bad entry ends the stream early
+    private Body extendELH(HttpExchange exchange) throws IOException {
+        BenchmarkReader reader = new BenchmarkReader(reader(exchange));
+        ReasoningValidator validator = validators.get();
+        AxiomFormatter formatter = formatters.get();
+        ELHExtender extender = extender();
+        return out -> {
+            try (reader; BenchmarkWriter writer = ndjson(out)) {
+                while (reader.hasNext()) {
+                    JsonObject entry = reader.next();
+                    if (!entry.has("axioms")) throw new IllegalArgumentException("Test case without axioms: " + entry);
+                    List<OWLAxiom> group = new ArrayList<>();
+                    for (JsonElement axiom : entry.getAsJsonArray("axioms")) {
+                        String symbolic = axiom.getAsJsonObject().get("symbolic-format").getAsString();
+                        group.add(AxiomTextLoader.parseAxiom(symbolic.strip(), namespace, df));
+                    }
+                    ELHExtender.Extension extension = extender.extend(group);
+                    // without a query over a named role the case stays EL
+                    if (extension == null) writer.write(entry);
+                    else writer.write(ELHExtender.createTestCase(entry.get("id").getAsString(), extension, formatter, validator));
+                    writer.flush();
+                }
+            }
+        };
+    }
+
+    // fresh super roles of one request, dropped with it
+    private ELHExtender extender() {
+        try {
+            return new ELHExtender(ontology);
+        } catch (OWLOntologyCreationException e) {
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    private static BenchmarkWriter ndjson(OutputStream out) throws IOException {
+        return new BenchmarkWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), BenchmarkWriter.Format.NDJSON);
+    }
+
+    private static Reader reader(HttpExchange exchange) {
+        return new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Stops serving and disposes the reasoners.
+     */
+    @Override
+    public void close() {
+        if (server != null) server.stop(0);
+        workers.shutdown();
+        validators.close();
+    }
+
+    /**
+     * Starts the service on -Dbenchmark.port (default 8085) with -Dbenchmark.parallelism workers
+     * (default: up to 4), loading the ontology like {@link BenchmarkRunner}. Runs until stopped.
+     *
+     * @param args Command-line arguments (unused)
+     * @throws Exception if the ontology cannot be loaded or the port cannot be bound
+     */
+    public static void main(String[] args) throws Exception {
+        OWLOntology ontology = BenchmarkRunner.loadOntology(OWLManager.createConcurrentOWLOntologyManager());
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"));
+        int threads = Integer.getInteger("benchmark.parallelism", Math.min(4, Runtime.getRuntime().availableProcessors()));
+        String cachePath = System.getProperty("benchmark.cache", ".cache/entailments.bin");
+        EntailmentCache cache = cachePath.isBlank() ? null
+                : new EntailmentCache(Path.of(cachePath), Integer.getInteger("benchmark.cache.size", 1_000_000));
+
+        BenchmarkService service = new BenchmarkService(ontology, factory, cache, threads);
+        service.warm();
+        int port = service.start(new InetSocketAddress("localhost", Integer.getInteger("benchmark.port", 8085)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.close();
+            if (cache != null) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    System.err.println("Cannot save entailment cache: " + e.getMessage());
+                }
+            }
+        }));
+        System.out.println("Benchmark service listening on http://localhost:" + port);
+    }
+}
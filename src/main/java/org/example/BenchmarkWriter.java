@@ -0,0 +1,141 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * BenchmarkWriter streams benchmark test cases to a JSON file one entry at a time,
+ * so the full dataset never has to be held in memory.
+ *
+ * Supported layouts:
+ * - PRETTY: a pretty-printed JSON array (the historical benchmark_output.json layout)
+ * - COMPACT: a JSON array without whitespace
+ * - NDJSON: one JSON object per line
+ */
+public class BenchmarkWriter implements Closeable {
+
+    /**
+     * Output layout of a benchmark file.
+     */
+    public enum Format {
+        PRETTY, COMPACT, NDJSON;
+
+        /**
+         * Parses a format name (case-insensitive), e.g. from -Dbenchmark.format=ndjson.
+         */
+        public static Format parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final Gson gson;
+    private final JsonWriter json;   // null for NDJSON
+    private long count = 0;
+
+    /**
+     * Opens a writer on the given file (UTF-8).
+     *
+     * @param path   the output file
+     * @param format the output layout
+     * @throws IOException if the file cannot be created
+     */
+    public BenchmarkWriter(String path, Format format) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8)), format);
+    }
+
+    /**
+     * Wraps an existing writer; it is closed together with this writer.
+     */
+    public BenchmarkWriter(Writer out, Format format) throws IOException {
+        this.out = out;
+        this.format = format;
+        GsonBuilder builder = new GsonBuilder();
+        if (format == Format.PRETTY) builder.setPrettyPrinting();
+        this.gson = builder.create();
+        if (format == Format.NDJSON) {
+            this.json = null;
+        } else {
+            this.json = gson.newJsonWriter(out);
+            json.beginArray();
+        }
+    }
+
+    /**
+     * Writes one test case (a map as built by {@link BenchmarkRunner}).
+     */
+    public void write(Object entry) throws IOException {
+        String id = entry instanceof Map<?, ?> map && map.get("id") instanceof String s ? s : "";
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.SERIALIZATION, id, "")) {
+            span.items(1);
+            if (json != null) {
+                gson.toJson(entry, entry.getClass(), json);
+            } else {
+                gson.toJson(entry, out);
+                out.write('\n');
+            }
+        }
+        count++;
+    }
+
+    /**
+     * Writes one test case that is already a JSON tree (e.g. read by {@link BenchmarkReader}).
+     */
+    public void write(JsonElement entry) throws IOException {
+        String id = entry.isJsonObject() && entry.getAsJsonObject().get("id") instanceof JsonPrimitive p ? p.getAsString() : "";
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.SERIALIZATION, id, "")) {
+            span.items(1);
+            if (json != null) {
+                gson.toJson(entry, json);
+            } else {
+                gson.toJson(entry, out);
+                out.write('\n');
+            }
+        }
+        count++;
+    }
+
+    /**
+     * Returns the number of entries written so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the output layout.
+     */
+    public Format format() {
+        return format;
+    }
+
+    /**
+     * Flushes buffered entries to the underlying file.
+     */
+    public void flush() throws IOException {
+        if (json != null) json.flush();
+        out.flush();
+    }
+
+    /**
+     * Terminates the JSON array (if any) and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.endArray();
+            json.close();
+        } else {
+            out.close();
+        }
+    }
+}
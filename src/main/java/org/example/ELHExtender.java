@@ -1,79 +1,284 @@
 package org.example;
 
 import com.google.gson.*;
-import java.io.FileReader;
-import java.io.FileWriter;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
- * ELHExtender reads a JSON file of Description Logic (DL) test cases in the EL profile,
- * identifies existential roles (∃R.C), and adds role hierarchy axioms (R ⊑ superOfR),
- * effectively extending the test case into ELH profile.
+ * ELHExtender extends EL test cases into the ELH profile by adding role hierarchy axioms
+ * (R ⊑ superOfR) for the existential roles (∃R.C) of each case.
+ *
+ * The extension works on OWL objects: every superOfR is a fresh object property, and the role
+ * inclusions are collected in an in-memory delta ontology. The query of a case is re-derived
+ * over the super role (A ⊑ ∃r.B becomes A ⊑ ∃superOfR.B), so answering it needs the role
+ * hierarchy. Since superOfR occurs in no other axiom, A ⊑ ∃superOfR.B follows from
+ * base + delta exactly when A ⊑ ∃r.B follows from the base ontology, so the expected answer is
+ * validated against the base ontology without classifying the extended ontology. With an
+ * entailment cache, the reduced questions are those of the EL cases and are answered from it;
+ * without one, the base ontology is classified again.
  *
- * The resulting ELH-extended benchmark is written to a new JSON file.
+ * The older text-based path ({@link #extendToELH(String, String)}) streams an existing EL
+ * benchmark file and adds the role axioms to each entry's symbolic strings.
  */
 public class ELHExtender {
 
+    /**
+     * An ELH test case: the group axioms plus role inclusions, the query over the super role,
+     * and the base-ontology axiom it reduces to.
+     */
+    public record Extension(List<OWLAxiom> axioms, OWLSubClassOfAxiom query, OWLSubClassOfAxiom reduced) {
+    }
+
+    private final OWLOntology base;
+    private final OWLDataFactory df;
+    private final OWLOntology delta;
+    private final Map<OWLObjectProperty, OWLObjectProperty> superRoles = new HashMap<>();
+
+    /**
+     * Creates an extender with an empty delta ontology.
+     *
+     * @param base the ontology the cases come from; super roles get names that are not in its
+     *             signature
+     * @throws OWLOntologyCreationException if the delta ontology cannot be created
+     */
+    public ELHExtender(OWLOntology base) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        this.base = base;
+        this.df = manager.getOWLDataFactory();
+        this.delta = manager.createOntology();
+    }
+
+    /**
+     * Returns the fresh super role of a role (superOfHasTopping for hasTopping, in the same
+     * namespace), adding r ⊑ superOfR to the delta on first use. If the name is taken in the
+     * base ontology or by another super role, a number is appended (superOfHasTopping2, ...).
+     */
+    public OWLObjectProperty superRole(OWLObjectProperty role) {
+        return superRoles.computeIfAbsent(role, r -> {
+            String namespace = r.getIRI().getNamespace();
+            String name = "superOf" + capitalize(r.getIRI().getShortForm());
+            IRI iri = IRI.create(namespace, name);
+            for (int n = 2; isTaken(iri); n++) iri = IRI.create(namespace, name + n);
+            OWLObjectProperty sup = df.getOWLObjectProperty(iri);
+            delta.getOWLOntologyManager().addAxiom(delta, df.getOWLSubObjectPropertyOfAxiom(r, sup));
+            return sup;
+        });
+    }
+
+    // an IRI used by an entity of any type in the base or the delta is not fresh
+    private boolean isTaken(IRI iri) {
+        return base.containsEntityInSignature(iri, Imports.INCLUDED) || delta.containsEntityInSignature(iri);
+    }
+
+    /**
+     * The role inclusions added so far.
+     */
+    public OWLOntology delta() {
+        return delta;
+    }
+
+    /**
+     * Extends one axiom group: appends r ⊑ superOfR for every existential role of the group and
+     * re-derives the group's query (see {@link QueryGenerator#getQueryAxiom(List)}) over the
+     * super role.
+     *
+     * @param group the axioms of an EL test case
+     * @return the extension, or null if the group has no query over a named role
+     */
+    public Extension extend(List<OWLAxiom> group) {
+        OWLAxiom target = QueryGenerator.getQueryAxiom(group);
+        if (target == null) return null;
+        OWLSubClassOfAxiom reduced = (OWLSubClassOfAxiom) target;
+        OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) reduced.getSuperClass();
+        if (some.getProperty().isAnonymous()) return null;
+
+        // roles of every existential in the group, in order of appearance
+        Set<OWLObjectProperty> roles = new LinkedHashSet<>();
+        for (OWLAxiom axiom : group) {
+            axiom.nestedClassExpressions()
+                    .filter(ce -> ce instanceof OWLObjectSomeValuesFrom)
+                    .map(ce -> ((OWLObjectSomeValuesFrom) ce).getProperty())
+                    .filter(p -> !p.isAnonymous())
+                    .forEach(p -> roles.add(p.asOWLObjectProperty()));
+        }
+        List<OWLAxiom> axioms = new ArrayList<>(group);
+        for (OWLObjectProperty role : roles) {
+            axioms.add(df.getOWLSubObjectPropertyOfAxiom(role, superRole(role)));
+        }
+
+        OWLSubClassOfAxiom query = df.getOWLSubClassOfAxiom(reduced.getSubClass(),
+                df.getOWLObjectSomeValuesFrom(superRole(some.getProperty().asOWLObjectProperty()), some.getFiller()));
+        return new Extension(axioms, query, reduced);
+    }
+
+    /**
+     * Generates one ELH test case per axiom group with a query, with the same IDs as the EL cases
+     * of {@link BenchmarkRunner#generate}, and hands each one to the sink.
+     *
+     * @param ontology        the base ontology
+     * @param names           the symbol table of the ontology
+     * @param groups          axiom groups in ID order, e.g. from {@link AxiomGrouper#inSubjectOrder}
+     * @param reasonerFactory reasoner used for the "expected" answers
+     * @param cache           persistent entailment answers, or null
+     * @param reasoners       pool bounding the time and memory of reasoning, or null
+     * @param sink            receives the test cases in ID order
+     * @throws OWLOntologyCreationException if the delta ontology cannot be created
+     */
+    public static void generate(OWLOntology ontology, EntityDictionary names, Collection<List<OWLAxiom>> groups,
+                                OWLReasonerFactory reasonerFactory, EntailmentCache cache, ReasonerPool reasoners,
+                                Consumer<Map<String, Object>> sink) throws OWLOntologyCreationException {
+        ELHExtender extender = new ELHExtender(ontology);
+        AxiomFormatter formatter = new AxiomFormatter(names);
+        List<List<OWLAxiom>> selected = groups.stream()
+                .filter(axioms -> QueryGenerator.getQueryAxiom(axioms) != null)
+                .collect(Collectors.toList());
+        try (ReasoningValidator validator = new ReasoningValidator(ontology, reasonerFactory, cache)) {
+            if (reasoners != null) validator.withPool(reasoners);
+            for (int i = 0; i < selected.size(); i++) {
+                Extension extension = extender.extend(selected.get(i));
+                if (extension != null) sink.accept(createTestCase("test_" + (i + 1), extension, formatter, validator));
+            }
+        }
+    }
+
+    /**
+     * Builds the benchmark entry for an extended group; the answer comes from the base ontology.
+     */
+    static Map<String, Object> createTestCase(String id, Extension extension, AxiomFormatter formatter,
+                                              ReasoningValidator validator) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", id);
+        entry.put("dl_profile", "ELH");
+        entry.put("axioms", extension.axioms().stream().map(formatter::format).collect(Collectors.toList()));
+        entry.put("query", QueryGenerator.generateQuery(List.of(extension.query()), formatter.names()));
+        entry.put("expected", validator.check(extension.reduced(), List.of()).label());
+        return entry;
+    }
+
     /**
      * Main method to execute the EL → ELH transformation.
-     * Reads 'benchmark_output.json', extends role hierarchy axioms,
-     * and writes the result to 'benchmark_output_with_elh.json'.
+     * By default the ELH cases are generated from the ontology
+     * (src/main/resources/ontology/pizza-el.owl, or the first argument); with
+     * -Dbenchmark.elh.source=json the existing 'benchmark_output.json' is extended instead.
+     * The result is written to 'benchmark_output_with_elh.json'.
      *
-     * @param args CLI arguments (not used)
+     * @param args optional: ontology file
      * @throws Exception if file operations fail
      */
     public static void main(String[] args) throws Exception {
-        extendToELH("output_HermitReasoner/benchmark_output.json", "output_HermitReasoner/benchmark_output_with_elh.json");
+        // output layout: pretty (default), compact or ndjson
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+        String output = "output_HermitReasoner/benchmark_output_with_elh.json";
+        if (System.getProperty("benchmark.elh.source", "ontology").equals("json")) {
+            extendToELH("output_HermitReasoner/benchmark_output.json", output, format);
+            return;
+        }
+
+        String ontologyFile = args.length > 0 ? args[0] : "src/main/resources/ontology/pizza-el.owl";
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(ontologyFile));
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"));
+        String cachePath = System.getProperty("benchmark.cache", ".cache/entailments.bin");
+        EntailmentCache cache = cachePath.isBlank() ? null
+                : new EntailmentCache(Path.of(cachePath), Integer.getInteger("benchmark.cache.size", 1_000_000));
+        EntityDictionary names = EntityDictionary.of(ontology);
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(AxiomGrouper.groupBySubjectId(ontology, names), names);
+        try (BenchmarkWriter writer = new BenchmarkWriter(output, format)) {
+            generate(ontology, names, groups, factory, cache, null, entry -> {
+                try {
+                    writer.write(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            if (cache != null) cache.close();
+        }
+        System.out.println("Extended ELH benchmark saved to " + output);
     }
 
+    /**
+     * Streams the EL test cases in inputFilePath through the ELH extension and writes them
+     * to outputFilePath as a pretty-printed JSON array.
+     *
+     * @param inputFilePath  EL benchmark (JSON array or NDJSON)
+     * @param outputFilePath ELH benchmark to write
+     * @throws Exception if file operations fail
+     */
     public static void extendToELH(String inputFilePath, String outputFilePath) throws Exception {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        JsonArray input = JsonParser.parseReader(new FileReader(inputFilePath)).getAsJsonArray();
-        JsonArray output = new JsonArray();
-
-        for (JsonElement el : input) {
-            JsonObject entry = el.getAsJsonObject();
-            JsonArray originalAxioms = entry.getAsJsonArray("axioms");
-            JsonArray modifiedAxioms = new JsonArray();
-            Set<String> foundRoles = new HashSet<>();
-            boolean isELH = false;
-
-            for (JsonElement axEl : originalAxioms) {
-                JsonObject ax = axEl.getAsJsonObject();
-                String symbolic = ax.get("symbolic-format").getAsString();
-                modifiedAxioms.add(ax);
-
-                if (symbolic.contains("∃")) {
-                    int start = symbolic.indexOf("∃") + 1;
-                    int dot = symbolic.indexOf(".", start);
-                    if (dot > start) {
-                        String role = symbolic.substring(start, dot).trim();
-                        foundRoles.add(role);
-                    }
-                }
+        extendToELH(inputFilePath, outputFilePath, BenchmarkWriter.Format.PRETTY);
+    }
+
+    /**
+     * Streams the EL test cases in inputFilePath through the ELH extension, one entry at a time,
+     * and writes them to outputFilePath in the given layout.
+     *
+     * @param inputFilePath  EL benchmark (JSON array or NDJSON)
+     * @param outputFilePath ELH benchmark to write
+     * @param format         output layout
+     * @throws Exception if file operations fail
+     */
+    public static void extendToELH(String inputFilePath, String outputFilePath, BenchmarkWriter.Format format) throws Exception {
+        try (BenchmarkReader reader = new BenchmarkReader(inputFilePath);
+             BenchmarkWriter writer = new BenchmarkWriter(outputFilePath, format)) {
+            while (reader.hasNext()) {
+                writer.write(extendEntry(reader.next()));
             }
+        }
+        System.out.println("Extended ELH benchmark saved to " + outputFilePath);
+    }
 
-            for (String role : foundRoles) {
-                String superRole = "superOf" + capitalize(role);
-                String symbolic = role + " ⊑ " + superRole;
+    /**
+     * Adds a role inclusion axiom r ⊑ superOfR for every existential role ∃r.C of one test case.
+     *
+     * @param entry an EL test case
+     * @return the extended test case (ELH if a role was found)
+     */
+    static JsonObject extendEntry(JsonObject entry) {
+        JsonArray originalAxioms = entry.getAsJsonArray("axioms");
+        JsonArray modifiedAxioms = new JsonArray();
+        Set<String> foundRoles = new LinkedHashSet<>();
+        boolean isELH = false;
 
-                JsonObject ax = new JsonObject();
-                ax.addProperty("symbolic-format", symbolic);
-                ax.addProperty("OWL-format", "SubObjectPropertyOf(" + role + " " + superRole + ")");
-                modifiedAxioms.add(ax);
-                isELH = true;
-            }
+        for (JsonElement axEl : originalAxioms) {
+            JsonObject ax = axEl.getAsJsonObject();
+            String symbolic = ax.get("symbolic-format").getAsString();
+            modifiedAxioms.add(ax);
 
-            JsonObject extended = entry.deepCopy();
-            extended.add("axioms", modifiedAxioms);
-            extended.addProperty("dl_profile", isELH ? "ELH" : "EL");
-            output.add(extended);
+            if (symbolic.contains("∃")) {
+                int start = symbolic.indexOf("∃") + 1;
+                int dot = symbolic.indexOf(".", start);
+                if (dot > start) {
+                    String role = symbolic.substring(start, dot).trim();
+                    foundRoles.add(role);
+                }
+            }
         }
 
-        try (FileWriter writer = new FileWriter(outputFilePath)) {
-            gson.toJson(output, writer);
-            System.out.println("Extended ELH benchmark saved to " + outputFilePath);
+        for (String role : foundRoles) {
+            String superRole = "superOf" + capitalize(role);
+            String symbolic = role + " ⊑ " + superRole;
+
+            JsonObject ax = new JsonObject();
+            ax.addProperty("symbolic-format", symbolic);
+            ax.addProperty("OWL-format", "SubObjectPropertyOf(" + role + " " + superRole + ")");
+            modifiedAxioms.add(ax);
+            isELH = true;
         }
+
+        // the entry was parsed for this call only, so it can be updated in place
+        entry.add("axioms", modifiedAxioms);
+        entry.addProperty("dl_profile", isELH ? "ELH" : "EL");
+        return entry;
     }
 
     /**
@@ -84,6 +289,6 @@ public class ELHExtender {
      * @return the capitalized role name
      */
     private static String capitalize(String role) {
-        return role.length() > 0 ? role.substring(0, 1).toUpperCase() + role.substring(1) : role;
+        return role.length() > 0 ? role.substring(0, 1).toUpperCase(Locale.ROOT) + role.substring(1) : role;
     }
 }
\ No newline at end of file
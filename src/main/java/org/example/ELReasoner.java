@@ -0,0 +1,485 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.*;
+import org.semanticweb.owlapi.reasoner.impl.*;
+import org.semanticweb.owlapi.util.Version;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * ELReasoner exposes {@link ELSaturation} through the OWL API {@link OWLReasoner} interface,
+ * so it can be used wherever HermiT or the StructuralReasoner is used.
+ *
+ * It is a TBox reasoner for the EL/ELH fragment: class and object property hierarchies
+ * and SubClassOf / EquivalentClasses / DisjointClasses / SubObjectPropertyOf / domain
+ * entailments are supported. Individuals and data properties are not reasoned about,
+ * the corresponding queries return empty results.
+ */
+public class ELReasoner extends OWLReasonerBase {
+
+    private static final Version VERSION = new Version(1, 0, 0, 0);
+
+    private final OWLDataFactory df;
+    private volatile ELSaturation saturation;
+    private volatile boolean interrupted = false;
+
+    /**
+     * Creates a reasoner for the given ontology. Classification happens on the first query
+     * or on {@link #precomputeInferences(InferenceType...)}.
+     */
+    public ELReasoner(OWLOntology rootOntology, OWLReasonerConfiguration configuration, BufferingMode bufferingMode) {
+        super(rootOntology, configuration, bufferingMode);
+        this.df = rootOntology.getOWLOntologyManager().getOWLDataFactory();
+    }
+
+    @Override
+    public String getReasonerName() {
+        return "EL Saturation Reasoner";
+    }
+
+    @Override
+    public Version getReasonerVersion() {
+        return VERSION;
+    }
+
+    @Override
+    protected void handleChanges(Set<OWLAxiom> addAxioms, Set<OWLAxiom> removeAxioms) {
+        // reclassify lazily on the next query
+        saturation = null;
+    }
+
+    @Override
+    public void interrupt() {
+        interrupted = true;
+    }
+
+    /**
+     * Returns the saturated engine, classifying the ontology if needed.
+     */
+    public ELSaturation getSaturation() {
+        ELSaturation current = saturation;
+        if (current == null) {
+            synchronized (this) {
+                current = saturation;
+                if (current == null) {
+                    current = classify();
+                    saturation = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private ELSaturation classify() {
+        interrupted = false;
+        long deadline = getTimeOut() == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + getTimeOut();
+        ELSaturation engine = new ELSaturation(df);
+        engine.setCheckpoint(() -> {
+            if (interrupted) throw new ReasonerInterruptedException("EL saturation interrupted");
+            if (System.currentTimeMillis() > deadline) throw new TimeOutException("EL saturation timed out");
+        });
+        engine.classify(getReasonerAxioms());
+        return engine;
+    }
+
+    @Override
+    public void precomputeInferences(InferenceType... inferenceTypes) {
+        getSaturation();
+    }
+
+    @Override
+    public boolean isPrecomputed(InferenceType inferenceType) {
+        return saturation != null && getPrecomputableInferenceTypes().contains(inferenceType);
+    }
+
+    @Override
+    public Set<InferenceType> getPrecomputableInferenceTypes() {
+        return EnumSet.of(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+    }
+
+    // ===== entailment =====
+
+    @Override
+    public boolean isConsistent() {
+        return !getSaturation().entails(df.getOWLThing(), df.getOWLNothing());
+    }
+
+    @Override
+    public boolean isSatisfiable(OWLClassExpression classExpression) {
+        return !getSaturation().entails(classExpression, df.getOWLNothing());
+    }
+
+    @Override
+    public boolean isEntailed(OWLAxiom axiom) {
+        ELSaturation engine = getSaturation();
+        OWLAxiom ax = axiom.getAxiomWithoutAnnotations();
+
+        if (ax instanceof OWLSubClassOfAxiom sca) {
+            return engine.entails(sca.getSubClass(), sca.getSuperClass());
+        }
+        if (ax instanceof OWLEquivalentClassesAxiom eq) {
+            List<OWLClassExpression> ops = eq.getOperandsAsList();
+            for (int i = 0; i < ops.size(); i++) {
+                if (!engine.entails(ops.get(i), ops.get((i + 1) % ops.size()))) return false;
+            }
+            return true;
+        }
+        if (ax instanceof OWLDisjointClassesAxiom disj) {
+            List<OWLClassExpression> ops = disj.getOperandsAsList();
+            for (int i = 0; i < ops.size(); i++) {
+                for (int j = i + 1; j < ops.size(); j++) {
+                    if (!engine.entails(df.getOWLObjectIntersectionOf(ops.get(i), ops.get(j)), df.getOWLNothing())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        if (ax instanceof OWLSubObjectPropertyOfAxiom sub
+                && !sub.getSubProperty().isAnonymous() && !sub.getSuperProperty().isAnonymous()) {
+            return engine.isSubRole(sub.getSubProperty().asOWLObjectProperty(), sub.getSuperProperty().asOWLObjectProperty());
+        }
+        if (ax instanceof OWLEquivalentObjectPropertiesAxiom eq && eq.properties().noneMatch(OWLObjectPropertyExpression::isAnonymous)) {
+            List<OWLObjectPropertyExpression> props = eq.getOperandsAsList();
+            for (int i = 0; i < props.size(); i++) {
+                OWLObjectProperty r = props.get(i).asOWLObjectProperty();
+                OWLObjectProperty s = props.get((i + 1) % props.size()).asOWLObjectProperty();
+                if (!engine.isSubRole(r, s)) return false;
+            }
+            return true;
+        }
+        if (ax instanceof OWLObjectPropertyDomainAxiom domain) {
+            return engine.entails(df.getOWLObjectSomeValuesFrom(domain.getProperty(), df.getOWLThing()), domain.getDomain());
+        }
+        if (ax instanceof OWLDeclarationAxiom || !ax.isLogicalAxiom()) {
+            return true;
+        }
+        throw new UnsupportedEntailmentTypeException(axiom);
+    }
+
+    @Override
+    public boolean isEntailed(Set<? extends OWLAxiom> axioms) {
+        for (OWLAxiom ax : axioms) {
+            if (!isEntailed(ax)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isEntailmentCheckingSupported(AxiomType<?> axiomType) {
+        return axiomType == AxiomType.SUBCLASS_OF
+                || axiomType == AxiomType.EQUIVALENT_CLASSES
+                || axiomType == AxiomType.DISJOINT_CLASSES
+                || axiomType == AxiomType.SUB_OBJECT_PROPERTY
+                || axiomType == AxiomType.EQUIVALENT_OBJECT_PROPERTIES
+                || axiomType == AxiomType.OBJECT_PROPERTY_DOMAIN
+                || axiomType == AxiomType.DECLARATION;
+    }
+
+    // ===== class hierarchy =====
+
+    @Override
+    public Node<OWLClass> getTopClassNode() {
+        return getEquivalentClasses(df.getOWLThing());
+    }
+
+    @Override
+    public Node<OWLClass> getBottomClassNode() {
+        return getUnsatisfiableClasses();
+    }
+
+    @Override
+    public Node<OWLClass> getUnsatisfiableClasses() {
+        ELSaturation engine = getSaturation();
+        Set<OWLClass> unsat = engine.namedClasses().stream()
+                .filter(c -> engine.entails(c, df.getOWLNothing()))
+                .collect(Collectors.toSet());
+        unsat.add(df.getOWLNothing());
+        return new OWLClassNode(unsat);
+    }
+
+    @Override
+    public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        ELSaturation engine = getSaturation();
+        if (!isSatisfiable(ce)) return getUnsatisfiableClasses();
+        Set<OWLClass> equivalents = new HashSet<>();
+        for (OWLClass candidate : candidateSupers(engine, ce)) {
+            if (engine.entails(candidate, ce)) equivalents.add(candidate);
+        }
+        if (!ce.isAnonymous()) equivalents.add(ce.asOWLClass());
+        return new OWLClassNode(equivalents);
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        ELSaturation engine = getSaturation();
+        Node<OWLClass> self = getEquivalentClasses(ce);
+        Set<OWLClass> strict = new HashSet<>(candidateSupers(engine, ce));
+        strict.removeAll(self.getEntities());
+        strict.add(df.getOWLThing());
+        if (self.contains(df.getOWLThing())) return new OWLClassNodeSet();
+        return toNodeSet(engine, strict, direct, true);
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        ELSaturation engine = getSaturation();
+        Node<OWLClass> self = getEquivalentClasses(ce);
+        Node<OWLClass> bottom = getUnsatisfiableClasses();
+        if (self.contains(df.getOWLNothing())) return new OWLClassNodeSet();
+
+        Set<OWLClass> strict = new HashSet<>();
+        for (OWLClass candidate : engine.namedClasses()) {
+            if (!self.contains(candidate) && !bottom.contains(candidate) && engine.entails(candidate, ce)) {
+                strict.add(candidate);
+            }
+        }
+        OWLClassNodeSet result = toNodeSet(engine, strict, direct, false);
+        if (!direct || result.isEmpty()) result.addNode(bottom);
+        return result;
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDisjointClasses(OWLClassExpression ce) {
+        ELSaturation engine = getSaturation();
+        Set<OWLClass> disjoint = new HashSet<>();
+        for (OWLClass candidate : engine.namedClasses()) {
+            if (engine.entails(df.getOWLObjectIntersectionOf(ce, candidate), df.getOWLNothing())) disjoint.add(candidate);
+        }
+        disjoint.add(df.getOWLNothing());
+        return toNodeSet(engine, disjoint, false, true);
+    }
+
+    // named subsumers of a class expression (taken from S(A) for named classes)
+    private Set<OWLClass> candidateSupers(ELSaturation engine, OWLClassExpression ce) {
+        if (!ce.isAnonymous()) return engine.subsumersOf(ce.asOWLClass());
+        Set<OWLClass> result = new HashSet<>();
+        for (OWLClass candidate : engine.namedClasses()) {
+            if (engine.entails(ce, candidate)) result.add(candidate);
+        }
+        result.add(df.getOWLThing());
+        return result;
+    }
+
+    /**
+     * Groups classes into equivalence nodes and, if requested, keeps only the direct ones
+     * (the most specific for supers, the most general for subs).
+     */
+    private OWLClassNodeSet toNodeSet(ELSaturation engine, Set<OWLClass> classes, boolean direct, boolean supers) {
+        List<Set<OWLClass>> nodes = new ArrayList<>();
+        Set<OWLClass> placed = new HashSet<>();
+        for (OWLClass cls : classes) {
+            if (!placed.add(cls)) continue;
+            Set<OWLClass> node = new HashSet<>();
+            node.add(cls);
+            for (OWLClass other : classes) {
+                if (!other.equals(cls) && engine.entails(cls, other) && engine.entails(other, cls)) {
+                    node.add(other);
+                    placed.add(other);
+                }
+            }
+            nodes.add(node);
+        }
+
+        OWLClassNodeSet result = new OWLClassNodeSet();
+        for (Set<OWLClass> node : nodes) {
+            OWLClass rep = node.iterator().next();
+            boolean keep = true;
+            if (direct) {
+                for (Set<OWLClass> other : nodes) {
+                    if (other == node) continue;
+                    OWLClass o = other.iterator().next();
+                    // a super node is not direct if another super lies strictly below it (dually for subs)
+                    if (supers ? engine.entails(o, rep) : engine.entails(rep, o)) {
+                        keep = false;
+                        break;
+                    }
+                }
+            }
+            if (keep) result.addNode(new OWLClassNode(node));
+        }
+        return result;
+    }
+
+    // ===== object property hierarchy =====
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getTopObjectPropertyNode() {
+        return new OWLObjectPropertyNode(df.getOWLTopObjectProperty());
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getBottomObjectPropertyNode() {
+        return new OWLObjectPropertyNode(df.getOWLBottomObjectProperty());
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        ELSaturation engine = getSaturation();
+        if (pe.isAnonymous()) return new OWLObjectPropertyNodeSet();
+        OWLObjectProperty prop = pe.asOWLObjectProperty();
+        Set<OWLObjectProperty> subs = engine.namedRoles().stream()
+                .filter(r -> engine.isSubRole(r, prop) && !engine.isSubRole(prop, r))
+                .collect(Collectors.toSet());
+        if (prop.isOWLTopObjectProperty()) subs = engine.namedRoles();
+        OWLObjectPropertyNodeSet result = toPropertyNodeSet(engine, subs, direct, false);
+        if (!direct || result.isEmpty()) result.addNode(getBottomObjectPropertyNode());
+        return result;
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        ELSaturation engine = getSaturation();
+        if (pe.isAnonymous()) return new OWLObjectPropertyNodeSet();
+        OWLObjectProperty prop = pe.asOWLObjectProperty();
+        Set<OWLObjectProperty> sups = engine.superRolesOf(prop).stream()
+                .filter(s -> !engine.isSubRole(s, prop))
+                .collect(Collectors.toSet());
+        OWLObjectPropertyNodeSet result = toPropertyNodeSet(engine, sups, direct, true);
+        if (!direct || result.isEmpty()) result.addNode(getTopObjectPropertyNode());
+        return result;
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(OWLObjectPropertyExpression pe) {
+        ELSaturation engine = getSaturation();
+        if (pe.isAnonymous()) return new OWLObjectPropertyNode(pe);
+        OWLObjectProperty prop = pe.asOWLObjectProperty();
+        Set<OWLObjectPropertyExpression> equivalents = engine.superRolesOf(prop).stream()
+                .filter(s -> engine.isSubRole(s, prop))
+                .collect(Collectors.toSet());
+        equivalents.add(prop);
+        return new OWLObjectPropertyNode(equivalents);
+    }
+
+    private OWLObjectPropertyNodeSet toPropertyNodeSet(ELSaturation engine, Set<OWLObjectProperty> props, boolean direct, boolean supers) {
+        OWLObjectPropertyNodeSet result = new OWLObjectPropertyNodeSet();
+        Set<OWLObjectProperty> placed = new HashSet<>();
+        for (OWLObjectProperty p : props) {
+            if (placed.contains(p)) continue;
+            Node<OWLObjectPropertyExpression> node = getEquivalentObjectProperties(p);
+            node.entities().forEach(e -> placed.add(e.asOWLObjectProperty()));
+            boolean keep = true;
+            if (direct) {
+                for (OWLObjectProperty other : props) {
+                    if (node.contains(other)) continue;
+                    if (supers ? engine.isSubRole(other, p) : engine.isSubRole(p, other)) {
+                        keep = false;
+                        break;
+                    }
+                }
+            }
+            if (keep) result.addNode(node);
+        }
+        return result;
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getDisjointObjectProperties(OWLObjectPropertyExpression pe) {
+        return new OWLObjectPropertyNodeSet();
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getInverseObjectProperties(OWLObjectPropertyExpression pe) {
+        return new OWLObjectPropertyNode(pe.getInverseProperty());
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyDomains(OWLObjectPropertyExpression pe, boolean direct) {
+        // domains are the named subsumers of ∃r.⊤; the direct ones are its equivalents if there are any
+        OWLClassExpression someTop = df.getOWLObjectSomeValuesFrom(pe, df.getOWLThing());
+        Node<OWLClass> equivalents = getEquivalentClasses(someTop);
+        OWLClassNodeSet result = new OWLClassNodeSet();
+        if (equivalents.getSize() > 0) {
+            result.addNode(equivalents);
+            if (direct) return result;
+        }
+        getSuperClasses(someTop, direct).nodes().forEach(result::addNode);
+        return result;
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyRanges(OWLObjectPropertyExpression pe, boolean direct) {
+        ELSaturation engine = getSaturation();
+        OWLClassNodeSet result = new OWLClassNodeSet();
+        if (pe.isAnonymous()) return result;
+        List<OWLClassExpression> ranges = engine.rangesOf(pe.asOWLObjectProperty());
+        if (ranges.isEmpty()) {
+            result.addNode(getTopClassNode());
+            return result;
+        }
+        OWLClassExpression range = ranges.size() == 1 ? ranges.get(0) : df.getOWLObjectIntersectionOf(ranges);
+        if (!range.isAnonymous()) result.addNode(getEquivalentClasses(range));
+        getSuperClasses(range, direct).nodes().forEach(result::addNode);
+        return result;
+    }
+
+    // ===== data properties and individuals (not covered by the EL TBox saturation) =====
+
+    @Override
+    public Node<OWLDataProperty> getTopDataPropertyNode() {
+        return new OWLDataPropertyNode(df.getOWLTopDataProperty());
+    }
+
+    @Override
+    public Node<OWLDataProperty> getBottomDataPropertyNode() {
+        return new OWLDataPropertyNode(df.getOWLBottomDataProperty());
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSubDataProperties(OWLDataProperty pe, boolean direct) {
+        return new OWLDataPropertyNodeSet();
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSuperDataProperties(OWLDataProperty pe, boolean direct) {
+        return new OWLDataPropertyNodeSet();
+    }
+
+    @Override
+    public Node<OWLDataProperty> getEquivalentDataProperties(OWLDataProperty pe) {
+        return new OWLDataPropertyNode(pe);
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getDisjointDataProperties(OWLDataPropertyExpression pe) {
+        return new OWLDataPropertyNodeSet();
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDataPropertyDomains(OWLDataProperty pe, boolean direct) {
+        return new OWLClassNodeSet();
+    }
+
+    @Override
+    public NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
+        return new OWLClassNodeSet();
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce, boolean direct) {
+        return new OWLNamedIndividualNodeSet();
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind, OWLObjectPropertyExpression pe) {
+        return new OWLNamedIndividualNodeSet();
+    }
+
+    @Override
+    public Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind, OWLDataProperty pe) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Node<OWLNamedIndividual> getSameIndividuals(OWLNamedIndividual ind) {
+        return new OWLNamedIndividualNode(ind);
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getDifferentIndividuals(OWLNamedIndividual ind) {
+        return new OWLNamedIndividualNodeSet();
+    }
+}
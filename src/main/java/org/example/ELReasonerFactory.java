@@ -0,0 +1,36 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.*;
+
+/**
+ * Factory for {@link ELReasoner}, the in-project EL/ELH saturation reasoner.
+ * It can be passed anywhere an {@link OWLReasonerFactory} is expected (e.g. {@link ReasoningValidator}).
+ */
+public class ELReasonerFactory implements OWLReasonerFactory {
+
+    @Override
+    public String getReasonerName() {
+        return "EL Saturation Reasoner";
+    }
+
+    @Override
+    public OWLReasoner createReasoner(OWLOntology ontology) {
+        return createReasoner(ontology, new SimpleConfiguration());
+    }
+
+    @Override
+    public OWLReasoner createNonBufferingReasoner(OWLOntology ontology) {
+        return createNonBufferingReasoner(ontology, new SimpleConfiguration());
+    }
+
+    @Override
+    public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+        return new ELReasoner(ontology, config, BufferingMode.BUFFERING);
+    }
+
+    @Override
+    public OWLReasoner createNonBufferingReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+        return new ELReasoner(ontology, config, BufferingMode.NON_BUFFERING);
+    }
+}
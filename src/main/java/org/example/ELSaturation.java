@@ -0,0 +1,738 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.*;
+
+/**
+ * ELSaturation is a polynomial-time completion-rule engine for the EL/ELH fragment
+ * (with ⊤, ⊥, conjunction, existential restriction, role inclusions, role chains,
+ * transitivity, domains and ranges).
+ *
+ * The TBox is normalized into the usual normal forms over integer-indexed concepts and roles:
+ * - A ⊑ B
+ * - A1 ⊓ A2 ⊑ B
+ * - A ⊑ ∃r.B
+ * - ∃r.A ⊑ B
+ * - r ⊑ s and r ∘ s ⊑ t
+ *
+ * and saturated with the standard completion rules into the subsumer sets S(A) and the
+ * relations R(r). Entailments such as A ⊑ ∃r.B are then answered directly from S(A)/R(r),
+ * since the saturated sets describe the canonical model of the TBox.
+ * ABox axioms, inverse roles and other non-EL constructs are ignored (and logged).
+ */
+public class ELSaturation {
+
+    private static final Logger logger = Logger.getLogger(ELSaturation.class.getName());
+
+    /** Concept id of ⊤ (owl:Thing). */
+    public static final int TOP = 0;
+    /** Concept id of ⊥ (owl:Nothing). */
+    public static final int BOTTOM = 1;
+
+    // marks a queued "subsumer" conclusion, as opposed to a "link" conclusion carrying a role id
+    private static final int SUBSUMER = -1;
+
+    private final OWLDataFactory df;
+
+    // ===== concept and role dictionaries =====
+    private final List<OWLClass> concepts = new ArrayList<>();          // id -> class, null for fresh concepts
+    private final Map<OWLClass, Integer> conceptIds = new HashMap<>();
+    private final List<OWLObjectProperty> roles = new ArrayList<>();    // id -> property, null for fresh chain roles
+    private final Map<OWLObjectProperty, Integer> roleIds = new HashMap<>();
+
+    // normalization memos, so structurally equal expressions share one fresh name
+    private final Map<OWLClassExpression, Integer> lhsNames = new HashMap<>();
+    private final Map<OWLClassExpression, Integer> rhsNames = new HashMap<>();
+    private final Map<Long, Integer> rangeFillers = new HashMap<>();
+
+    // ===== normalized TBox =====
+    private final List<IntList> told = new ArrayList<>();               // A -> B            (A ⊑ B)
+    private final List<IntList> conjunctions = new ArrayList<>();       // A1 -> [A2, B]     (A1 ⊓ A2 ⊑ B)
+    private final List<IntList> existsRight = new ArrayList<>();        // A -> [r, B]       (A ⊑ ∃r.B)
+    private final Map<Long, IntList> existsLeft = new HashMap<>();      // (r, A) -> B       (∃r.A ⊑ B)
+    private final List<IntList> toldSuperRoles = new ArrayList<>();     // r -> s            (r ⊑ s)
+    private final List<IntList> chainsByFirst = new ArrayList<>();      // r -> [s, t]       (r ∘ s ⊑ t)
+    private final List<IntList> chainsBySecond = new ArrayList<>();     // s -> [r, t]       (r ∘ s ⊑ t)
+    private final List<List<OWLClassExpression>> toldRanges = new ArrayList<>();
+    private int[][] superRoles = new int[0][];                          // reflexive-transitive closure of r ⊑ s
+
+    // ===== saturation state =====
+    private final LongSet subsumers = new LongSet();                    // (X, A) for A ∈ S(X)
+    private final List<IntList> subsumerLists = new ArrayList<>();      // X -> S(X) in derivation order
+    private final List<LongSet> links = new ArrayList<>();              // r -> (X, Y) for (X, Y) ∈ R(r)
+    private final List<IntList> successors = new ArrayList<>();         // X -> [r, Y]
+    private final List<IntList> predecessors = new ArrayList<>();       // Y -> [r, X]
+    private final BitSet active = new BitSet();
+    private final IntList queue = new IntList();
+    private int queueHead = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Runnable checkpoint = () -> { };
+    private int ignoredAxioms = 0;
+
+    /**
+     * Creates an empty saturation engine.
+     *
+     * @param df data factory used to build auxiliary class expressions (e.g. ∃r.⊤ for domains)
+     */
+    public ELSaturation(OWLDataFactory df) {
+        this.df = df;
+        newConcept(df.getOWLThing());
+        newConcept(df.getOWLNothing());
+    }
+
+    /**
+     * Sets a callback that is invoked periodically during saturation.
+     * It may throw an unchecked exception to abort (e.g. on interruption or timeout).
+     */
+    public void setCheckpoint(Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Normalizes the given TBox axioms and saturates all named concepts.
+     *
+     * @param axioms the axioms to load (non-EL axioms are skipped)
+     */
+    public void classify(Collection<? extends OWLAxiom> axioms) {
+        lock.writeLock().lock();
+        try {
+            // roles first, so ranges and the role closure are known when class axioms are normalized
+            for (OWLAxiom ax : axioms) loadRoleAxiom(ax);
+            closeRoles();
+            for (OWLAxiom ax : axioms) loadClassAxiom(ax);
+
+            for (int c = 0; c < concepts.size(); c++) {
+                if (c == BOTTOM || concepts.get(c) != null) activate(c);
+            }
+            saturate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (ignoredAxioms > 0) {
+            logger.warning("EL saturation ignored " + ignoredAxioms + " axioms outside the supported EL/ELH fragment");
+        }
+    }
+
+    // ===================================================================================
+    // Normalization
+    // ===================================================================================
+
+    private void loadRoleAxiom(OWLAxiom ax) {
+        if (ax instanceof OWLSubObjectPropertyOfAxiom sub) {
+            if (isNamed(sub.getSubProperty(), sub.getSuperProperty())) {
+                addRoleInclusion(roleId(sub.getSubProperty()), roleId(sub.getSuperProperty()));
+            }
+        } else if (ax instanceof OWLEquivalentObjectPropertiesAxiom eq) {
+            List<OWLObjectPropertyExpression> props = eq.getOperandsAsList();
+            if (isNamed(props.toArray(new OWLObjectPropertyExpression[0]))) {
+                for (int i = 0; i < props.size(); i++) {
+                    addRoleInclusion(roleId(props.get(i)), roleId(props.get((i + 1) % props.size())));
+                }
+            }
+        } else if (ax instanceof OWLSubPropertyChainOfAxiom chain) {
+            List<OWLObjectPropertyExpression> path = chain.getPropertyChain();
+            if (isNamed(chain.getSuperProperty()) && isNamed(path.toArray(new OWLObjectPropertyExpression[0]))) {
+                int target = roleId(chain.getSuperProperty());
+                if (path.size() == 1) {
+                    addRoleInclusion(roleId(path.get(0)), target);
+                } else {
+                    // r1 ∘ r2 ∘ ... ∘ rn ⊑ t becomes r1 ∘ r2 ⊑ u1, u1 ∘ r3 ⊑ u2, ..., u(n-2) ∘ rn ⊑ t
+                    int left = roleId(path.get(0));
+                    for (int i = 1; i < path.size(); i++) {
+                        int composed = i == path.size() - 1 ? target : newRole(null);
+                        addChain(left, roleId(path.get(i)), composed);
+                        left = composed;
+                    }
+                }
+            }
+        } else if (ax instanceof OWLTransitiveObjectPropertyAxiom trans) {
+            if (isNamed(trans.getProperty())) {
+                int r = roleId(trans.getProperty());
+                addChain(r, r, r);
+            }
+        } else if (ax instanceof OWLObjectPropertyRangeAxiom range) {
+            if (isNamed(range.getProperty())) {
+                toldRanges.get(roleId(range.getProperty())).add(range.getRange());
+            }
+        }
+    }
+
+    private void loadClassAxiom(OWLAxiom ax) {
+        try {
+            if (ax instanceof OWLSubClassOfAxiom sca) {
+                addSubsumption(lhs(sca.getSubClass()), sca.getSuperClass());
+            } else if (ax instanceof OWLEquivalentClassesAxiom eq) {
+                List<OWLClassExpression> ops = eq.getOperandsAsList();
+                for (int i = 0; i < ops.size(); i++) {
+                    addSubsumption(lhs(ops.get(i)), ops.get((i + 1) % ops.size()));
+                }
+            } else if (ax instanceof OWLDisjointClassesAxiom disj) {
+                List<OWLClassExpression> ops = disj.getOperandsAsList();
+                for (int i = 0; i < ops.size(); i++) {
+                    for (int j = i + 1; j < ops.size(); j++) {
+                        addConjunction(lhs(ops.get(i)), lhs(ops.get(j)), BOTTOM);
+                    }
+                }
+            } else if (ax instanceof OWLObjectPropertyDomainAxiom domain) {
+                // domain(r) = C is the GCI ∃r.⊤ ⊑ C
+                OWLClassExpression someTop = df.getOWLObjectSomeValuesFrom(domain.getProperty(), df.getOWLThing());
+                addSubsumption(lhs(someTop), domain.getDomain());
+            } else if (ax.isLogicalAxiom() && !isRoleAxiom(ax)) {
+                ignoredAxioms++;
+            }
+        } catch (UnsupportedOperationException e) {
+            // the axiom mentions a construct outside EL (e.g. a union or an inverse role)
+            ignoredAxioms++;
+        }
+    }
+
+    private static boolean isRoleAxiom(OWLAxiom ax) {
+        return ax instanceof OWLSubObjectPropertyOfAxiom
+                || ax instanceof OWLEquivalentObjectPropertiesAxiom
+                || ax instanceof OWLSubPropertyChainOfAxiom
+                || ax instanceof OWLTransitiveObjectPropertyAxiom
+                || ax instanceof OWLObjectPropertyRangeAxiom;
+    }
+
+    /**
+     * Returns an atom a with C ⊑ a (structural transformation of a left-hand side).
+     */
+    private int lhs(OWLClassExpression expr) {
+        if (!expr.isAnonymous()) return conceptId(expr.asOWLClass());
+        Integer known = lhsNames.get(expr);
+        if (known != null) return known;
+
+        int name;
+        if (expr instanceof OWLObjectSomeValuesFrom some) {
+            int role = roleId(some.getProperty());
+            int filler = lhs(some.getFiller());
+            name = newConcept(null);
+            existsLeft.computeIfAbsent(pack(role, filler), k -> new IntList()).add(name);
+        } else if (expr instanceof OWLObjectIntersectionOf and) {
+            // fold A1 ⊓ A2 ⊓ ... ⊓ An into binary conjunctions
+            List<OWLClassExpression> ops = and.getOperandsAsList();
+            name = lhs(ops.get(0));
+            for (int i = 1; i < ops.size(); i++) {
+                int next = newConcept(null);
+                addConjunction(name, lhs(ops.get(i)), next);
+                name = next;
+            }
+        } else {
+            throw new UnsupportedOperationException("Not an EL class expression: " + expr);
+        }
+        lhsNames.put(expr, name);
+        return name;
+    }
+
+    /**
+     * Returns an atom a with a ⊑ D (structural transformation of a right-hand side).
+     */
+    private int rhs(OWLClassExpression expr) {
+        if (!expr.isAnonymous()) return conceptId(expr.asOWLClass());
+        Integer known = rhsNames.get(expr);
+        if (known != null) return known;
+
+        int name = newConcept(null);
+        rhsNames.put(expr, name);
+        addSubsumption(name, expr);
+        return name;
+    }
+
+    /**
+     * Adds the normalized form of a ⊑ D.
+     */
+    private void addSubsumption(int atom, OWLClassExpression sup) {
+        if (!sup.isAnonymous()) {
+            told.get(atom).add(conceptId(sup.asOWLClass()));
+        } else if (sup instanceof OWLObjectSomeValuesFrom some) {
+            int role = roleId(some.getProperty());
+            existsRight.get(atom).add(role, rangeFiller(role, rhs(some.getFiller())));
+        } else if (sup instanceof OWLObjectIntersectionOf and) {
+            for (OWLClassExpression op : and.getOperandsAsList()) addSubsumption(atom, op);
+        } else {
+            throw new UnsupportedOperationException("Not an EL class expression: " + sup);
+        }
+    }
+
+    /**
+     * Strengthens the filler of A ⊑ ∃r.B with the ranges of r and its super-roles.
+     */
+    private int rangeFiller(int role, int filler) {
+        List<OWLClassExpression> ranges = new ArrayList<>();
+        for (int s : superRoles[role]) ranges.addAll(toldRanges.get(s));
+        if (ranges.isEmpty()) return filler;
+
+        Integer known = rangeFillers.get(pack(role, filler));
+        if (known != null) return known;
+        int name = newConcept(null);
+        rangeFillers.put(pack(role, filler), name);
+        told.get(name).add(filler);
+        for (OWLClassExpression range : ranges) addSubsumption(name, range);
+        return name;
+    }
+
+    private void addConjunction(int left, int right, int result) {
+        conjunctions.get(left).add(right, result);
+        if (left != right) conjunctions.get(right).add(left, result);
+    }
+
+    private void addRoleInclusion(int sub, int sup) {
+        toldSuperRoles.get(sub).add(sup);
+    }
+
+    private void addChain(int first, int second, int result) {
+        chainsByFirst.get(first).add(second, result);
+        chainsBySecond.get(second).add(first, result);
+    }
+
+    // computes the reflexive-transitive closure of the told role inclusions
+    private void closeRoles() {
+        superRoles = new int[roles.size()][];
+        for (int r = 0; r < roles.size(); r++) {
+            BitSet seen = new BitSet();
+            Deque<Integer> todo = new ArrayDeque<>();
+            todo.push(r);
+            seen.set(r);
+            while (!todo.isEmpty()) {
+                IntList sups = toldSuperRoles.get(todo.pop());
+                for (int i = 0; i < sups.size(); i++) {
+                    int s = sups.get(i);
+                    if (!seen.get(s)) {
+                        seen.set(s);
+                        todo.push(s);
+                    }
+                }
+            }
+            superRoles[r] = seen.stream().toArray();
+        }
+    }
+
+    private int conceptId(OWLClass cls) {
+        if (cls.isOWLThing()) return TOP;
+        if (cls.isOWLNothing()) return BOTTOM;
+        Integer id = conceptIds.get(cls);
+        return id != null ? id : newConcept(cls);
+    }
+
+    private int newConcept(OWLClass cls) {
+        int id = concepts.size();
+        concepts.add(cls);
+        if (cls != null) conceptIds.put(cls, id);
+        told.add(new IntList());
+        conjunctions.add(new IntList());
+        existsRight.add(new IntList());
+        subsumerLists.add(new IntList());
+        successors.add(new IntList());
+        predecessors.add(new IntList());
+        return id;
+    }
+
+    private int roleId(OWLObjectPropertyExpression prop) {
+        if (prop.isAnonymous()) {
+            throw new UnsupportedOperationException("Inverse roles are not part of EL: " + prop);
+        }
+        Integer id = roleIds.get(prop.asOWLObjectProperty());
+        return id != null ? id : newRole(prop.asOWLObjectProperty());
+    }
+
+    private int newRole(OWLObjectProperty prop) {
+        int id = roles.size();
+        roles.add(prop);
+        if (prop != null) roleIds.put(prop, id);
+        toldSuperRoles.add(new IntList());
+        chainsByFirst.add(new IntList());
+        chainsBySecond.add(new IntList());
+        toldRanges.add(new ArrayList<>());
+        links.add(new LongSet());
+        if (superRoles.length < roles.size()) {
+            // a role first seen after closeRoles() only subsumes itself
+            superRoles = Arrays.copyOf(superRoles, roles.size());
+            superRoles[id] = new int[]{id};
+        }
+        return id;
+    }
+
+    private static boolean isNamed(OWLObjectPropertyExpression... props) {
+        for (OWLObjectPropertyExpression p : props) {
+            if (p.isAnonymous()) return false;
+        }
+        return true;
+    }
+
+    // ===================================================================================
+    // Completion rules
+    // ===================================================================================
+
+    private void activate(int concept) {
+        if (active.get(concept)) return;
+        active.set(concept);
+        push(concept, SUBSUMER, concept);
+        push(concept, SUBSUMER, TOP);
+    }
+
+    private void push(int x, int role, int y) {
+        queue.add(x, role, y);
+    }
+
+    private void saturate() {
+        int steps = 0;
+        while (queueHead < queue.size()) {
+            int x = queue.get(queueHead);
+            int role = queue.get(queueHead + 1);
+            int y = queue.get(queueHead + 2);
+            queueHead += 3;
+
+            if (role == SUBSUMER) processSubsumer(x, y);
+            else processLink(x, role, y);
+
+            if ((++steps & 0xFFF) == 0) checkpoint.run();
+        }
+        queue.clear();
+        queueHead = 0;
+    }
+
+    // A ∈ S(X)
+    private void processSubsumer(int x, int a) {
+        if (!subsumers.add(pack(x, a))) return;
+        subsumerLists.get(x).add(a);
+
+        // CR1: A ⊑ B
+        IntList sups = told.get(a);
+        for (int i = 0; i < sups.size(); i++) push(x, SUBSUMER, sups.get(i));
+
+        // CR2: A ⊓ A2 ⊑ B
+        IntList conj = conjunctions.get(a);
+        for (int i = 0; i < conj.size(); i += 2) {
+            if (subsumers.contains(pack(x, conj.get(i)))) push(x, SUBSUMER, conj.get(i + 1));
+        }
+
+        // CR3: A ⊑ ∃r.B
+        IntList exists = existsRight.get(a);
+        for (int i = 0; i < exists.size(); i += 2) push(x, exists.get(i), exists.get(i + 1));
+
+        // CR4 / CR5 backwards: (Z, X) ∈ R(r) and ∃r.A ⊑ B, or A = ⊥
+        IntList preds = predecessors.get(x);
+        for (int i = 0; i < preds.size(); i += 2) {
+            int r = preds.get(i);
+            int z = preds.get(i + 1);
+            if (a == BOTTOM) {
+                push(z, SUBSUMER, BOTTOM);
+            } else {
+                IntList implied = existsLeft.get(pack(r, a));
+                if (implied != null) {
+                    for (int j = 0; j < implied.size(); j++) push(z, SUBSUMER, implied.get(j));
+                }
+            }
+        }
+    }
+
+    // (X, Y) ∈ R(r)
+    private void processLink(int x, int role, int y) {
+        for (int s : superRoles[role]) {
+            if (!links.get(s).add(pack(x, y))) continue;
+            successors.get(x).add(s, y);
+            predecessors.get(y).add(s, x);
+            activate(y);
+
+            // CR4 forwards: A ∈ S(Y) and ∃s.A ⊑ B
+            IntList subs = subsumerLists.get(y);
+            for (int i = 0; i < subs.size(); i++) {
+                IntList implied = existsLeft.get(pack(s, subs.get(i)));
+                if (implied != null) {
+                    for (int j = 0; j < implied.size(); j++) push(x, SUBSUMER, implied.get(j));
+                }
+            }
+            // CR5: ⊥ ∈ S(Y)
+            if (subsumers.contains(pack(y, BOTTOM))) push(x, SUBSUMER, BOTTOM);
+
+            // role chains s ∘ t ⊑ u with (Y, Z) ∈ R(t)
+            IntList asFirst = chainsByFirst.get(s);
+            for (int i = 0; i < asFirst.size(); i += 2) {
+                int t = asFirst.get(i);
+                int u = asFirst.get(i + 1);
+                IntList succ = successors.get(y);
+                for (int j = 0; j < succ.size(); j += 2) {
+                    if (succ.get(j) == t) push(x, u, succ.get(j + 1));
+                }
+            }
+            // role chains t ∘ s ⊑ u with (W, X) ∈ R(t)
+            IntList asSecond = chainsBySecond.get(s);
+            for (int i = 0; i < asSecond.size(); i += 2) {
+                int t = asSecond.get(i);
+                int u = asSecond.get(i + 1);
+                IntList pred = predecessors.get(x);
+                for (int j = 0; j < pred.size(); j += 2) {
+                    if (pred.get(j) == t) push(pred.get(j + 1), u, y);
+                }
+            }
+        }
+    }
+
+    // ===================================================================================
+    // Queries
+    // ===================================================================================
+
+    /**
+     * Checks whether sub ⊑ sup follows from the saturated TBox.
+     * Named subclasses are answered from S(A)/R(r) directly; a complex subclass C is answered
+     * by saturating a fresh concept Q with Q ⊑ C.
+     */
+    public boolean entails(OWLClassExpression sub, OWLClassExpression sup) {
+        if (!sub.isAnonymous()) {
+            lock.readLock().lock();
+            try {
+                Integer id = idOf(sub.asOWLClass());
+                if (id != null) return holds(id, sup);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            // Q ⊑ C for a fresh (memoized) name Q; adding it does not change any existing context
+            int query = rhs(sub);
+            activate(query);
+            saturate();
+            return holds(query, sup);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // evaluates sup at the canonical-model element of context x
+    private boolean holds(int x, OWLClassExpression sup) {
+        if (subsumers.contains(pack(x, BOTTOM))) return true;
+        if (!sup.isAnonymous()) {
+            Integer id = idOf(sup.asOWLClass());
+            return id != null && subsumers.contains(pack(x, id));
+        }
+        if (sup instanceof OWLObjectSomeValuesFrom some) {
+            if (some.getProperty().isAnonymous()) throw new UnsupportedOperationException("Inverse roles are not part of EL");
+            Integer role = roleIds.get(some.getProperty().asOWLObjectProperty());
+            if (role == null) return false;
+            IntList succ = successors.get(x);
+            for (int i = 0; i < succ.size(); i += 2) {
+                if (succ.get(i) == role && holds(succ.get(i + 1), some.getFiller())) return true;
+            }
+            return false;
+        }
+        if (sup instanceof OWLObjectIntersectionOf and) {
+            for (OWLClassExpression op : and.getOperandsAsList()) {
+                if (!holds(x, op)) return false;
+            }
+            return true;
+        }
+        throw new UnsupportedOperationException("Not an EL class expression: " + sup);
+    }
+
+    /**
+     * Checks whether r ⊑ s follows from the told role inclusions.
+     */
+    public boolean isSubRole(OWLObjectProperty sub, OWLObjectProperty sup) {
+        if (sub.equals(sup) || sup.isOWLTopObjectProperty() || sub.isOWLBottomObjectProperty()) return true;
+        lock.readLock().lock();
+        try {
+            Integer r = roleIds.get(sub);
+            Integer s = roleIds.get(sup);
+            return r != null && s != null && Arrays.binarySearch(superRoles[r], s) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the named (non-fresh) subsumers in S(A) of a named class, ⊤ and ⊥ included.
+     */
+    public Set<OWLClass> subsumersOf(OWLClass cls) {
+        lock.readLock().lock();
+        try {
+            Set<OWLClass> result = new HashSet<>();
+            Integer id = idOf(cls);
+            if (id == null) {
+                result.add(df.getOWLThing());
+                result.add(cls);
+                return result;
+            }
+            IntList subs = subsumerLists.get(id);
+            for (int i = 0; i < subs.size(); i++) {
+                OWLClass named = concepts.get(subs.get(i));
+                if (named != null) result.add(named);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the named classes of the TBox (without ⊤ and ⊥).
+     */
+    public Set<OWLClass> namedClasses() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(conceptIds.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the named roles of the TBox.
+     */
+    public Set<OWLObjectProperty> namedRoles() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(roleIds.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the told named super-roles of a role (reflexive-transitive closure).
+     */
+    public Set<OWLObjectProperty> superRolesOf(OWLObjectProperty prop) {
+        lock.readLock().lock();
+        try {
+            Set<OWLObjectProperty> result = new HashSet<>();
+            Integer r = roleIds.get(prop);
+            if (r == null) {
+                result.add(prop);
+                return result;
+            }
+            for (int s : superRoles[r]) {
+                if (roles.get(s) != null) result.add(roles.get(s));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the told ranges of a role and its super-roles.
+     */
+    public List<OWLClassExpression> rangesOf(OWLObjectProperty prop) {
+        lock.readLock().lock();
+        try {
+            List<OWLClassExpression> result = new ArrayList<>();
+            Integer r = roleIds.get(prop);
+            if (r != null) {
+                for (int s : superRoles[r]) result.addAll(toldRanges.get(s));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Integer idOf(OWLClass cls) {
+        if (cls.isOWLThing()) return TOP;
+        if (cls.isOWLNothing()) return BOTTOM;
+        return conceptIds.get(cls);
+    }
+
+    private static long pack(int hi, int lo) {
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+
+    // ===================================================================================
+    // Primitive collections
+    // ===================================================================================
+
+    /**
+     * Growable int array.
+     */
+    static final class IntList {
+        private int[] data = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        void add(int a, int b) {
+            add(a);
+            add(b);
+        }
+
+        void add(int a, int b, int c) {
+            add(a);
+            add(b);
+            add(c);
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+            if (data.length > 1024) data = new int[4];
+        }
+    }
+
+    /**
+     * Open-addressing hash set of non-negative packed long keys.
+     */
+    static final class LongSet {
+        private static final long EMPTY = -1L;
+        private long[] table = newTable(16);
+        private int size = 0;
+
+        boolean add(long key) {
+            if ((size + 1) * 2 > table.length) rehash();
+            int slot = find(table, key);
+            if (table[slot] == key) return false;
+            table[slot] = key;
+            size++;
+            return true;
+        }
+
+        boolean contains(long key) {
+            return table[find(table, key)] == key;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int find(long[] table, long key) {
+            int mask = table.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (table[slot] != EMPTY && table[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void rehash() {
+            long[] grown = newTable(table.length * 2);
+            for (long key : table) {
+                if (key != EMPTY) grown[find(grown, key)] = key;
+            }
+            table = grown;
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] t = new long[capacity];
+            Arrays.fill(t, EMPTY);
+            return t;
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
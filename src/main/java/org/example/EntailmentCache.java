@@ -0,0 +1,374 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * EntailmentCache remembers entailment answers on disk across runs.
+ *
+ * Answers are keyed by the SHA-256 of (ontology content hash, reasoner name/version, axiom
+ * without annotations), so an edited ontology or another reasoner never sees stale answers.
+ * The file is an append-only log of fixed-size records (32-byte key, 1-byte answer) behind a
+ * small header; it is memory-mapped and replayed into an LRU map on open, new answers are
+ * appended on {@link #flush()}, and {@link #close()} rewrites the file with only the live
+ * entries, least recently used first, once evicted or duplicate records are in it.
+ *
+ * The cache is thread-safe. A cache holds an exclusive lock on a sidecar ".lock" file while it
+ * is open, and opening a file another cache (in this or another process) holds fails, so no
+ * process ever overwrites answers appended by another one.
+ */
+public class EntailmentCache implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(EntailmentCache.class.getName());
+
+    private static final int MAGIC = 0x454E5443; // "ENTC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 33;
+
+    // SHA-256 digest of a cache key, as four longs
+    private record Key(long a, long b, long c, long d) {
+        static Key read(ByteBuffer buf) {
+            return new Key(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong());
+        }
+
+        void write(ByteBuffer buf) {
+            buf.putLong(a).putLong(b).putLong(c).putLong(d);
+        }
+    }
+
+    // ontology hashes by ontology, dropped when the ontology changes
+    private record Hash(WeakReference<OWLOntology> ontology, String hash) {
+    }
+
+    private static final Map<OWLOntology, Hash> hashes = new WeakHashMap<>();
+    private static final Set<OWLOntologyManager> watched = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final Map<Class<?>, String> builds = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final FileChannel lockChannel;
+    private FileLock lock;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Boolean> entries;
+    private final List<Map.Entry<Key, Boolean>> pending = new ArrayList<>();
+    private long records;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Opens (or creates) a cache file.
+     *
+     * @param file       the cache file; parent directories are created
+     * @param maxEntries maximum number of answers kept, least recently used ones are evicted
+     * @throws IOException if the file cannot be read, is not a cache file or is held by another cache
+     */
+    public EntailmentCache(Path file, int maxEntries) throws IOException {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        // the data file is replaced on close, so the lock lives on a file that never is
+        this.lockChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Entailment cache " + file + " is in use by another process; "
+                    + "pass another file or an empty one to -Dbenchmark.cache");
+        }
+        // access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                if (size() <= EntailmentCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+        try {
+            if (Files.exists(file)) load();
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) return;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Not an entailment cache file: " + file);
+            }
+            while (buf.remaining() >= RECORD_BYTES) {
+                Key key = Key.read(buf);
+                entries.put(key, buf.get() != 0);
+                records++;
+            }
+            // a torn record at the end is what an interrupted append leaves; no one else writes
+            // while the lock is held, so only those bytes are cut
+            if (buf.hasRemaining()) channel.truncate(end());
+        }
+        evictions = 0;
+        logger.info("Loaded " + entries.size() + " cached entailments from " + file);
+    }
+
+    /**
+     * Returns the cached answer, or null if the axiom has not been answered for this ontology
+     * and reasoner yet.
+     *
+     * @param ontologyHash content hash from {@link #ontologyHash(OWLOntology)}
+     * @param reasonerId   reasoner identifier from {@link #reasonerId(OWLReasonerFactory)}
+     * @param axiom        the query axiom
+     */
+    public synchronized Boolean get(String ontologyHash, String reasonerId, OWLAxiom axiom) {
+        Boolean answer = entries.get(key(ontologyHash, reasonerId, axiom));
+        if (answer == null) misses++;
+        else hits++;
+        return answer;
+    }
+
+    /**
+     * Stores an answer; it is written to disk on the next {@link #flush()}.
+     */
+    public synchronized void put(String ontologyHash, String reasonerId, OWLAxiom axiom, boolean entailed) {
+        Key key = key(ontologyHash, reasonerId, axiom);
+        entries.put(key, entailed);
+        pending.add(Map.entry(key, entailed));
+    }
+
+    /**
+     * Appends the answers stored since the last flush to the cache file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.isEmpty()) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + pending.size() * RECORD_BYTES);
+            if (channel.size() < HEADER_BYTES) {
+                buf.putInt(MAGIC).putInt(VERSION);
+            } else if (channel.size() != end()) {
+                // the lock keeps other caches out, so this is a writer that ignored it
+                throw new IOException("Entailment cache " + file + " was changed by another process");
+            }
+            for (Map.Entry<Key, Boolean> entry : pending) {
+                entry.getKey().write(buf);
+                buf.put((byte) (entry.getValue() ? 1 : 0));
+            }
+            buf.flip();
+            channel.position(channel.size());
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+        records += pending.size();
+        pending.clear();
+    }
+
+    /**
+     * Flushes, then rewrites the file with only the live entries (least recently used first)
+     * if it holds records of evicted or overwritten entries.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (lock == null) return;
+        try {
+            flush();
+            if (records > entries.size()) compact();
+        } finally {
+            release();
+        }
+    }
+
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + entries.size() * RECORD_BYTES);
+            buf.putInt(MAGIC).putInt(VERSION);
+            for (Map.Entry<Key, Boolean> entry : entries.entrySet()) {
+                entry.getKey().write(buf);
+                buf.put((byte) (entry.getValue() ? 1 : 0));
+            }
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = entries.size();
+    }
+
+    // the file size that holds exactly the records read and written so far
+    private long end() {
+        return HEADER_BYTES + records * RECORD_BYTES;
+    }
+
+    private void release() throws IOException {
+        try {
+            if (lock != null) lock.release();
+        } finally {
+            lock = null;
+            lockChannel.close();
+        }
+    }
+
+    /** Number of answers currently held. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Lookups answered from the cache. */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /** Lookups that found no answer. */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /** Answers dropped to stay within the size bound. */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns hit/miss statistics, e.g. for logging at the end of a run.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hit_rate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    /**
+     * Hash of the logical content of an ontology: SHA-256 over its sorted axioms, so the same
+     * axioms give the same hash regardless of file layout or load order. It is computed once per
+     * ontology and again only after the ontology has changed.
+     */
+    public static String ontologyHash(OWLOntology ontology) {
+        OWLOntologyManager manager = ontology.getOWLOntologyManager();
+        synchronized (hashes) {
+            Hash known = hashes.get(ontology);
+            // ontologies are equal by ID, so another ontology with the same IRI may be found
+            if (known != null && known.ontology().get() == ontology) return known.hash();
+            if (manager != null && watched.add(manager)) {
+                manager.addOntologyChangeListener(changes -> {
+                    synchronized (hashes) {
+                        changes.forEach(change -> hashes.remove(change.getOntology()));
+                    }
+                });
+            }
+        }
+        String hash = computeHash(ontology);
+        if (manager != null) {
+            synchronized (hashes) {
+                hashes.put(ontology, new Hash(new WeakReference<>(ontology), hash));
+            }
+        }
+        return hash;
+    }
+
+    private static String computeHash(OWLOntology ontology) {
+        MessageDigest digest = sha256();
+        ontology.axioms()
+                .map(Object::toString)
+                .sorted()
+                .forEach(ax -> {
+                    digest.update(ax.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) '\n');
+                });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Identifies a reasoner implementation by factory name and the version of its jar. A factory
+     * without a version, such as one built from this source tree, is identified by a hash of the
+     * jar or class directory it was loaded from, so a rebuilt reasoner never sees stale answers.
+     */
+    public static String reasonerId(OWLReasonerFactory factory) {
+        String version = factory.getClass().getPackage().getImplementationVersion();
+        if (version == null) version = builds.computeIfAbsent(factory.getClass(), EntailmentCache::buildHash);
+        return factory.getReasonerName() + "/" + version;
+    }
+
+    // SHA-256 over the jar or class directory a class was loaded from, or over the class itself
+    private static String buildHash(Class<?> type) {
+        MessageDigest digest = sha256();
+        try {
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            if (source != null && source.getLocation() != null) {
+                Path location = Path.of(source.getLocation().toURI());
+                try (Stream<Path> files = Files.walk(location)) {
+                    for (Path f : files.filter(Files::isRegularFile).sorted().toList()) {
+                        digest.update(location.relativize(f).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(f));
+                    }
+                }
+            } else {
+                try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+                    if (in == null) throw new IOException("No class file for " + type.getName());
+                    digest.update(in.readAllBytes());
+                }
+            }
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            // answers of this run are then never reused by a later one
+            logger.warning("Cannot identify the build of " + type.getName() + ", cached answers will not be reused: " + e);
+            return "run-" + UUID.randomUUID();
+        }
+        return "build-" + HexFormat.of().formatHex(digest.digest(), 0, 8);
+    }
+
+    private static Key key(String ontologyHash, String reasonerId, OWLAxiom axiom) {
+        MessageDigest digest = sha256();
+        digest.update(ontologyHash.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(reasonerId.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        // annotations do not change what is entailed
+        digest.update(axiom.getAxiomWithoutAnnotations().toString().getBytes(StandardCharsets.UTF_8));
+        return Key.read(ByteBuffer.wrap(digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
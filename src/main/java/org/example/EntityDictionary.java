@@ -0,0 +1,85 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EntityDictionary is the symbol table of an ontology: every class, property and individual in
+ * its signature gets a dense int ID (0..size-1) and its IRI short form is computed once.
+ *
+ * IDs follow the sorted signature, so the same ontology always gets the same IDs. A dictionary
+ * is immutable once built and can be shared between threads. Entities that are not in the
+ * ontology (e.g. fresh names created later) have no ID and their short form is computed on demand.
+ */
+public class EntityDictionary {
+
+    /** A dictionary without entities; every short form is computed on demand. */
+    public static final EntityDictionary EMPTY = new EntityDictionary(new OWLEntity[0]);
+
+    private final OWLEntity[] entities;
+    private final String[] shortForms;
+    private final Map<OWLEntity, Integer> ids;
+
+    private EntityDictionary(OWLEntity[] entities) {
+        this.entities = entities;
+        this.shortForms = new String[entities.length];
+        this.ids = new HashMap<>(entities.length * 2);
+        for (int i = 0; i < entities.length; i++) {
+            shortForms[i] = entities[i].getIRI().getShortForm();
+            ids.put(entities[i], i);
+        }
+    }
+
+    /**
+     * Interns the signature of an ontology (including imports).
+     *
+     * @param ontology the ontology
+     * @return the dictionary
+     */
+    public static EntityDictionary of(OWLOntology ontology) {
+        return new EntityDictionary(ontology.signature(Imports.INCLUDED)
+                .distinct()
+                .sorted()
+                .toArray(OWLEntity[]::new));
+    }
+
+    /**
+     * Returns the ID of an entity, or -1 if it is not in the dictionary.
+     */
+    public int id(OWLEntity entity) {
+        Integer id = ids.get(entity);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the entity with the given ID.
+     */
+    public OWLEntity entity(int id) {
+        return entities[id];
+    }
+
+    /**
+     * Returns the cached short form for an ID.
+     */
+    public String shortForm(int id) {
+        return shortForms[id];
+    }
+
+    /**
+     * Returns the short form (local name) of an entity, cached if it is in the dictionary.
+     */
+    public String shortForm(OWLEntity entity) {
+        Integer id = ids.get(entity);
+        return id == null ? entity.getIRI().getShortForm() : shortForms[id];
+    }
+
+    /**
+     * Number of interned entities.
+     */
+    public int size() {
+        return entities.length;
+    }
+}
@@ -0,0 +1,396 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * IncrementalRegenerator rebuilds the benchmark after small ontology edits, re-validating only
+ * the test cases the edits can affect and reusing every other entry of the previous output.
+ *
+ * A subject group is affected when its axioms changed, or when a changed axiom mentions an
+ * entity the group can reach through the told axioms (sub-class, sub-role, domain/range and
+ * equivalence edges, followed transitively). Everything the reasoner could use to answer the
+ * group's target axiom is reachable that way, so unaffected entries keep their answer.
+ *
+ * The regenerator listens to the live ontology ({@link OWLOntologyChangeListener}) and keeps one
+ * validation session; on {@link #regenerate} the session's reasoner takes the buffered changes
+ * (incrementally where the reasoner supports it) instead of being rebuilt.
+ * {@link #main} runs the same process between runs: it diffs the ontology against the snapshot
+ * saved by the previous run and rewrites `benchmark_output.json` in place.
+ *
+ * With a {@link MetamorphicExpander} ({@link #withRelations}) every case is replaced by its
+ * variants, as in {@link BenchmarkRunner#generate}. A group's variants are reused together, and
+ * only if the previous run emitted the same relations.
+ */
+public class IncrementalRegenerator implements OWLOntologyChangeListener, AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(IncrementalRegenerator.class.getName());
+
+    private static final Gson gson = new Gson();
+
+    private final OWLOntology ontology;
+    private final OWLReasonerFactory reasonerFactory;
+
+    // state of the last generation: groups and their entries (without ID) by subject IRI
+    private Map<String, List<OWLAxiom>> groups;
+    private Map<String, List<JsonObject>> entries;
+
+    // axiom changes since the last generation; an axiom added and removed again cancels out
+    private final Set<OWLAxiom> added = new HashSet<>();
+    private final Set<OWLAxiom> removed = new HashSet<>();
+
+    // created on the first regeneration that has something to validate
+    private ReasoningValidator validator;
+    private MetamorphicExpander relations;
+
+    private int lastRegenerated;
+    private int lastReused;
+
+    /**
+     * Starts from a previous generation and listens to further edits of the ontology.
+     *
+     * @param ontology        the live ontology
+     * @param reasonerFactory reasoner used for the "expected" answers
+     * @param previousGroups  groups the previous entries were generated from, from {@link #subjectGroups}
+     * @param previousEntries previous entries by subject IRI, the base case or its variants, e.g. from {@link #readEntries}
+     */
+    public IncrementalRegenerator(OWLOntology ontology, OWLReasonerFactory reasonerFactory,
+                                  Map<String, List<OWLAxiom>> previousGroups, Map<String, List<JsonObject>> previousEntries) {
+        this.ontology = ontology;
+        this.reasonerFactory = reasonerFactory;
+        this.groups = previousGroups;
+        this.entries = previousEntries;
+        ontology.getOWLOntologyManager().addOntologyChangeListener(this);
+    }
+
+    /**
+     * Starts without previous output; the first {@link #regenerate} generates every test case.
+     */
+    public IncrementalRegenerator(OWLOntology ontology, OWLReasonerFactory reasonerFactory) {
+        this(ontology, reasonerFactory, Map.of(), Map.of());
+    }
+
+    /**
+     * Replaces every case by its metamorphic variants. The expander's modules are those of the
+     * ontology when it was created, so set a new one after editing the live ontology.
+     *
+     * @param relations the variants to emit, or null for the base cases only
+     * @return this regenerator
+     */
+    public IncrementalRegenerator withRelations(MetamorphicExpander relations) {
+        this.relations = relations;
+        return this;
+    }
+
+    @Override
+    public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange() || !change.getOntology().equals(ontology)) continue;
+            if (change.isAddAxiom()) recordChange(change.getAxiom(), added, removed);
+            else recordChange(change.getAxiom(), removed, added);
+        }
+    }
+
+    /**
+     * Records changes made while the regenerator was not listening, e.g. a diff against a snapshot.
+     */
+    public void noteChanges(Collection<OWLAxiom> addedAxioms, Collection<OWLAxiom> removedAxioms) {
+        addedAxioms.forEach(ax -> recordChange(ax, added, removed));
+        removedAxioms.forEach(ax -> recordChange(ax, removed, added));
+    }
+
+    private static void recordChange(OWLAxiom axiom, Set<OWLAxiom> into, Set<OWLAxiom> opposite) {
+        if (!opposite.remove(axiom)) into.add(axiom);
+    }
+
+    /**
+     * Generates the benchmark for the current ontology, reusing the entries of unaffected groups.
+     * IDs are assigned by position as in {@link BenchmarkRunner#generate}, so the output equals
+     * a full regeneration.
+     *
+     * @param sink receives the test cases in ID order
+     */
+    public void regenerate(Consumer<JsonObject> sink) {
+        EntityDictionary names = EntityDictionary.of(ontology);
+        AxiomFormatter formatter = new AxiomFormatter(names);
+        Map<String, List<OWLAxiom>> current = subjectGroups(ontology, names);
+        Set<String> affected = affectedSubjects(current);
+        // bring the session up to date with the buffered ontology changes
+        if (validator != null) validator.refresh();
+
+        // the "mr" fields of a group's entries, in the order they are emitted
+        List<String> labels = new ArrayList<>();
+        if (relations == null) labels.add(null);
+        else relations.relations().forEach(relation -> labels.add(relation.label()));
+
+        int regenerated = 0;
+        int reused = 0;
+        Map<String, List<JsonObject>> next = new HashMap<>();
+        int id = 0;
+        for (Map.Entry<String, List<OWLAxiom>> group : current.entrySet()) {
+            if (QueryGenerator.getQueryAxiom(group.getValue()) == null) continue;
+            String subject = group.getKey();
+            String baseId = "test_" + (++id);
+            List<JsonObject> previous = entries.get(subject);
+            // reused only with the same relations as this run
+            if (previous != null && !affected.contains(subject)
+                    && labels.equals(previous.stream().map(IncrementalRegenerator::mr).toList())) {
+                for (JsonObject entry : previous) sink.accept(withId(baseId + suffix(entry), entry));
+                next.put(subject, previous);
+                reused += previous.size();
+                continue;
+            }
+            Map<String, Object> base = BenchmarkRunner.createTestCase(baseId, group.getValue(), formatter, validator(), null);
+            List<JsonObject> generated = new ArrayList<>();
+            for (Map<String, Object> entry : relations == null ? List.of(base) : relations.expand(base, group.getValue(), formatter)) {
+                JsonObject json = gson.toJsonTree(entry).getAsJsonObject();
+                sink.accept(json);
+                json = json.deepCopy();
+                json.remove("id");
+                generated.add(json);
+            }
+            next.put(subject, generated);
+            regenerated += generated.size();
+        }
+
+        groups = current;
+        entries = next;
+        added.clear();
+        removed.clear();
+        lastRegenerated = regenerated;
+        lastReused = reused;
+        logger.info("Regenerated " + regenerated + " test cases, reused " + reused);
+    }
+
+    /**
+     * Groups the axioms of an ontology by subject IRI, in the order {@link BenchmarkRunner}
+     * numbers them; classes that share a short form stay separate groups, as in a full run.
+     *
+     * @param ontology the ontology
+     * @return the groups by subject IRI, in test case order
+     */
+    public static Map<String, List<OWLAxiom>> subjectGroups(OWLOntology ontology) {
+        return subjectGroups(ontology, EntityDictionary.of(ontology));
+    }
+
+    private static Map<String, List<OWLAxiom>> subjectGroups(OWLOntology ontology, EntityDictionary names) {
+        Map<String, List<OWLAxiom>> groups = new LinkedHashMap<>();
+        for (List<OWLAxiom> group : AxiomGrouper.inSubjectOrder(AxiomGrouper.groupBySubjectId(ontology, names), names)) {
+            // the axioms of a group share their named subclass
+            OWLClass subject = ((OWLSubClassOfAxiom) group.get(0)).getSubClass().asOWLClass();
+            groups.put(subject.getIRI().toString(), group);
+        }
+        return groups;
+    }
+
+    /** Number of test cases validated again by the last {@link #regenerate}. */
+    public int regeneratedCount() {
+        return lastRegenerated;
+    }
+
+    /** Number of test cases copied from the previous output by the last {@link #regenerate}. */
+    public int reusedCount() {
+        return lastReused;
+    }
+
+    // the validation session, kept across regenerations
+    private ReasoningValidator validator() {
+        if (validator == null) validator = new ReasoningValidator(ontology, reasonerFactory);
+        return validator;
+    }
+
+    /**
+     * Subjects whose test case may have changed: groups whose axioms differ from the previous
+     * generation, and groups that reach an entity of a changed axiom.
+     */
+    Set<String> affectedSubjects(Map<String, List<OWLAxiom>> current) {
+        Set<String> affected = new HashSet<>();
+        current.forEach((subject, axioms) -> {
+            if (!axioms.equals(groups.get(subject))) affected.add(subject);
+        });
+        if (added.isEmpty() && removed.isEmpty()) return affected;
+
+        // entities that reach a changed entity, found backwards over the dependency edges
+        Map<OWLEntity, Set<OWLEntity>> reverse = new HashMap<>();
+        ontology.axioms().forEach(ax -> addEdges(ax, reverse));
+        removed.forEach(ax -> addEdges(ax, reverse));
+
+        Set<OWLEntity> tainted = new HashSet<>();
+        Deque<OWLEntity> queue = new ArrayDeque<>();
+        for (OWLAxiom ax : added) ax.signature().forEach(queue::add);
+        for (OWLAxiom ax : removed) ax.signature().forEach(queue::add);
+        while (!queue.isEmpty()) {
+            OWLEntity e = queue.poll();
+            if (tainted.add(e)) queue.addAll(reverse.getOrDefault(e, Set.of()));
+        }
+
+        // a changed axiom about owl:Thing applies to every class
+        OWLClass thing = ontology.getOWLOntologyManager().getOWLDataFactory().getOWLThing();
+        boolean global = tainted.contains(thing);
+        current.forEach((subject, axioms) -> {
+            if (global || axioms.stream().flatMap(OWLAxiom::signature).anyMatch(tainted::contains)) {
+                affected.add(subject);
+            }
+        });
+        return affected;
+    }
+
+    // adds "to depends on from" edges reversed, i.e. from -> to becomes to <- from
+    private static void addEdges(OWLAxiom axiom, Map<OWLEntity, Set<OWLEntity>> reverse) {
+        Set<OWLEntity> from;
+        Set<OWLEntity> to;
+        if (axiom instanceof OWLSubClassOfAxiom sca) {
+            from = sca.getSubClass().signature().collect(Collectors.toSet());
+            to = sca.getSuperClass().signature().collect(Collectors.toSet());
+        } else if (axiom instanceof OWLSubObjectPropertyOfAxiom spa) {
+            from = spa.getSubProperty().signature().collect(Collectors.toSet());
+            to = spa.getSuperProperty().signature().collect(Collectors.toSet());
+        } else if (axiom instanceof OWLSubPropertyChainOfAxiom chain) {
+            from = chain.getPropertyChain().stream().flatMap(OWLObject::signature).collect(Collectors.toSet());
+            to = chain.getSuperProperty().signature().collect(Collectors.toSet());
+        } else if (axiom instanceof OWLPropertyDomainAxiom<?> || axiom instanceof OWLPropertyRangeAxiom<?, ?>) {
+            OWLUnaryPropertyAxiom<?> pa = (OWLUnaryPropertyAxiom<?>) axiom;
+            from = pa.getProperty().signature().collect(Collectors.toSet());
+            to = axiom.signature().collect(Collectors.toSet());
+        } else {
+            // equivalence, disjointness, characteristics, ...: every entity depends on every other
+            from = axiom.signature().collect(Collectors.toSet());
+            to = from;
+        }
+        for (OWLEntity t : to) {
+            for (OWLEntity f : from) {
+                if (!f.equals(t)) reverse.computeIfAbsent(t, k -> new HashSet<>()).add(f);
+            }
+        }
+    }
+
+    // the metamorphic relation of an entry, null for a base case
+    private static String mr(JsonObject entry) {
+        return entry.has("mr") ? entry.get("mr").getAsString() : null;
+    }
+
+    // what the entry's ID adds to the ID of its base case
+    private static String suffix(JsonObject entry) {
+        String mr = mr(entry);
+        return mr == null ? "" : MetamorphicExpander.Relation.parse(mr).suffix();
+    }
+
+    // copy of an entry with the ID as first field, as the writer puts it
+    private static JsonObject withId(String id, JsonObject entry) {
+        JsonObject result = new JsonObject();
+        result.addProperty("id", id);
+        for (Map.Entry<String, JsonElement> field : entry.entrySet()) {
+            if (!field.getKey().equals("id")) result.add(field.getKey(), field.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Stops listening to the ontology and disposes the validation session.
+     */
+    @Override
+    public void close() {
+        ontology.getOWLOntologyManager().removeOntologyChangeListener(this);
+        if (validator != null) validator.close();
+    }
+
+    /**
+     * Regenerates the benchmark incrementally against the snapshot of the previous run.
+     * Falls back to a full generation when there is no snapshot or no previous output.
+     *
+     * @param args optional: ontology file, output file, snapshot file
+     * @throws Exception if loading, reasoning or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        String ontologyFile = args.length > 0 ? args[0] : "src/main/resources/ontology/pizza-el.owl";
+        String outputFile = args.length > 1 ? args[1] : "output_HermitReasoner/benchmark_output.json";
+        String snapshotFile = args.length > 2 ? args[2] : "output_HermitReasoner/ontology_snapshot.owl";
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"));
+        // metamorphic variants as in BenchmarkRunner, e.g. -Dbenchmark.mr=MR-0,MR-9
+        Set<MetamorphicExpander.Relation> mr = MetamorphicExpander.parse(System.getProperty("benchmark.mr", ""));
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(ontologyFile));
+        IncrementalRegenerator regenerator;
+        if (new File(snapshotFile).exists() && new File(outputFile).exists()) {
+            OWLOntology snapshot = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(snapshotFile));
+            Map<String, List<OWLAxiom>> previousGroups = subjectGroups(snapshot);
+            regenerator = new IncrementalRegenerator(ontology, factory, previousGroups, readEntries(outputFile, previousGroups));
+
+            Set<OWLAxiom> before = snapshot.axioms().collect(Collectors.toSet());
+            Set<OWLAxiom> after = ontology.axioms().collect(Collectors.toSet());
+            regenerator.noteChanges(
+                    after.stream().filter(ax -> !before.contains(ax)).toList(),
+                    before.stream().filter(ax -> !after.contains(ax)).toList());
+        } else {
+            logger.info("No snapshot of a previous run, generating every test case");
+            regenerator = new IncrementalRegenerator(ontology, factory);
+        }
+
+        if (!mr.isEmpty()) regenerator.withRelations(new MetamorphicExpander(ontology, factory, mr, null));
+
+        // write next to the old output, which is still being read from, then swap
+        Path output = Path.of(outputFile);
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (regenerator; BenchmarkWriter writer = new BenchmarkWriter(temp.toString(), format)) {
+            regenerator.regenerate(entry -> {
+                try {
+                    writer.write(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(Path.of(ontologyFile), Path.of(snapshotFile), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Regenerated " + regenerator.regeneratedCount() + " test cases, reused "
+                + regenerator.reusedCount() + " in " + outputFile);
+    }
+
+    /**
+     * Reads a previous output and keys its entries (without ID) by subject IRI. The base case of the
+     * n-th group with a target axiom is test_n, and its metamorphic variants add the suffix of
+     * their "mr" relation, e.g. test_n_mr9; entries with any other ID are left out.
+     */
+    static Map<String, List<JsonObject>> readEntries(String path, Map<String, List<OWLAxiom>> groups) throws IOException {
+        Map<String, String> subjects = new HashMap<>();
+        for (Map.Entry<String, List<OWLAxiom>> group : groups.entrySet()) {
+            if (QueryGenerator.getQueryAxiom(group.getValue()) != null) {
+                subjects.put("test_" + (subjects.size() + 1), group.getKey());
+            }
+        }
+        Map<String, List<JsonObject>> entries = new HashMap<>();
+        try (BenchmarkReader reader = new BenchmarkReader(path)) {
+            while (reader.hasNext()) {
+                JsonObject entry = reader.next();
+                String id = entry.get("id").getAsString();
+                String suffix;
+                try {
+                    suffix = suffix(entry);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                String subject = id.endsWith(suffix) ? subjects.get(id.substring(0, id.length() - suffix.length())) : null;
+                if (subject == null) continue;
+                entry.remove("id");
+                entries.computeIfAbsent(subject, s -> new ArrayList<>()).add(entry);
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,466 @@
+package org.example;
+
+import com.google.gson.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * JustificationFinder computes the justifications of entailed axioms: the minimal subsets of
+ * the ontology that still entail them, e.g. to stratify "Yes" test cases by how much reasoning
+ * they need.
+ *
+ * Every justification of an axiom lies in the ⊥-module of its signature, so the search starts
+ * from the (cached) module instead of the ontology. One justification is found black-box:
+ * - expansion: starting from the axioms sharing a symbol with the entailment, axioms connected
+ *   by signature are added until the set entails it
+ * - contraction: the set is shrunk to a minimal one by divide and conquer (QuickXplain), about
+ *   k·log(n/k) entailment tests for a justification of k axioms out of n
+ * and all justifications by Reiter's hitting-set tree over the module, reusing a known
+ * justification that a path does not hit and closing paths that contain a non-entailing one.
+ * An entailment test on a set that contains the axiom itself is answered without a reasoner,
+ * so the trivial justification of an asserted axiom costs nothing.
+ *
+ * Every item has a wall-clock budget and a maximum number of justifications; a search that hits
+ * either is reported as incomplete with what it found so far. Complete results are kept in a
+ * cache file across runs, keyed by ontology hash, reasoner and axiom, like {@link EntailmentCache}.
+ * The finder is thread-safe; {@link #justifyAll} searches several items at once.
+ */
+public class JustificationFinder implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(JustificationFinder.class.getName());
+    private static final Gson gson = new Gson();
+
+    /**
+     * The justifications found for one entailment.
+     *
+     * @param entailment     the entailed axiom
+     * @param justifications minimal entailing subsets, smallest first; empty if not entailed
+     * @param complete       false if the budget or the maximum count stopped the search
+     * @param millis         search time, 0 if cached
+     * @param tests          entailment tests that needed a reasoner
+     */
+    public record Result(OWLAxiom entailment, List<Set<OWLAxiom>> justifications, boolean complete, long millis,
+                         long tests) {
+
+        /** Size of the smallest justification, 0 if there is none. */
+        public int minSize() {
+            return justifications.stream().mapToInt(Set::size).min().orElse(0);
+        }
+
+        /** Size of the largest justification, 0 if there is none. */
+        public int maxSize() {
+            return justifications.stream().mapToInt(Set::size).max().orElse(0);
+        }
+    }
+
+    // thrown by an entailment test after the item's deadline
+    private static final class BudgetExceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final OWLReasonerFactory reasonerFactory;
+    private final ModuleCache modules;
+    private final long budgetMillis;
+    private final int maxJustifications;
+    // scratch ontologies for entailment tests, one manager per worker thread
+    private final ThreadLocal<OWLOntologyManager> managers = ThreadLocal.withInitial(OWLManager::createOWLOntologyManager);
+
+    private final String ontologyHash;
+    private final String reasonerId;
+    private final Map<String, OWLAxiom> axiomsByText = new HashMap<>();
+    private Path cacheFile;
+    // justifications by axiom text, which also works for entailments that are not in the ontology
+    private final Map<String, List<Set<OWLAxiom>>> cached = new HashMap<>();
+    private final List<Result> pending = new ArrayList<>();
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong incomplete = new AtomicLong();
+    private final AtomicLong tests = new AtomicLong();
+
+    /**
+     * @param ontology          the ontology
+     * @param reasonerFactory   reasoner used for entailment tests
+     * @param modules           ⊥-modules of the ontology, or null to extract them here
+     * @param budgetMillis      wall-clock budget of one item, 0 for none
+     * @param maxJustifications justifications searched per item
+     */
+    public JustificationFinder(OWLOntology ontology, OWLReasonerFactory reasonerFactory, ModuleCache modules,
+                               long budgetMillis, int maxJustifications) {
+        if (maxJustifications < 1) throw new IllegalArgumentException("Need at least one justification: " + maxJustifications);
+        this.reasonerFactory = reasonerFactory;
+        this.modules = modules != null ? modules : new ModuleCache(ontology, 1024);
+        this.budgetMillis = budgetMillis;
+        this.maxJustifications = maxJustifications;
+        this.ontologyHash = EntailmentCache.ontologyHash(ontology);
+        this.reasonerId = EntailmentCache.reasonerId(reasonerFactory);
+        ontology.logicalAxioms(Imports.INCLUDED).forEach(ax -> axiomsByText.put(text(ax), ax));
+    }
+
+    /**
+     * Loads the justifications cached for this ontology and reasoner from the file, and appends
+     * new complete results to it on {@link #flush()}.
+     *
+     * @return this finder
+     * @throws IOException if the file exists but cannot be read
+     */
+    public JustificationFinder withCache(Path file) throws IOException {
+        this.cacheFile = file;
+        if (!Files.exists(file)) return this;
+        int loaded = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                JsonObject record;
+                try {
+                    record = JsonParser.parseString(line).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    // a torn last line of an interrupted run
+                    continue;
+                }
+                if (!ontologyHash.equals(record.get("ontology").getAsString())
+                        || !reasonerId.equals(record.get("reasoner").getAsString())) continue;
+                List<Set<OWLAxiom>> justifications = new ArrayList<>();
+                for (JsonElement justification : record.getAsJsonArray("justifications")) {
+                    Set<OWLAxiom> axioms = new LinkedHashSet<>();
+                    justification.getAsJsonArray().forEach(ax -> axioms.add(axiomsByText.get(ax.getAsString())));
+                    justifications.add(axioms);
+                }
+                if (justifications.stream().noneMatch(j -> j.contains(null))) {
+                    cached.put(record.get("axiom").getAsString(), justifications);
+                    loaded++;
+                }
+            }
+        }
+        logger.info("Loaded " + loaded + " cached justification sets from " + file);
+        return this;
+    }
+
+    private static String text(OWLAxiom axiom) {
+        return axiom.getAxiomWithoutAnnotations().toString();
+    }
+
+    /**
+     * Finds the justifications of an axiom.
+     *
+     * @param entailment the axiom, typically entailed by the ontology
+     * @return the justifications, from the cache if it has them
+     */
+    public Result justify(OWLAxiom entailment) {
+        List<Set<OWLAxiom>> known;
+        synchronized (this) {
+            known = cached.get(text(entailment));
+        }
+        if (known != null) {
+            hits.incrementAndGet();
+            return new Result(entailment, known, true, 0, 0);
+        }
+        searches.incrementAndGet();
+        long start = System.nanoTime();
+        long deadline = budgetMillis > 0 ? start + budgetMillis * 1_000_000 : Long.MAX_VALUE;
+        Search search = new Search(entailment, deadline);
+        boolean complete;
+        try {
+            complete = search.run(modules.moduleFor(List.of(entailment)).ontology().logicalAxioms()
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+        } catch (BudgetExceeded e) {
+            complete = false;
+        }
+        List<Set<OWLAxiom>> found = new ArrayList<>(search.found);
+        found.sort(Comparator.comparingInt(Set::size));
+        Result result = new Result(entailment, found, complete, (System.nanoTime() - start) / 1_000_000, search.tests);
+        tests.addAndGet(search.tests);
+        if (!complete) incomplete.incrementAndGet();
+        synchronized (this) {
+            if (complete) {
+                cached.put(text(entailment), found);
+                if (cacheFile != null) pending.add(result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the justifications of several axioms on a dedicated pool of worker threads.
+     *
+     * @param entailments the axioms
+     * @param parallelism number of worker threads
+     * @return one result per axiom, in the given order
+     * @throws Exception if a worker fails
+     */
+    public List<Result> justifyAll(List<OWLAxiom> entailments, int parallelism) throws Exception {
+        if (parallelism <= 1) return entailments.stream().map(this::justify).toList();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> entailments.parallelStream().map(this::justify).toList()).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // one hitting-set tree search over a module
+    private final class Search {
+        private final OWLAxiom entailment;
+        private final OWLAxiom goal;
+        private final long deadline;
+        private final List<Set<OWLAxiom>> found = new ArrayList<>();
+        private long tests;
+
+        Search(OWLAxiom entailment, long deadline) {
+            this.entailment = entailment;
+            this.goal = entailment.getAxiomWithoutAnnotations();
+            this.deadline = deadline;
+        }
+
+        // returns true if every justification was found
+        boolean run(Set<OWLAxiom> module) {
+            Deque<Set<OWLAxiom>> paths = new ArrayDeque<>();
+            Set<Set<OWLAxiom>> seen = new HashSet<>();
+            List<Set<OWLAxiom>> closed = new ArrayList<>();
+            // a tautology has the empty justification only
+            if (entails(List.of())) {
+                found.add(Set.of());
+                return true;
+            }
+            paths.add(Set.of());
+            while (!paths.isEmpty()) {
+                Set<OWLAxiom> path = paths.poll();
+                // a superset of a non-entailing path does not entail either
+                if (closed.stream().anyMatch(path::containsAll)) continue;
+                Set<OWLAxiom> justification = found.stream()
+                        .filter(j -> Collections.disjoint(j, path))
+                        .findFirst().orElse(null);
+                if (justification == null) {
+                    if (found.size() >= maxJustifications) return false;
+                    List<OWLAxiom> remaining = module.stream().filter(ax -> !path.contains(ax)).toList();
+                    justification = single(remaining);
+                    if (justification == null) {
+                        closed.add(path);
+                        continue;
+                    }
+                    found.add(justification);
+                }
+                for (OWLAxiom axiom : justification) {
+                    Set<OWLAxiom> next = new HashSet<>(path);
+                    next.add(axiom);
+                    if (seen.add(next)) paths.add(next);
+                }
+            }
+            return true;
+        }
+
+        // one justification within the axioms, or null if they do not entail the goal
+        private Set<OWLAxiom> single(List<OWLAxiom> axioms) {
+            if (!entails(axioms)) return null;
+            List<OWLAxiom> expanded = expand(axioms);
+            return new LinkedHashSet<>(contract(List.of(), false, expanded));
+        }
+
+        // grows the axioms connected to the goal by shared symbols until they entail it
+        private List<OWLAxiom> expand(List<OWLAxiom> axioms) {
+            Set<OWLEntity> signature = new HashSet<>(goal.signature().toList());
+            List<OWLAxiom> selected = new ArrayList<>();
+            List<OWLAxiom> rest = new ArrayList<>(axioms);
+            while (true) {
+                List<OWLAxiom> connected = rest.stream()
+                        .filter(ax -> ax.signature().anyMatch(signature::contains))
+                        .toList();
+                if (connected.isEmpty()) return axioms;
+                selected.addAll(connected);
+                rest.removeAll(connected);
+                if (entails(selected)) return selected;
+                connected.forEach(ax -> ax.signature().forEach(signature::add));
+            }
+        }
+
+        // QuickXplain: a minimal subset of the candidates that entails the goal together with the background
+        private List<OWLAxiom> contract(List<OWLAxiom> background, boolean changed, List<OWLAxiom> candidates) {
+            if (changed && entails(background)) return List.of();
+            if (candidates.size() == 1) return candidates;
+            int half = candidates.size() / 2;
+            List<OWLAxiom> first = candidates.subList(0, half);
+            List<OWLAxiom> second = candidates.subList(half, candidates.size());
+            List<OWLAxiom> fromSecond = contract(concat(background, first), true, second);
+            List<OWLAxiom> fromFirst = contract(concat(background, fromSecond), !fromSecond.isEmpty(), first);
+            return concat(fromFirst, fromSecond);
+        }
+
+        private boolean entails(List<OWLAxiom> axioms) {
+            for (OWLAxiom axiom : axioms) {
+                if (axiom.getAxiomWithoutAnnotations().equals(goal)) return true;
+            }
+            long remaining = deadline == Long.MAX_VALUE ? 0 : (deadline - System.nanoTime()) / 1_000_000;
+            if (deadline != Long.MAX_VALUE && remaining <= 0) throw new BudgetExceeded();
+            tests++;
+            OWLOntologyManager manager = managers.get();
+            OWLOntology scratch;
+            try {
+                scratch = manager.createOntology(axioms.stream());
+            } catch (OWLOntologyCreationException e) {
+                throw new IllegalStateException("Cannot create a scratch ontology", e);
+            }
+            try {
+                OWLReasoner reasoner = remaining > 0
+                        ? reasonerFactory.createReasoner(scratch, new SimpleConfiguration(remaining))
+                        : reasonerFactory.createReasoner(scratch);
+                try {
+                    return reasoner.isEntailed(entailment);
+                } finally {
+                    reasoner.dispose();
+                }
+            } catch (TimeOutException e) {
+                throw new BudgetExceeded();
+            } finally {
+                manager.removeOntology(scratch);
+            }
+        }
+    }
+
+    private static List<OWLAxiom> concat(List<OWLAxiom> a, List<OWLAxiom> b) {
+        List<OWLAxiom> all = new ArrayList<>(a.size() + b.size());
+        all.addAll(a);
+        all.addAll(b);
+        return all;
+    }
+
+    /**
+     * Appends the complete results found since the last flush to the cache file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (cacheFile == null || pending.isEmpty()) return;
+        if (cacheFile.toAbsolutePath().getParent() != null) Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Result result : pending) {
+                JsonObject record = new JsonObject();
+                record.addProperty("ontology", ontologyHash);
+                record.addProperty("reasoner", reasonerId);
+                record.addProperty("axiom", text(result.entailment()));
+                JsonArray justifications = new JsonArray();
+                for (Set<OWLAxiom> justification : result.justifications()) {
+                    JsonArray axioms = new JsonArray();
+                    justification.forEach(ax -> axioms.add(text(ax)));
+                    justifications.add(axioms);
+                }
+                record.add("justifications", justifications);
+                out.write(gson.toJson(record));
+                out.write('\n');
+            }
+        }
+        pending.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Returns search and cache statistics, e.g. for logging at the end of a run.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("searches", searches.get());
+        stats.put("cached", hits.get());
+        stats.put("incomplete", incomplete.get());
+        stats.put("entailment_tests", tests.get());
+        return stats;
+    }
+
+    /**
+     * Writes the justifications of every "Yes" case of `benchmark_output.json` to
+     * `benchmark_justifications.json`. Test IDs are matched to their groups as in
+     * {@link BenchmarkRunner}; without a benchmark file every case is searched.
+     * Options: -Dbenchmark.justify.reasoner (default el, the saturation reasoner),
+     * -Dbenchmark.justify.budget (ms per item, default 10000), -Dbenchmark.justify.max
+     * (justifications per item, default 10), -Dbenchmark.justify.cache (default
+     * `.cache/justifications.ndjson`, empty to turn it off), plus -Dbenchmark.parallelism,
+     * -Dbenchmark.ontology and -Dbenchmark.format.
+     *
+     * @param args optional: benchmark file, output file
+     * @throws Exception if loading, reasoning or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        String benchmarkFile = args.length > 0 ? args[0] : "output_HermitReasoner/benchmark_output.json";
+        String outputFile = args.length > 1 ? args[1] : "output_HermitReasoner/benchmark_justifications.json";
+        OWLOntology ontology = BenchmarkRunner.loadOntology(OWLManager.createConcurrentOWLOntologyManager());
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.justify.reasoner", "el"));
+        int parallelism = Integer.getInteger("benchmark.parallelism", Runtime.getRuntime().availableProcessors());
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+
+        // the "Yes" cases of the benchmark, by ID
+        Set<String> positives = null;
+        if (Files.exists(Path.of(benchmarkFile))) {
+            positives = new HashSet<>();
+            try (BenchmarkReader reader = new BenchmarkReader(benchmarkFile)) {
+                while (reader.hasNext()) {
+                    JsonObject entry = reader.next();
+                    if (entry.get("expected").getAsString().equals("Yes")) positives.add(entry.get("id").getAsString());
+                }
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        List<OWLAxiom> targets = new ArrayList<>();
+        int id = 0;
+        for (List<OWLAxiom> group : AxiomGrouper.inSubjectOrder(ontology)) {
+            OWLAxiom target = QueryGenerator.getQueryAxiom(group);
+            if (target == null) continue;
+            String testId = "test_" + (++id);
+            if (positives != null && !positives.contains(testId)) continue;
+            ids.add(testId);
+            targets.add(target);
+        }
+
+        String cachePath = System.getProperty("benchmark.justify.cache", ".cache/justifications.ndjson");
+        AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.of(ontology));
+        long start = System.nanoTime();
+        try (JustificationFinder finder = new JustificationFinder(ontology, factory, null,
+                Long.getLong("benchmark.justify.budget", 10_000), Integer.getInteger("benchmark.justify.max", 10))) {
+            if (!cachePath.isBlank()) finder.withCache(Path.of(cachePath));
+            List<Result> results = finder.justifyAll(targets, parallelism);
+            try (BenchmarkWriter writer = new BenchmarkWriter(outputFile, format)) {
+                for (int i = 0; i < results.size(); i++) {
+                    writer.write(toEntry(ids.get(i), results.get(i), formatter));
+                }
+            }
+            System.out.println("Justifications: " + finder.stats() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        System.out.println("Justifications of " + ids.size() + " test cases exported to " + outputFile);
+    }
+
+    /**
+     * Builds the output entry of one test case.
+     */
+    static Map<String, Object> toEntry(String id, Result result, AxiomFormatter formatter) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", id);
+        entry.put("justification_count", result.justifications().size());
+        entry.put("min_size", result.minSize());
+        entry.put("max_size", result.maxSize());
+        entry.put("complete", result.complete());
+        entry.put("justifications", result.justifications().stream()
+                .map(j -> j.stream().map(formatter::format).toList())
+                .toList());
+        return entry;
+    }
+}
@@ -0,0 +1,182 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * An LLM HTTP API that answers prompts, used by {@link LlmEvaluator}.
+ *
+ * Implementations only speak the protocol; concurrency, rate limits and retries are applied by
+ * {@link LlmEvaluator.Endpoint}. A failed request throws an {@link IOException}.
+ */
+public interface LlmBackend {
+
+    /** Short name for logs, e.g. "ollama". */
+    String name();
+
+    /** How many prompts one request may carry; 1 for backends without batching. */
+    int maxBatch();
+
+    /**
+     * Answers the prompts with the model, in prompt order.
+     *
+     * @param model  model name as the backend knows it
+     * @param prompts at most {@link #maxBatch()} prompts
+     * @return one answer per prompt
+     * @throws IOException          if the request fails or the backend reports an error
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    List<String> generate(String model, List<String> prompts) throws IOException, InterruptedException;
+
+    /**
+     * The Ollama API (`/api/generate`, non-streaming), one prompt per request.
+     */
+    final class Ollama implements LlmBackend {
+
+        private final HttpClient client;
+        private final URI base;
+        private final Duration timeout;
+
+        /**
+         * @param client  shared HTTP client
+         * @param base    server address, e.g. http://localhost:11434
+         * @param timeout time limit of one request
+         */
+        public Ollama(HttpClient client, URI base, Duration timeout) {
+            this.client = client;
+            this.base = base;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public String name() {
+            return "ollama";
+        }
+
+        @Override
+        public int maxBatch() {
+            return 1;
+        }
+
+        @Override
+        public List<String> generate(String model, List<String> prompts) throws IOException, InterruptedException {
+            List<String> answers = new ArrayList<>(prompts.size());
+            for (String prompt : prompts) {
+                JsonObject body = new JsonObject();
+                body.addProperty("model", model);
+                body.addProperty("prompt", prompt);
+                body.addProperty("stream", false);
+                JsonObject response = post(client, base.resolve("/api/generate"), body, null, timeout, "Ollama");
+                answers.add(response.get("response").getAsString().strip());
+            }
+            return answers;
+        }
+    }
+
+    /**
+     * An OpenAI-compatible API. With a batch size of 1 every prompt is a chat completion
+     * (`/v1/chat/completions`, temperature 0); with a larger one prompts are sent together as the
+     * prompt array of `/v1/completions`, which OpenAI and local servers such as vLLM accept.
+     */
+    final class OpenAi implements LlmBackend {
+
+        private final HttpClient client;
+        private final URI base;
+        private final String apiKey;
+        private final int batch;
+        private final Duration timeout;
+
+        /**
+         * @param client  shared HTTP client
+         * @param base    server address, e.g. https://api.openai.com
+         * @param apiKey  bearer token, or null
+         * @param batch   prompts per request
+         * @param timeout time limit of one request
+         */
+        public OpenAi(HttpClient client, URI base, String apiKey, int batch, Duration timeout) {
+            if (batch < 1) throw new IllegalArgumentException("Batch size must be positive: " + batch);
+            this.client = client;
+            this.base = base;
+            this.apiKey = apiKey;
+            this.batch = batch;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public String name() {
+            return "openai";
+        }
+
+        @Override
+        public int maxBatch() {
+            return batch;
+        }
+
+        @Override
+        public List<String> generate(String model, List<String> prompts) throws IOException, InterruptedException {
+            JsonObject body = new JsonObject();
+            body.addProperty("model", model);
+            body.addProperty("temperature", 0);
+            if (batch == 1) {
+                List<String> answers = new ArrayList<>(prompts.size());
+                for (String prompt : prompts) {
+                    JsonObject message = new JsonObject();
+                    message.addProperty("role", "user");
+                    message.addProperty("content", prompt);
+                    JsonArray messages = new JsonArray();
+                    messages.add(message);
+                    body.add("messages", messages);
+                    JsonObject response = post(client, base.resolve("/v1/chat/completions"), body, apiKey, timeout, "OpenAI");
+                    answers.add(response.getAsJsonArray("choices").get(0).getAsJsonObject()
+                            .getAsJsonObject("message").get("content").getAsString().strip());
+                }
+                return answers;
+            }
+
+            JsonArray array = new JsonArray();
+            prompts.forEach(array::add);
+            body.add("prompt", array);
+            JsonObject response = post(client, base.resolve("/v1/completions"), body, apiKey, timeout, "OpenAI");
+            String[] answers = new String[prompts.size()];
+            for (JsonElement choice : response.getAsJsonArray("choices")) {
+                JsonObject c = choice.getAsJsonObject();
+                int index = c.get("index").getAsInt();
+                if (index < 0 || index >= answers.length) throw new IOException("OpenAI error: choice index " + index);
+                answers[index] = c.get("text").getAsString().strip();
+            }
+            if (Arrays.asList(answers).contains(null)) throw new IOException("OpenAI error: missing choices");
+            return Arrays.asList(answers);
+        }
+    }
+
+    // POSTs a JSON body and returns the JSON response; any status but 200 is an error
+    private static JsonObject post(HttpClient client, URI uri, JsonObject body, String apiKey, Duration timeout, String api)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new Gson().toJson(body)));
+        if (apiKey != null) request.header("Authorization", "Bearer " + apiKey);
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(api + " error: " + response.statusCode() + " - " + response.body());
+        }
+        try {
+            return JsonParser.parseString(response.body()).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException(api + " error: not a JSON object: " + response.body(), e);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * LlmEvaluator asks LLMs the benchmark questions, the Java counterpart of
+ * `scripts/evaluate_LLMs.py` (same prompt, same answer matching, same result fields).
+ *
+ * - The benchmark file (JSON array or NDJSON, as written by {@link BenchmarkRunner} and
+ *   {@link ELHExtender}) is streamed, never loaded as a whole.
+ * - Prompts are sent concurrently. Each {@link Endpoint} bounds its in-flight requests and
+ *   its request rate; every model served by the same endpoint shares those limits.
+ * - Backends that accept several prompts per request get them in batches of
+ *   {@link LlmBackend#maxBatch()}.
+ * - Results are appended to an NDJSON file as they arrive. A rerun skips the IDs already
+ *   there, so an interrupted evaluation goes on where it stopped. Queries whose backend kept
+ *   failing are not written, so the rerun asks them again.
+ * - Test cases with "expected": "Unknown" (the reasoner gave no answer) are not asked, since
+ *   no answer could be scored.
+ *
+ * Requests run on virtual threads when the JVM has them (Java 21+), otherwise on a cached pool;
+ * either way the number of threads blocked on a backend is bounded by its in-flight limit.
+ */
+public class LlmEvaluator implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(LlmEvaluator.class.getName());
+    private static final Gson gson = new Gson();
+
+    /** The answer given when a backend keeps failing, as in the Python evaluator; it is not written. */
+    static final String FAILED = "Error: LLM call failed after retries";
+
+    /**
+     * A backend with its limits: at most maxInFlight requests at once, at most
+     * requestsPerSecond requests started per second (0: no limit), and retries with
+     * exponential backoff (1 s, 2 s, 4 s, ... with the default base).
+     */
+    public static final class Endpoint {
+
+        private final LlmBackend backend;
+        private final Semaphore inFlight;
+        private final long intervalNanos;
+        private final int retries;
+        private final long backoffMillis;
+        private long nextStart = System.nanoTime();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        public Endpoint(LlmBackend backend, int maxInFlight, double requestsPerSecond, int retries, long backoffMillis) {
+            if (maxInFlight < 1) throw new IllegalArgumentException("In-flight limit must be positive: " + maxInFlight);
+            this.backend = backend;
+            this.inFlight = new Semaphore(maxInFlight);
+            this.intervalNanos = requestsPerSecond > 0 ? (long) (1e9 / requestsPerSecond) : 0;
+            this.retries = retries;
+            this.backoffMillis = backoffMillis;
+        }
+
+        public Endpoint(LlmBackend backend, int maxInFlight, double requestsPerSecond) {
+            this(backend, maxInFlight, requestsPerSecond, 3, 1000);
+        }
+
+        public LlmBackend backend() {
+            return backend;
+        }
+
+        // waits for the next start slot of the rate limit
+        private void throttle() throws InterruptedException {
+            if (intervalNanos == 0) return;
+            long start;
+            synchronized (this) {
+                start = Math.max(nextStart, System.nanoTime());
+                nextStart = start + intervalNanos;
+            }
+            long wait = start - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+
+        /**
+         * Answers a batch, retrying failed requests; a batch that still fails gets {@link #FAILED}
+         * for every prompt. The caller holds an in-flight permit.
+         */
+        List<String> generate(String model, List<String> prompts) throws InterruptedException {
+            for (int attempt = 0; ; attempt++) {
+                throttle();
+                requests.incrementAndGet();
+                try {
+                    List<String> answers = backend.generate(model, prompts);
+                    if (answers.size() != prompts.size()) {
+                        throw new IOException(backend.name() + " returned " + answers.size() + " answers for " + prompts.size() + " prompts");
+                    }
+                    return answers;
+                } catch (IOException | RuntimeException e) {
+                    failures.incrementAndGet();
+                    logger.warning("[Retry " + (attempt + 1) + "/" + retries + "] Error from " + model + ": " + e.getMessage());
+                    if (attempt + 1 >= retries) return Collections.nCopies(prompts.size(), FAILED);
+                    Thread.sleep(backoffMillis << attempt);
+                }
+            }
+        }
+
+        /** Requests sent so far, retries included. */
+        public long requests() {
+            return requests.get();
+        }
+
+        /** Requests that failed so far. */
+        public long failures() {
+            return failures.get();
+        }
+    }
+
+    /**
+     * Outcome of one evaluation: counts and the IDs of false positives and false negatives
+     * among the queries answered by this run. Failed queries are not counted as answered.
+     */
+    public record Summary(String model, String input, long answered, long resumed, long correct, long failed,
+                          List<String> falsePositives, List<String> falseNegatives) {
+
+        /** Share of the queries answered by this run that matched the expected answer. */
+        public double accuracy() {
+            return answered == 0 ? 0 : (double) correct / answered;
+        }
+    }
+
+    private final ExecutorService executor = newTaskExecutor();
+
+    // virtual threads when the runtime has them; the code still compiles for Java 17
+    static ExecutorService newTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "llm-request");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Builds the prompt of a test case, word for word as `evaluate_LLMs.py` does.
+     */
+    static String buildPrompt(JsonObject entry) {
+        StringBuilder axioms = new StringBuilder();
+        if (entry.get("axioms").isJsonPrimitive()) {
+            axioms.append(entry.get("axioms").getAsString());
+        } else {
+            entry.getAsJsonArray("axioms").forEach(ax -> {
+                if (axioms.length() > 0) axioms.append('\n');
+                axioms.append("- ").append(ax.getAsJsonObject().get("symbolic-format").getAsString());
+            });
+        }
+        String profile = entry.has("dl_profile") ? entry.get("dl_profile").getAsString() : "unknown";
+        String description = switch (profile) {
+            case "EL" -> "Description Logic EL (simple axioms with no role hierarchy extensions or existential quantifiers)";
+            case "ELH" -> "Description Logic ELH (extended with role hierarchies and existential quantifiers)";
+            default -> "Description Logic (unknown profile)";
+        };
+        return "Given the following logical axioms written in " + description + ":\n\n"
+                + axioms + "\n\n"
+                + "Answer the following question as truthfully as possible:\n"
+                + entry.get("query").getAsString() + "\n\n"
+                + "Reply only with \"Yes\" or \"No\", and do not explain your answer.";
+    }
+
+    // the Python evaluator's comparison: case-insensitive, surrounding whitespace ignored
+    static boolean matches(String expected, String answer) {
+        return expected.strip().toLowerCase(Locale.ROOT).equals(answer.strip().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Evaluates one model on one benchmark file, appending to the results file.
+     *
+     * @param input    benchmark file
+     * @param output   NDJSON results file; IDs already in it are skipped, failed queries are not written
+     * @param model    model name
+     * @param endpoint the endpoint serving the model
+     * @return the summary of the queries answered by this call
+     * @throws IOException          if a file cannot be read or written
+     * @throws InterruptedException if interrupted; results written so far are kept
+     */
+    public Summary evaluate(Path input, Path output, String model, Endpoint endpoint) throws IOException, InterruptedException {
+        Set<String> done = NdjsonResume.resume(output);
+        long unknown = 0;
+        AtomicLong answered = new AtomicLong();
+        AtomicLong correct = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<String> falsePositives = Collections.synchronizedList(new ArrayList<>());
+        List<String> falseNegatives = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> pending = new ArrayList<>();
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(output, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+             BenchmarkReader reader = new BenchmarkReader(input.toString())) {
+            int batchSize = endpoint.backend().maxBatch();
+            List<JsonObject> batch = new ArrayList<>(batchSize);
+            while (reader.hasNext() || !batch.isEmpty()) {
+                if (reader.hasNext()) {
+                    JsonObject entry = reader.next();
+                    if (done.contains(entry.get("id").getAsString())) continue;
+                    if (matches(entry.get("expected").getAsString(), "Unknown")) {
+                        unknown++;
+                        continue;
+                    }
+                    batch.add(entry);
+                    if (batch.size() < batchSize && reader.hasNext()) continue;
+                }
+                // blocks while the endpoint is saturated, so at most maxInFlight batches are held
+                endpoint.inFlight.acquire();
+                List<JsonObject> entries = batch;
+                batch = new ArrayList<>(batchSize);
+                pending.add(executor.submit(() -> {
+                    try {
+                        List<String> answers = endpoint.generate(model, entries.stream().map(LlmEvaluator::buildPrompt).toList());
+                        StringBuilder lines = new StringBuilder();
+                        for (int i = 0; i < entries.size(); i++) {
+                            JsonObject entry = entries.get(i);
+                            String answer = answers.get(i);
+                            if (answer.equals(FAILED)) {
+                                // left out of the file, so a rerun asks again
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                            String expected = entry.get("expected").getAsString();
+                            boolean match = matches(expected, answer);
+                            Map<String, Object> result = new LinkedHashMap<>();
+                            result.put("id", entry.get("id").getAsString());
+                            result.put("mr", entry.has("mr") ? entry.get("mr").getAsString() : "");
+                            result.put("dl_profile", entry.has("dl_profile") ? entry.get("dl_profile").getAsString() : "");
+                            result.put("query", entry.get("query").getAsString());
+                            result.put("expected", expected);
+                            result.put("llm", model);
+                            result.put("llm_answer", answer);
+                            result.put("match", match ? "Yes" : "No");
+                            lines.append(gson.toJson(result)).append('\n');
+
+                            answered.incrementAndGet();
+                            if (match) correct.incrementAndGet();
+                            if (matches(expected, "no") && matches(answer, "yes")) falsePositives.add(result.get("id").toString());
+                            if (matches(expected, "yes") && matches(answer, "no")) falseNegatives.add(result.get("id").toString());
+                        }
+                        // whole lines only, so a crash leaves at most one torn line
+                        synchronized (out) {
+                            out.write(lines.toString());
+                            out.flush();
+                        }
+                        return null;
+                    } finally {
+                        endpoint.inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException io) throw io;
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        if (unknown > 0) logger.info("Skipped " + unknown + " test cases without a known answer in " + input);
+        return new Summary(model, input.toString(), answered.get(), done.size(), correct.get(), failed.get(),
+                sorted(falsePositives), sorted(falseNegatives));
+    }
+
+    private static List<String> sorted(List<String> ids) {
+        List<String> copy = new ArrayList<>(ids);
+        copy.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+        return copy;
+    }
+
+    /**
+     * Stops the request threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Evaluates every model on the EL and ELH benchmarks at once, one results file per model
+     * and profile (`results_<model>_el.ndjson`, `results_<model>_elh.ndjson`).
+     *
+     * Models are -Dbenchmark.llm.models (comma-separated; default the Ollama models of the Python
+     * evaluator). Names starting with "gpt" go to the OpenAI-compatible endpoint
+     * (-Dbenchmark.llm.openai.url, key from OPENAI_API_KEY, -Dbenchmark.llm.openai.batch prompts
+     * per request), all others to Ollama (-Dbenchmark.llm.ollama.url). Per endpoint,
+     * -Dbenchmark.llm.&lt;ollama|openai&gt;.inFlight and .rps set the limits. Results go to
+     * -Dbenchmark.llm.out (default: the working directory).
+     *
+     * @param args unused
+     * @throws Exception if an evaluation fails
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> models = Arrays.stream(System.getProperty("benchmark.llm.models",
+                        "llama3:latest,gemma3:latest,deepseek-coder:6.7b-instruct,qwen:7b,mistral:latest").split(","))
+                .map(String::trim).filter(m -> !m.isEmpty()).toList();
+        Duration timeout = Duration.ofSeconds(Long.getLong("benchmark.llm.timeout", 600));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Endpoint ollama = new Endpoint(
+                new LlmBackend.Ollama(client, URI.create(System.getProperty("benchmark.llm.ollama.url", "http://localhost:11434")), timeout),
+                Integer.getInteger("benchmark.llm.ollama.inFlight", 4),
+                Double.parseDouble(System.getProperty("benchmark.llm.ollama.rps", "0")));
+        Endpoint openai = new Endpoint(
+                new LlmBackend.OpenAi(client, URI.create(System.getProperty("benchmark.llm.openai.url", "https://api.openai.com")),
+                        System.getenv("OPENAI_API_KEY"), Integer.getInteger("benchmark.llm.openai.batch", 1), timeout),
+                Integer.getInteger("benchmark.llm.openai.inFlight", 16),
+                Double.parseDouble(System.getProperty("benchmark.llm.openai.rps", "8")));
+
+        Path outDir = Path.of(System.getProperty("benchmark.llm.out", "."));
+        Map<String, Path> inputs = new LinkedHashMap<>();
+        inputs.put("el", Path.of("output_HermitReasoner/benchmark_output.json"));
+        inputs.put("elh", Path.of("output_HermitReasoner/benchmark_output_with_elh.json"));
+
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            // every model and profile at once; the endpoints' limits keep the backends busy, not flooded
+            ExecutorService jobs = newTaskExecutor();
+            List<Future<Summary>> running = new ArrayList<>();
+            for (String model : models) {
+                Endpoint endpoint = model.startsWith("gpt") ? openai : ollama;
+                inputs.forEach((profile, input) -> {
+                    if (!Files.exists(input)) {
+                        System.out.println("Skipped " + model + " on " + profile.toUpperCase(Locale.ROOT) + ": '" + input + "' not found.");
+                        return;
+                    }
+                    Path output = outDir.resolve("results_" + model.replace(":", "_") + "_" + profile + ".ndjson");
+                    running.add(jobs.submit(() -> evaluator.evaluate(input, output, model, endpoint)));
+                });
+            }
+            try {
+                for (Future<Summary> job : running) {
+                    Summary summary = job.get();
+                    System.out.printf("%n %s on %s: %d/%d correct (%.2f%%), %d resumed, %d failed%n", summary.model(), summary.input(),
+                            summary.correct(), summary.answered(), summary.accuracy() * 100, summary.resumed(), summary.failed());
+                    System.out.println(" False Positives (Expected: No, Got: Yes): " + summary.falsePositives());
+                    System.out.println(" False Negatives (Expected: Yes, Got: No): " + summary.falseNegatives());
+                }
+            } finally {
+                jobs.shutdownNow();
+            }
+            System.out.println("\n Requests: ollama " + ollama.requests() + " (" + ollama.failures() + " failed), openai "
+                    + openai.requests() + " (" + openai.failures() + " failed)");
+        }
+    }
+}
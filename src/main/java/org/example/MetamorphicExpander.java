@@ -0,0 +1,245 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * MetamorphicExpander turns every base test case into the metamorphic variants (MRs) of a run.
+ *
+ * - MR-0: the base case itself.
+ * - MR-1: the query paraphrased with {@link QueryGenerator#paraphraseQuery(String)}; the axioms,
+ *   and so the answer, are unchanged, so it is taken from the base case.
+ * - MR-9: the key axiom removed with {@link QueryGenerator#removeQueryAxiom(List, OWLAxiom)}; the
+ *   answer is whether the ontology without the key axiom still entails it.
+ *
+ * Only MR-9 needs reasoning, and not over a whole modified ontology: the ⊥-module M of the group's
+ * signature in O contains the module of the same signature in O \ {α} (extraction is monotone),
+ * so M \ {α} lies between that module and O \ {α} and entails exactly what O \ {α} entails over
+ * the signature. Each MR-9 answer is one classification of the group's cached module minus one
+ * axiom, typically a few dozen axioms, and is stored in the entailment cache when there is one.
+ *
+ * Variants get the ID of their base case plus the relation, e.g. test_5_mr9, and an "mr" field.
+ * The expander is thread-safe; parallel workers expand their own cases.
+ */
+public class MetamorphicExpander {
+
+    /**
+     * A metamorphic relation.
+     */
+    public enum Relation {
+        MR_0("MR-0", ""), MR_1("MR-1", "_mr1"), MR_9("MR-9", "_mr9");
+
+        private final String label;
+        private final String suffix;
+
+        Relation(String label, String suffix) {
+            this.label = label;
+            this.suffix = suffix;
+        }
+
+        /** The value of the "mr" field, e.g. MR-9. */
+        public String label() {
+            return label;
+        }
+
+        /** What its variants append to the ID of the base case, e.g. _mr9. */
+        public String suffix() {
+            return suffix;
+        }
+
+        /**
+         * Parses a relation label such as MR-1 (case-insensitive).
+         *
+         * @throws IllegalArgumentException for an unknown relation
+         */
+        public static Relation parse(String label) {
+            for (Relation relation : values()) {
+                if (relation.label.equalsIgnoreCase(label.strip())) return relation;
+            }
+            throw new IllegalArgumentException("Unknown metamorphic relation: " + label
+                    + " (known: " + Arrays.stream(values()).map(Relation::label).collect(Collectors.joining(", ")) + ")");
+        }
+    }
+
+    // namespace of MR-9 answers in the entailment cache: "entailed by the ontology without the axiom"
+    private static final String WITHOUT_AXIOM = "-MR-9";
+
+    private final OWLReasonerFactory reasonerFactory;
+    private final Set<Relation> relations;
+    private final ModuleCache modules;
+    private EntailmentCache cache;
+    private final String ontologyHash;
+    private String reasonerId;
+    private ReasonerPool pool;
+
+    private final AtomicLong variants = new AtomicLong();
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong cached = new AtomicLong();
+    private final AtomicLong moduleAxioms = new AtomicLong();
+    private final AtomicLong reasoningNanos = new AtomicLong();
+
+    /**
+     * @param ontology        the ontology the base cases come from
+     * @param reasonerFactory reasoner answering MR-9 variants
+     * @param relations       relations emitted for every base case, in {@link Relation} order
+     * @param modules         ⊥-modules of the ontology, shared with the base cases if they use modules
+     */
+    public MetamorphicExpander(OWLOntology ontology, OWLReasonerFactory reasonerFactory, Set<Relation> relations,
+                               ModuleCache modules) {
+        this.reasonerFactory = reasonerFactory;
+        this.relations = relations.isEmpty() ? EnumSet.noneOf(Relation.class) : EnumSet.copyOf(relations);
+        this.modules = modules != null ? modules : new ModuleCache(ontology, 256);
+        this.ontologyHash = EntailmentCache.ontologyHash(ontology) + WITHOUT_AXIOM;
+    }
+
+    /**
+     * Stores MR-9 answers in a persistent cache, so a rerun does not reason again.
+     *
+     * @return this expander
+     */
+    public MetamorphicExpander withCache(EntailmentCache cache) {
+        this.cache = cache;
+        this.reasonerId = cache == null ? null : EntailmentCache.reasonerId(reasonerFactory);
+        return this;
+    }
+
+    /**
+     * Bounds MR-9 reasoning by the pool's timeout; a variant that times out gets "expected": "Unknown".
+     *
+     * @return this expander
+     */
+    public MetamorphicExpander withPool(ReasonerPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Parses a comma-separated list of relations, e.g. "MR-0,MR-9", or "all"; empty gives none.
+     */
+    public static Set<Relation> parse(String list) {
+        if (list.isBlank()) return EnumSet.noneOf(Relation.class);
+        if (list.strip().equalsIgnoreCase("all")) return EnumSet.allOf(Relation.class);
+        EnumSet<Relation> relations = EnumSet.noneOf(Relation.class);
+        for (String label : list.split(",")) relations.add(Relation.parse(label));
+        return relations;
+    }
+
+    /**
+     * The relations emitted for every base case.
+     */
+    public Set<Relation> relations() {
+        return Collections.unmodifiableSet(relations);
+    }
+
+    /**
+     * Builds the configured variants of one base case.
+     *
+     * @param base      the case from {@link BenchmarkRunner#createTestCase}
+     * @param group     the axiom group it was built from
+     * @param formatter formatter of the worker building the case
+     * @return the variants, in relation order
+     */
+    public List<Map<String, Object>> expand(Map<String, Object> base, List<OWLAxiom> group, AxiomFormatter formatter) {
+        String id = (String) base.get("id");
+        String query = (String) base.get("query");
+        List<Map<String, Object>> expanded = new ArrayList<>(relations.size());
+        for (Relation relation : relations) {
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("id", id + relation.suffix);
+            variant.put("mr", relation.label);
+            variant.put("dl_profile", base.get("dl_profile"));
+            switch (relation) {
+                case MR_0 -> {
+                    variant.put("axioms", base.get("axioms"));
+                    variant.put("query", query);
+                    variant.put("expected", base.get("expected"));
+                }
+                case MR_1 -> {
+                    variant.put("axioms", base.get("axioms"));
+                    variant.put("query", QueryGenerator.paraphraseQuery(query));
+                    variant.put("expected", base.get("expected"));
+                }
+                case MR_9 -> {
+                    OWLAxiom target = QueryGenerator.getQueryAxiom(group);
+                    variant.put("axioms", QueryGenerator.removeQueryAxiom(group, target).stream()
+                            .map(formatter::format)
+                            .collect(Collectors.toList()));
+                    variant.put("query", query);
+                    variant.put("expected", entailedWithout(target, group).label());
+                }
+            }
+            expanded.add(variant);
+        }
+        variants.addAndGet(expanded.size());
+        return expanded;
+    }
+
+    /**
+     * Checks whether the ontology without the axiom still entails it, by reasoning over the
+     * module of the group's signature minus the axiom.
+     *
+     * @param axiom the removed axiom, a member of the group
+     * @param group the axiom group whose signature the module covers
+     * @return YES or NO, or TIMEOUT / ERROR if reasoning did not finish
+     */
+    public ReasonerPool.Outcome entailedWithout(OWLAxiom axiom, List<OWLAxiom> group) {
+        Boolean answer = cache == null ? null : cache.get(ontologyHash, reasonerId, axiom);
+        if (answer != null) {
+            cached.incrementAndGet();
+            return ReasonerPool.Outcome.of(answer);
+        }
+        checks.incrementAndGet();
+        long start = System.nanoTime();
+        OWLAxiom removed = axiom.getAxiomWithoutAnnotations();
+        OWLOntology without;
+        try {
+            // a scratch ontology with its own manager, so workers do not share a manager
+            without = OWLManager.createOWLOntologyManager().createOntology(modules.moduleFor(group).ontology().axioms()
+                    .filter(ax -> !ax.getAxiomWithoutAnnotations().equals(removed)));
+        } catch (OWLOntologyCreationException e) {
+            throw new IllegalStateException("Cannot create the module without " + axiom, e);
+        }
+        moduleAxioms.addAndGet(without.getAxiomCount());
+
+        ReasonerPool.Outcome outcome;
+        if (pool != null) {
+            try {
+                OWLReasoner reasoner = pool.classify(without);
+                outcome = pool.isEntailed(reasoner, axiom);
+                // the scratch ontology is never asked again; a discarded reasoner is already disposed
+                if (outcome.known()) reasoner.dispose();
+            } catch (RuntimeException e) {
+                outcome = ReasonerPool.outcome(e);
+            }
+        } else {
+            OWLReasoner reasoner = reasonerFactory.createReasoner(without);
+            try {
+                outcome = ReasonerPool.Outcome.of(reasoner.isEntailed(axiom));
+            } finally {
+                reasoner.dispose();
+            }
+        }
+        reasoningNanos.addAndGet(System.nanoTime() - start);
+        if (cache != null && outcome.known()) cache.put(ontologyHash, reasonerId, axiom, outcome == ReasonerPool.Outcome.YES);
+        return outcome;
+    }
+
+    /**
+     * Returns variant and MR-9 reasoning counts, e.g. for logging at the end of a run.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("variants", variants.get());
+        stats.put("removal_checks", checks.get());
+        stats.put("removal_cached", cached.get());
+        stats.put("mean_module_axioms", checks.get() == 0 ? 0.0 : (double) moduleAxioms.get() / checks.get());
+        stats.put("removal_ms", reasoningNanos.get() / 1_000_000);
+        return stats;
+    }
+}
@@ -0,0 +1,251 @@
+package org.example;
+
+import com.google.gson.GsonBuilder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics is a registry of counters and latency histograms for the generation pipeline, cheap
+ * enough to update on every entailment check.
+ *
+ * Series are identified by a name and label pairs, e.g.
+ * `benchmark_stage_seconds{stage="classification",reasoner="HermiT"}`. Updates only touch
+ * {@link LongAdder}s, so parallel workers do not contend. The registry can be dumped as JSON
+ * ({@link #json()}) or in the Prometheus text format ({@link #prometheus()}), which
+ * {@link BenchmarkService} serves on GET /metrics.
+ */
+public class Metrics {
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    // upper bucket bounds of every histogram, in seconds: 10 µs to 100 s
+    private static final double[] BOUNDS = {1e-5, 1e-4, 1e-3, 1e-2, 0.1, 1, 10, 100};
+
+    /**
+     * The registry every pipeline stage reports to.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    private record Series(String name, List<String> labels) {
+
+        String render() {
+            if (labels.isEmpty()) return name;
+            StringBuilder out = new StringBuilder(name).append('{');
+            for (int i = 0; i < labels.size(); i += 2) {
+                if (i > 0) out.append(',');
+                out.append(labels.get(i)).append("=\"").append(escape(labels.get(i + 1))).append('"');
+            }
+            return out.append('}').toString();
+        }
+
+        // the labels with one more pair, for histogram buckets
+        String render(String suffix, String label, String value) {
+            List<String> more = new ArrayList<>(labels);
+            more.add(label);
+            more.add(value);
+            return new Series(name + suffix, more).render();
+        }
+
+        Map<String, String> labelMap() {
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < labels.size(); i += 2) map.put(labels.get(i), labels.get(i + 1));
+            return map;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * A latency distribution over fixed logarithmic buckets.
+     */
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        /** Records a duration. */
+        public void observeNanos(long nanos) {
+            double seconds = nanos / 1e9;
+            int bucket = 0;
+            while (bucket < BOUNDS.length && seconds > BOUNDS[bucket]) bucket++;
+            buckets[bucket].increment();
+            count.increment();
+            sum.add(seconds);
+        }
+
+        /** Number of recorded durations. */
+        public long count() {
+            return count.sum();
+        }
+
+        /** Sum of the recorded durations in seconds. */
+        public double sum() {
+            return sum.sum();
+        }
+
+        // cumulative counts per bound, the last one for +Inf
+        private long[] cumulative() {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                total += buckets[i].sum();
+                counts[i] = total;
+            }
+            return counts;
+        }
+    }
+
+    private final Map<Series, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Series, Histogram> histograms = new ConcurrentHashMap<>();
+    // incremented by clear(), so callers that keep a series can tell it was dropped
+    private volatile long generation;
+
+    /**
+     * Returns the counter of a series, creating it on first use.
+     *
+     * @param name   metric name, e.g. benchmark_entailment_checks_total
+     * @param labels label names and values, alternating
+     */
+    public Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(series(name, labels), s -> new Counter());
+    }
+
+    /**
+     * Returns the histogram of a series, creating it on first use.
+     *
+     * @param name   metric name, e.g. benchmark_stage_seconds
+     * @param labels label names and values, alternating
+     */
+    public Histogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(series(name, labels), s -> new Histogram());
+    }
+
+    private static Series series(String name, String... labels) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be name/value pairs: " + Arrays.toString(labels));
+        return new Series(name, List.of(labels));
+    }
+
+    /**
+     * Drops every series, e.g. between runs in one JVM.
+     */
+    public void clear() {
+        generation++;
+        counters.clear();
+        histograms.clear();
+    }
+
+    /**
+     * The number of {@link #clear()} calls so far; a series obtained before the last one is no
+     * longer in the registry.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Renders every series in the Prometheus text exposition format, sorted by name.
+     */
+    public String prometheus() {
+        StringBuilder out = new StringBuilder();
+        String type = null;
+        for (Map.Entry<Series, Counter> e : sorted(counters)) {
+            if (!e.getKey().name().equals(type)) {
+                type = e.getKey().name();
+                out.append("# TYPE ").append(type).append(" counter\n");
+            }
+            out.append(e.getKey().render()).append(' ').append(e.getValue().get()).append('\n');
+        }
+        for (Map.Entry<Series, Histogram> e : sorted(histograms)) {
+            Series series = e.getKey();
+            if (!series.name().equals(type)) {
+                type = series.name();
+                out.append("# TYPE ").append(type).append(" histogram\n");
+            }
+            long[] cumulative = e.getValue().cumulative();
+            for (int i = 0; i < cumulative.length; i++) {
+                String le = bound(i);
+                out.append(series.render("_bucket", "le", le)).append(' ').append(cumulative[i]).append('\n');
+            }
+            out.append(new Series(series.name() + "_sum", series.labels()).render()).append(' ').append(e.getValue().sum()).append('\n');
+            out.append(new Series(series.name() + "_count", series.labels()).render()).append(' ').append(e.getValue().count()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Renders every series as JSON: counters with their value, histograms with count, sum and
+     * cumulative bucket counts.
+     */
+    public String json() {
+        List<Map<String, Object>> counterList = new ArrayList<>();
+        for (Map.Entry<Series, Counter> e : sorted(counters)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", e.getKey().name());
+            entry.put("labels", e.getKey().labelMap());
+            entry.put("value", e.getValue().get());
+            counterList.add(entry);
+        }
+        List<Map<String, Object>> histogramList = new ArrayList<>();
+        for (Map.Entry<Series, Histogram> e : sorted(histograms)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", e.getKey().name());
+            entry.put("labels", e.getKey().labelMap());
+            entry.put("count", e.getValue().count());
+            entry.put("sum_seconds", e.getValue().sum());
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            long[] cumulative = e.getValue().cumulative();
+            for (int i = 0; i < cumulative.length; i++) {
+                buckets.put(bound(i), cumulative[i]);
+            }
+            entry.put("buckets", buckets);
+            histogramList.add(entry);
+        }
+        Map<String, Object> all = new LinkedHashMap<>();
+        all.put("counters", counterList);
+        all.put("histograms", histogramList);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(all);
+    }
+
+    // the "le" label of a bucket, e.g. 0.001 or +Inf
+    private static String bound(int bucket) {
+        return bucket < BOUNDS.length ? BigDecimal.valueOf(BOUNDS[bucket]).stripTrailingZeros().toPlainString() : "+Inf";
+    }
+
+    private static <T> List<Map.Entry<Series, T>> sorted(Map<Series, T> series) {
+        List<Map.Entry<Series, T>> entries = new ArrayList<>(series.entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<Series, T> e) -> e.getKey().name())
+                .thenComparing(e -> e.getKey().render()));
+        return entries;
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * MockLlmServer is a local stand-in for an LLM backend, for tests and for measuring the
+ * {@link LlmEvaluator} client without a model.
+ *
+ * It speaks the Ollama API (POST /api/generate) and the OpenAI-compatible one
+ * (POST /v1/chat/completions, POST /v1/completions with a prompt array), answers every prompt
+ * with the given function after a fixed latency, and counts requests, prompts and the highest
+ * number of requests it was serving at once. The first failFirst requests get a 500.
+ */
+public class MockLlmServer implements AutoCloseable {
+
+    private static final Gson gson = new Gson();
+
+    private final Function<String, String> answer;
+    private final long latencyMillis;
+    private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "mock-llm");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicInteger failFirst = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong prompts = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private HttpServer server;
+
+    /**
+     * @param answer        answer to a prompt
+     * @param latencyMillis time every request takes
+     */
+    public MockLlmServer(Function<String, String> answer, long latencyMillis) {
+        this.answer = answer;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Makes the next requests fail with status 500.
+     *
+     * @return this server
+     */
+    public MockLlmServer failFirst(int count) {
+        failFirst.set(count);
+        return this;
+    }
+
+    /**
+     * Starts serving; port 0 picks a free port.
+     *
+     * @return the port
+     */
+    public int start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/api/generate", exchange -> handle(exchange, body -> {
+            JsonObject response = new JsonObject();
+            response.addProperty("model", body.get("model").getAsString());
+            response.addProperty("response", ask(body.get("prompt").getAsString()));
+            response.addProperty("done", true);
+            return response;
+        }));
+        server.createContext("/v1/chat/completions", exchange -> handle(exchange, body -> {
+            String prompt = body.getAsJsonArray("messages").get(0).getAsJsonObject().get("content").getAsString();
+            JsonObject message = new JsonObject();
+            message.addProperty("role", "assistant");
+            message.addProperty("content", ask(prompt));
+            JsonObject choice = new JsonObject();
+            choice.addProperty("index", 0);
+            choice.add("message", message);
+            return choices(choice);
+        }));
+        server.createContext("/v1/completions", exchange -> handle(exchange, body -> {
+            JsonElement prompt = body.get("prompt");
+            List<String> texts = new ArrayList<>();
+            if (prompt.isJsonArray()) prompt.getAsJsonArray().forEach(p -> texts.add(p.getAsString()));
+            else texts.add(prompt.getAsString());
+            JsonObject[] choices = new JsonObject[texts.size()];
+            // reversed, since clients must order choices by index
+            for (int i = texts.size() - 1; i >= 0; i--) {
+                JsonObject choice = new JsonObject();
+                choice.addProperty("index", i);
+                choice.addProperty("text", " " + ask(texts.get(i)));
+                choices[texts.size() - 1 - i] = choice;
+            }
+            return choices(choices);
+        }));
+        server.setExecutor(workers);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    private String ask(String prompt) {
+        prompts.incrementAndGet();
+        return answer.apply(prompt);
+    }
+
+    private static JsonObject choices(JsonObject... choices) {
+        JsonArray array = new JsonArray();
+        for (JsonObject choice : choices) array.add(choice);
+        JsonObject response = new JsonObject();
+        response.add("choices", array);
+        return response;
+    }
+
+    private void handle(HttpExchange exchange, Function<JsonObject, JsonObject> respond) throws IOException {
+        int now = active.incrementAndGet();
+        maxActive.accumulateAndGet(now, Math::max);
+        requests.incrementAndGet();
+        try {
+            int status = 200;
+            JsonObject response;
+            if (!exchange.getRequestMethod().equals("POST")) {
+                status = 405;
+                response = error("Use POST");
+            } else if (failFirst.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                status = 500;
+                response = error("Mock failure");
+            } else {
+                JsonObject body = JsonParser.parseString(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                        .getAsJsonObject();
+                if (latencyMillis > 0) Thread.sleep(latencyMillis);
+                response = respond.apply(body);
+            }
+            byte[] bytes = gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        return error;
+    }
+
+    /** Requests received so far. */
+    public long requests() {
+        return requests.get();
+    }
+
+    /** Prompts answered so far. */
+    public long prompts() {
+        return prompts.get();
+    }
+
+    /** Highest number of requests served at once. */
+    public int maxConcurrent() {
+        return maxActive.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) server.stop(0);
+        workers.shutdownNow();
+    }
+
+    /**
+     * Serves answers on -Dbenchmark.llm.mock.port (default 11434, Ollama's) after
+     * -Dbenchmark.llm.mock.latency ms (default 50); every answer is "Yes".
+     *
+     * @param args unused
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        MockLlmServer mock = new MockLlmServer(prompt -> "Yes", Long.getLong("benchmark.llm.mock.latency", 50));
+        int port = mock.start(new InetSocketAddress("localhost", Integer.getInteger("benchmark.llm.mock.port", 11434)));
+        Runtime.getRuntime().addShutdownHook(new Thread(mock::close));
+        System.out.println("Mock LLM backend on http://localhost:" + port);
+    }
+}
@@ -0,0 +1,176 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * ModuleCache extracts syntactic-locality ⊥-modules of an ontology and keeps them for reuse.
+ *
+ * The ⊥-module for a signature Σ preserves every entailment over Σ, so a query A ⊑ ∃r.B can be
+ * answered by reasoning over the module for {A, r, B} instead of the whole ontology. A cached
+ * module whose signature covers Σ also preserves these entailments (it contains the module for
+ * Σ and is contained in the ontology), so a new signature is first matched against the cached
+ * modules, smallest first, and only extracted if none covers it. Extracting for a whole
+ * {@link AxiomGrouper} group lets every query of the group share one module.
+ *
+ * The cache is thread-safe and can be shared between sessions; at most maxModules modules are
+ * kept, least recently used ones are dropped. Modules are extracted outside the cache lock, each
+ * thread with its own extractor, so lookups are not held up by another thread's extraction; a
+ * thread asking for a signature that is being extracted waits for that extraction instead of
+ * repeating it. Module ontologies are only read after creation; each has its own manager, so a
+ * dropped module stays usable by sessions still reasoning over it.
+ */
+public class ModuleCache {
+
+    private static final Logger logger = Logger.getLogger(ModuleCache.class.getName());
+
+    /**
+     * An extracted module, its signature and the ontology it is reasoned over.
+     */
+    public record Module(Set<OWLEntity> signature, OWLOntology ontology) {
+        public int size() {
+            return ontology.getAxiomCount();
+        }
+    }
+
+    // the extractor keeps per-call state, so every thread has its own
+    private final ThreadLocal<SyntacticLocalityModuleExtractor> extractors;
+    private final int maxModules;
+    private final LinkedHashMap<Set<OWLEntity>, Module> modules = new LinkedHashMap<>(16, 0.75f, true);
+    // extractions in progress, by requested signature
+    private final Map<Set<OWLEntity>, CompletableFuture<Module>> extracting = new HashMap<>();
+
+    private long hits;
+    private long extractions;
+
+    /**
+     * @param ontology   the ontology (imports included) modules are extracted from
+     * @param maxModules maximum number of modules kept
+     */
+    public ModuleCache(OWLOntology ontology, int maxModules) {
+        List<OWLAxiom> axioms = ontology.axioms(Imports.INCLUDED).collect(Collectors.toList());
+        this.extractors = ThreadLocal.withInitial(() ->
+                new SyntacticLocalityModuleExtractor(OWLManager.createOWLOntologyManager(), axioms.stream(), ModuleType.BOT));
+        this.maxModules = maxModules;
+    }
+
+    /**
+     * Returns a module preserving the entailments over the signature of the given axioms.
+     */
+    public Module moduleFor(Collection<? extends OWLAxiom> axioms) {
+        Set<OWLEntity> signature = new HashSet<>();
+        for (OWLAxiom axiom : axioms) axiom.signature().forEach(signature::add);
+        return module(signature);
+    }
+
+    /**
+     * Returns the smallest cached module covering the signature, or extracts a new one.
+     *
+     * @param signature the entities the module must preserve entailments over
+     * @return the module
+     */
+    public Module module(Set<OWLEntity> signature) {
+        CompletableFuture<Module> result = new CompletableFuture<>();
+        CompletableFuture<Module> pending;
+        synchronized (this) {
+            Module best = null;
+            for (Module module : modules.values()) {
+                if ((best == null || module.size() < best.size()) && module.signature().containsAll(signature)) best = module;
+            }
+            if (best != null) {
+                modules.get(best.signature()); // touch, for LRU order
+                hits++;
+                return best;
+            }
+            // another thread may be extracting the same signature
+            pending = extracting.putIfAbsent(signature, result);
+            if (pending != null) hits++;
+        }
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Module module = extract(signature);
+            synchronized (this) {
+                extractions++;
+                modules.put(module.signature(), module);
+                if (modules.size() > maxModules) {
+                    Iterator<Module> eldest = modules.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                extracting.remove(signature);
+            }
+            result.complete(module);
+            return module;
+        } catch (RuntimeException | Error e) {
+            // waiting threads get the failure too
+            synchronized (this) {
+                extracting.remove(signature);
+            }
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Module extract(Set<OWLEntity> signature) {
+        Set<OWLAxiom> axioms = extractors.get().extract(signature);
+        // the module also covers its own signature, which is what later queries are matched against
+        Set<OWLEntity> covered = new HashSet<>(signature);
+        axioms.forEach(ax -> ax.signature().forEach(covered::add));
+        Module module;
+        try {
+            module = new Module(Collections.unmodifiableSet(covered), OWLManager.createOWLOntologyManager().createOntology(axioms));
+        } catch (OWLOntologyCreationException e) {
+            throw new IllegalStateException("Cannot create module ontology", e);
+        }
+        logger.fine("Extracted a module of " + module.size() + " axioms for " + signature.size() + " entities");
+        return module;
+    }
+
+    /** Maximum number of modules kept. */
+    public int maxModules() {
+        return maxModules;
+    }
+
+    /** Number of modules currently held. */
+    public synchronized int size() {
+        return modules.size();
+    }
+
+    /** Lookups answered by a cached module. */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /** Modules extracted. */
+    public synchronized long extractions() {
+        return extractions;
+    }
+
+    /**
+     * Returns reuse statistics, e.g. for logging at the end of a run.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("modules", modules.size());
+        stats.put("extractions", extractions);
+        stats.put("hits", hits);
+        stats.put("mean_axioms", modules.values().stream().mapToInt(Module::size).average().orElse(0));
+        return stats;
+    }
+}
@@ -0,0 +1,400 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * MultiHopQueryGenerator produces inferred-only entailment queries A' ⊑ ∃r'.F at a controlled
+ * distance from the told axioms, plus hard negatives next to them.
+ *
+ * Every told axiom A ⊑ ∃r.B is a seed. A query k hops away is reached from a seed in k steps,
+ * each of which walks one direct edge of the classified hierarchy or one told existential:
+ * - the subject is specialized (A' is a direct subclass of A),
+ * - the role is generalized (r ⊑ r'),
+ * - the innermost filler is generalized (B ⊑ B') or extended by a told existential of it
+ *   (B ⊑ ∃s.C gives the filler ∃s.C, so A ⊑ ∃r.∃s.C).
+ * Such a query is entailed by monotonicity, so positives need no reasoner call; told axioms are
+ * skipped. The premises of a query are the seed and the axioms behind each step.
+ *
+ * Hard negatives reuse the premises of a positive but change one thing: the innermost filler is
+ * replaced by a hierarchy sibling or by another told filler of the same role (∃hasSpiciness.Hot
+ * instead of ∃hasSpiciness.Mild), or the subject by one of its direct superclasses. They are
+ * kept only if the entailment check says they are not entailed.
+ *
+ * Queries are produced lazily, seed by seed, so only the neighbourhood of the current seed is
+ * ever held in memory, never the full closure. A positive that several seeds reach belongs to
+ * the first of them in sorted order: a seed drops every query an earlier seed also reaches in
+ * the same number of hops, which is checked by walking up from the query's subject. Hard
+ * negatives are deduplicated among the seeds of one subject, so only a near miss with a
+ * replaced subject can repeat.
+ */
+public class MultiHopQueryGenerator {
+
+    /**
+     * A generated query with its premises and expected answer.
+     */
+    public record Query(OWLSubClassOfAxiom axiom, boolean entailed, int hops, List<OWLAxiom> premises) {
+    }
+
+    private final OWLOntology ontology;
+    private final OWLReasoner reasoner;
+    private final Predicate<OWLAxiom> entailment;
+    private final OWLDataFactory df;
+
+    // told existentials by subject, and told fillers by role; built on first use
+    private Map<OWLClass, List<OWLSubClassOfAxiom>> existentials;
+    private Map<OWLObjectProperty, SortedSet<OWLClass>> fillers;
+
+    /**
+     * @param ontology the ontology the seeds are taken from
+     * @param reasoner a reasoner for the ontology; it is classified once here
+     */
+    public MultiHopQueryGenerator(OWLOntology ontology, OWLReasoner reasoner) {
+        this(ontology, reasoner, reasoner::isEntailed);
+    }
+
+    /**
+     * @param ontology   the ontology the seeds are taken from
+     * @param reasoner   a reasoner for the ontology; it is classified once here
+     * @param entailment check used to confirm hard negatives (e.g. a {@link ReasoningValidator})
+     */
+    public MultiHopQueryGenerator(OWLOntology ontology, OWLReasoner reasoner, Predicate<OWLAxiom> entailment) {
+        this.ontology = ontology;
+        this.reasoner = reasoner;
+        this.entailment = entailment;
+        this.df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+    }
+
+    /**
+     * Told axioms A ⊑ ∃r.B with named A, r and B, in sorted order.
+     */
+    public Stream<OWLSubClassOfAxiom> seeds() {
+        return ontology.axioms(AxiomType.SUBCLASS_OF)
+                .filter(MultiHopQueryGenerator::isSeed)
+                .sorted();
+    }
+
+    private static boolean isSeed(OWLSubClassOfAxiom ax) {
+        return !ax.getSubClass().isAnonymous()
+                && ax.getSuperClass() instanceof OWLObjectSomeValuesFrom some
+                && !some.getProperty().isAnonymous()
+                && !some.getFiller().isAnonymous();
+    }
+
+    /**
+     * Entailed, non-told queries exactly the given number of hops away from a seed.
+     *
+     * @param hops number of steps (at least 1)
+     * @return the queries, seed by seed
+     */
+    public Stream<Query> positives(int hops) {
+        return seeds().flatMap(seed -> positives(seed, hops).stream());
+    }
+
+    /**
+     * Positives interleaved with up to negativesPerPositive hard negatives each.
+     *
+     * @param hops                 number of steps (at least 1)
+     * @param negativesPerPositive maximum number of negatives generated per positive
+     * @return the queries, each positive followed by its negatives
+     */
+    public Stream<Query> withHardNegatives(int hops, int negativesPerPositive) {
+        // seeds are sorted by subject, and the negatives of one subject's positives often coincide
+        Set<OWLAxiom> seen = new HashSet<>();
+        OWLClassExpression[] subject = {null};
+        return seeds().flatMap(seed -> {
+            if (!seed.getSubClass().equals(subject[0])) {
+                subject[0] = seed.getSubClass();
+                seen.clear();
+            }
+            return positives(seed, hops).stream()
+                    .flatMap(q -> Stream.concat(Stream.of(q), hardNegatives(q, negativesPerPositive).stream()
+                            .filter(n -> seen.add(n.axiom()))));
+        });
+    }
+
+    // every combination of subject, role and filler steps that adds up to hops
+    private List<Query> positives(OWLSubClassOfAxiom seed, int hops) {
+        OWLClass subject = seed.getSubClass().asOWLClass();
+        OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) seed.getSuperClass();
+        OWLObjectProperty role = some.getProperty().asOWLObjectProperty();
+
+        Walk<OWLClass> down = new Walk<>(subject, hops, this::subjectSteps);
+        Walk<OWLObjectProperty> roles = new Walk<>(role, hops, this::roleSteps);
+        Walk<OWLClassExpression> fill = new Walk<>(some.getFiller(), hops, this::fillerSteps);
+
+        List<Query> queries = new ArrayList<>();
+        for (int d1 = 0; d1 <= hops; d1++) {
+            for (int d2 = 0; d1 + d2 <= hops; d2++) {
+                int d3 = hops - d1 - d2;
+                for (OWLClass a : down.at(d1)) {
+                    for (OWLObjectProperty r : roles.at(d2)) {
+                        for (OWLClassExpression b : fill.at(d3)) {
+                            OWLSubClassOfAxiom query = df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, b));
+                            if (ontology.containsAxiomIgnoreAnnotations(query)) continue;
+                            if (reachedEarlier(seed, a, r, b, hops)) continue;
+
+                            // A' ⊑ ... ⊑ A, A ⊑ ∃r.B, r ⊑ ... ⊑ r', then the filler steps
+                            List<OWLAxiom> premises = new ArrayList<>(down.premises(a));
+                            Collections.reverse(premises);
+                            premises.add(seed);
+                            premises.addAll(roles.premises(r));
+                            premises.addAll(fill.premises(b));
+                            queries.add(new Query(query, true, hops, premises));
+                        }
+                    }
+                }
+            }
+        }
+        return queries;
+    }
+
+    // true if a seed sorted before this one reaches A' ⊑ ∃r'.B' in the same number of hops; such a
+    // seed is a told existential of an ancestor of A' (at the same distance as the walk down from it)
+    private boolean reachedEarlier(OWLSubClassOfAxiom seed, OWLClass a, OWLObjectProperty r, OWLClassExpression b, int hops) {
+        Walk<OWLClass> up = new Walk<>(a, hops, this::superSteps);
+        for (int d1 = 0; d1 <= hops; d1++) {
+            for (OWLClass ancestor : up.at(d1)) {
+                for (OWLSubClassOfAxiom other : existentials().getOrDefault(ancestor, List.of())) {
+                    if (other.compareTo(seed) >= 0) continue;
+                    OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) other.getSuperClass();
+                    int d2 = new Walk<>(some.getProperty().asOWLObjectProperty(), hops - d1, this::roleSteps).distance(r);
+                    if (d2 < 0) continue;
+                    int d3 = hops - d1 - d2;
+                    if (new Walk<>(some.getFiller(), d3, this::fillerSteps).distance(b) == d3) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Near misses of a positive, kept if they are not entailed.
+     */
+    List<Query> hardNegatives(Query positive, int limit) {
+        OWLClass subject = positive.axiom().getSubClass().asOWLClass();
+        OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) positive.axiom().getSuperClass();
+
+        // the innermost restriction ∃s.D of the filler, where D is named
+        OWLObjectSomeValuesFrom inner = some;
+        while (inner.getFiller() instanceof OWLObjectSomeValuesFrom nested) inner = nested;
+        if (inner.getFiller().isAnonymous()) return List.of();
+        OWLClass filler = inner.getFiller().asOWLClass();
+
+        Set<OWLClass> replacements = new LinkedHashSet<>();
+        for (OWLClass parent : directSuperClasses(filler)) replacements.addAll(directSubClasses(parent));
+        if (!inner.getProperty().isAnonymous()) {
+            replacements.addAll(fillers().getOrDefault(inner.getProperty().asOWLObjectProperty(), Collections.emptySortedSet()));
+        }
+        replacements.remove(filler);
+
+        List<OWLSubClassOfAxiom> candidates = new ArrayList<>();
+        for (OWLClass replacement : replacements) {
+            candidates.add(df.getOWLSubClassOfAxiom(subject, replaceInnermost(some, replacement)));
+        }
+        for (OWLClass parent : directSuperClasses(subject)) {
+            candidates.add(df.getOWLSubClassOfAxiom(parent, some));
+        }
+
+        List<Query> negatives = new ArrayList<>();
+        for (OWLSubClassOfAxiom candidate : candidates) {
+            if (negatives.size() == limit) break;
+            if (!entailment.test(candidate)) {
+                negatives.add(new Query(candidate, false, positive.hops(), positive.premises()));
+            }
+        }
+        return negatives;
+    }
+
+    private OWLClassExpression replaceInnermost(OWLObjectSomeValuesFrom some, OWLClass replacement) {
+        OWLClassExpression filler = some.getFiller() instanceof OWLObjectSomeValuesFrom nested
+                ? replaceInnermost(nested, replacement)
+                : replacement;
+        return df.getOWLObjectSomeValuesFrom(some.getProperty(), filler);
+    }
+
+    private List<Map.Entry<OWLClass, OWLAxiom>> subjectSteps(OWLClass cls) {
+        return directSubClasses(cls).stream()
+                .map(sub -> Map.entry(sub, (OWLAxiom) df.getOWLSubClassOfAxiom(sub, cls)))
+                .toList();
+    }
+
+    private List<Map.Entry<OWLClass, OWLAxiom>> superSteps(OWLClass cls) {
+        return directSuperClasses(cls).stream()
+                .map(sup -> Map.entry(sup, (OWLAxiom) df.getOWLSubClassOfAxiom(cls, sup)))
+                .toList();
+    }
+
+    private List<Map.Entry<OWLObjectProperty, OWLAxiom>> roleSteps(OWLObjectProperty role) {
+        return reasoner.getSuperObjectProperties(role, true).entities()
+                .filter(p -> !p.isAnonymous() && !p.isOWLTopObjectProperty())
+                .map(OWLObjectPropertyExpression::asOWLObjectProperty)
+                .sorted()
+                .map(sup -> Map.entry(sup, (OWLAxiom) df.getOWLSubObjectPropertyOfAxiom(role, sup)))
+                .toList();
+    }
+
+    // B to a direct superclass or a told ∃s.C of B; ∃s.X to ∃s.Y for every step X to Y
+    private List<Map.Entry<OWLClassExpression, OWLAxiom>> fillerSteps(OWLClassExpression filler) {
+        List<Map.Entry<OWLClassExpression, OWLAxiom>> steps = new ArrayList<>();
+        if (filler instanceof OWLObjectSomeValuesFrom some) {
+            for (Map.Entry<OWLClassExpression, OWLAxiom> step : fillerSteps(some.getFiller())) {
+                steps.add(Map.entry(df.getOWLObjectSomeValuesFrom(some.getProperty(), step.getKey()), step.getValue()));
+            }
+        } else if (!filler.isAnonymous()) {
+            OWLClass cls = filler.asOWLClass();
+            for (OWLClass sup : directSuperClasses(cls)) steps.add(Map.entry(sup, df.getOWLSubClassOfAxiom(cls, sup)));
+            for (OWLSubClassOfAxiom told : existentials().getOrDefault(cls, List.of())) {
+                steps.add(Map.entry(told.getSuperClass(), told));
+            }
+        }
+        return steps;
+    }
+
+    private List<OWLClass> directSubClasses(OWLClass cls) {
+        return reasoner.getSubClasses(cls, true).entities()
+                .filter(c -> !c.isOWLNothing())
+                .sorted()
+                .toList();
+    }
+
+    private List<OWLClass> directSuperClasses(OWLClass cls) {
+        return reasoner.getSuperClasses(cls, true).entities()
+                .filter(c -> !c.isOWLThing())
+                .sorted()
+                .toList();
+    }
+
+    private Map<OWLClass, List<OWLSubClassOfAxiom>> existentials() {
+        if (existentials == null) {
+            existentials = new HashMap<>();
+            seeds().forEach(ax -> existentials.computeIfAbsent(ax.getSubClass().asOWLClass(), k -> new ArrayList<>()).add(ax));
+        }
+        return existentials;
+    }
+
+    private Map<OWLObjectProperty, SortedSet<OWLClass>> fillers() {
+        if (fillers == null) {
+            fillers = new HashMap<>();
+            seeds().forEach(ax -> {
+                OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) ax.getSuperClass();
+                fillers.computeIfAbsent(some.getProperty().asOWLObjectProperty(), k -> new TreeSet<>())
+                        .add(some.getFiller().asOWLClass());
+            });
+        }
+        return fillers;
+    }
+
+    /**
+     * Breadth-first walk from one start node, up to a number of steps. Each node is recorded at
+     * its shortest distance, with the step (previous node and premise) it was reached by.
+     */
+    private static final class Walk<T> {
+        private final List<List<T>> levels = new ArrayList<>();
+        private final Map<T, T> parent = new HashMap<>();
+        private final Map<T, OWLAxiom> premise = new HashMap<>();
+        private final Map<T, Integer> distance = new HashMap<>();
+
+        Walk(T start, int maxSteps, Function<T, List<Map.Entry<T, OWLAxiom>>> next) {
+            levels.add(List.of(start));
+            parent.put(start, null);
+            distance.put(start, 0);
+            for (int step = 1; step <= maxSteps; step++) {
+                List<T> level = new ArrayList<>();
+                for (T node : levels.get(step - 1)) {
+                    for (Map.Entry<T, OWLAxiom> n : next.apply(node)) {
+                        if (!parent.containsKey(n.getKey())) {
+                            parent.put(n.getKey(), node);
+                            premise.put(n.getKey(), n.getValue());
+                            distance.put(n.getKey(), step);
+                            level.add(n.getKey());
+                        }
+                    }
+                }
+                levels.add(level);
+            }
+        }
+
+        List<T> at(int distance) {
+            return levels.get(distance);
+        }
+
+        // steps from the start node to the given node, or -1 if it was not reached
+        int distance(T node) {
+            return distance.getOrDefault(node, -1);
+        }
+
+        // premises of the steps from the start node to the given node, in walking order
+        List<OWLAxiom> premises(T node) {
+            LinkedList<OWLAxiom> premises = new LinkedList<>();
+            for (T n = node; parent.get(n) != null; n = parent.get(n)) premises.addFirst(premise.get(n));
+            return premises;
+        }
+    }
+
+    /**
+     * Writes a multi-hop benchmark: positives k hops from the told axioms and their hard negatives.
+     * Options: -Dbenchmark.hops (default 2), -Dbenchmark.multihop.negatives (per positive, default 1),
+     * -Dbenchmark.limit (maximum number of test cases, default unlimited), plus the reasoner and
+     * format options of {@link BenchmarkRunner}.
+     *
+     * @param args optional: ontology file, output file
+     * @throws Exception if loading, reasoning or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        String ontologyFile = args.length > 0 ? args[0] : "src/main/resources/ontology/pizza-el.owl";
+        String outputFile = args.length > 1 ? args[1] : "output_HermitReasoner/benchmark_multihop.json";
+        int hops = Integer.getInteger("benchmark.hops", 2);
+        // negatives per positive; -Dbenchmark.negatives is the total count of NegativeSampler
+        int negatives = Integer.getInteger("benchmark.multihop.negatives", 1);
+        long limit = Long.getLong("benchmark.limit", Long.MAX_VALUE);
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(ontologyFile));
+        OWLReasoner reasoner = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"))
+                .createReasoner(ontology);
+        AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.of(ontology));
+        int[] id = {0};
+        try (BenchmarkWriter writer = new BenchmarkWriter(outputFile, format)) {
+            new MultiHopQueryGenerator(ontology, reasoner)
+                    .withHardNegatives(hops, negatives)
+                    .limit(limit)
+                    .forEach(q -> {
+                        try {
+                            writer.write(toTestCase("test_" + (++id[0]), q, formatter));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } finally {
+            reasoner.dispose();
+        }
+        System.out.println("Multi-hop benchmark with " + id[0] + " test cases exported to " + outputFile);
+    }
+
+    /**
+     * Builds the benchmark entry for a query, in the layout of {@link BenchmarkRunner}.
+     */
+    static Map<String, Object> toTestCase(String id, Query query, AxiomFormatter formatter) {
+        boolean roleHop = query.premises().stream().anyMatch(ax -> ax instanceof OWLSubObjectPropertyOfAxiom);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", id);
+        entry.put("dl_profile", roleHop ? "ELH" : "EL");
+        entry.put("hops", query.hops());
+        entry.put("axioms", query.premises().stream().map(formatter::format).toList());
+        entry.put("query", QueryGenerator.generateQuery(List.of(query.axiom()), formatter.names()));
+        entry.put("expected", query.entailed() ? "Yes" : "No");
+        return entry;
+    }
+}
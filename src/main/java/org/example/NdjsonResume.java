@@ -0,0 +1,75 @@
+package org.example;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * NdjsonResume picks up an NDJSON file that is written one entry per line, with an "id" each,
+ * after the writer crashed or was killed: complete lines are kept, a torn last line is cut off,
+ * and the IDs already written are returned so the writer can skip them and go on appending.
+ *
+ * Used by {@link ShardedGenerator} for its `.part` files and by {@link LlmEvaluator} for its
+ * results files.
+ */
+final class NdjsonResume {
+
+    private NdjsonResume() {
+    }
+
+    /**
+     * Returns the IDs of the complete lines of an interrupted NDJSON file and cuts off a torn
+     * last line, so writing can go on by appending.
+     *
+     * @param file the file; a missing file has no IDs
+     * @return the IDs written so far
+     * @throws IOException if the file cannot be read or truncated
+     */
+    static Set<String> resume(Path file) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(file)) return done;
+        long valid = 0;
+        long offset = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String id = idOf(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                if (id == null) break;
+                done.add(id);
+                valid = offset;
+            }
+        }
+        if (valid < Files.size(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return done;
+    }
+
+    private static String idOf(String line) {
+        try {
+            JsonElement entry = JsonParser.parseString(line);
+            if (!entry.isJsonObject() || !entry.getAsJsonObject().has("id")) return null;
+            return entry.getAsJsonObject().get("id").getAsString();
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * NegativeSampler proposes A ⊑ ∃r.B questions whose answer is "No", to balance the told
+ * (always "Yes") queries of the benchmark.
+ *
+ * Candidates are told axioms A ⊑ ∃r.B with one part corrupted: the filler (preferably another
+ * told filler of r, which gives near misses), the role or the subject, or drawn at random from
+ * the signature. They are checked in batches, by default with
+ * {@link ReasoningValidator#check(Collection)}, which answers a whole batch with one
+ * classification; entailed candidates are rejected, and so are candidates the reasoner gave no
+ * answer for, so a timeout never becomes a "No". With a {@link SubsumptionIndex}, candidates
+ * that follow from a told existential through the class and role hierarchy (A ⊑ A', A' ⊑ ∃r'.B'
+ * told, r' ⊑ r, B' ⊑ B) are rejected without asking the oracle.
+ *
+ * Rejection sampling stops at the target count, or once the number of attempts reaches
+ * target / minYield, so a space with few negatives does not loop for long. The sampler is
+ * seeded, so the same seed gives the same samples.
+ */
+public class NegativeSampler {
+
+    private static final Logger logger = Logger.getLogger(NegativeSampler.class.getName());
+
+    /** How a candidate was derived from its told axiom. */
+    public enum Corruption { FILLER, ROLE, SUBJECT, RANDOM }
+
+    /**
+     * A non-entailed candidate and the told axiom it was derived from.
+     */
+    public record Sample(OWLSubClassOfAxiom axiom, OWLSubClassOfAxiom source, Corruption corruption) {
+    }
+
+    private final OWLOntology ontology;
+    private final Function<Collection<? extends OWLAxiom>, Map<OWLAxiom, ReasonerPool.Outcome>> oracle;
+    private final OWLDataFactory df;
+    private final Random random;
+
+    private final List<OWLSubClassOfAxiom> seeds;
+    private final List<OWLClass> classes;
+    private final List<OWLClass> subjects;
+    private final List<OWLObjectProperty> roles;
+    private final Map<OWLObjectProperty, List<OWLClass>> fillers = new HashMap<>();
+    private final Map<OWLClass, List<OWLSubClassOfAxiom>> toldBySubject = new HashMap<>();
+    private SubsumptionIndex index;
+
+    private int batchSize = 4096;
+    private double minYield = 0.05;
+    private long attempts;
+    private long rejected;
+
+    /**
+     * Creates a sampler that checks candidates with a validation session.
+     *
+     * @param ontology  the ontology
+     * @param validator a session for the ontology
+     * @param seed      random seed
+     */
+    public NegativeSampler(OWLOntology ontology, ReasoningValidator validator, long seed) {
+        this(ontology, validator::check, seed);
+    }
+
+    /**
+     * Creates a sampler with a custom batch entailment check.
+     *
+     * @param ontology the ontology
+     * @param oracle   answers a batch of candidates, mapping each to its outcome
+     * @param seed     random seed
+     */
+    public NegativeSampler(OWLOntology ontology, Function<Collection<? extends OWLAxiom>, Map<OWLAxiom, ReasonerPool.Outcome>> oracle, long seed) {
+        this.ontology = ontology;
+        this.oracle = oracle;
+        this.df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        this.random = new Random(seed);
+
+        this.seeds = ontology.axioms(AxiomType.SUBCLASS_OF)
+                .filter(ax -> !ax.getSubClass().isAnonymous())
+                .filter(ax -> ax.getSuperClass() instanceof OWLObjectSomeValuesFrom some
+                        && !some.getProperty().isAnonymous()
+                        && !some.getFiller().isAnonymous())
+                .sorted()
+                .toList();
+        this.classes = ontology.classesInSignature(Imports.INCLUDED)
+                .filter(c -> !c.isOWLThing() && !c.isOWLNothing())
+                .sorted()
+                .toList();
+        this.subjects = seeds.stream().map(ax -> ax.getSubClass().asOWLClass()).distinct().toList();
+        this.roles = ontology.objectPropertiesInSignature(Imports.INCLUDED)
+                .filter(p -> !p.isOWLTopObjectProperty() && !p.isOWLBottomObjectProperty())
+                .sorted()
+                .toList();
+        for (OWLSubClassOfAxiom told : seeds) {
+            OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) told.getSuperClass();
+            List<OWLClass> list = fillers.computeIfAbsent(some.getProperty().asOWLObjectProperty(), k -> new ArrayList<>());
+            OWLClass filler = some.getFiller().asOWLClass();
+            if (!list.contains(filler)) list.add(filler);
+            toldBySubject.computeIfAbsent(told.getSubClass().asOWLClass(), k -> new ArrayList<>()).add(told);
+        }
+    }
+
+    /**
+     * Rejects candidates that the closure index shows to be entailed before they reach the oracle.
+     */
+    public NegativeSampler withIndex(SubsumptionIndex index) {
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * Sets how many candidates are checked together (default 4096).
+     */
+    public NegativeSampler withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the lowest acceptable share of non-entailed candidates (default 0.05); sampling gives
+     * up after target / minYield attempts.
+     */
+    public NegativeSampler withMinYield(double minYield) {
+        this.minYield = minYield;
+        return this;
+    }
+
+    /**
+     * Samples up to target distinct non-entailed, non-told candidates.
+     *
+     * @param target number of negatives wanted
+     * @return the negatives, fewer than target if the attempt budget ran out
+     */
+    public List<Sample> sample(int target) {
+        List<Sample> samples = new ArrayList<>();
+        if (seeds.isEmpty() || classes.isEmpty() || roles.isEmpty()) return samples;
+
+        long maxAttempts = (long) Math.ceil(target / minYield);
+        Set<OWLAxiom> seen = new HashSet<>();
+        while (samples.size() < target && attempts < maxAttempts) {
+            List<Sample> batch = new ArrayList<>();
+            List<OWLAxiom> axioms = new ArrayList<>();
+            // propose a batch, twice what is still missing but not more than the budget allows
+            long size = Math.min(batchSize, Math.min(2L * (target - samples.size()), maxAttempts - attempts));
+            for (long i = 0; i < size; i++) {
+                attempts++;
+                Sample candidate = propose();
+                if (ontology.containsAxiomIgnoreAnnotations(candidate.axiom()) || !seen.add(candidate.axiom())
+                        || (index != null && entailedByToldExistential(candidate.axiom()))) {
+                    rejected++;
+                    continue;
+                }
+                batch.add(candidate);
+                axioms.add(candidate.axiom());
+            }
+
+            Map<OWLAxiom, ReasonerPool.Outcome> answers = oracle.apply(axioms);
+            for (Sample candidate : batch) {
+                // only a definite "No" is a negative
+                if (samples.size() == target
+                        || answers.getOrDefault(candidate.axiom(), ReasonerPool.Outcome.ERROR) != ReasonerPool.Outcome.NO) {
+                    rejected++;
+                } else {
+                    samples.add(candidate);
+                }
+            }
+        }
+        if (samples.size() < target) {
+            logger.warning("Sampled " + samples.size() + " of " + target + " negatives in " + attempts + " attempts");
+        }
+        return samples;
+    }
+
+    // A ⊑ ∃r.B holds if a superclass of A (or A itself) has a told ∃r'.B' with r' ⊑ r and B' ⊑ B
+    private boolean entailedByToldExistential(OWLSubClassOfAxiom candidate) {
+        OWLClass subject = candidate.getSubClass().asOWLClass();
+        OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) candidate.getSuperClass();
+        OWLObjectProperty role = some.getProperty().asOWLObjectProperty();
+        OWLClass filler = some.getFiller().asOWLClass();
+        if (index.isUnsatisfiable(subject)) return true;
+
+        int id = index.classId(subject);
+        if (id < 0) return false;
+        boolean[] found = {false};
+        index.forEachSuperClass(id, sup -> {
+            if (found[0]) return;
+            for (OWLSubClassOfAxiom told : toldBySubject.getOrDefault(index.classAt(sup), List.of())) {
+                OWLObjectSomeValuesFrom t = (OWLObjectSomeValuesFrom) told.getSuperClass();
+                if (index.isSubRole(t.getProperty().asOWLObjectProperty(), role)
+                        && index.isSubClassOf(t.getFiller().asOWLClass(), filler)) {
+                    found[0] = true;
+                    return;
+                }
+            }
+        });
+        return found[0];
+    }
+
+    // one corrupted told axiom, or a random one
+    private Sample propose() {
+        OWLSubClassOfAxiom seed = seeds.get(random.nextInt(seeds.size()));
+        OWLClass subject = seed.getSubClass().asOWLClass();
+        OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) seed.getSuperClass();
+        OWLObjectProperty role = some.getProperty().asOWLObjectProperty();
+        OWLClass filler = some.getFiller().asOWLClass();
+
+        Corruption corruption = Corruption.values()[random.nextInt(Corruption.values().length)];
+        switch (corruption) {
+            case FILLER -> {
+                List<OWLClass> told = fillers.get(role);
+                filler = told.size() > 1 && random.nextBoolean() ? pick(told) : pick(classes);
+            }
+            case ROLE -> role = pick(roles);
+            case SUBJECT -> subject = pick(subjects);
+            case RANDOM -> {
+                subject = pick(classes);
+                role = pick(roles);
+                filler = pick(classes);
+            }
+        }
+        return new Sample(df.getOWLSubClassOfAxiom(subject, df.getOWLObjectSomeValuesFrom(role, filler)), seed, corruption);
+    }
+
+    private <T> T pick(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    /** Candidates proposed so far. */
+    public long attempts() {
+        return attempts;
+    }
+
+    /** Candidates rejected so far (told, duplicate or entailed). */
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Writes negatives as benchmark entries with the subject's group of axioms as context,
+     * balancing the told queries of {@link BenchmarkRunner}.
+     * Options: -Dbenchmark.negatives (count, default one per subject group), -Dbenchmark.seed
+     * (default 42), -Dbenchmark.batch (default 4096), -Dbenchmark.minYield (default 0.05),
+     * -Dbenchmark.index (subsumption index file, default .cache/subsumption.idx, empty to turn it
+     * off), plus the reasoner and format options of {@link BenchmarkRunner}.
+     *
+     * @param args optional: ontology file, output file
+     * @throws Exception if loading, reasoning or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        String ontologyFile = args.length > 0 ? args[0] : "src/main/resources/ontology/pizza-el.owl";
+        String outputFile = args.length > 1 ? args[1] : "output_HermitReasoner/benchmark_negatives.json";
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new File(ontologyFile));
+        EntityDictionary names = EntityDictionary.of(ontology);
+        List<OWLAxiom>[] groups = AxiomGrouper.groupBySubjectId(ontology, names);
+        int target = Integer.getInteger("benchmark.negatives", AxiomGrouper.inSubjectOrder(groups, names).size());
+
+        long start = System.nanoTime();
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"));
+        String indexFile = System.getProperty("benchmark.index", ".cache/subsumption.idx");
+        SubsumptionIndex index = indexFile.isEmpty() ? null : SubsumptionIndex.loadOrBuild(Path.of(indexFile), ontology, factory);
+        List<Sample> samples;
+        try (ReasoningValidator validator = new ReasoningValidator(ontology, factory, null, index)) {
+            NegativeSampler sampler = new NegativeSampler(ontology, validator, Long.getLong("benchmark.seed", 42))
+                    .withBatchSize(Integer.getInteger("benchmark.batch", 4096))
+                    .withMinYield(Double.parseDouble(System.getProperty("benchmark.minYield", "0.05")))
+                    .withIndex(index);
+            samples = sampler.sample(target);
+            System.out.printf("Sampled %d negatives from %d candidates in %d ms%n",
+                    samples.size(), sampler.attempts(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        AxiomFormatter formatter = new AxiomFormatter(names);
+        int id = 0;
+        try (BenchmarkWriter writer = new BenchmarkWriter(outputFile, format)) {
+            for (Sample sample : samples) {
+                // the told axioms of this very class, not of another one with the same short form
+                int subject = names.id(sample.axiom().getSubClass().asOWLClass());
+                List<OWLAxiom> context = subject < 0 || groups[subject] == null ? List.of() : groups[subject];
+                writer.write(toTestCase("test_" + (++id), sample, context, formatter));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing JSON: " + e.getMessage());
+        }
+        System.out.println("Negative samples exported to " + outputFile);
+    }
+
+    /**
+     * Builds the benchmark entry for a negative, in the layout of {@link BenchmarkRunner}.
+     */
+    static Map<String, Object> toTestCase(String id, Sample sample, List<OWLAxiom> context, AxiomFormatter formatter) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", id);
+        entry.put("dl_profile", "EL");
+        entry.put("corruption", sample.corruption().name().toLowerCase(Locale.ROOT));
+        entry.put("axioms", context.stream().map(formatter::format).toList());
+        entry.put("query", QueryGenerator.generateQuery(List.of(sample.axiom()), formatter.names()));
+        entry.put("expected", "No");
+        return entry;
+    }
+}
@@ -0,0 +1,393 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.io.*;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * OntologySnapshot is a compact binary copy of the EL axioms of an ontology, so later runs can
+ * skip the RDF/XML parser.
+ *
+ * The file holds the {@link EntityDictionary} of the ontology (entity kind and IRI per ID) and
+ * the axioms as int tuples over these IDs, 4-byte aligned and memory-mapped on load. Axioms are
+ * decoded in parallel, using an offset table, and added to a new ontology in one call.
+ * The header records the size and CRC32 of the source document, so an edited source is parsed
+ * again and the snapshot rewritten, and the ontology IRI, version IRI and ontology annotations.
+ *
+ * Supported are declarations, SubClassOf, EquivalentClasses, SubObjectPropertyOf, ClassAssertion
+ * and ObjectPropertyAssertion axioms without annotations, over named classes, ∃r.C and C ⊓ D,
+ * and ontology annotations with an IRI or literal value. An ontology with other axioms or
+ * annotations, or with imports (the snapshot would not hold the imported ontologies), is not
+ * snapshotted.
+ */
+public final class OntologySnapshot {
+
+    private static final Logger logger = Logger.getLogger(OntologySnapshot.class.getName());
+
+    static final int MAGIC = 0x4F4E5453; // "ONTS"
+    static final int VERSION = 2;
+
+    // entity kinds
+    private static final byte CLASS = 0;
+    private static final byte OBJECT_PROPERTY = 1;
+    private static final byte INDIVIDUAL = 2;
+
+    // axiom tags, each followed by its operands
+    private static final int DECLARATION = 0;     // entity
+    private static final int SUBCLASS = 1;        // sub, sup
+    private static final int EQUIVALENT = 2;      // n, C1..Cn
+    private static final int SUB_ROLE = 3;        // sub, sup
+    private static final int CLASS_ASSERTION = 4; // C, individual
+    private static final int ROLE_ASSERTION = 5;  // role, subject, object
+
+    // annotation value kinds
+    private static final byte IRI_VALUE = 0;
+    private static final byte LITERAL_VALUE = 1;
+
+    // class expressions are prefix encoded: an entity ID for a named class, or a negative tag
+    private static final int SOME = -1;           // role, filler
+    private static final int AND = -2;            // n, C1..Cn
+
+    private OntologySnapshot() {
+    }
+
+    /**
+     * Loads the ontology from its snapshot if the snapshot matches the source document, otherwise
+     * parses the document and writes the snapshot for the next run.
+     *
+     * @param source   the ontology document
+     * @param snapshot the snapshot file
+     * @param manager  manager the ontology is created in
+     * @return the ontology
+     * @throws IOException                  if the source cannot be read
+     * @throws OWLOntologyCreationException if the source cannot be parsed
+     */
+    public static OWLOntology loadOrParse(Path source, Path snapshot, OWLOntologyManager manager)
+            throws IOException, OWLOntologyCreationException {
+        long checksum = checksum(source);
+        if (Files.exists(snapshot)) {
+            try {
+                if (sourceChecksum(snapshot) == checksum) return load(snapshot, manager);
+                logger.info("Snapshot " + snapshot + " is out of date, parsing " + source);
+            } catch (IOException e) {
+                logger.warning("Cannot read snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(source.toFile());
+        try {
+            save(ontology, checksum, snapshot);
+        } catch (IllegalArgumentException e) {
+            logger.info("Not snapshotting " + source + ": " + e.getMessage());
+        } catch (IOException e) {
+            logger.warning("Cannot write snapshot " + snapshot + ": " + e.getMessage());
+        }
+        return ontology;
+    }
+
+    /**
+     * Size and CRC32 of a file, combined into one value.
+     */
+    static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.read(buffer)) > 0; ) crc.update(buffer, 0, n);
+        }
+        return Files.size(file) << 32 ^ crc.getValue();
+    }
+
+    /**
+     * Writes the snapshot: a header with the source checksum, the ontology ID and annotations and
+     * the entity table, then the axiom offsets and int tuples, 4-byte aligned so they can be
+     * mapped as ints.
+     *
+     * @param ontology       the ontology
+     * @param sourceChecksum {@link #checksum(Path)} of the document it was parsed from
+     * @param file           the file to write; parent directories are created
+     * @throws IllegalArgumentException if the ontology has imports, or an axiom or annotation the
+     *                                  format cannot hold
+     * @throws IOException              if the file cannot be written
+     */
+    public static void save(OWLOntology ontology, long sourceChecksum, Path file) throws IOException {
+        if (ontology.importsDeclarations().findAny().isPresent()) {
+            throw new IllegalArgumentException("ontology has imports");
+        }
+        List<OWLAnnotation> annotations = ontology.annotationsAsList();
+        for (OWLAnnotation annotation : annotations) {
+            if (annotation.annotations().findAny().isPresent() || annotation.getValue().isIndividual()) {
+                throw new IllegalArgumentException("unsupported ontology annotation " + annotation);
+            }
+        }
+        EntityDictionary names = EntityDictionary.of(ontology);
+        int[] offsets = new int[ontology.getAxiomCount() + 1];
+        IntTuples tuples = new IntTuples();
+        int n = 0;
+        for (OWLAxiom axiom : (Iterable<OWLAxiom>) ontology.axioms()::iterator) {
+            encode(axiom, names, tuples);
+            offsets[++n] = tuples.size;
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceChecksum);
+            writeString(out, ontology.getOntologyID().getOntologyIRI().map(IRI::toString).orElse(""));
+            writeString(out, ontology.getOntologyID().getVersionIRI().map(IRI::toString).orElse(""));
+            out.writeInt(annotations.size());
+            for (OWLAnnotation annotation : annotations) {
+                writeString(out, annotation.getProperty().getIRI().toString());
+                if (annotation.getValue() instanceof OWLLiteral literal) {
+                    out.writeByte(LITERAL_VALUE);
+                    writeString(out, literal.getLiteral());
+                    writeString(out, literal.getDatatype().getIRI().toString());
+                    writeString(out, literal.getLang());
+                } else {
+                    out.writeByte(IRI_VALUE);
+                    writeString(out, annotation.getValue().asIRI().orElseThrow().toString());
+                }
+            }
+            out.writeInt(names.size());
+            for (int id = 0; id < names.size(); id++) {
+                OWLEntity entity = names.entity(id);
+                out.writeByte(entity.isOWLClass() ? CLASS : entity.isOWLObjectProperty() ? OBJECT_PROPERTY : INDIVIDUAL);
+                writeString(out, entity.getIRI().toString());
+            }
+            out.writeInt(n);
+            out.writeInt(tuples.size);
+            while (out.size() % Integer.BYTES != 0) out.writeByte(0);
+            for (int i = 0; i <= n; i++) out.writeInt(offsets[i]);
+            for (int i = 0; i < tuples.size; i++) out.writeInt(tuples.values[i]);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-maps a snapshot and creates its ontology.
+     *
+     * @param file    the snapshot file
+     * @param manager manager the ontology is created in
+     * @return the ontology
+     * @throws IOException if the file cannot be read or is not a snapshot file
+     */
+    public static OWLOntology load(Path file, OWLOntologyManager manager) throws IOException {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buf = header(channel, file);
+            buf.getLong(); // source checksum
+            String iri = readString(buf);
+            String version = readString(buf);
+            List<OWLAnnotation> annotations = new ArrayList<>();
+            for (int i = buf.getInt(); i > 0; i--) {
+                OWLAnnotationProperty property = df.getOWLAnnotationProperty(IRI.create(readString(buf)));
+                OWLAnnotationValue value = buf.get() == LITERAL_VALUE
+                        ? literal(df, readString(buf), readString(buf), readString(buf))
+                        : IRI.create(readString(buf));
+                annotations.add(df.getOWLAnnotation(property, value));
+            }
+            int entityCount = buf.getInt();
+            byte[] kinds = new byte[entityCount];
+            String[] iris = new String[entityCount];
+            for (int i = 0; i < entityCount; i++) {
+                kinds[i] = buf.get();
+                iris[i] = readString(buf);
+            }
+            OWLEntity[] entities = new OWLEntity[entityCount];
+            IntStream.range(0, entityCount).parallel().forEach(i -> entities[i] = entity(df, kinds[i], IRI.create(iris[i])));
+
+            int axiomCount = buf.getInt();
+            int tupleCount = buf.getInt();
+            buf.position((buf.position() + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES);
+            IntBuffer ints = buf.slice().asIntBuffer();
+            if (ints.remaining() < axiomCount + 1 + tupleCount) throw new IOException("Truncated snapshot: " + file);
+            IntBuffer offsets = ints.slice(0, axiomCount + 1);
+            IntBuffer tuples = ints.slice(axiomCount + 1, tupleCount);
+
+            // absolute reads only, so the workers can share the buffers
+            OWLAxiom[] axioms = new OWLAxiom[axiomCount];
+            IntStream.range(0, axiomCount).parallel()
+                    .forEach(i -> axioms[i] = decode(tuples, offsets.get(i), entities, df));
+            OWLOntologyID id = iri.isEmpty() ? new OWLOntologyID()
+                    : new OWLOntologyID(Optional.of(IRI.create(iri)), version.isEmpty() ? Optional.empty() : Optional.of(IRI.create(version)));
+            OWLOntology ontology = manager.createOntology(id);
+            manager.addAxioms(ontology, Arrays.stream(axioms));
+            for (OWLAnnotation annotation : annotations) manager.applyChange(new AddOntologyAnnotation(ontology, annotation));
+            logger.info("Loaded " + axiomCount + " axioms over " + entityCount + " entities from snapshot " + file);
+            return ontology;
+        } catch (OWLOntologyCreationException e) {
+            throw new IOException("Cannot create ontology from snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Reads the source checksum recorded in a snapshot.
+     */
+    static long sourceChecksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return header(channel, file).getLong();
+        }
+    }
+
+    private static MappedByteBuffer header(FileChannel channel, Path file) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buf.remaining() < 16 || buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            throw new IOException("Not an ontology snapshot file: " + file);
+        }
+        return buf;
+    }
+
+    private static void encode(OWLAxiom axiom, EntityDictionary names, IntTuples out) {
+        if (axiom.isAnnotated()) throw unsupported(axiom);
+        switch (axiom.getAxiomType().getName()) {
+            case "Declaration" -> {
+                OWLEntity entity = ((OWLDeclarationAxiom) axiom).getEntity();
+                if (!(entity.isOWLClass() || entity.isOWLObjectProperty() || entity.isOWLNamedIndividual())) {
+                    throw unsupported(axiom);
+                }
+                out.add(DECLARATION, names.id(entity));
+            }
+            case "SubClassOf" -> {
+                OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom) axiom;
+                out.add(SUBCLASS);
+                encode(sub.getSubClass(), names, out, axiom);
+                encode(sub.getSuperClass(), names, out, axiom);
+            }
+            case "EquivalentClasses" -> {
+                List<OWLClassExpression> operands = ((OWLEquivalentClassesAxiom) axiom).getOperandsAsList();
+                out.add(EQUIVALENT, operands.size());
+                for (OWLClassExpression c : operands) encode(c, names, out, axiom);
+            }
+            case "SubObjectPropertyOf" -> {
+                OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom) axiom;
+                out.add(SUB_ROLE, role(sub.getSubProperty(), names, axiom), role(sub.getSuperProperty(), names, axiom));
+            }
+            case "ClassAssertion" -> {
+                OWLClassAssertionAxiom assertion = (OWLClassAssertionAxiom) axiom;
+                out.add(CLASS_ASSERTION);
+                encode(assertion.getClassExpression(), names, out, axiom);
+                out.add(individual(assertion.getIndividual(), names, axiom));
+            }
+            case "ObjectPropertyAssertion" -> {
+                OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+                out.add(ROLE_ASSERTION, role(assertion.getProperty(), names, axiom),
+                        individual(assertion.getSubject(), names, axiom), individual(assertion.getObject(), names, axiom));
+            }
+            default -> throw unsupported(axiom);
+        }
+    }
+
+    private static void encode(OWLClassExpression c, EntityDictionary names, IntTuples out, OWLAxiom axiom) {
+        if (c.isNamed()) {
+            out.add(names.id(c.asOWLClass()));
+        } else if (c instanceof OWLObjectSomeValuesFrom some) {
+            out.add(SOME, role(some.getProperty(), names, axiom));
+            encode(some.getFiller(), names, out, axiom);
+        } else if (c instanceof OWLObjectIntersectionOf and) {
+            List<OWLClassExpression> operands = and.getOperandsAsList();
+            out.add(AND, operands.size());
+            for (OWLClassExpression operand : operands) encode(operand, names, out, axiom);
+        } else {
+            throw unsupported(axiom);
+        }
+    }
+
+    private static int role(OWLObjectPropertyExpression r, EntityDictionary names, OWLAxiom axiom) {
+        if (!r.isNamed()) throw unsupported(axiom);
+        return names.id(r.asOWLObjectProperty());
+    }
+
+    private static int individual(OWLIndividual a, EntityDictionary names, OWLAxiom axiom) {
+        if (!a.isNamed()) throw unsupported(axiom);
+        return names.id(a.asOWLNamedIndividual());
+    }
+
+    private static IllegalArgumentException unsupported(OWLAxiom axiom) {
+        return new IllegalArgumentException("unsupported axiom " + axiom);
+    }
+
+    private static OWLAxiom decode(IntBuffer tuples, int at, OWLEntity[] entities, OWLDataFactory df) {
+        int[] pos = {at + 1};
+        return switch (tuples.get(at)) {
+            case DECLARATION -> df.getOWLDeclarationAxiom(entities[tuples.get(at + 1)]);
+            case SUBCLASS -> df.getOWLSubClassOfAxiom(decode(tuples, pos, entities, df), decode(tuples, pos, entities, df));
+            case EQUIVALENT -> {
+                List<OWLClassExpression> operands = new ArrayList<>();
+                for (int i = tuples.get(pos[0]++); i > 0; i--) operands.add(decode(tuples, pos, entities, df));
+                yield df.getOWLEquivalentClassesAxiom(operands);
+            }
+            case SUB_ROLE -> df.getOWLSubObjectPropertyOfAxiom(
+                    entities[tuples.get(at + 1)].asOWLObjectProperty(), entities[tuples.get(at + 2)].asOWLObjectProperty());
+            case CLASS_ASSERTION -> {
+                OWLClassExpression c = decode(tuples, pos, entities, df);
+                yield df.getOWLClassAssertionAxiom(c, entities[tuples.get(pos[0])].asOWLNamedIndividual());
+            }
+            case ROLE_ASSERTION -> df.getOWLObjectPropertyAssertionAxiom(entities[tuples.get(at + 1)].asOWLObjectProperty(),
+                    entities[tuples.get(at + 2)].asOWLNamedIndividual(), entities[tuples.get(at + 3)].asOWLNamedIndividual());
+            default -> throw new IllegalStateException("Unknown axiom tag " + tuples.get(at) + " at " + at);
+        };
+    }
+
+    // reads one class expression at pos[0] and advances it
+    private static OWLClassExpression decode(IntBuffer tuples, int[] pos, OWLEntity[] entities, OWLDataFactory df) {
+        int tag = tuples.get(pos[0]++);
+        if (tag >= 0) return entities[tag].asOWLClass();
+        if (tag == SOME) {
+            OWLObjectProperty r = entities[tuples.get(pos[0]++)].asOWLObjectProperty();
+            return df.getOWLObjectSomeValuesFrom(r, decode(tuples, pos, entities, df));
+        }
+        List<OWLClassExpression> operands = new ArrayList<>();
+        for (int i = tuples.get(pos[0]++); i > 0; i--) operands.add(decode(tuples, pos, entities, df));
+        return df.getOWLObjectIntersectionOf(operands);
+    }
+
+    // the language tag is kept for rdf:langString, the datatype otherwise
+    private static OWLLiteral literal(OWLDataFactory df, String lexical, String datatype, String lang) {
+        return lang.isEmpty() ? df.getOWLLiteral(lexical, df.getOWLDatatype(IRI.create(datatype))) : df.getOWLLiteral(lexical, lang);
+    }
+
+    private static OWLEntity entity(OWLDataFactory df, byte kind, IRI iri) {
+        return switch (kind) {
+            case CLASS -> df.getOWLClass(iri);
+            case OBJECT_PROPERTY -> df.getOWLObjectProperty(iri);
+            default -> df.getOWLNamedIndividual(iri);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // growable int array for the encoded axioms
+    private static final class IntTuples {
+        int[] values = new int[1024];
+        int size;
+
+        void add(int... ints) {
+            if (size + ints.length > values.length) values = Arrays.copyOf(values, Math.max(values.length * 2, size + ints.length));
+            System.arraycopy(ints, 0, values, size, ints.length);
+            size += ints.length;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PipelineEvents instruments the stages of the generation pipeline with JDK Flight Recorder
+ * events and the {@link Metrics#global()} registry.
+ *
+ * Every stage has its own event type (e.g. `org.example.Classification`), tagged with the subject
+ * it works on and the reasoner, so a recording can be filtered and thresholded per stage, e.g.
+ * `java -XX:StartFlightRecording=filename=run.jfr ... org.example.BenchmarkRunner` and
+ * `jfr print --events org.example.EntailmentCheck run.jfr`. Without a recording the events
+ * cost an allocation and are not committed.
+ *
+ * Each {@link Span} also records its duration in the histogram
+ * `benchmark_stage_seconds{stage, reasoner}`; subjects are left out of the metric labels to keep
+ * the number of series small. Each stage keeps its histogram per reasoner, so a span does not
+ * look it up in the registry.
+ */
+public final class PipelineEvents {
+
+    private PipelineEvents() {
+    }
+
+    /**
+     * A pipeline stage; the name is its "stage" metric label.
+     */
+    public enum Stage {
+        LOAD, GROUPING, QUERY, CLASSIFICATION, ENTAILMENT, FORMATTING, SERIALIZATION;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+        // histograms of this stage by reasoner, with the registry generation they belong to
+        private final Map<String, StageHistogram> histograms = new ConcurrentHashMap<>();
+
+        Metrics.Histogram histogram(String reasoner) {
+            long generation = Metrics.global().generation();
+            StageHistogram cached = histograms.get(reasoner);
+            if (cached == null || cached.generation() != generation) {
+                // created again after the registry was cleared
+                cached = new StageHistogram(generation,
+                        Metrics.global().histogram("benchmark_stage_seconds", "stage", label, "reasoner", reasoner));
+                histograms.put(reasoner, cached);
+            }
+            return cached.histogram();
+        }
+
+        Event event() {
+            return switch (this) {
+                case LOAD -> new OntologyLoad();
+                case GROUPING -> new Grouping();
+                case QUERY -> new QueryGeneration();
+                case CLASSIFICATION -> new Classification();
+                case ENTAILMENT -> new EntailmentCheck();
+                case FORMATTING -> new Formatting();
+                case SERIALIZATION -> new Serialization();
+            };
+        }
+    }
+
+    private record StageHistogram(long generation, Metrics.Histogram histogram) {
+    }
+
+    @Category("DL Benchmark")
+    abstract static class PipelineEvent extends Event {
+        @Label("Subject")
+        @Description("Ontology, axiom group subject or test case the stage works on")
+        String subject;
+
+        @Label("Reasoner")
+        String reasoner;
+
+        @Label("Items")
+        @Description("Axioms, groups or entries the stage handled")
+        long items;
+    }
+
+    @Name("org.example.OntologyLoad")
+    @Label("Ontology Load")
+    static final class OntologyLoad extends PipelineEvent {
+    }
+
+    @Name("org.example.Grouping")
+    @Label("Axiom Grouping")
+    static final class Grouping extends PipelineEvent {
+    }
+
+    @Name("org.example.QueryGeneration")
+    @Label("Query Generation")
+    static final class QueryGeneration extends PipelineEvent {
+    }
+
+    @Name("org.example.Classification")
+    @Label("Classification")
+    static final class Classification extends PipelineEvent {
+    }
+
+    @Name("org.example.EntailmentCheck")
+    @Label("Entailment Check")
+    static final class EntailmentCheck extends PipelineEvent {
+        @Label("Outcome")
+        String outcome;
+    }
+
+    @Name("org.example.Formatting")
+    @Label("Axiom Formatting")
+    static final class Formatting extends PipelineEvent {
+    }
+
+    @Name("org.example.Serialization")
+    @Label("Serialization")
+    static final class Serialization extends PipelineEvent {
+    }
+
+    /**
+     * One timed run of a stage; use with try-with-resources.
+     */
+    public static final class Span implements AutoCloseable {
+        private final Stage stage;
+        private final PipelineEvent event;
+        private final long start = System.nanoTime();
+
+        private Span(Stage stage, String subject, String reasoner) {
+            this.stage = stage;
+            this.event = (PipelineEvent) stage.event();
+            event.subject = subject;
+            event.reasoner = reasoner == null ? "" : reasoner;
+            event.begin();
+        }
+
+        /**
+         * Records how many axioms, groups or entries the stage handled.
+         *
+         * @return this span
+         */
+        public Span items(long items) {
+            event.items = items;
+            return this;
+        }
+
+        /**
+         * Records the outcome of an entailment check (e.g. YES, TIMEOUT), also counted in
+         * `benchmark_entailment_checks_total{reasoner, outcome}`.
+         *
+         * @return this span
+         */
+        public Span outcome(String outcome) {
+            if (event instanceof EntailmentCheck check) check.outcome = outcome;
+            Metrics.global().counter("benchmark_entailment_checks_total", "reasoner", event.reasoner,
+                    "outcome", outcome.toLowerCase(Locale.ROOT)).increment();
+            return this;
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            if (event.shouldCommit()) event.commit();
+            stage.histogram(event.reasoner).observeNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @param stage    the stage
+     * @param subject  what it works on, e.g. the subject of an axiom group
+     * @param reasoner reasoner name, or "" for stages without one
+     * @return the running span
+     */
+    public static Span start(Stage stage, String subject, String reasoner) {
+        return new Span(stage, subject, reasoner);
+    }
+
+    /**
+     * The subject of an axiom for event tags: the short form of a named subclass or sub-property,
+     * otherwise "".
+     */
+    public static String subject(OWLAxiom axiom) {
+        if (axiom instanceof OWLSubClassOfAxiom sca && sca.getSubClass() instanceof OWLClass cls) {
+            return cls.getIRI().getShortForm();
+        }
+        if (axiom instanceof OWLSubObjectPropertyOfAxiom inclusion && inclusion.getSubProperty() instanceof OWLObjectProperty p) {
+            return p.getIRI().getShortForm();
+        }
+        return "";
+    }
+}
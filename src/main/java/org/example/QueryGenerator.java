@@ -24,6 +24,17 @@ public class QueryGenerator {
      * @return a natural language query, or a fallback message if no suitable axiom found
      */
     public static String generateQuery(List<OWLAxiom> axioms) {
+        return generateQuery(axioms, EntityDictionary.EMPTY);
+    }
+
+    /**
+     * Generates the natural language query, taking entity names from the ontology's dictionary.
+     *
+     * @param axioms the list of OWL axioms
+     * @param names  the symbol table of the ontology
+     * @return a natural language query, or a fallback message if no suitable axiom found
+     */
+    public static String generateQuery(List<OWLAxiom> axioms, EntityDictionary names) {
         // Loop through each OWLAxiom in the list.
         for (OWLAxiom axiom : axioms) {
             // If it's an OWLSubClassOfAxiom, extract the subclass and superclass
@@ -40,15 +51,15 @@ public class QueryGenerator {
 
                     // Check if the property is inverted (ELH-specific)
                     // remove inversion
-                    String propertyName = extractName(property);
+                    String propertyName = extractName(property, names);
                     if (property instanceof OWLObjectInverseOf) {
                         OWLObjectPropertyExpression inverseProperty = ((OWLObjectInverseOf) property).getInverse();
-                        propertyName = extractName(inverseProperty) + "^-1"; // Inverted role
+                        propertyName = extractName(inverseProperty, names) + "^-1"; // Inverted role
                     }
 
                     // Construct the query
-                    return "Does every " + extractName(subClass) + " have " +
-                            propertyName + "." + extractName(filler) + "?";
+                    return "Does every " + extractName(subClass, names) + " have " +
+                            propertyName + "." + extractName(filler, names) + "?";
                 }
             }
             // Add more axiom types if needed, for example OWLClassAssertionAxiom, etc.
@@ -116,22 +127,28 @@ public class QueryGenerator {
      * Extracts the short form (local name) of an OWLEntity from its IRI.
      *
      * @param entity the OWLEntity
+     * @param names  the symbol table the short form is cached in
      * @return the short name (e.g., "Person" from http://example.org#Person)
      */
-    private static String extractName(OWLEntity entity) {
-        return entity.getIRI().getShortForm();
+    private static String extractName(OWLEntity entity, EntityDictionary names) {
+        return names.shortForm(entity);
     }
 
 
     /**
      * Extracts a readable name from an OWLClassExpression.
-     * Falls back to "AnonymousClass" for anonymous expressions.
+     * A nested existential is written in parentheses (e.g., hasTopping.(hasSpiciness.Mild)),
+     * other anonymous expressions fall back to "AnonymousClass".
      *
-     * @param expr the class expression
+     * @param expr  the class expression
+     * @param names the symbol table the short form is cached in
      * @return the extracted name or fallback
      */
-    private static String extractName(OWLClassExpression expr) {
-        if (!expr.isAnonymous()) return expr.toString().replaceAll(".*[#<](.*?)[>'].*", "$1");
+    private static String extractName(OWLClassExpression expr, EntityDictionary names) {
+        if (!expr.isAnonymous()) return names.shortForm(expr.asOWLClass());
+        if (expr instanceof OWLObjectSomeValuesFrom some) {
+            return "(" + extractName(some.getProperty(), names) + "." + extractName(some.getFiller(), names) + ")";
+        }
         return "AnonymousClass";
     }
 
@@ -141,10 +158,11 @@ public class QueryGenerator {
      * For anonymous properties, returns a placeholder string.
      *
      * @param propExpr the property expression
+     * @param names    the symbol table the short form is cached in
      * @return the property name
      */
-    private static String extractName(OWLObjectPropertyExpression propExpr) {
-        if (!propExpr.isAnonymous()) return propExpr.asOWLObjectProperty().getIRI().getShortForm();
+    private static String extractName(OWLObjectPropertyExpression propExpr, EntityDictionary names) {
+        if (!propExpr.isAnonymous()) return names.shortForm(propExpr.asOWLObjectProperty());
         return "anonymousProperty";
     }
 }
\ No newline at end of file
@@ -1,51 +1,593 @@
 package org.example;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.reasoner.*;
 
 import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
 
-public class ReasonerBenchmark {
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
 
-    public static void compareReasoners(OWLOntology ontology, OWLAxiom axiom) {
-        // === Structural Reasoner ===
-        System.out.println("\n StructuralReasoner:");
-        OWLReasonerFactory structuralFactory = new StructuralReasonerFactory();
-        OWLReasoner structuralReasoner = structuralFactory.createReasoner(ontology);
+/**
+ * ReasonerBenchmark records how long each reasoner takes on the benchmark queries.
+ *
+ * An instance is a metrics session: every reasoner is created and classified once when the
+ * session starts (classification time is recorded per reasoner), and every {@link #measure}
+ * call times one entailment check per reasoner and notes whether the reasoners disagreed.
+ * Each reasoner is confined to its own worker thread, so the reasoners classify and answer
+ * concurrently: comparing several costs about the wall-clock time of the slowest one.
+ * {@link #compare(Map)} runs a whole query set that way, each reasoner working through it
+ * at its own pace.
+ * Parallel generation workers may measure at the same time: their checks queue on each
+ * reasoner's thread, and the time spent waiting is not counted.
+ *
+ * The session keeps no per-query list: records are appended to a spool file as they are
+ * measured, and the summary (p50/p95/p99 and throughput per reasoner, the pairwise agreement
+ * matrix, the slowest queries) is kept in streaming form, latencies in a log-linear
+ * {@link LatencyHistogram}. Both are written as a sidecar JSON file next to the benchmark output
+ * with {@link #writeMetrics(String, int)}. Reasoners are picked by name from a {@link ReasonerRegistry}.
+ *
+ * With a {@link ReasonerPool} ({@link #withPool(ReasonerPool)}) every check is bounded by the
+ * pool's timeout; a reasoner that timed out or ran out of memory is discarded and its later
+ * checks are recorded as errors without running.
+ *
+ * Measurements are single cold runs taken during generation, which is what makes them useful
+ * for spotting pathological axioms; for reproducible numbers use the JMH benchmarks in src/jmh.
+ */
+public class ReasonerBenchmark implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ReasonerBenchmark.class.getName());
+
+    /**
+     * Timing and answer of one reasoner for one query; entailed is null if the check failed.
+     */
+    public record Result(Boolean entailed, long entailmentNs, String error) {
+    }
+
+    /**
+     * All reasoner results for one query.
+     */
+    public record QueryRecord(String id, OWLAxiom axiom, Map<String, Result> results) {
+
+        /** True if two reasoners gave different answers (failed checks are ignored). */
+        public boolean disagreement() {
+            return results.values().stream()
+                    .map(Result::entailed)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .count() > 1;
+        }
+
+        /** The slowest entailment time of any reasoner for this query. */
+        public long maxEntailmentNs() {
+            return results.values().stream().mapToLong(Result::entailmentNs).max().orElse(0);
+        }
+    }
+
+    /**
+     * Latency distribution in log-linear buckets: exact below 64 ns, then 32 buckets per power
+     * of two, so percentiles are within about 3% in constant memory.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 32;
+        private final long[] counts = new long[64 + (63 - 6) * SUB_BUCKETS];
+        private long count;
+        private long max;
+
+        private static int bucket(long ns) {
+            if (ns < 64) return (int) Math.max(0, ns);
+            int exponent = 63 - Long.numberOfLeadingZeros(ns);
+            int sub = (int) (ns >>> (exponent - 5)) & (SUB_BUCKETS - 1);
+            return 64 + (exponent - 6) * SUB_BUCKETS + sub;
+        }
+
+        // the largest value that falls into a bucket
+        private static long upperBound(int bucket) {
+            if (bucket < 64) return bucket;
+            int exponent = (bucket - 64) / SUB_BUCKETS + 6;
+            long sub = (bucket - 64) % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << (exponent - 5)) - 1;
+        }
+
+        synchronized void record(long ns) {
+            counts[bucket(ns)]++;
+            count++;
+            max = Math.max(max, ns);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long max() {
+            return max;
+        }
+
+        /** Nearest-rank percentile, rounded up to its bucket's upper bound (never above the maximum). */
+        synchronized long percentile(int p) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+    }
+
+    // streaming statistics of one reasoner, updated on its worker thread
+    private static final class Stats {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        // wall-clock time of the tasks run on the worker, checks and the work between them
+        final LongAdder workerNs = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private static final Gson gson = new Gson();
+
+    // how many of the slowest queries are kept for the summary
+    static final int MAX_SLOWEST = 1000;
+
+    // classified reasoners by name, in the order they were given
+    private final Map<String, OWLReasoner> reasoners = new LinkedHashMap<>();
+    // the thread each reasoner is confined to
+    private final Map<String, ExecutorService> workers = new LinkedHashMap<>();
+    private final Map<String, Long> classificationNs = new LinkedHashMap<>();
+    private final Map<String, String> classificationErrors = new LinkedHashMap<>();
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder disagreements = new LongAdder();
+    // answered[a][b]: queries both reasoners answered, agreed[a][b]: those they answered alike
+    private LongAdder[][] answered;
+    private LongAdder[][] agreed;
+    // the slowest records, fastest first
+    private final PriorityQueue<QueryRecord> slowest = new PriorityQueue<>(Comparator.comparingLong(QueryRecord::maxEntailmentNs));
+    // every record as a JSON line, in the order measured
+    private final Path spool;
+    private final Writer spoolWriter;
+    // reasoners discarded after a timeout or running out of memory
+    private final Set<String> discarded = ConcurrentHashMap.newKeySet();
+    private ReasonerPool pool;
+
+    /**
+     * Starts a session comparing the StructuralReasoner and HermiT.
+     */
+    public ReasonerBenchmark(OWLOntology ontology) {
+        this(ontology, defaultReasoners());
+    }
+
+    /**
+     * Starts a session with the given reasoners and classifies each of them once, all at the same time.
+     * A reasoner that fails to classify is reported in the summary and left out of the queries.
+     *
+     * @param ontology  the ontology
+     * @param factories reasoner factories by name
+     */
+    public ReasonerBenchmark(OWLOntology ontology, Map<String, OWLReasonerFactory> factories) {
+        Map<String, Future<OWLReasoner>> classified = new LinkedHashMap<>();
+        factories.forEach((name, factory) -> {
+            ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "reasoner-" + name);
+                t.setDaemon(true);
+                return t;
+            });
+            workers.put(name, worker);
+            classified.put(name, worker.submit(() -> {
+                long start = System.nanoTime();
+                OWLReasoner reasoner = factory.createReasoner(ontology);
+                try {
+                    reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+                } catch (RuntimeException e) {
+                    reasoner.dispose();
+                    throw e;
+                }
+                synchronized (classificationNs) {
+                    classificationNs.put(name, System.nanoTime() - start);
+                }
+                return reasoner;
+            }));
+        });
+        classified.forEach((name, future) -> {
+            try {
+                reasoners.put(name, future.get());
+            } catch (ExecutionException | InterruptedException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                logger.warning("Reasoner " + name + " failed to classify: " + cause);
+                classificationErrors.put(name, String.valueOf(cause.getMessage()));
+                workers.remove(name).shutdown();
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            }
+        });
+        reasoners.keySet().forEach(name -> stats.put(name, new Stats()));
+        int n = reasoners.size();
+        answered = new LongAdder[n][n];
+        agreed = new LongAdder[n][n];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                answered[a][b] = new LongAdder();
+                agreed[a][b] = new LongAdder();
+            }
+        }
+        try {
+            spool = Files.createTempFile("reasoner-metrics", ".ndjson");
+            spoolWriter = Files.newBufferedWriter(spool, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bounds every entailment check by the pool's timeout.
+     *
+     * @param pool pool running the checks
+     * @return this session
+     */
+    public ReasonerBenchmark withPool(ReasonerPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * The reasoners compared by default: StructuralReasoner and HermiT.
+     * Use {@link ReasonerRegistry#select(String)} to compare others.
+     */
+    public static Map<String, OWLReasonerFactory> defaultReasoners() {
+        Map<String, OWLReasonerFactory> factories = new LinkedHashMap<>();
+        factories.put("structural", new StructuralReasonerFactory());
+        factories.put("hermit", new Reasoner.ReasonerFactory());
+        return factories;
+    }
+
+    /**
+     * Times one entailment check per reasoner, all reasoners at once, and records the result.
+     * Safe to call from several threads: each reasoner answers one query at a time on its own
+     * thread, and only the check itself is timed.
+     *
+     * @param id    test case ID
+     * @param axiom the query axiom
+     * @return the record that was added to this session
+     */
+    public QueryRecord measure(String id, OWLAxiom axiom) {
+        Map<String, Future<Result>> pending = new LinkedHashMap<>();
+        reasoners.forEach((name, reasoner) -> pending.put(name, workers.get(name).submit(() -> onWorker(name, () -> check(name, reasoner, axiom)))));
+        Map<String, Result> results = new LinkedHashMap<>();
+        pending.forEach((name, result) -> results.put(name, await(result)));
+        QueryRecord record = new QueryRecord(id, axiom, results);
+        add(record);
+        return record;
+    }
+
+    /**
+     * Runs a whole query set: every reasoner works through all queries on its own thread, at the
+     * same time as the others, and the records are added in query order.
+     *
+     * @param queries query axioms by test case ID, in order
+     * @return the records that were added to this session
+     */
+    public List<QueryRecord> compare(Map<String, OWLAxiom> queries) {
+        Map<String, Future<List<Result>>> pending = new LinkedHashMap<>();
+        reasoners.forEach((name, reasoner) -> pending.put(name, workers.get(name).submit(() -> onWorker(name, () -> {
+            List<Result> results = new ArrayList<>(queries.size());
+            for (OWLAxiom axiom : queries.values()) results.add(check(name, reasoner, axiom));
+            return results;
+        }))));
+        Map<String, List<Result>> answers = new LinkedHashMap<>();
+        pending.forEach((name, results) -> answers.put(name, await(results)));
+
+        List<QueryRecord> added = new ArrayList<>(queries.size());
+        int i = 0;
+        for (Map.Entry<String, OWLAxiom> query : queries.entrySet()) {
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Result>> answer : answers.entrySet()) {
+                results.put(answer.getKey(), answer.getValue().get(i));
+            }
+            QueryRecord record = new QueryRecord(query.getKey(), query.getValue(), results);
+            add(record);
+            added.add(record);
+            i++;
+        }
+        return added;
+    }
+
+    // folds a record into the streaming summary and appends it to the spool
+    private void add(QueryRecord record) {
+        queries.increment();
+        if (record.disagreement()) disagreements.increment();
+        List<Result> results = new ArrayList<>(record.results().values());
+        for (int a = 0; a < results.size(); a++) {
+            for (int b = 0; b < results.size(); b++) {
+                Boolean x = results.get(a).entailed();
+                Boolean y = results.get(b).entailed();
+                if (x == null || y == null) continue;
+                answered[a][b].increment();
+                if (x.equals(y)) agreed[a][b].increment();
+            }
+        }
+        synchronized (slowest) {
+            if (slowest.size() < MAX_SLOWEST) {
+                slowest.add(record);
+            } else if (record.maxEntailmentNs() > slowest.peek().maxEntailmentNs()) {
+                slowest.poll();
+                slowest.add(record);
+            }
+        }
+        String line = gson.toJson(toMap(record));
+        synchronized (spoolWriter) {
+            try {
+                spoolWriter.write(line);
+                spoolWriter.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // one timed check, on the reasoner's own thread
+    private Result check(String name, OWLReasoner reasoner, OWLAxiom axiom) {
+        if (discarded.contains(name)) return new Result(null, 0, "discarded");
+        long start = System.nanoTime();
+        Result result;
         try {
-            long start = System.nanoTime();
-            boolean entailed = structuralReasoner.isEntailed(axiom);
-            long end = System.nanoTime();
-            long durationNs = end - start;
-            long durationMs = durationNs / 1_000_000;
-
-            System.out.println("Entailed? " + entailed);
-            System.out.println("Time taken: " + durationNs + " ns (" + durationMs + " ms)");
+            boolean entailed = pool == null ? reasoner.isEntailed(axiom) : pool.call(reasoner, () -> reasoner.isEntailed(axiom));
+            result = new Result(entailed, System.nanoTime() - start, null);
+        } catch (TimeOutException e) {
+            discarded.add(name);
+            result = new Result(null, System.nanoTime() - start, "timeout");
         } catch (Exception e) {
-            System.err.println("StructuralReasoner error: " + e.getMessage());
+            // the pool disposes a reasoner that ran out of memory; other failures leave it usable
+            if (pool != null && pool.isDiscarded(reasoner)) discarded.add(name);
+            result = new Result(null, System.nanoTime() - start, String.valueOf(e.getMessage()));
+        } catch (OutOfMemoryError e) {
+            if (pool == null) reasoner.dispose();
+            discarded.add(name);
+            result = new Result(null, System.nanoTime() - start, "out of memory");
+        }
+        Stats s = stats.get(name);
+        s.latencies.record(result.entailmentNs());
+        if (result.error() != null) s.errors.increment();
+        return result;
+    }
+
+    // runs a task on the reasoner's worker and adds its wall-clock time to the reasoner's total
+    private <T> T onWorker(String name, Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return task.call();
         } finally {
-            structuralReasoner.dispose();
+            stats.get(name).workerNs.add(System.nanoTime() - start);
         }
+    }
 
-        // === HermiT Reasoner ===
-        System.out.println("\n HermiT Reasoner:");
-        OWLReasonerFactory hermitFactory = new Reasoner.ReasonerFactory();
-        OWLReasoner hermitReasoner = hermitFactory.createReasoner(ontology);
+    private static <T> T await(Future<T> result) {
         try {
-            long start = System.nanoTime();
-            hermitReasoner.precomputeInferences(); // Optional but recommended
-            boolean entailed = hermitReasoner.isEntailed(axiom);
-            long end = System.nanoTime();
-            long durationNs = end - start;
-            long durationMs = durationNs / 1_000_000;
-
-            System.out.println("Entailed? " + entailed);
-            System.out.println("Time taken: " + durationNs + " ns (" + durationMs + " ms)");
-        } catch (Exception e) {
-            System.err.println("HermiT error: " + e.getMessage());
+            return result.get();
+        } catch (ExecutionException e) {
+            // check() catches everything a reasoner throws
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Summarizes the session: classification time, entailment percentiles and throughput per
+     * reasoner (queries per second of wall-clock time the reasoner's worker spent on them), the number of disagreements, the pairwise agreement matrix, and the slowest queries.
+     *
+     * @param slowest how many of the slowest queries to list
+     */
+    public Map<String, Object> summary(int slowest) {
+        Map<String, Object> perReasoner = new LinkedHashMap<>();
+        stats.forEach((name, s) -> {
+            long workerNs = s.workerNs.sum();
+            long count = s.latencies.count();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("classification_ns", classificationNs.get(name));
+            entry.put("queries", count);
+            entry.put("errors", s.errors.sum());
+            entry.put("entailment_p50_ns", s.latencies.percentile(50));
+            entry.put("entailment_p95_ns", s.latencies.percentile(95));
+            entry.put("entailment_p99_ns", s.latencies.percentile(99));
+            entry.put("entailment_max_ns", s.latencies.max());
+            entry.put("queries_per_s", workerNs == 0 ? 0.0 : count * 1e9 / workerNs);
+            perReasoner.put(name, entry);
+        });
+        classificationErrors.forEach((name, error) -> perReasoner.put(name, Map.of("classification_error", error)));
+
+        List<QueryRecord> slowestFirst;
+        synchronized (this.slowest) {
+            slowestFirst = new ArrayList<>(this.slowest);
+        }
+        slowestFirst.sort(Comparator.comparingLong(QueryRecord::maxEntailmentNs).reversed());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("queries", queries.sum());
+        summary.put("disagreements", disagreements.sum());
+        summary.put("reasoners", perReasoner);
+        summary.put("agreement", agreement());
+        summary.put("slowest", slowestFirst.stream()
+                .limit(slowest)
+                .map(ReasonerBenchmark::toMap)
+                .toList());
+        return summary;
+    }
+
+    /**
+     * The pairwise agreement matrix: for every two reasoners, the share of the queries both
+     * answered on which they gave the same answer (null if they have no such query).
+     */
+    public Map<String, Map<String, Double>> agreement() {
+        List<String> names = new ArrayList<>(reasoners.keySet());
+        Map<String, Map<String, Double>> matrix = new LinkedHashMap<>();
+        for (int a = 0; a < names.size(); a++) {
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (int b = 0; b < names.size(); b++) {
+                long both = answered[a][b].sum();
+                row.put(names.get(b), both == 0 ? null : (double) agreed[a][b].sum() / both);
+            }
+            matrix.put(names.get(a), row);
+        }
+        return matrix;
+    }
+
+    /**
+     * Formats the throughput of every reasoner and the agreement matrix as plain-text tables.
+     */
+    public String table() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-16s %14s %8s %8s %12s %12s %10s%n",
+                "reasoner", "classify_ms", "queries", "errors", "p50_us", "p95_us", "queries/s"));
+        stats.forEach((name, s) -> {
+            long workerNs = s.workerNs.sum();
+            long count = s.latencies.count();
+            out.append(String.format("%-16s %14.1f %8d %8d %12.1f %12.1f %10.0f%n", name,
+                    classificationNs.get(name) / 1e6, count, s.errors.sum(),
+                    s.latencies.percentile(50) / 1e3, s.latencies.percentile(95) / 1e3,
+                    workerNs == 0 ? 0.0 : count * 1e9 / workerNs));
+        });
+        classificationErrors.forEach((name, error) -> out.append(String.format("%-16s classification failed: %s%n", name, error)));
+
+        out.append(String.format("%nagreement%n%-16s", ""));
+        reasoners.keySet().forEach(name -> out.append(String.format(" %12s", name)));
+        out.append(String.format("%n"));
+        agreement().forEach((name, row) -> {
+            out.append(String.format("%-16s", name));
+            row.values().forEach(share -> out.append(share == null ? String.format(" %12s", "-") : String.format(" %12.3f", share)));
+            out.append(String.format("%n"));
+        });
+        return out.toString();
+    }
+
+    /**
+     * Writes the summary and every query record to a JSON file. The records are copied from the
+     * spool one at a time, in the order they were measured (with parallel generation that is
+     * only roughly test ID order).
+     *
+     * @param path    output file
+     * @param slowest how many of the slowest queries to list in the summary, at most {@link #MAX_SLOWEST}
+     * @throws IOException if the file cannot be written
+     */
+    public void writeMetrics(String path, int slowest) throws IOException {
+        synchronized (spoolWriter) {
+            spoolWriter.flush();
+        }
+        Gson pretty = new GsonBuilder().setPrettyPrinting().create();
+        try (JsonWriter out = pretty.newJsonWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8)));
+             BufferedReader records = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            out.beginObject();
+            out.name("summary");
+            pretty.toJson(pretty.toJsonTree(summary(slowest)), out);
+            out.name("queries");
+            out.beginArray();
+            for (String line = records.readLine(); line != null; line = records.readLine()) {
+                pretty.toJson(JsonParser.parseString(line), out);
+            }
+            out.endArray();
+            out.endObject();
+        }
+    }
+
+    // JSON form of a record; Gson 2.8 does not serialize records itself
+    private static Map<String, Object> toMap(QueryRecord record) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", record.id());
+        map.put("axiom", record.axiom().toString());
+        Map<String, Object> results = new LinkedHashMap<>();
+        record.results().forEach((name, result) -> {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("entailed", result.entailed());
+            r.put("entailment_ns", result.entailmentNs());
+            if (result.error() != null) r.put("error", result.error());
+            results.put(name, r);
+        });
+        map.put("reasoners", results);
+        map.put("disagreement", record.disagreement());
+        return map;
+    }
+
+    /**
+     * Disposes every reasoner of this session and deletes the record spool; write the metrics first.
+     */
+    @Override
+    public void close() {
+        reasoners.forEach((name, reasoner) -> {
+            if (!discarded.contains(name)) reasoner.dispose();
+        });
+        workers.values().forEach(ExecutorService::shutdownNow);
+        if (spoolWriter == null) return;
+        try {
+            synchronized (spoolWriter) {
+                spoolWriter.close();
+            }
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            logger.warning("Cannot delete " + spool + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares reasoners on the benchmark's query set (the target axiom of every group, with the
+     * test IDs of {@link BenchmarkRunner#generate}), all reasoners running at once.
+     * The reasoners are -Dbenchmark.metrics.reasoners (default: all registered ones); with
+     * -Dbenchmark.timeout=<ms> every check is bounded. The throughput and agreement tables are
+     * printed and the records written to 'benchmark_comparison.json'.
+     *
+     * @param args unused; the ontology is chosen as for {@link BenchmarkRunner}
+     * @throws Exception if the ontology cannot be loaded or the file cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        OWLOntology ontology = BenchmarkRunner.loadOntology(OWLManager.createOWLOntologyManager());
+        Map<String, OWLAxiom> queries = new LinkedHashMap<>();
+        for (List<OWLAxiom> axioms : AxiomGrouper.inSubjectOrder(ontology)) {
+            OWLAxiom target = QueryGenerator.getQueryAxiom(axioms);
+            if (target != null) queries.put("test_" + (queries.size() + 1), target);
+        }
+        Map<String, OWLReasonerFactory> factories = ReasonerRegistry.discover()
+                .select(System.getProperty("benchmark.metrics.reasoners", "all"));
+        long timeout = Long.getLong("benchmark.timeout", 0);
+
+        long start = System.nanoTime();
+        ReasonerPool pool = timeout > 0 ? new ReasonerPool(null, timeout, factories.size()) : null;
+        try (ReasonerBenchmark session = new ReasonerBenchmark(ontology, factories)) {
+            if (pool != null) session.withPool(pool);
+            session.compare(queries);
+            System.out.printf("%d queries, %d reasoners, %.1f s wall-clock%n%n", queries.size(), factories.size(),
+                    (System.nanoTime() - start) / 1e9);
+            System.out.print(session.table());
+            session.writeMetrics("output_HermitReasoner/benchmark_comparison.json", Integer.getInteger("benchmark.metrics.slowest", 10));
         } finally {
-            hermitReasoner.dispose();
+            if (pool != null) pool.close();
+        }
+        System.out.println("Reasoner comparison exported to benchmark_comparison.json");
+    }
+
+    /**
+     * Quick side-by-side check of one axiom with every registered reasoner, printed to stdout.
+     */
+    public static void compareReasoners(OWLOntology ontology, OWLAxiom axiom) {
+        try (ReasonerBenchmark session = new ReasonerBenchmark(ontology, ReasonerRegistry.discover().select("all"))) {
+            QueryRecord record = session.measure("query", axiom);
+            record.results().forEach((name, result) -> {
+                System.out.println("\n " + name + ":");
+                System.out.println("Entailed? " + result.entailed());
+                System.out.println("Classification: " + session.classificationNs.get(name) + " ns");
+                System.out.println("Entailment check: " + result.entailmentNs() + " ns");
+            });
+            if (record.disagreement()) System.out.println("Reasoners disagree on " + axiom);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,307 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * ReasonerPool bounds the time and memory reasoning may take, for long generation jobs on shared hosts.
+ *
+ * - Every classification and query runs on a pool thread while the caller waits at most
+ *   timeoutMillis (also passed to the reasoner as {@link OWLReasonerConfiguration#getTimeOut()});
+ *   on timeout the reasoner is interrupted and discarded, and the caller gets a {@link TimeOutException}.
+ * - At most maxClassifications classifications run at once, since they are where the heap peaks;
+ *   a classification that overruns keeps its permit until it has actually stopped.
+ * - An {@link OutOfMemoryError} inside a task discards the reasoner and every idle one, so the
+ *   run goes on with the heap that is left. Failures reach the caller as a {@link ReasonerInternalException};
+ *   any other failure of a query leaves the reasoner in use, since reasoners reject unsupported
+ *   axioms by throwing.
+ * - Classified reasoners are given back with {@link #release} and reused by the next session that
+ *   asks for the same ontology.
+ *
+ * Answers are reported as an {@link Outcome}, so a query that ran out of time is recorded as
+ * unknown rather than as a silent "No".
+ */
+public class ReasonerPool implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ReasonerPool.class.getName());
+
+    /**
+     * Result of one entailment check.
+     */
+    public enum Outcome {
+        YES, NO, TIMEOUT, ERROR;
+
+        public static Outcome of(boolean entailed) {
+            return entailed ? YES : NO;
+        }
+
+        /** True for YES and NO. */
+        public boolean known() {
+            return this == YES || this == NO;
+        }
+
+        /** The "expected" value of a test case: Yes, No or Unknown. */
+        public String label() {
+            return switch (this) {
+                case YES -> "Yes";
+                case NO -> "No";
+                default -> "Unknown";
+            };
+        }
+    }
+
+    private final OWLReasonerFactory factory;
+    private final long timeoutMillis;
+    private final Semaphore classifications;
+    private final ExecutorService executor;
+    // classified reasoners not used by any session, per ontology
+    private final Map<OWLOntology, Deque<OWLReasoner>> idle = new HashMap<>();
+    // reasoners given up on, which a session may still try to release
+    private final Set<OWLReasoner> discarded = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private long timeouts;
+    private long errors;
+
+    /**
+     * @param factory            factory creating the reasoners, or null if the pool only bounds queries ({@link #call})
+     * @param timeoutMillis      wall-clock limit of one classification or query, 0 for none
+     * @param maxClassifications classifications allowed to run at once
+     */
+    public ReasonerPool(OWLReasonerFactory factory, long timeoutMillis, int maxClassifications) {
+        this.factory = factory;
+        this.timeoutMillis = timeoutMillis;
+        this.classifications = new Semaphore(maxClassifications);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "reasoner-pool");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The factory creating the pool's reasoners.
+     */
+    public OWLReasonerFactory factory() {
+        return factory;
+    }
+
+    /**
+     * Returns a classified reasoner for the ontology, an idle one if there is one.
+     *
+     * @param ontology the ontology
+     * @param types    inferences to precompute on a new reasoner
+     * @return the reasoner, to be given back with {@link #release} or {@link #discard}
+     * @throws TimeOutException              if classification took longer than the timeout
+     * @throws ReasonerInternalException     if classification failed
+     * @throws ReasonerInterruptedException  if interrupted while waiting for a permit or the result
+     */
+    public OWLReasoner classify(OWLOntology ontology, InferenceType... types) {
+        synchronized (idle) {
+            Deque<OWLReasoner> free = idle.get(ontology);
+            while (free != null && !free.isEmpty()) {
+                OWLReasoner reasoner = free.pop();
+                // the ontology changed since it was released
+                if (reasoner.getPendingChanges().isEmpty()) return reasoner;
+                reasoner.dispose();
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            if (timeoutMillis <= 0) {
+                classifications.acquire();
+            } else if (!classifications.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                countTimeout();
+                throw new TimeOutException("No classification slot within " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInterruptedException(e);
+        }
+        OWLReasoner reasoner;
+        try {
+            reasoner = timeoutMillis > 0 ? factory.createReasoner(ontology, new SimpleConfiguration(timeoutMillis))
+                    : factory.createReasoner(ontology);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            classifications.release();
+            // HermiT may already run out of its own time limit while loading the ontology
+            if (outcome(e) == Outcome.TIMEOUT) {
+                countTimeout();
+                throw e;
+            }
+            throw failure(e);
+        }
+        Future<?> done = executor.submit(() -> {
+            try {
+                synchronized (reasoner) {
+                    reasoner.precomputeInferences(types);
+                }
+                return null;
+            } finally {
+                classifications.release();
+            }
+        });
+        try {
+            await(reasoner, done, Math.max(1, deadline - System.nanoTime()));
+        } catch (ReasonerInternalException e) {
+            // the caller never gets a reasoner whose classification failed
+            discard(reasoner);
+            throw e;
+        }
+        return reasoner;
+    }
+
+    /**
+     * Runs a query against a reasoner within the timeout.
+     *
+     * @param reasoner a reasoner from {@link #classify}
+     * @param query    the query, e.g. {@code () -> reasoner.isEntailed(axiom)}
+     * @return the query result
+     * @throws TimeOutException             if the query took longer than the timeout; the reasoner is discarded
+     * @throws ReasonerInternalException    if the query failed; the reasoner is kept unless it
+     *                                      ran out of memory
+     * @throws ReasonerInterruptedException if interrupted while waiting; the reasoner is discarded
+     */
+    public <T> T call(OWLReasoner reasoner, Callable<T> query) {
+        Future<T> done = executor.submit(() -> {
+            synchronized (reasoner) {
+                return query.call();
+            }
+        });
+        return await(reasoner, done, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Runs a query and reports the answer as an {@link Outcome}; the reasoner is discarded if
+     * the query timed out or ran out of memory, and kept if it only failed, e.g. on an axiom
+     * type the reasoner does not support.
+     */
+    public Outcome isEntailed(OWLReasoner reasoner, OWLAxiom axiom) {
+        try {
+            return Outcome.of(call(reasoner, () -> reasoner.isEntailed(axiom)));
+        } catch (RuntimeException e) {
+            return outcome(e);
+        }
+    }
+
+    /**
+     * The outcome of a check that failed with the given exception: TIMEOUT for a timeout or
+     * interruption, ERROR otherwise.
+     */
+    public static Outcome outcome(Throwable e) {
+        return e instanceof TimeOutException || e instanceof ReasonerInterruptedException ? Outcome.TIMEOUT : Outcome.ERROR;
+    }
+
+    // waits for a task on the reasoner; the reasoner is discarded if the task overran, was
+    // interrupted or ran out of memory, and kept if it merely threw
+    private <T> T await(OWLReasoner reasoner, Future<T> done, long nanos) {
+        try {
+            return timeoutMillis > 0 ? done.get(nanos, TimeUnit.NANOSECONDS) : done.get();
+        } catch (TimeoutException e) {
+            countTimeout();
+            discard(reasoner);
+            throw new TimeOutException("Reasoner did not answer within " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            if (outcome(e.getCause()) == Outcome.TIMEOUT) {
+                discard(reasoner);
+                countTimeout();
+                throw new TimeOutException(String.valueOf(e.getCause().getMessage()), e.getCause());
+            }
+            if (e.getCause() instanceof OutOfMemoryError) discard(reasoner);
+            throw failure(e.getCause());
+        } catch (InterruptedException e) {
+            discard(reasoner);
+            Thread.currentThread().interrupt();
+            throw new ReasonerInterruptedException(e);
+        }
+    }
+
+    private ReasonerInternalException failure(Throwable e) {
+        synchronized (this) {
+            errors++;
+        }
+        if (e instanceof OutOfMemoryError) {
+            // free what can be freed; the reasoner that ran out is already discarded
+            logger.severe("Reasoner ran out of memory, dropping idle reasoners: " + e);
+            List<OWLReasoner> dropped = new ArrayList<>();
+            synchronized (idle) {
+                idle.values().forEach(dropped::addAll);
+                idle.clear();
+            }
+            dropped.forEach(OWLReasoner::dispose);
+        }
+        return new ReasonerInternalException(e);
+    }
+
+    private synchronized void countTimeout() {
+        timeouts++;
+    }
+
+    /**
+     * Gives a classified reasoner back for reuse by other sessions; a reasoner the pool has
+     * discarded is ignored.
+     */
+    public void release(OWLOntology ontology, OWLReasoner reasoner) {
+        synchronized (idle) {
+            if (discarded.contains(reasoner)) return;
+        }
+        if (!reasoner.getPendingChanges().isEmpty()) {
+            reasoner.dispose();
+            return;
+        }
+        synchronized (idle) {
+            idle.computeIfAbsent(ontology, o -> new ArrayDeque<>()).push(reasoner);
+        }
+    }
+
+    /**
+     * Interrupts a reasoner that may still be running and disposes it once it has stopped.
+     */
+    public void discard(OWLReasoner reasoner) {
+        synchronized (idle) {
+            if (!discarded.add(reasoner)) return;
+        }
+        reasoner.interrupt();
+        executor.execute(() -> {
+            synchronized (reasoner) {
+                reasoner.dispose();
+            }
+        });
+    }
+
+    // whether the pool has discarded the reasoner, so callers holding it can let it go
+    boolean isDiscarded(OWLReasoner reasoner) {
+        synchronized (idle) {
+            return discarded.contains(reasoner);
+        }
+    }
+
+    /**
+     * Returns timeout and error counts, e.g. for logging at the end of a run.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timeouts", timeouts);
+        stats.put("errors", errors);
+        synchronized (idle) {
+            stats.put("idle", idle.values().stream().mapToInt(Deque::size).sum());
+        }
+        return stats;
+    }
+
+    /**
+     * Disposes the idle reasoners and stops the pool threads.
+     */
+    @Override
+    public void close() {
+        synchronized (idle) {
+            idle.values().forEach(free -> free.forEach(OWLReasoner::dispose));
+            idle.clear();
+        }
+        executor.shutdownNow();
+    }
+}
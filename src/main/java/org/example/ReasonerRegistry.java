@@ -0,0 +1,120 @@
+package org.example;
+
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * ReasonerRegistry names the {@link OWLReasonerFactory} implementations a run can use.
+ *
+ * - Built in: `hermit`, `el` ({@link ELReasonerFactory}) and `structural`.
+ * - Discovered: every factory on the classpath that registers itself as a
+ *   {@link ServiceLoader} provider of {@link OWLReasonerFactory} (a
+ *   `META-INF/services/org.semanticweb.owlapi.reasoner.OWLReasonerFactory` file), named after
+ *   its simple class name without the `ReasonerFactory` suffix, e.g. `elk` for `ElkReasonerFactory`.
+ * - Any other name is taken as the class name of a factory with a no-argument constructor.
+ *
+ * Lookups create a new factory each time, so reasoners of different sessions never share one.
+ */
+public final class ReasonerRegistry {
+
+    private static final Logger logger = Logger.getLogger(ReasonerRegistry.class.getName());
+
+    // factory suppliers by lower-case name, in registration order
+    private final Map<String, Supplier<OWLReasonerFactory>> factories = new LinkedHashMap<>();
+
+    /**
+     * Creates a registry with the built-in reasoners only.
+     */
+    public ReasonerRegistry() {
+        register("hermit", Reasoner.ReasonerFactory::new);
+        register("el", ELReasonerFactory::new);
+        register("structural", StructuralReasonerFactory::new);
+    }
+
+    /**
+     * Creates a registry with the built-in reasoners and every factory found by {@link ServiceLoader}.
+     */
+    public static ReasonerRegistry discover() {
+        ReasonerRegistry registry = new ReasonerRegistry();
+        Set<Class<?>> known = new HashSet<>();
+        registry.factories.values().forEach(supplier -> known.add(supplier.get().getClass()));
+        for (ServiceLoader.Provider<OWLReasonerFactory> provider : ServiceLoader.load(OWLReasonerFactory.class).stream().toList()) {
+            Class<? extends OWLReasonerFactory> type = provider.type();
+            if (!known.add(type)) continue;
+            String name = nameOf(type);
+            if (registry.factories.containsKey(name)) name = type.getName();
+            registry.register(name, provider::get);
+            logger.info("Discovered reasoner " + name + " (" + type.getName() + ")");
+        }
+        return registry;
+    }
+
+    // ElkReasonerFactory -> elk, ReasonerFactory nested in a Reasoner class -> its outer class name
+    static String nameOf(Class<?> type) {
+        String name = type.getSimpleName().replaceFirst("(Reasoner)?Factory$", "");
+        if (name.isEmpty() && type.getEnclosingClass() != null) name = type.getEnclosingClass().getSimpleName();
+        return name.isEmpty() ? type.getName() : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers a reasoner, replacing one of the same name.
+     *
+     * @param name    reasoner name, matched case-insensitively
+     * @param factory creates a new factory on every lookup
+     * @return this registry
+     */
+    public ReasonerRegistry register(String name, Supplier<OWLReasonerFactory> factory) {
+        factories.put(name.toLowerCase(Locale.ROOT), factory);
+        return this;
+    }
+
+    /**
+     * The registered reasoner names, built-ins first.
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(factories.keySet());
+    }
+
+    /**
+     * Returns a new factory for a registered name or a factory class name.
+     *
+     * @param name the reasoner name or factory class name
+     * @return the factory
+     * @throws IllegalArgumentException if the name is neither registered nor a factory class
+     */
+    public OWLReasonerFactory factory(String name) {
+        Supplier<OWLReasonerFactory> registered = factories.get(name.toLowerCase(Locale.ROOT));
+        if (registered != null) return registered.get();
+        try {
+            return (OWLReasonerFactory) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown reasoner: " + name + " (known: " + String.join(", ", names()) + ")", e);
+        }
+    }
+
+    /**
+     * Resolves a comma-separated list of reasoner names, or `all` for every registered reasoner.
+     * Blank entries are skipped, so an empty list selects none.
+     *
+     * @param list e.g. `hermit,el` or `all`
+     * @return new factories by name, in list order
+     * @throws IllegalArgumentException if a name is unknown
+     */
+    public Map<String, OWLReasonerFactory> select(String list) {
+        Map<String, OWLReasonerFactory> selected = new LinkedHashMap<>();
+        for (String name : list.split(",")) {
+            name = name.trim();
+            if (name.equalsIgnoreCase("all")) {
+                names().forEach(n -> selected.put(n, factory(n)));
+            } else if (!name.isEmpty()) {
+                selected.put(name, factory(name));
+            }
+        }
+        return selected;
+    }
+}
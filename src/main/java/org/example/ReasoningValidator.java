@@ -1,42 +1,481 @@
 package org.example;
 
 import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.reasoner.*;
-import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
 
-//import org.semanticweb.owlapi.model.*;
-//import org.semanticweb.owlapi.reasoner.OWLReasoner;
-//import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
-//import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+import java.util.*;
 
-public class ReasoningValidator {
+/**
+ * ReasoningValidator checks whether axioms are entailed by an ontology.
+ *
+ * An instance is a validation session: the ontology is classified once, on the first
+ * question the session cannot answer from a cache, and every later {@link #isEntailed(OWLAxiom)}
+ * call is answered from the same reasoner. Named subsumptions (A ⊑ B, r ⊑ s) are looked up in a
+ * {@link SubsumptionIndex} built from the classified hierarchy (or loaded from a file, in which
+ * case they need no classification at all), everything else (e.g. A ⊑ ∃r.B) is delegated to the
+ * classified reasoner.
+ * Answers are memoized for the lifetime of the session and, if an {@link EntailmentCache} is
+ * given, across runs.
+ *
+ * With a {@link ModuleCache} ({@link #withModules(ModuleCache)}) the whole ontology is never
+ * classified: each question is answered by a reasoner over the ⊥-module of its signature (or of
+ * the signature of its group, see {@link #isEntailed(OWLAxiom, Collection)}), and the session
+ * keeps the reasoners of the modules it used last.
+ *
+ * With a {@link ReasonerPool} ({@link #withPool(ReasonerPool)}) every classification and query
+ * is bounded by the pool's timeout and classification cap, and reasoners are taken from and given
+ * back to the pool. A question that timed out or failed is reported by {@link #check} as TIMEOUT
+ * or ERROR instead of "not entailed", and is not cached.
+ *
+ * Large batches of A ⊑ C questions with a complex C are answered together by
+ * {@link #check(Collection)}: every C gets a fresh name Q ≡ C in a scratch copy of the
+ * ontology, which is classified once, and A ⊑ C holds iff Q is a superclass of A.
+ */
+public class ReasoningValidator implements AutoCloseable {
+
+    // smaller batches are checked one by one, classifying a scratch ontology would cost more
+    static final int MIN_BATCH = 32;
+
+    // module reasoners kept per session
+    private static final int MODULE_REASONERS = 16;
+
+    // answers and failures remembered per session, e.g. -Dbenchmark.session.answers=100000; a
+    // long-lived session (see BenchmarkService) asks the cache or the reasoner again for older ones
+    private static final int SESSION_ANSWERS = Integer.getInteger("benchmark.session.answers", 100_000);
+
+    private final OWLOntology ontology;
+    private final OWLReasonerFactory reasonerFactory;
+
+    // created and classified on the first cache miss
+    private OWLReasoner reasoner;
+
+    // persistent answers of earlier runs, or null
+    private final EntailmentCache cache;
+    private final String reasonerId;
+    // tag of pipeline events and metrics
+    private final String reasonerName;
+    private String ontologyHash;
+
+    // modules shared between sessions, or null to reason over the whole ontology
+    private ModuleCache modules;
+    private final Map<ModuleCache.Module, OWLReasoner> moduleReasoners = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ModuleCache.Module, OWLReasoner> eldest) {
+            if (size() <= MODULE_REASONERS) return false;
+            drop(eldest.getKey().ontology(), eldest.getValue());
+            return true;
+        }
+    };
+
+    // bounded reasoning shared between sessions, or null to call the reasoners directly
+    private ReasonerPool pool;
+
+    // answers already computed in this session, least recently used ones dropped first
+    private final Map<OWLAxiom, Boolean> answers = leastRecentlyUsed(SESSION_ANSWERS);
+    // questions that timed out or failed in this session, not persisted
+    private final Map<OWLAxiom, ReasonerPool.Outcome> failures = leastRecentlyUsed(SESSION_ANSWERS);
+
+    // closure of the class and role hierarchy, built on the first named subsumption question
+    private SubsumptionIndex index;
+
+    /**
+     * Creates a validation session backed by HermiT and classifies the ontology.
+     *
+     * @param ontology the OWL ontology
+     */
+    public ReasoningValidator(OWLOntology ontology) {
+        this(ontology, new Reasoner.ReasonerFactory());
+    }
+
+    /**
+     * Creates a validation session backed by the given reasoner.
+     *
+     * @param ontology        the OWL ontology
+     * @param reasonerFactory factory used to create the session reasoner
+     */
+    public ReasoningValidator(OWLOntology ontology, OWLReasonerFactory reasonerFactory) {
+        this(ontology, reasonerFactory, null);
+    }
+
+    /**
+     * Creates a validation session that looks answers up in a persistent cache first.
+     * The ontology is only classified if some answer is missing from the cache.
+     *
+     * @param ontology        the OWL ontology
+     * @param reasonerFactory factory used to create the session reasoner
+     * @param cache           persistent answers, or null
+     */
+    public ReasoningValidator(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache) {
+        this(ontology, reasonerFactory, cache, null);
+    }
+
+    /**
+     * Creates a validation session that answers named subsumptions from a prebuilt index
+     * (e.g. {@link SubsumptionIndex#loadOrBuild}). An index built from other ontology content
+     * is ignored.
+     *
+     * @param ontology        the OWL ontology
+     * @param reasonerFactory factory used to create the session reasoner
+     * @param cache           persistent answers, or null
+     * @param index           closure of the ontology's hierarchy, or null
+     */
+    public ReasoningValidator(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache,
+                              SubsumptionIndex index) {
+        this.ontology = ontology;
+        this.reasonerFactory = reasonerFactory;
+        this.cache = cache;
+        this.reasonerId = cache == null ? null : EntailmentCache.reasonerId(reasonerFactory);
+        this.reasonerName = reasonerFactory.getReasonerName();
+        this.ontologyHash = cache == null && index == null ? null : EntailmentCache.ontologyHash(ontology);
+        if (index != null && !index.ontologyHash().equals(ontologyHash)) {
+            System.err.println("Subsumption index was built from other ontology content, ignoring it");
+            index = null;
+        }
+        this.index = index;
+    }
+
+    /**
+     * Bounds every classification and query of this session by the pool's timeout and
+     * classification cap; reasoners are taken from the pool and given back on {@link #close()}.
+     *
+     * @param pool reasoner pool, may be shared between sessions
+     * @return this session
+     */
+    public ReasoningValidator withPool(ReasonerPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Answers questions over ⊥-modules instead of the whole ontology. Named subsumptions are
+     * still answered from a given {@link SubsumptionIndex}; without one they go to the module too.
+     *
+     * @param modules module cache of this ontology, may be shared between sessions
+     * @return this session
+     */
+    public ReasoningValidator withModules(ModuleCache modules) {
+        this.modules = modules;
+        if (ontologyHash == null) ontologyHash = EntailmentCache.ontologyHash(ontology);
+        return this;
+    }
+
+    /**
+     * Brings the session up to date after the ontology was edited.
+     * The (buffering) reasoner applies the pending changes, incrementally if it supports it,
+     * the memoized answers are dropped and the ontology is classified again.
+     */
+    public void refresh() {
+        if (cache != null || index != null || modules != null) {
+            String hash = EntailmentCache.ontologyHash(ontology);
+            if (!hash.equals(ontologyHash)) {
+                answers.clear();
+                failures.clear();
+                index = null;
+                // modules of the old axioms no longer preserve the answers
+                if (modules != null) {
+                    moduleReasoners.forEach((module, r) -> r.dispose());
+                    moduleReasoners.clear();
+                    modules = new ModuleCache(ontology, modules.maxModules());
+                }
+            }
+            ontologyHash = hash;
+        }
+        if (reasoner == null || reasoner.getPendingChanges().isEmpty()) return;
+        reasoner.flush();
+        answers.clear();
+        failures.clear();
+        index = null;
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+    }
+
+    // the session reasoner, classified once on first use
+    private OWLReasoner reasoner() {
+        if (reasoner == null) reasoner = classify(ontology, InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+        return reasoner;
+    }
+
+    private OWLReasoner classify(OWLOntology o, InferenceType... types) {
+        // the session ontology by IRI, a module by its size
+        String subject = o == ontology ? o.getOntologyID().getOntologyIRI().map(IRI::toString).orElse("")
+                : "module of " + o.getAxiomCount() + " axioms";
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.CLASSIFICATION, subject, reasonerName)) {
+            span.items(o.getAxiomCount());
+            if (pool != null) return pool.classify(o, types);
+            OWLReasoner r = reasonerFactory.createReasoner(o);
+            r.precomputeInferences(types);
+            return r;
+        }
+    }
+
+    // asks a session reasoner; one the pool discarded after a timeout or running out of memory
+    // is forgotten, one that only rejected the query is kept
+    private <T> T ask(OWLReasoner r, java.util.concurrent.Callable<T> query) throws Exception {
+        if (pool == null) return query.call();
+        try {
+            return pool.call(r, query);
+        } catch (RuntimeException e) {
+            if (pool.isDiscarded(r)) {
+                if (r == reasoner) reasoner = null;
+                moduleReasoners.values().remove(r);
+            }
+            throw e;
+        }
+    }
+
+    private static <V> Map<OWLAxiom, V> leastRecentlyUsed(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OWLAxiom, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // gives a reasoner back to the pool, or disposes it
+    private void drop(OWLOntology o, OWLReasoner r) {
+        if (pool != null) pool.release(o, r);
+        else r.dispose();
+    }
 
     /**
      * Validates if an axiom is entailed by the ontology using a Structural Reasoner/ HermiT Reasoner.
+     * Creates a one-off session; use an instance when checking more than one axiom.
      *
      * @param ontology the OWL ontology
      * @param axiom the OWL axiom to check
      * @return true if the axiom is entailed, false otherwise
      */
     public static boolean isEntailed(OWLOntology ontology, OWLAxiom axiom) {
-        OWLReasonerFactory reasonerFactory = new Reasoner.ReasonerFactory(); // Structural Reasoner: new StructuralReasonerFactory()
-        OWLReasoner reasoner = reasonerFactory.createReasoner(ontology);
-        boolean entailed = false;
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            return validator.isEntailed(axiom);
+        } catch (Exception e) {
+            // Handle reasoner construction errors (e.g., unsupported constructs in the ontology)
+            System.err.println("Reasoning error: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
+    /**
+     * Checks whether the session ontology entails the given axiom.
+     *
+     * @param axiom the OWL axiom to check
+     * @return true if the axiom is entailed, false otherwise (including on reasoning errors)
+     */
+    public boolean isEntailed(OWLAxiom axiom) {
+        return isEntailed(axiom, List.of());
+    }
+
+    /**
+     * Checks whether the session ontology entails the given axiom. With modules, the module is
+     * extracted for the signature of the axiom and its context (e.g. its axiom group), so every
+     * question about the same group shares one module.
+     *
+     * @param axiom   the OWL axiom to check
+     * @param context axioms whose signature the module should also cover
+     * @return true if the axiom is entailed, false otherwise (including on timeouts and reasoning errors)
+     */
+    public boolean isEntailed(OWLAxiom axiom, Collection<? extends OWLAxiom> context) {
+        return check(axiom, context) == ReasonerPool.Outcome.YES;
+    }
+
+    /**
+     * Checks whether the session ontology entails the given axiom, telling a timeout or a
+     * reasoning error apart from a "No".
+     *
+     * @param axiom   the OWL axiom to check
+     * @param context axioms whose signature the module should also cover
+     * @return YES or NO, or TIMEOUT or ERROR if the reasoner gave no answer
+     * @throws OutOfMemoryError if reasoning without a pool ran out of memory; the session's
+     *                          reasoners are disposed first, so the caller can decide whether to go on
+     */
+    public ReasonerPool.Outcome check(OWLAxiom axiom, Collection<? extends OWLAxiom> context) {
+        Boolean cached = answers.get(axiom);
+        if (cached == null && cache != null) cached = cache.get(ontologyHash, reasonerId, axiom);
+        if (cached != null) {
+            answers.put(axiom, cached);
+            return ReasonerPool.Outcome.of(cached);
+        }
+        ReasonerPool.Outcome failed = failures.get(axiom);
+        if (failed != null) return failed;
+
+        ReasonerPool.Outcome outcome = ReasonerPool.Outcome.ERROR;
+        PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.ENTAILMENT, PipelineEvents.subject(axiom), reasonerName);
         try {
-            reasoner.precomputeInferences(); // Optional but helps for performance
-            // Check entailment of the given axiom
-            entailed = reasoner.isEntailed(axiom);
+            boolean entailed = checkEntailment(axiom, context);
+            // failures are not persisted, the next run tries again
+            if (cache != null) cache.put(ontologyHash, reasonerId, axiom, entailed);
+            answers.put(axiom, entailed);
+            outcome = ReasonerPool.Outcome.of(entailed);
+            return outcome;
         } catch (Exception e) {
-            // Handle reasoning errors or exceptions (e.g., memory issues, ontology parsing errors)
-            System.err.println("Reasoning error: " + e.getMessage());
-            e.printStackTrace();  // print stack trace for debugging
+            // Handle reasoning errors or exceptions (e.g., timeouts, unsupported axiom types)
+            outcome = ReasonerPool.outcome(e);
+            if (outcome == ReasonerPool.Outcome.TIMEOUT) {
+                System.err.println("Reasoning timeout: " + axiom);
+            } else {
+                System.err.println("Reasoning error: " + e);
+                e.printStackTrace();  // print stack trace for debugging
+            }
+        } catch (OutOfMemoryError e) {
+            // the reasoners hold most of the heap; drop them, but do not pass the error off as an answer
+            disposeReasoners();
+            System.err.println("Reasoning error: out of memory on " + axiom);
+            throw e;
         } finally {
-            // Ensure the reasoner is disposed of after use
-            reasoner.dispose();
+            span.outcome(outcome.name()).close();
         }
+        failures.put(axiom, outcome);
+        return outcome;
+    }
+
+    /**
+     * Checks a batch of axioms against the classified ontology.
+     * Uncached A ⊑ C questions with a named A and a complex C are answered with one
+     * classification of a scratch ontology if there are at least {@value #MIN_BATCH} of them.
+     *
+     * @param axioms the axioms to check
+     * @return a map from each axiom to its outcome (TIMEOUT or ERROR if the reasoner gave no
+     *         answer), in iteration order of the input
+     */
+    public Map<OWLAxiom, ReasonerPool.Outcome> check(Collection<? extends OWLAxiom> axioms) {
+        List<OWLSubClassOfAxiom> batch = new ArrayList<>();
+        for (OWLAxiom axiom : axioms) {
+            if (axiom instanceof OWLSubClassOfAxiom sca
+                    && !sca.isAnnotated()
+                    && !sca.getSubClass().isAnonymous()
+                    && sca.getSuperClass().isAnonymous()
+                    && !answers.containsKey(sca)) {
+                Boolean cached = cache == null ? null : cache.get(ontologyHash, reasonerId, sca);
+                if (cached != null) answers.put(sca, cached);
+                else batch.add(sca);
+            }
+        }
+        // with modules, the questions are answered over small modules instead
+        if (batch.size() >= MIN_BATCH && modules == null) classifyBatch(batch);
+
+        Map<OWLAxiom, ReasonerPool.Outcome> results = new LinkedHashMap<>();
+        for (OWLAxiom axiom : axioms) {
+            results.put(axiom, check(axiom, List.of()));
+        }
+        return results;
+    }
+
+    // Q ≡ C for a fresh Q is a conservative extension, so it does not change any answer
+    private void classifyBatch(List<OWLSubClassOfAxiom> batch) {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLReasoner scratchReasoner = null;
+        try {
+            OWLOntology scratch = manager.createOntology(ontology.axioms(Imports.INCLUDED));
+            Map<OWLClassExpression, OWLClass> names = new HashMap<>();
+            for (OWLSubClassOfAxiom sca : batch) {
+                names.computeIfAbsent(sca.getSuperClass(), c -> {
+                    OWLClass q = df.getOWLClass(IRI.create("urn:batch:Q" + names.size()));
+                    manager.addAxiom(scratch, df.getOWLEquivalentClassesAxiom(q, c));
+                    return q;
+                });
+            }
+            scratchReasoner = classify(scratch, InferenceType.CLASS_HIERARCHY);
+
+            Map<OWLClass, Set<OWLClass>> supers = new HashMap<>();
+            for (OWLSubClassOfAxiom sca : batch) {
+                OWLReasoner r = scratchReasoner;
+                Set<OWLClass> s = supers.computeIfAbsent(sca.getSubClass().asOWLClass(), c -> {
+                    Set<OWLClass> result = new HashSet<>();
+                    r.getEquivalentClasses(c).forEach(result::add);
+                    r.getSuperClasses(c, false).entities().forEach(result::add);
+                    return result;
+                });
+                boolean entailed = s.contains(names.get(sca.getSuperClass())) || s.contains(df.getOWLNothing());
+                answers.put(sca, entailed);
+                if (cache != null) cache.put(ontologyHash, reasonerId, sca, entailed);
+            }
+        } catch (Exception | OutOfMemoryError e) {
+            // the axioms are checked one by one instead
+            System.err.println("Batch reasoning error: " + e);
+        } finally {
+            if (scratchReasoner != null) scratchReasoner.dispose();
+        }
+    }
+
+    // named subsumptions come from the closure index, everything else goes to the reasoner
+    private boolean checkEntailment(OWLAxiom axiom, Collection<? extends OWLAxiom> context) throws Exception {
+        if (modules != null && index == null) return isEntailed(moduleReasoner(axiom, context), axiom);
+        if (axiom instanceof OWLSubClassOfAxiom sca
+                && !sca.isAnnotated()
+                && !sca.getSubClass().isAnonymous()
+                && !sca.getSuperClass().isAnonymous()) {
+            // the index knows that an unsatisfiable class is subsumed by every class
+            return index().isSubClassOf(sca.getSubClass().asOWLClass(), sca.getSuperClass().asOWLClass());
+        }
+        if (axiom instanceof OWLSubObjectPropertyOfAxiom spa
+                && !spa.isAnnotated()
+                && !spa.getSubProperty().isAnonymous()
+                && !spa.getSuperProperty().isAnonymous()) {
+            return index().isSubRole(spa.getSubProperty().asOWLObjectProperty(), spa.getSuperProperty().asOWLObjectProperty());
+        }
+        if (modules != null) return isEntailed(moduleReasoner(axiom, context), axiom);
+        return isEntailed(reasoner(), axiom);
+    }
+
+    private boolean isEntailed(OWLReasoner r, OWLAxiom axiom) throws Exception {
+        return ask(r, () -> r.isEntailed(axiom));
+    }
+
+    // a classified reasoner over the module for the axiom and its context
+    private OWLReasoner moduleReasoner(OWLAxiom axiom, Collection<? extends OWLAxiom> context) {
+        List<OWLAxiom> signature = new ArrayList<>(context);
+        signature.add(axiom);
+        ModuleCache.Module module = modules.moduleFor(signature);
+        OWLReasoner r = moduleReasoners.get(module);
+        if (r == null) {
+            r = classify(module.ontology(), InferenceType.CLASS_HIERARCHY);
+            moduleReasoners.put(module, r);
+        }
+        return r;
+    }
+
+    /**
+     * Returns the closure index of the session ontology, building it from the session reasoner
+     * if it was not given.
+     */
+    public SubsumptionIndex index() {
+        if (index == null) {
+            if (ontologyHash == null) ontologyHash = EntailmentCache.ontologyHash(ontology);
+            String hash = ontologyHash;
+            OWLReasoner r = reasoner();
+            try {
+                // a reasoner the pool discards on a timeout is dropped from the session
+                index = ask(r, () -> SubsumptionIndex.build(ontology, r, hash));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot build the subsumption index", e);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Disposes the reasoner held by this session, if it was created.
+     * The cache is shared between sessions and stays open.
+     */
+    @Override
+    public void close() {
+        if (reasoner != null) drop(ontology, reasoner);
+        reasoner = null;
+        moduleReasoners.forEach((module, r) -> drop(module.ontology(), r));
+        moduleReasoners.clear();
+    }
 
-        return entailed;
+    private void disposeReasoners() {
+        if (reasoner != null) reasoner.dispose();
+        reasoner = null;
+        moduleReasoners.values().forEach(OWLReasoner::dispose);
+        moduleReasoners.clear();
     }
-}
\ No newline at end of file
+}
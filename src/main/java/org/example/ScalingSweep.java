@@ -0,0 +1,226 @@
+package org.example;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * ScalingSweep runs the generation pipeline over {@link SyntheticOntologyGenerator} ontologies of
+ * growing size and records the wall-clock time and peak heap of every stage, to see how the
+ * pipeline scales before a real ontology gets that large.
+ *
+ * The stages of one size are:
+ * - write: stream the ontology to an OWL functional syntax file
+ * - load: parse the file with the OWL API
+ * - group: {@link AxiomGrouper#inSubjectOrder(OWLOntology)}
+ * - generate: {@link BenchmarkRunner#generate} with classification, queries, formatting and
+ *   NDJSON serialization
+ *
+ * Peak heap is the sum of the peak usage of the heap memory pools, reset after a GC before each
+ * stage, so it includes what earlier stages still hold (e.g. the loaded ontology during generate).
+ * A stage that runs out of memory ends the sweep; it is recorded with "failed": true, also when
+ * the error was thrown on a generation worker and reaches the sweep wrapped in another exception.
+ * Rows are handed out as each stage completes, so {@link #main} has them on disk before the
+ * next, larger stage starts.
+ */
+public class ScalingSweep {
+
+    /**
+     * Measurements of one stage at one size.
+     */
+    public record Row(long axioms, int classes, String stage, long millis, long peakHeapBytes, long items,
+                      boolean failed) {
+    }
+
+    private final SyntheticOntologyGenerator generator;
+    private final OWLReasonerFactory reasonerFactory;
+    private final int parallelism;
+    private final Path directory;
+
+    /**
+     * @param generator       ontology settings; the class count is set per size
+     * @param reasonerFactory reasoner used for the "expected" answers
+     * @param parallelism     generation worker threads
+     * @param directory       directory for the ontology and benchmark files of each size
+     */
+    public ScalingSweep(SyntheticOntologyGenerator generator, OWLReasonerFactory reasonerFactory, int parallelism,
+                        Path directory) {
+        this.generator = generator;
+        this.reasonerFactory = reasonerFactory;
+        this.parallelism = parallelism;
+        this.directory = directory;
+    }
+
+    /**
+     * Runs the stages at every size, smallest first, until one fails.
+     *
+     * @param sizes approximate axiom counts
+     * @return one row per stage run
+     * @throws Exception if a stage fails for another reason than running out of memory
+     */
+    public List<Row> run(List<Long> sizes) throws Exception {
+        List<Row> rows = new ArrayList<>();
+        run(sizes, rows::add);
+        return rows;
+    }
+
+    /**
+     * Runs the stages at every size, smallest first, until one fails.
+     *
+     * @param sizes approximate axiom counts
+     * @param sink  receives the row of every stage as soon as the stage has ended
+     * @throws Exception if a stage fails for another reason than running out of memory
+     */
+    public void run(List<Long> sizes, Consumer<Row> sink) throws Exception {
+        for (long size : sizes.stream().sorted().toList()) {
+            generator.withAxioms(size);
+            Path ontologyFile = directory.resolve("synthetic-" + size + ".ofn");
+            Path benchmarkFile = directory.resolve("benchmark-" + size + ".ndjson");
+            try {
+                long written = stage(sink, "write", () -> generator.write(ontologyFile));
+                OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
+                OWLOntology[] ontology = new OWLOntology[1];
+                stage(sink, "load", () -> {
+                    ontology[0] = manager.loadOntologyFromOntologyDocument(ontologyFile.toFile());
+                    return (long) ontology[0].getAxiomCount();
+                });
+                List<List<OWLAxiom>> groups = new ArrayList<>();
+                stage(sink, "group", () -> {
+                    groups.addAll(AxiomGrouper.inSubjectOrder(ontology[0]));
+                    return (long) groups.size();
+                });
+                stage(sink, "generate", () -> {
+                    try (BenchmarkWriter writer = new BenchmarkWriter(benchmarkFile.toString(), BenchmarkWriter.Format.NDJSON)) {
+                        BenchmarkRunner.generate(ontology[0], groups, reasonerFactory, parallelism, entry -> {
+                            try {
+                                writer.write(entry);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                        return writer.count();
+                    }
+                });
+                manager.clearOntologies();
+                System.out.println("Sweep: " + written + " axioms done");
+            } catch (OutOfMemoryError e) {
+                // the cliff: larger sizes would fail too
+                break;
+            } finally {
+                Files.deleteIfExists(ontologyFile);
+                Files.deleteIfExists(benchmarkFile);
+            }
+        }
+    }
+
+    // runs one stage, hands out its row (also when it runs out of memory) and returns its item count
+    private long stage(Consumer<Row> rows, String stage, Callable<Long> work) throws Exception {
+        List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        long items = 0;
+        boolean failed = false;
+        try {
+            items = work.call();
+            return items;
+        } catch (OutOfMemoryError e) {
+            failed = true;
+            throw e;
+        } catch (Exception e) {
+            // parallel generation rethrows a worker's error as the cause of an ExecutionException
+            OutOfMemoryError oom = outOfMemory(e);
+            if (oom == null) throw e;
+            failed = true;
+            throw oom;
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long peak = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            rows.accept(new Row(generator.axiomCount(), generator.classes(), stage, millis, peak, items, failed));
+        }
+    }
+
+    // the OutOfMemoryError a failure was caused by, or null
+    private static OutOfMemoryError outOfMemory(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OutOfMemoryError oom) return oom;
+        }
+        return null;
+    }
+
+    /**
+     * Formats the rows as a table, one line per stage.
+     */
+    public static String table(List<Row> rows) {
+        StringBuilder table = new StringBuilder(String.format("%12s %10s %-9s %10s %12s %10s%n",
+                "axioms", "classes", "stage", "ms", "peak MB", "items"));
+        for (Row row : rows) {
+            table.append(String.format("%12d %10d %-9s %10d %12.1f %10d%s%n", row.axioms(), row.classes(), row.stage(),
+                    row.millis(), row.peakHeapBytes() / (1024.0 * 1024.0), row.items(), row.failed() ? "  out of memory" : ""));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Runs a sweep over -Dbenchmark.sweep.sizes (approximate axiom counts, default
+     * 10000,100000,1000000) with the -Dbenchmark.synthetic.* settings of
+     * {@link SyntheticOntologyGenerator#main}, the reasoner -Dbenchmark.reasoner (default el) and
+     * -Dbenchmark.parallelism (default: all processors), and writes the rows to
+     * `output_HermitReasoner/scaling_sweep.json` as each stage ends (-Dbenchmark.format, default
+     * pretty; ndjson leaves a readable file even if the JVM is killed). Peak heap is bounded by -Xmx.
+     *
+     * @param args optional: output file
+     * @throws Exception if a stage fails
+     */
+    public static void main(String[] args) throws Exception {
+        String outputFile = args.length > 0 ? args[0] : "output_HermitReasoner/scaling_sweep.json";
+        List<Long> sizes = Arrays.stream(System.getProperty("benchmark.sweep.sizes", "10000,100000,1000000").split(","))
+                .map(String::strip)
+                .map(Long::parseLong)
+                .toList();
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "el"));
+        int parallelism = Integer.getInteger("benchmark.parallelism", Runtime.getRuntime().availableProcessors());
+        BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+        Path directory = Files.createTempDirectory("scaling-sweep");
+        List<Row> rows = new ArrayList<>();
+        try (BenchmarkWriter writer = new BenchmarkWriter(outputFile, format)) {
+            new ScalingSweep(SyntheticOntologyGenerator.fromProperties(), factory, parallelism, directory).run(sizes, row -> {
+                rows.add(row);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("axioms", row.axioms());
+                entry.put("classes", row.classes());
+                entry.put("stage", row.stage());
+                entry.put("ms", row.millis());
+                entry.put("peak_heap_bytes", row.peakHeapBytes());
+                entry.put("items", row.items());
+                entry.put("failed", row.failed());
+                try {
+                    // on disk before the next stage, which may be the one that brings the JVM down
+                    writer.write(entry);
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+        System.out.print(table(rows));
+        System.out.println("Scaling sweep exported to " + outputFile);
+    }
+}
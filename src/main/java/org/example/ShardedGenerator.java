@@ -0,0 +1,399 @@
+package org.example;
+
+import com.google.gson.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * ShardedGenerator splits benchmark generation into independent, resumable shards, so one
+ * ontology can be generated by several batch tasks, on several machines, without redoing work.
+ *
+ * Every group goes to shard CRC32(subject IRI) mod the shard count, so every task that loads
+ * the same ontology computes the same split without coordination. Groups and test IDs are those
+ * of a full {@link BenchmarkRunner} run ({@link AxiomGrouper#inSubjectOrder(OWLOntology)}, the
+ * position among the groups that have a target axiom), so {@link #merge} produces exactly the
+ * output of an unsharded run, metamorphic variants included when {@link #withRelations} is set.
+ *
+ * The shard directory holds:
+ * - `manifest.json`: ontology hash, shard count, reasoner, number of cases and metamorphic
+ *   relations; tasks of a different run refuse to write into the directory
+ * - `shard-0003-of-0016.ndjson`: a completed shard, one test case per line in ID order
+ * - `shard-0003-of-0016.ndjson.part`: a shard in progress, flushed after every test case
+ *
+ * A task that crashed or was killed resumes from its `.part` file: complete lines are kept, a
+ * torn last line is cut off, and generation continues with the cases not written yet. A finished
+ * shard is renamed atomically and skipped by every later task.
+ */
+public class ShardedGenerator {
+
+    private static final Logger logger = Logger.getLogger(ShardedGenerator.class.getName());
+    private static final Gson gson = new Gson();
+
+    private final OWLOntology ontology;
+    private final OWLReasonerFactory reasonerFactory;
+    private final Path directory;
+    private final int shards;
+    // test IDs and groups of every shard, in ID order
+    private final List<List<String>> ids = new ArrayList<>();
+    private final List<List<List<OWLAxiom>>> groups = new ArrayList<>();
+    private final int cases;
+
+    private EntailmentCache cache;
+    private ModuleCache modules;
+    private ReasonerPool reasoners;
+    private MetamorphicExpander relations;
+    private int parallelism = 1;
+
+    /**
+     * Splits the groups of the ontology into shards.
+     *
+     * @param ontology        the ontology
+     * @param reasonerFactory reasoner used for the "expected" answers
+     * @param directory       shard directory, shared by all tasks of the run
+     * @param shards          number of shards
+     */
+    public ShardedGenerator(OWLOntology ontology, OWLReasonerFactory reasonerFactory, Path directory, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("Shard count must be positive: " + shards);
+        this.ontology = ontology;
+        this.reasonerFactory = reasonerFactory;
+        this.directory = directory;
+        this.shards = shards;
+        for (int i = 0; i < shards; i++) {
+            ids.add(new ArrayList<>());
+            groups.add(new ArrayList<>());
+        }
+        int id = 0;
+        for (List<OWLAxiom> group : AxiomGrouper.inSubjectOrder(ontology)) {
+            if (QueryGenerator.getQueryAxiom(group) == null) continue;
+            // the axioms of a group share their named subclass, whose IRI no other group has
+            String subject = ((OWLSubClassOfAxiom) group.get(0)).getSubClass().asOWLClass().getIRI().toString();
+            int shard = shardOf(subject, shards);
+            ids.get(shard).add("test_" + (++id));
+            groups.get(shard).add(group);
+        }
+        this.cases = id;
+    }
+
+    public ShardedGenerator withCache(EntailmentCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    public ShardedGenerator withModules(ModuleCache modules) {
+        this.modules = modules;
+        return this;
+    }
+
+    public ShardedGenerator withPool(ReasonerPool reasoners) {
+        this.reasoners = reasoners;
+        return this;
+    }
+
+    public ShardedGenerator withParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Replaces every case by its metamorphic variants, as in {@link BenchmarkRunner#generate}.
+     * All tasks and the merge of a run must use the same relations.
+     *
+     * @param relations the variants to emit, or null for the base cases only
+     * @return this generator
+     */
+    public ShardedGenerator withRelations(MetamorphicExpander relations) {
+        this.relations = relations;
+        return this;
+    }
+
+    // IDs of the entries written for a case: the case itself, or its variants in relation order
+    private List<String> entryIds(String id) {
+        if (relations == null) return List.of(id);
+        return relations.relations().stream().map(relation -> id + relation.suffix()).toList();
+    }
+
+    /**
+     * The shard of a group subject IRI.
+     */
+    static int shardOf(String subject, int shards) {
+        CRC32 crc = new CRC32();
+        crc.update(subject.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shards);
+    }
+
+    /** Number of shards. */
+    public int shards() {
+        return shards;
+    }
+
+    /** Number of test cases in one shard, counting every metamorphic variant. */
+    public int size(int shard) {
+        return ids.get(shard).size() * entryIds("").size();
+    }
+
+    /** The file of a completed shard. */
+    public Path shardFile(int shard) {
+        return directory.resolve(String.format("shard-%04d-of-%04d.ndjson", shard, shards));
+    }
+
+    private Path partFile(int shard) {
+        return directory.resolve(shardFile(shard).getFileName() + ".part");
+    }
+
+    /** True if the shard has been completed by some task. */
+    public boolean isComplete(int shard) {
+        return Files.exists(shardFile(shard));
+    }
+
+    /**
+     * Generates one shard, resuming an interrupted attempt; a completed shard is skipped.
+     *
+     * @param shard the shard number
+     * @return number of test cases generated by this call
+     * @throws IllegalStateException if the directory belongs to a run with another ontology, shard count or reasoner
+     * @throws Exception             if reasoning or writing fails; written cases are kept for the next attempt
+     */
+    public int run(int shard) throws Exception {
+        if (shard < 0 || shard >= shards) throw new IllegalArgumentException("No shard " + shard + " of " + shards);
+        checkManifest(true);
+        if (isComplete(shard)) {
+            logger.info("Shard " + shard + " already complete");
+            return 0;
+        }
+        Path part = partFile(shard);
+        Set<String> done = NdjsonResume.resume(part);
+
+        List<String> todoIds = new ArrayList<>();
+        List<List<OWLAxiom>> todo = new ArrayList<>();
+        for (int i = 0; i < ids.get(shard).size(); i++) {
+            if (done.containsAll(entryIds(ids.get(shard).get(i)))) continue;
+            todoIds.add(ids.get(shard).get(i));
+            todo.add(groups.get(shard).get(i));
+        }
+        if (!done.isEmpty()) logger.info("Shard " + shard + ": resuming after " + done.size() + " test cases");
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(part, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        int generated;
+        try (BenchmarkWriter writer = new BenchmarkWriter(out, BenchmarkWriter.Format.NDJSON)) {
+            BenchmarkRunner.generateCases(ontology, EntityDictionary.of(ontology), todoIds, todo, reasonerFactory, cache, modules, reasoners, relations, parallelism, null, entry -> {
+                // the variants of a case cut short by a crash are written once
+                if (done.contains((String) entry.get("id"))) return;
+                try {
+                    // every written case survives a crash
+                    writer.write(entry);
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generated = (int) writer.count();
+        }
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(part, shardFile(shard), StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Shard " + shard + " complete: " + size(shard) + " test cases");
+        return generated;
+    }
+
+    /**
+     * Generates every shard that is not complete yet.
+     *
+     * @return number of test cases generated by this call
+     */
+    public int runAll() throws Exception {
+        int generated = 0;
+        for (int shard = 0; shard < shards; shard++) generated += run(shard);
+        return generated;
+    }
+
+    /**
+     * Merges the completed shards into one benchmark file in ID order, streaming through all
+     * shards at once.
+     *
+     * @param output the benchmark file, replaced atomically
+     * @param format output layout
+     * @return number of test cases written
+     * @throws IllegalStateException if a shard is not complete, or the directory belongs to another run
+     * @throws IOException           if a file cannot be read or written
+     */
+    public long merge(Path output, BenchmarkWriter.Format format) throws IOException {
+        checkManifest(false);
+        List<Integer> missing = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            if (!isComplete(shard)) missing.add(shard);
+        }
+        if (!missing.isEmpty()) throw new IllegalStateException("Shards not complete yet: " + missing);
+
+        // the shards are in ID order, so the smallest head is the next case
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparingInt(Head::number));
+        List<BenchmarkReader> readers = new ArrayList<>();
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        long written;
+        try (BenchmarkWriter writer = new BenchmarkWriter(temp.toString(), format)) {
+            for (int shard = 0; shard < shards; shard++) {
+                BenchmarkReader reader = new BenchmarkReader(shardFile(shard).toString());
+                readers.add(reader);
+                if (reader.hasNext()) heads.add(head(reader));
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                writer.write(head.entry());
+                if (head.reader().hasNext()) heads.add(head(head.reader()));
+            }
+            written = writer.count();
+        } finally {
+            for (BenchmarkReader reader : readers) reader.close();
+        }
+        long expected = (long) cases * entryIds("").size();
+        if (written != expected) {
+            Files.delete(temp);
+            throw new IllegalStateException("Shards hold " + written + " test cases, expected " + expected);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    // the next case of a shard, with the ID number of its base case; a case's variants are in one shard
+    private record Head(JsonObject entry, int number, BenchmarkReader reader) {
+    }
+
+    private static Head head(BenchmarkReader reader) {
+        JsonObject entry = reader.next();
+        // test_12, or test_12_mr9 for a variant
+        String number = entry.get("id").getAsString().split("_")[1];
+        return new Head(entry, Integer.parseInt(number), reader);
+    }
+
+    // the manifest pins the run a directory belongs to
+    private void checkManifest(boolean create) throws IOException {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("ontology_hash", EntailmentCache.ontologyHash(ontology));
+        expected.put("shards", shards);
+        expected.put("reasoner", reasonerFactory.getReasonerName());
+        expected.put("cases", cases);
+        // left out without relations, so directories of base-only runs stay valid
+        if (relations != null) {
+            expected.put("relations", relations.relations().stream().map(MetamorphicExpander.Relation::label).toList());
+        }
+        JsonObject manifest = gson.toJsonTree(expected).getAsJsonObject();
+
+        Path file = directory.resolve("manifest.json");
+        if (Files.exists(file)) {
+            JsonObject found = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+            if (!found.equals(manifest)) {
+                throw new IllegalStateException(directory + " belongs to another run: " + found + ", this run is " + manifest);
+            }
+            return;
+        }
+        if (!create) throw new IllegalStateException("No manifest in " + directory);
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "manifest", ".tmp");
+        Files.writeString(temp, gson.toJson(manifest), StandardCharsets.UTF_8);
+        try {
+            // the first of several concurrent tasks wins; the others compare against its manifest
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.delete(temp);
+            checkManifest(false);
+        }
+    }
+
+    /**
+     * Parses a shard selection: `all`, or a comma-separated list of shard numbers and ranges
+     * such as `0-3,7`.
+     */
+    static SortedSet<Integer> parseShards(String spec, int shards) {
+        SortedSet<Integer> selected = new TreeSet<>();
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            if (part.equalsIgnoreCase("all")) {
+                for (int i = 0; i < shards; i++) selected.add(i);
+                continue;
+            }
+            int dash = part.indexOf('-');
+            try {
+                int from = Integer.parseInt(dash < 0 ? part : part.substring(0, dash).trim());
+                int to = dash < 0 ? from : Integer.parseInt(part.substring(dash + 1).trim());
+                if (from < 0 || to >= shards || from > to) throw new IllegalArgumentException("No shards " + part + " of " + shards);
+                for (int i = from; i <= to; i++) selected.add(i);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a shard selection: " + spec, e);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Runs shards of a generation job, or merges them.
+     * The shard count is -Dbenchmark.shards (default 16) and the directory
+     * -Dbenchmark.shard.dir (default `output_HermitReasoner/shards`). A task generates the shards
+     * in -Dbenchmark.shard (e.g. `3` or `0-3,7`; default: all); `merge` writes
+     * 'benchmark_output.json' once every shard is complete. The ontology, reasoner, module,
+     * timeout, parallelism, format and metamorphic relation (-Dbenchmark.mr, also for `merge`)
+     * options are those of {@link BenchmarkRunner}. The entailment cache defaults to one file per
+     * task, `.cache/entailments-shard-NNNN.bin` after the first selected shard, since a cache
+     * file is locked by the task that opened it. Reasoner metrics and ELH cases are not generated.
+     *
+     * @param args optional: `run` (default) or `merge`
+     * @throws Exception if loading, reasoning or writing fails
+     */
+    public static void main(String[] args) throws Exception {
+        OWLOntology ontology = BenchmarkRunner.loadOntology(OWLManager.createConcurrentOWLOntologyManager());
+        OWLReasonerFactory factory = BenchmarkRunner.reasonerFactory(System.getProperty("benchmark.reasoner", "hermit"));
+        Path directory = Path.of(System.getProperty("benchmark.shard.dir", "output_HermitReasoner/shards"));
+        ShardedGenerator generator = new ShardedGenerator(ontology, factory, directory, Integer.getInteger("benchmark.shards", 16));
+        Set<MetamorphicExpander.Relation> mr = MetamorphicExpander.parse(System.getProperty("benchmark.mr", ""));
+
+        if (args.length > 0 && args[0].equals("merge")) {
+            // the relations only decide which manifest and how many cases are expected
+            if (!mr.isEmpty()) generator.withRelations(new MetamorphicExpander(ontology, factory, mr, null));
+            BenchmarkWriter.Format format = BenchmarkWriter.Format.parse(System.getProperty("benchmark.format", "pretty"));
+            long merged = generator.merge(Path.of("output_HermitReasoner/benchmark_output.json"), format);
+            System.out.println("Merged " + merged + " test cases from " + generator.shards() + " shards into benchmark_output.json");
+            return;
+        }
+
+        int generated = 0;
+        SortedSet<Integer> selected = parseShards(System.getProperty("benchmark.shard", "all"), generator.shards());
+        if (selected.isEmpty()) throw new IllegalArgumentException("No shards selected");
+
+        int parallelism = Integer.getInteger("benchmark.parallelism", 1);
+        // tasks of one run may share a host, and a cache file serves one task at a time
+        String cachePath = System.getProperty("benchmark.cache", String.format(".cache/entailments-shard-%04d.bin", selected.first()));
+        EntailmentCache cache = cachePath.isBlank() ? null
+                : new EntailmentCache(Path.of(cachePath), Integer.getInteger("benchmark.cache.size", 1_000_000));
+        int maxModules = Integer.getInteger("benchmark.modules", 0);
+        ModuleCache modules = maxModules > 0 ? new ModuleCache(ontology, maxModules) : null;
+        long timeout = Long.getLong("benchmark.timeout", 0);
+        ReasonerPool reasoners = timeout > 0
+                ? new ReasonerPool(factory, timeout, Integer.getInteger("benchmark.maxClassifications", parallelism))
+                : null;
+        MetamorphicExpander relations = mr.isEmpty() ? null
+                : new MetamorphicExpander(ontology, factory, mr, modules).withCache(cache).withPool(reasoners);
+        generator.withCache(cache).withModules(modules).withPool(reasoners).withRelations(relations).withParallelism(parallelism);
+
+        try {
+            for (int shard : selected) generated += generator.run(shard);
+        } finally {
+            if (cache != null) cache.close();
+            if (reasoners != null) reasoners.close();
+        }
+        long complete = selected.stream().filter(generator::isComplete).count();
+        System.out.println("Generated " + generated + " test cases; " + complete + " of " + selected.size()
+                + " selected shards complete in " + directory);
+    }
+}
@@ -0,0 +1,431 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.io.*;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * SubsumptionIndex is the transitive closure of a classified class and role hierarchy, for
+ * answering "A ⊑ B?" and "r ⊑ s?" without going through the reasoner API.
+ *
+ * Classes and object properties of the signature get dense IDs (in sorted order, owl:Thing and
+ * owl:Nothing included), and each one gets a row with the sorted IDs of its subsumers, itself
+ * and its equivalents included. The rows are packed one after another, with an offset table
+ * pointing at the start of each row, so the index grows with the size of the closure rather
+ * than with the square of the signature. The row of an unsatisfiable class holds owl:Nothing
+ * only, and such a class is subsumed by every class. A lookup is two hash lookups and a binary
+ * search in a row.
+ *
+ * The index can be saved to a file and memory-mapped again by a later run, so the ontology does
+ * not have to be classified again; the file records the content hash of the ontology
+ * ({@link EntailmentCache#ontologyHash(OWLOntology)}) it was built from. An index is immutable
+ * and can be shared between threads.
+ */
+public class SubsumptionIndex {
+
+    private static final Logger logger = Logger.getLogger(SubsumptionIndex.class.getName());
+
+    private static final int MAGIC = 0x53554258; // "SUBX"
+    private static final int VERSION = 2;
+
+    private final String ontologyHash;
+    private final OWLClass[] classes;
+    private final Map<OWLClass, Integer> classIds;
+    private final OWLObjectProperty[] roles;
+    private final Map<OWLObjectProperty, Integer> roleIds;
+    private final int nothing;
+
+    // row i holds the entries [offsets[i], offsets[i + 1])
+    private final IntBuffer classOffsets;
+    private final IntBuffer classRows;
+    private final IntBuffer roleOffsets;
+    private final IntBuffer roleRows;
+
+    private SubsumptionIndex(String ontologyHash, OWLClass[] classes, IntBuffer classOffsets, IntBuffer classRows,
+                             OWLObjectProperty[] roles, IntBuffer roleOffsets, IntBuffer roleRows) {
+        this.ontologyHash = ontologyHash;
+        this.classes = classes;
+        this.roles = roles;
+        this.classIds = ids(classes);
+        this.roleIds = ids(roles);
+        this.classOffsets = classOffsets;
+        this.classRows = classRows;
+        this.roleOffsets = roleOffsets;
+        this.roleRows = roleRows;
+        int bottom = -1;
+        for (int i = 0; i < classes.length; i++) {
+            if (classes[i].isOWLNothing()) bottom = i;
+        }
+        this.nothing = bottom;
+    }
+
+    /**
+     * Builds the index from a reasoner's class and role hierarchy, classifying it if needed.
+     *
+     * @param ontology the ontology whose signature is indexed
+     * @param reasoner a reasoner for the ontology
+     * @return the index
+     */
+    public static SubsumptionIndex build(OWLOntology ontology, OWLReasoner reasoner) {
+        return build(ontology, reasoner, EntailmentCache.ontologyHash(ontology));
+    }
+
+    /**
+     * Builds the index for an ontology whose content hash is already known, so it is not
+     * computed again. The row of a taxonomy node is the union of the rows of its direct
+     * superclasses, and equivalent classes share it.
+     *
+     * @param ontology     the ontology whose signature is indexed
+     * @param reasoner     a reasoner for the ontology
+     * @param ontologyHash {@link EntailmentCache#ontologyHash(OWLOntology)} of the ontology
+     * @return the index
+     * @throws IllegalArgumentException if the closure has too many entries to be indexed
+     */
+    public static SubsumptionIndex build(OWLOntology ontology, OWLReasoner reasoner, String ontologyHash) {
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.OBJECT_PROPERTY_HIERARCHY);
+
+        Set<OWLClass> classSet = new TreeSet<>();
+        ontology.classesInSignature(Imports.INCLUDED).forEach(classSet::add);
+        classSet.add(df.getOWLThing());
+        classSet.add(df.getOWLNothing());
+        OWLClass[] classes = classSet.toArray(new OWLClass[0]);
+        Map<OWLClass, Integer> classIds = ids(classes);
+        int bottom = classIds.get(df.getOWLNothing());
+        int[][] classRows = new int[classes.length][];
+        for (int i = 0; i < classes.length; i++) {
+            if (classRows[i] == null) closeClass(reasoner, classes[i], classIds, classRows, bottom);
+        }
+
+        OWLObjectProperty[] roles = ontology.objectPropertiesInSignature(Imports.INCLUDED)
+                .sorted()
+                .toArray(OWLObjectProperty[]::new);
+        Map<OWLObjectProperty, Integer> roleIds = ids(roles);
+        int[][] roleRows = new int[roles.length][];
+        for (int i = 0; i < roles.length; i++) {
+            Set<Integer> row = new HashSet<>();
+            row.add(i);
+            reasoner.getEquivalentObjectProperties(roles[i]).entities().forEach(p -> addRole(row, roleIds, p));
+            reasoner.getSuperObjectProperties(roles[i], false).entities().forEach(p -> addRole(row, roleIds, p));
+            roleRows[i] = row.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        IntBuffer[] packedClasses = pack(classRows);
+        IntBuffer[] packedRoles = pack(roleRows);
+        return new SubsumptionIndex(ontologyHash, classes, packedClasses[0], packedClasses[1],
+                roles, packedRoles[0], packedRoles[1]);
+    }
+
+    // fills the row of cls (and its equivalents) from the rows of its direct superclasses;
+    // iterative, so deep hierarchies do not overflow the stack
+    private static void closeClass(OWLReasoner reasoner, OWLClass cls, Map<OWLClass, Integer> ids, int[][] rows,
+                                   int bottom) {
+        Deque<OWLClass> stack = new ArrayDeque<>();
+        stack.push(cls);
+        while (!stack.isEmpty()) {
+            OWLClass c = stack.peek();
+            int id = ids.get(c);
+            if (rows[id] != null) {
+                stack.pop();
+                continue;
+            }
+            Node<OWLClass> node = reasoner.getEquivalentClasses(c);
+            int[] row;
+            if (node.isBottomNode()) {
+                // unsatisfiable: subsumed by every class
+                row = new int[]{bottom};
+            } else {
+                // the row is computed once every direct superclass has its row
+                List<int[]> parts = new ArrayList<>();
+                boolean ready = true;
+                for (Node<OWLClass> sup : reasoner.getSuperClasses(c, true)) {
+                    Integer supId = ids.get(sup.getRepresentativeElement());
+                    if (supId == null) continue;
+                    if (rows[supId] == null) {
+                        stack.push(sup.getRepresentativeElement());
+                        ready = false;
+                    } else {
+                        parts.add(rows[supId]);
+                    }
+                }
+                if (!ready) continue;
+                parts.add(node.entities().map(ids::get).filter(Objects::nonNull).mapToInt(Integer::intValue).toArray());
+                parts.add(new int[]{id});
+                row = union(parts);
+            }
+            stack.pop();
+            rows[id] = row;
+            // equivalent classes share the row
+            node.entities().map(ids::get).filter(e -> e != null && rows[e] == null).forEach(e -> rows[e] = row);
+        }
+    }
+
+    // sorted IDs occurring in any of the arrays
+    private static int[] union(List<int[]> parts) {
+        int size = 0;
+        for (int[] part : parts) size += part.length;
+        int[] all = new int[size];
+        int n = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, all, n, part.length);
+            n += part.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) all[distinct++] = all[i];
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    private static void addRole(Set<Integer> row, Map<OWLObjectProperty, Integer> ids, OWLObjectPropertyExpression p) {
+        if (p.isAnonymous()) return;
+        Integer id = ids.get(p.asOWLObjectProperty());
+        if (id != null) row.add(id);
+    }
+
+    // the offset table and the concatenated rows
+    private static IntBuffer[] pack(int[][] rows) {
+        long total = 0;
+        for (int[] row : rows) total += row.length;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Subsumption closure of " + total + " entries is too large to index");
+        }
+        int[] offsets = new int[rows.length + 1];
+        int[] entries = new int[(int) total];
+        int n = 0;
+        for (int i = 0; i < rows.length; i++) {
+            offsets[i] = n;
+            System.arraycopy(rows[i], 0, entries, n, rows[i].length);
+            n += rows[i].length;
+        }
+        offsets[rows.length] = n;
+        return new IntBuffer[]{IntBuffer.wrap(offsets), IntBuffer.wrap(entries)};
+    }
+
+    /**
+     * Loads a saved index if it was built from the current ontology content, otherwise builds
+     * it with a reasoner from the factory and saves it.
+     *
+     * @param file     index file
+     * @param ontology the ontology
+     * @param factory  reasoner used when the index has to be built
+     * @return the index
+     * @throws IOException if the file cannot be read or written
+     */
+    public static SubsumptionIndex loadOrBuild(Path file, OWLOntology ontology, OWLReasonerFactory factory) throws IOException {
+        String hash = EntailmentCache.ontologyHash(ontology);
+        if (Files.exists(file)) {
+            try {
+                SubsumptionIndex index = load(file, ontology.getOWLOntologyManager().getOWLDataFactory());
+                if (index.ontologyHash().equals(hash)) return index;
+                logger.info("Subsumption index " + file + " is out of date, rebuilding");
+            } catch (IOException e) {
+                // e.g. a file in an older layout
+                logger.info("Subsumption index " + file + " is unreadable (" + e.getMessage() + "), rebuilding");
+            }
+        }
+        OWLReasoner reasoner = factory.createReasoner(ontology);
+        try {
+            SubsumptionIndex index = build(ontology, reasoner, hash);
+            index.save(file);
+            return index;
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    /**
+     * Writes the index: a header with the ontology hash and the entity IRIs, then the offset
+     * tables and rows, 4-byte aligned so they can be mapped as ints.
+     *
+     * @param file the file to write; parent directories are created
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, ontologyHash);
+            out.writeInt(classes.length);
+            for (OWLClass c : classes) writeString(out, c.getIRI().toString());
+            out.writeInt(roles.length);
+            for (OWLObjectProperty r : roles) writeString(out, r.getIRI().toString());
+            while (out.size() % Integer.BYTES != 0) out.writeByte(0);
+            for (IntBuffer ints : List.of(classOffsets, classRows, roleOffsets, roleRows)) {
+                for (int i = 0; i < ints.limit(); i++) out.writeInt(ints.get(i));
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-maps a saved index; the rows are read from the mapping, not copied.
+     *
+     * @param file the index file
+     * @param df   data factory used to recreate the entities
+     * @return the index
+     * @throws IOException if the file cannot be read or is not an index file
+     */
+    public static SubsumptionIndex load(Path file, OWLDataFactory df) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Subsumption index too large to map: " + file);
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Not a subsumption index file: " + file);
+            }
+            String hash = readString(buf);
+            OWLClass[] classes = new OWLClass[buf.getInt()];
+            for (int i = 0; i < classes.length; i++) classes[i] = df.getOWLClass(IRI.create(readString(buf)));
+            OWLObjectProperty[] roles = new OWLObjectProperty[buf.getInt()];
+            for (int i = 0; i < roles.length; i++) roles[i] = df.getOWLObjectProperty(IRI.create(readString(buf)));
+            buf.position((buf.position() + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES);
+
+            IntBuffer ints = buf.slice().asIntBuffer();
+            try {
+                IntBuffer classOffsets = ints.slice(0, classes.length + 1);
+                int classEntries = classOffsets.get(classes.length);
+                IntBuffer classRows = ints.slice(classes.length + 1, classEntries);
+                int roleStart = classes.length + 1 + classEntries;
+                IntBuffer roleOffsets = ints.slice(roleStart, roles.length + 1);
+                IntBuffer roleRows = ints.slice(roleStart + roles.length + 1, roleOffsets.get(roles.length));
+                logger.info("Loaded subsumption index of " + classes.length + " classes and " + roles.length + " roles from " + file);
+                return new SubsumptionIndex(hash, classes, classOffsets, classRows, roles, roleOffsets, roleRows);
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Truncated subsumption index: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Content hash of the ontology the index was built from.
+     */
+    public String ontologyHash() {
+        return ontologyHash;
+    }
+
+    /**
+     * Checks whether sub ⊑ sup holds. Classes that are not indexed are only subsumed by
+     * themselves and owl:Thing.
+     */
+    public boolean isSubClassOf(OWLClass sub, OWLClass sup) {
+        if (sub.equals(sup) || sup.isOWLThing()) return true;
+        Integer a = classIds.get(sub);
+        Integer b = classIds.get(sup);
+        return a != null && b != null && isSubClassOf(a, b);
+    }
+
+    /**
+     * Checks whether the class with ID sub is subsumed by the class with ID sup.
+     */
+    public boolean isSubClassOf(int sub, int sup) {
+        return unsatisfiable(sub) || contains(classOffsets, classRows, sub, sup);
+    }
+
+    /**
+     * Checks whether the class is equivalent to owl:Nothing.
+     */
+    public boolean isUnsatisfiable(OWLClass cls) {
+        Integer id = classIds.get(cls);
+        return id != null && unsatisfiable(id);
+    }
+
+    // every other row holds at least the class itself
+    private boolean unsatisfiable(int id) {
+        int from = classOffsets.get(id);
+        return classOffsets.get(id + 1) - from == 1 && classRows.get(from) == nothing;
+    }
+
+    /**
+     * Checks whether r ⊑ s follows from the role hierarchy.
+     */
+    public boolean isSubRole(OWLObjectProperty sub, OWLObjectProperty sup) {
+        if (sub.equals(sup) || sup.isOWLTopObjectProperty()) return true;
+        Integer r = roleIds.get(sub);
+        Integer s = roleIds.get(sup);
+        return r != null && s != null && contains(roleOffsets, roleRows, r, s);
+    }
+
+    /**
+     * Calls the action with the ID of every subsumer of a class (itself included).
+     */
+    public void forEachSuperClass(int id, IntConsumer action) {
+        if (unsatisfiable(id)) {
+            for (int sup = 0; sup < classes.length; sup++) action.accept(sup);
+            return;
+        }
+        for (int i = classOffsets.get(id), end = classOffsets.get(id + 1); i < end; i++) action.accept(classRows.get(i));
+    }
+
+    /** Returns the ID of a class, or -1 if it is not indexed. */
+    public int classId(OWLClass cls) {
+        Integer id = classIds.get(cls);
+        return id == null ? -1 : id;
+    }
+
+    /** Returns the class with the given ID. */
+    public OWLClass classAt(int id) {
+        return classes[id];
+    }
+
+    /** Number of indexed classes. */
+    public int classCount() {
+        return classes.length;
+    }
+
+    /** Number of indexed object properties. */
+    public int roleCount() {
+        return roles.length;
+    }
+
+    private static <T> Map<T, Integer> ids(T[] entities) {
+        Map<T, Integer> ids = new HashMap<>(entities.length * 2);
+        for (int i = 0; i < entities.length; i++) ids.put(entities[i], i);
+        return ids;
+    }
+
+    // binary search in the sorted row of id
+    private static boolean contains(IntBuffer offsets, IntBuffer rows, int id, int value) {
+        int low = offsets.get(id);
+        int high = offsets.get(id + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int v = rows.get(mid);
+            if (v < value) low = mid + 1;
+            else if (v > value) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
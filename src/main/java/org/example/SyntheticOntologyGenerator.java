@@ -0,0 +1,260 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * SyntheticOntologyGenerator produces seeded EL/ELH TBoxes of any size, for measuring how the
+ * pipeline scales beyond `pizza-el.owl`.
+ *
+ * Classes C0..Cn-1 form a forest of the given depth: they are split into depth + 1 levels of
+ * equal size and every class below the first level gets one told superclass from the level above.
+ * Every class also gets fanOut existentials Ci ⊑ ∃rj.Ck with a random role and filler, the
+ * target axioms of {@link QueryGenerator}. With a role depth above 0 the roles r0..rm-1 form a
+ * hierarchy the same way (r ⊑ s), which makes the TBox ELH.
+ *
+ * The axioms of class i are drawn from a random generator seeded with the seed and i, so the
+ * same settings always give the same ontology and axioms can be produced lazily, one class at a
+ * time; {@link #write} streams OWL functional syntax to a file without building the ontology.
+ */
+public class SyntheticOntologyGenerator {
+
+    /** Namespace of the generated entities. */
+    public static final String NAMESPACE = "http://example.org/synthetic#";
+
+    private int classes = 1000;
+    private int roles = 10;
+    private int depth = 5;
+    private int fanOut = 2;
+    private int roleDepth = 0;
+    private long seed = 42;
+
+    /** Number of classes (default 1000). */
+    public SyntheticOntologyGenerator withClasses(int classes) {
+        if (classes < 1) throw new IllegalArgumentException("Need at least one class: " + classes);
+        this.classes = classes;
+        return this;
+    }
+
+    /** Number of roles (default 10). */
+    public SyntheticOntologyGenerator withRoles(int roles) {
+        if (roles < 1) throw new IllegalArgumentException("Need at least one role: " + roles);
+        this.roles = roles;
+        return this;
+    }
+
+    /** Length of the longest told subclass chain (default 5, 0 for no class hierarchy). */
+    public SyntheticOntologyGenerator withDepth(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("Depth must not be negative: " + depth);
+        this.depth = depth;
+        return this;
+    }
+
+    /** Existentials per class (default 2). */
+    public SyntheticOntologyGenerator withFanOut(int fanOut) {
+        if (fanOut < 0) throw new IllegalArgumentException("Fan-out must not be negative: " + fanOut);
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /** Length of the longest role inclusion chain (default 0, plain EL). */
+    public SyntheticOntologyGenerator withRoleDepth(int roleDepth) {
+        if (roleDepth < 0) throw new IllegalArgumentException("Role depth must not be negative: " + roleDepth);
+        this.roleDepth = roleDepth;
+        return this;
+    }
+
+    /** Random seed (default 42). */
+    public SyntheticOntologyGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the class count so the ontology has about the given number of axioms, at the fan-out set so far.
+     */
+    public SyntheticOntologyGenerator withAxioms(long axioms) {
+        return withClasses((int) Math.max(1, Math.min(Integer.MAX_VALUE, axioms / (fanOut + 1))));
+    }
+
+    /** The number of classes. */
+    public int classes() {
+        return classes;
+    }
+
+    /** The number of roles. */
+    public int roles() {
+        return roles;
+    }
+
+    /**
+     * The number of axioms {@link #axioms} produces.
+     */
+    public long axiomCount() {
+        long subRoles = roleDepth == 0 ? 0 : roles - levelStart(roles, roleDepth, 1);
+        long subClasses = depth == 0 ? 0 : classes - levelStart(classes, depth, 1);
+        return subRoles + subClasses + (long) classes * fanOut;
+    }
+
+    // first index of a level when n entities are split into depth + 1 levels
+    private static int levelStart(int n, int depth, int level) {
+        return (int) ((long) n * level / (depth + 1));
+    }
+
+    private static int levelOf(int i, int n, int depth) {
+        int level = (int) (((long) i * (depth + 1)) / n);
+        // rounding may put i one level too low or high
+        while (level > 0 && i < levelStart(n, depth, level)) level--;
+        while (level < depth && i >= levelStart(n, depth, level + 1)) level++;
+        return level;
+    }
+
+    // a random entity of the level above
+    private static int parent(int i, int n, int depth, SplittableRandom random) {
+        int level = levelOf(i, n, depth);
+        if (level == 0) return -1;
+        int from = levelStart(n, depth, level - 1);
+        int to = levelStart(n, depth, level);
+        return from + random.nextInt(to - from);
+    }
+
+    private SplittableRandom random(long salt, long i) {
+        // a fixed mix of seed, stream and index, so every entity has its own reproducible stream
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + salt * 0xC2B2AE3D27D4EB4FL + i);
+    }
+
+    /**
+     * Streams the axioms lazily: role inclusions first, then each class's superclass and existentials.
+     *
+     * @param df data factory creating the axioms
+     * @return the axioms, always the same for the same settings
+     */
+    public Stream<OWLAxiom> axioms(OWLDataFactory df) {
+        Stream<OWLAxiom> roleAxioms = roleDepth == 0 ? Stream.empty() : IntStream.range(0, roles).boxed()
+                .flatMap(j -> {
+                    int parent = parent(j, roles, roleDepth, random(1, j));
+                    return parent < 0 ? Stream.empty()
+                            : Stream.of(df.getOWLSubObjectPropertyOfAxiom(role(df, j), role(df, parent)));
+                });
+        Stream<OWLAxiom> classAxioms = IntStream.range(0, classes).boxed()
+                .flatMap(i -> {
+                    SplittableRandom random = random(2, i);
+                    OWLClass subject = cls(df, i);
+                    int parent = depth == 0 ? -1 : parent(i, classes, depth, random);
+                    Stream<OWLAxiom> superClass = parent < 0 ? Stream.empty()
+                            : Stream.of(df.getOWLSubClassOfAxiom(subject, cls(df, parent)));
+                    OWLAxiom[] existentials = new OWLAxiom[fanOut];
+                    for (int k = 0; k < fanOut; k++) {
+                        existentials[k] = df.getOWLSubClassOfAxiom(subject,
+                                df.getOWLObjectSomeValuesFrom(role(df, random.nextInt(roles)), cls(df, random.nextInt(classes))));
+                    }
+                    return Stream.concat(superClass, Stream.of(existentials));
+                });
+        return Stream.concat(roleAxioms, classAxioms);
+    }
+
+    private static OWLClass cls(OWLDataFactory df, int i) {
+        return df.getOWLClass(IRI.create(NAMESPACE, "C" + i));
+    }
+
+    private static OWLObjectProperty role(OWLDataFactory df, int j) {
+        return df.getOWLObjectProperty(IRI.create(NAMESPACE, "r" + j));
+    }
+
+    /**
+     * Creates the ontology in the manager.
+     *
+     * @param manager manager the ontology is created in
+     * @return the ontology
+     * @throws OWLOntologyCreationException if the ontology cannot be created
+     */
+    public OWLOntology create(OWLOntologyManager manager) throws OWLOntologyCreationException {
+        return manager.createOntology(axioms(manager.getOWLDataFactory()), IRI.create(NAMESPACE.substring(0, NAMESPACE.length() - 1)));
+    }
+
+    /**
+     * Streams the ontology to a file in OWL functional syntax, one axiom per line, without
+     * holding more than one class's axioms in memory.
+     *
+     * @param file the output file
+     * @return the number of axioms written
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("Prefix(:=<" + NAMESPACE + ">)\n");
+            out.write("Ontology(<" + NAMESPACE.substring(0, NAMESPACE.length() - 1) + ">\n");
+            long written = 0;
+            if (roleDepth > 0) {
+                for (int j = 0; j < roles; j++) {
+                    int parent = parent(j, roles, roleDepth, random(1, j));
+                    if (parent < 0) continue;
+                    out.write("SubObjectPropertyOf(:r" + j + " :r" + parent + ")\n");
+                    written++;
+                }
+            }
+            StringBuilder line = new StringBuilder(64);
+            for (int i = 0; i < classes; i++) {
+                SplittableRandom random = random(2, i);
+                int parent = depth == 0 ? -1 : parent(i, classes, depth, random);
+                if (parent >= 0) {
+                    out.write("SubClassOf(:C" + i + " :C" + parent + ")\n");
+                    written++;
+                }
+                for (int k = 0; k < fanOut; k++) {
+                    line.setLength(0);
+                    line.append("SubClassOf(:C").append(i).append(" ObjectSomeValuesFrom(:r").append(random.nextInt(roles))
+                            .append(" :C").append(random.nextInt(classes)).append("))\n");
+                    out.append(line);
+                    written++;
+                }
+            }
+            out.write(")\n");
+            return written;
+        }
+    }
+
+    /**
+     * Writes a synthetic ontology. Options: -Dbenchmark.synthetic.axioms (approximate size; or
+     * -Dbenchmark.synthetic.classes, default 1000), -Dbenchmark.synthetic.roles (default 10),
+     * -Dbenchmark.synthetic.depth (default 5), -Dbenchmark.synthetic.fanOut (default 2),
+     * -Dbenchmark.synthetic.roleDepth (default 0) and -Dbenchmark.seed (default 42).
+     * Generate from it with -Dbenchmark.ontology=<file>.
+     *
+     * @param args optional: output file (default `output_HermitReasoner/synthetic.ofn`)
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "output_HermitReasoner/synthetic.ofn");
+        SyntheticOntologyGenerator generator = fromProperties();
+        long start = System.nanoTime();
+        long written = generator.write(file);
+        System.out.println("Synthetic ontology with " + generator.classes() + " classes and " + written
+                + " axioms written to " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * A generator set up from the -Dbenchmark.synthetic.* options, see {@link #main}.
+     */
+    static SyntheticOntologyGenerator fromProperties() {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator()
+                .withRoles(Integer.getInteger("benchmark.synthetic.roles", 10))
+                .withDepth(Integer.getInteger("benchmark.synthetic.depth", 5))
+                .withFanOut(Integer.getInteger("benchmark.synthetic.fanOut", 2))
+                .withRoleDepth(Integer.getInteger("benchmark.synthetic.roleDepth", 0))
+                .withSeed(Long.getLong("benchmark.seed", 42));
+        Long axioms = Long.getLong("benchmark.synthetic.axioms");
+        return axioms != null ? generator.withAxioms(axioms)
+                : generator.withClasses(Integer.getInteger("benchmark.synthetic.classes", 1000));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ValidatorPool hands out one {@link ReasoningValidator} per worker thread.
+ *
+ * Reasoners such as HermiT are not thread-safe, so parallel generation gives every worker
+ * its own classified session instead of sharing one. Each worker classifies the ontology once,
+ * on its first question that is not in the shared {@link EntailmentCache}, and reuses the
+ * session for all groups it processes.
+ */
+public class ValidatorPool implements AutoCloseable {
+
+    private final OWLOntology ontology;
+    private final OWLReasonerFactory reasonerFactory;
+    private final EntailmentCache cache;
+    private final ModuleCache modules;
+    private final ReasonerPool reasoners;
+
+    // every session created so far, so they can all be disposed on close
+    private final Queue<ReasoningValidator> sessions = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ReasoningValidator> perThread = ThreadLocal.withInitial(this::createSession);
+
+    /**
+     * @param ontology        the ontology every session classifies
+     * @param reasonerFactory factory used to create the per-thread reasoners
+     */
+    public ValidatorPool(OWLOntology ontology, OWLReasonerFactory reasonerFactory) {
+        this(ontology, reasonerFactory, null);
+    }
+
+    /**
+     * @param ontology        the ontology every session classifies
+     * @param reasonerFactory factory used to create the per-thread reasoners
+     * @param cache           persistent answers shared by all sessions, or null
+     */
+    public ValidatorPool(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache) {
+        this(ontology, reasonerFactory, cache, null);
+    }
+
+    /**
+     * @param ontology        the ontology every session reasons over
+     * @param reasonerFactory factory used to create the per-thread reasoners
+     * @param cache           persistent answers shared by all sessions, or null
+     * @param modules         modules shared by all sessions instead of classifying the ontology, or null
+     */
+    public ValidatorPool(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache,
+                         ModuleCache modules) {
+        this(ontology, reasonerFactory, cache, modules, null);
+    }
+
+    /**
+     * @param ontology        the ontology every session reasons over
+     * @param reasonerFactory factory used to create the per-thread reasoners
+     * @param cache           persistent answers shared by all sessions, or null
+     * @param modules         modules shared by all sessions instead of classifying the ontology, or null
+     * @param reasoners       pool bounding and reusing the sessions' reasoners, or null
+     */
+    public ValidatorPool(OWLOntology ontology, OWLReasonerFactory reasonerFactory, EntailmentCache cache,
+                         ModuleCache modules, ReasonerPool reasoners) {
+        this.ontology = ontology;
+        this.reasonerFactory = reasonerFactory;
+        this.cache = cache;
+        this.modules = modules;
+        this.reasoners = reasoners;
+    }
+
+    /**
+     * Returns the calling thread's validation session, creating it on first use.
+     */
+    public ReasoningValidator get() {
+        return perThread.get();
+    }
+
+    private ReasoningValidator createSession() {
+        ReasoningValidator session = new ReasoningValidator(ontology, reasonerFactory, cache);
+        if (modules != null) session.withModules(modules);
+        if (reasoners != null) session.withPool(reasoners);
+        sessions.add(session);
+        return session;
+    }
+
+    /**
+     * Returns the number of sessions created so far; each classifies at most once.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Disposes every session created by this pool.
+     */
+    @Override
+    public void close() {
+        ReasoningValidator session;
+        while ((session = sessions.poll()) != null) {
+            session.close();
+        }
+    }
+}
@@ -4,7 +4,11 @@ import org.junit.jupiter.api.Test;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,4 +26,50 @@ public class AxiomFormatterTest {
         assertEquals("A ⊑ B", result.get("symbolic-format"));
         assertTrue(result.get("OWL-format").contains("SubClassOf"));
     }
+
+    @Test
+    void testNestedExpressionsAndFunctionalSyntaxMatchesOwlApi() throws Exception {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLClass A = df.getOWLClass(IRI.create("http://ex.com#A"));
+        OWLClass B = df.getOWLClass(IRI.create("http://ex.com#B"));
+        OWLClass C = df.getOWLClass(IRI.create("http://ex.com/C"));
+        OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("http://ex.com#r"));
+        OWLObjectProperty s = df.getOWLObjectProperty(IRI.create("http://ex.com#s"));
+        OWLNamedIndividual a = df.getOWLNamedIndividual(IRI.create("http://ex.com#a"));
+
+        // A ⊑ ∃r.(B ⊓ ∃s.C), C ⊓ ∃r.B ⊑ A
+        OWLClassExpression nested = df.getOWLObjectSomeValuesFrom(r,
+                df.getOWLObjectIntersectionOf(B, df.getOWLObjectSomeValuesFrom(s, C)));
+        OWLAxiom ax1 = df.getOWLSubClassOfAxiom(A, nested);
+        OWLAxiom ax2 = df.getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(df.getOWLObjectSomeValuesFrom(r, B), C), A);
+
+        AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.EMPTY);
+        assertEquals("A ⊑ ∃r.(B ⊓ ∃s.C)", formatter.symbolic(ax1));
+        // operands in OWL API order, named classes first
+        assertEquals("C ⊓ ∃r.B ⊑ A", formatter.symbolic(ax2));
+        assertEquals("r ⊑ s", formatter.symbolic(df.getOWLSubObjectPropertyOfAxiom(r, s)));
+        assertEquals("a : ∃r.B", formatter.symbolic(df.getOWLClassAssertionAxiom(df.getOWLObjectSomeValuesFrom(r, B), a)));
+
+        List<OWLAxiom> axioms = new ArrayList<>(List.of(ax1, ax2,
+                df.getOWLSubClassOfAxiom(A, df.getOWLThing()),
+                df.getOWLSubClassOfAxiom(A, df.getOWLObjectSomeValuesFrom(df.getOWLObjectInverseOf(r), B)),
+                df.getOWLSubObjectPropertyOfAxiom(r, s),
+                df.getOWLClassAssertionAxiom(nested, a),
+                df.getOWLObjectPropertyAssertionAxiom(r, a, a),
+                df.getOWLEquivalentClassesAxiom(A, nested),
+                df.getOWLSubClassOfAxiom(A, B, Set.of(df.getRDFSComment("annotated")))));
+        OWLOntology pizza = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        pizza.axioms().forEach(axioms::add);
+
+        // rendered twice, the second time from the memoized subexpressions
+        for (int round = 0; round < 2; round++) {
+            for (OWLAxiom axiom : axioms) {
+                assertEquals(axiom.toString(), formatter.functional(axiom));
+                StringBuilder sink = new StringBuilder("> ");
+                formatter.appendFunctional(axiom, sink);
+                assertEquals("> " + axiom, sink.toString());
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+// groupBySubject is deprecated but still covered while it exists
+@SuppressWarnings("deprecation")
 class AxiomGrouperTest {
 
     @Test
@@ -64,4 +66,26 @@ class AxiomGrouperTest {
         // It should be empty since the subclass is anonymous
         assertTrue(grouped.isEmpty(), "Anonymous subclasses should not be grouped");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGroupBySubjectId_ordersByNameAndRejectsForeignDictionary() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory dataFactory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass pizza = dataFactory.getOWLClass(IRI.create("http://example.org/Pizza"));
+        OWLClass margherita = dataFactory.getOWLClass(IRI.create("http://example.org/Margherita"));
+        OWLClass food = dataFactory.getOWLClass(IRI.create("http://example.org/Food"));
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pizza, food));
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(margherita, pizza));
+
+        EntityDictionary names = EntityDictionary.of(ontology);
+        List<List<OWLAxiom>> ordered = AxiomGrouper.inSubjectOrder(AxiomGrouper.groupBySubjectId(ontology, names), names);
+        assertEquals(new ArrayList<>(AxiomGrouper.groupBySubject(ontology).values()), ordered);
+        assertEquals(ordered, AxiomGrouper.inSubjectOrder(ontology));
+
+        // a dictionary of another ontology does not know the subclasses
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> AxiomGrouper.groupBySubjectId(ontology, EntityDictionary.EMPTY));
+        assertTrue(e.getMessage().contains("not in the dictionary"));
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AxiomTextLoaderTest {
+
+    private static final String NS = "http://example.org/pizza-el.owl#";
+
+    @Test
+    void testLoadsPizzaAxiomsInFileOrder() throws Exception {
+        Path file = Path.of("data/pizza_el_axioms.txt");
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        List<OWLAxiom> axioms = AxiomTextLoader.parse(file, NS, df);
+
+        List<String> lines = Files.readAllLines(file).stream().filter(line -> !line.isBlank()).toList();
+        assertEquals(lines.size(), axioms.size());
+        AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.EMPTY);
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.get(i).strip(), formatter.format(axioms.get(i)).get("symbolic-format"));
+        }
+
+        OWLOntology ontology = AxiomTextLoader.load(file, IRI.create("http://example.org/pizza-el.owl"), manager);
+        OWLClass american = df.getOWLClass(IRI.create(NS + "American"));
+        assertTrue(ontology.containsAxiom(df.getOWLSubClassOfAxiom(american,
+                df.getOWLObjectSomeValuesFrom(df.getOWLObjectProperty(IRI.create(NS + "hasTopping")),
+                        df.getOWLClass(IRI.create(NS + "MozzarellaTopping"))))));
+        assertTrue(ontology.containsAxiom(df.getOWLDeclarationAxiom(american)));
+        assertEquals(lines.size(), ontology.getLogicalAxiomCount());
+    }
+
+    @Test
+    void testParsesNestedAndEquivalentAxioms(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("axioms.txt");
+        Files.writeString(file, "# comment\nA ⊑ ∃r.∃s.B\n\nA ≡ C\nB ⊑ Thing\n");
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        String ns = "http://example.org/";
+        OWLClass a = df.getOWLClass(IRI.create(ns + "A"));
+        OWLClass b = df.getOWLClass(IRI.create(ns + "B"));
+        OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(ns + "r"));
+        OWLObjectProperty s = df.getOWLObjectProperty(IRI.create(ns + "s"));
+
+        assertEquals(List.of(
+                df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, df.getOWLObjectSomeValuesFrom(s, b))),
+                df.getOWLEquivalentClassesAxiom(a, df.getOWLClass(IRI.create(ns + "C"))),
+                df.getOWLSubClassOfAxiom(b, df.getOWLThing())), AxiomTextLoader.parse(file, ns, df));
+
+        Files.writeString(file, "A ⊑ ∃r.\n");
+        assertThrows(IllegalArgumentException.class, () -> AxiomTextLoader.parse(file, ns, df));
+    }
+}
@@ -2,9 +2,15 @@ package org.example;
 
 import com.google.gson.*;
 import org.junit.jupiter.api.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
 
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,14 +20,32 @@ class BenchmarkRunnerTest {
 
     private static final String OUTPUT_PATH = "output_HermitReasoner/benchmark_output.json";
 
+    private static final String ELH_OUTPUT_PATH = "output_HermitReasoner/benchmark_output_with_elh.json";
+
+    // the tracked output files, put back after each test so a test run leaves the tree unchanged
+    private final Map<Path, byte[]> saved = new HashMap<>();
+
     @BeforeEach
-    void deletePreviousOutput() {
+    void deletePreviousOutput() throws IOException {
+        for (String path : List.of(OUTPUT_PATH, ELH_OUTPUT_PATH)) {
+            Path file = Path.of(path);
+            if (Files.exists(file)) {
+                saved.put(file, Files.readAllBytes(file));
+            }
+        }
         File file = new File(OUTPUT_PATH);
         if (file.exists()) {
             file.delete();
         }
     }
 
+    @AfterEach
+    void restoreOutput() throws IOException {
+        for (Map.Entry<Path, byte[]> e : saved.entrySet()) {
+            Files.write(e.getKey(), e.getValue());
+        }
+    }
+
     @Test
     void testBenchmarkRunnerGeneratesValidOutput() throws Exception {
         // Run main() – this executes the full pipeline
@@ -50,4 +74,21 @@ class BenchmarkRunnerTest {
                     "'expected' should be either 'Yes' or 'No'");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParallelGenerationMatchesSequential() throws Exception {
+        OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(ontology);
+
+        List<Map<String, Object>> sequential = BenchmarkRunner.generate(ontology, groups, new ELReasonerFactory(), 1);
+        List<Map<String, Object>> parallel = BenchmarkRunner.generate(ontology, groups, new ELReasonerFactory(), 4);
+
+        assertFalse(sequential.isEmpty());
+        // same cases, same order, same stable IDs
+        assertEquals(sequential, parallel);
+        for (int i = 0; i < parallel.size(); i++) {
+            assertEquals("test_" + (i + 1), parallel.get(i).get("id"));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BenchmarkServiceTest {
+
+    private static OWLOntology ontology;
+    private static BenchmarkService service;
+    private static String base;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void start() throws Exception {
+        ontology = OWLManager.createConcurrentOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        service = new BenchmarkService(ontology, new Reasoner.ReasonerFactory(), null, 2);
+        service.warm();
+        base = "http://localhost:" + service.start(new InetSocketAddress("localhost", 0));
+    }
+
+    @AfterAll
+    static void stop() {
+        service.close();
+    }
+
+    private static HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<JsonObject> lines(HttpResponse<String> response) {
+        List<JsonObject> entries = new ArrayList<>();
+        for (String line : response.body().split("\n")) {
+            if (!line.isBlank()) entries.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        return entries;
+    }
+
+    @Test
+    void testGenerateMatchesBatchRun() throws Exception {
+        HttpResponse<String> response = get("/generate?profile=EL&offset=1&limit=3");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+
+        List<JsonObject> served = lines(response);
+        List<Map<String, Object>> batch = BenchmarkRunner.generate(ontology, AxiomGrouper.inSubjectOrder(ontology),
+                new Reasoner.ReasonerFactory(), 1);
+        Gson gson = new Gson();
+        assertEquals(3, served.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(gson.toJsonTree(batch.get(i + 1)), served.get(i));
+        }
+
+        List<JsonObject> elh = lines(get("/generate?profile=elh&limit=2"));
+        assertEquals(2, elh.size());
+        assertEquals("ELH", elh.get(0).get("dl_profile").getAsString());
+        assertEquals("test_1", elh.get(0).get("id").getAsString());
+    }
+
+    @Test
+    void testEntailmentAndExtension() throws Exception {
+        List<JsonObject> answers = lines(post("/entailment",
+                "{\"axioms\": [\"American ⊑ ∃hasTopping.MozzarellaTopping\", \"American ⊑ ∃hasTopping.AnchoviesTopping\"]}"));
+        assertEquals(2, answers.size());
+        assertTrue(answers.get(0).get("entailed").getAsBoolean());
+        assertFalse(answers.get(1).get("entailed").getAsBoolean());
+
+        String generated = get("/generate?limit=1").body();
+        List<JsonObject> extended = lines(post("/extend-elh", generated));
+        assertEquals(1, extended.size());
+        assertEquals("ELH", extended.get(0).get("dl_profile").getAsString());
+        assertTrue(extended.get(0).toString().contains("hasTopping ⊑ superOfHasTopping"));
+        // the same case as generated from the ontology, query over the super role included
+        assertEquals(lines(get("/generate?profile=ELH&limit=1")).get(0), extended.get(0));
+    }
+
+    @Test
+    void testBadRequests() throws Exception {
+        assertEquals(400, get("/generate?profile=SROIQ").statusCode());
+        assertEquals(400, get("/generate?limit=-1").statusCode());
+        assertEquals(400, post("/entailment", "{\"axioms\": [\"not an axiom\"]}").statusCode());
+        assertEquals(405, get("/entailment").statusCode());
+        assertEquals(404, get("/missing").statusCode());
+        JsonObject health = JsonParser.parseString(get("/health").body()).getAsJsonObject();
+        assertEquals("ok", health.get("status").getAsString());
+        assertEquals(2, health.get("workers").getAsInt());
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        get("/generate?limit=2");
+        HttpResponse<String> text = get("/metrics");
+        assertEquals(200, text.statusCode());
+        assertTrue(text.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        assertTrue(text.body().contains("# TYPE benchmark_stage_seconds histogram"));
+        assertTrue(text.body().contains("benchmark_entailment_checks_total{reasoner=\"HermiT\",outcome="));
+
+        JsonObject json = JsonParser.parseString(get("/metrics?format=json").body()).getAsJsonObject();
+        assertFalse(json.getAsJsonArray("histograms").isEmpty());
+        assertEquals(400, get("/metrics?format=xml").statusCode());
+    }
+
+    @Test
+    void testAnswersAreSavedAfterEachRequest(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("entailments.bin");
+        EntailmentCache cache = new EntailmentCache(file, 1000);
+        try (BenchmarkService cached = new BenchmarkService(ontology, new Reasoner.ReasonerFactory(), cache, 1)) {
+            String url = "http://localhost:" + cached.start(new InetSocketAddress("localhost", 0));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/entailment"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"axioms\": [\"American ⊑ ∃hasTopping.MozzarellaTopping\"]}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            // on disk while the service and its cache are still open
+            assertTrue(Files.size(file) > 8);
+        }
+    }
+}
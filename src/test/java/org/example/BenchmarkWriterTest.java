@@ -0,0 +1,59 @@
+package org.example;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BenchmarkWriterTest {
+
+    private static final String TEST_FILE = "test_benchmark_stream.json";
+
+    @Test
+    void testRoundTripInEveryFormat() throws Exception {
+        for (BenchmarkWriter.Format format : BenchmarkWriter.Format.values()) {
+            try (BenchmarkWriter writer = new BenchmarkWriter(TEST_FILE, format)) {
+                for (int i = 1; i <= 3; i++) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("id", "test_" + i);
+                    entry.put("dl_profile", "EL");
+                    entry.put("axioms", List.of(Map.of("symbolic-format", "A" + i + " ⊑ ∃r.B")));
+                    entry.put("expected", "Yes");
+                    writer.write(entry);
+                }
+                assertEquals(3, writer.count());
+            }
+
+            List<JsonObject> read = new ArrayList<>();
+            try (BenchmarkReader reader = new BenchmarkReader(TEST_FILE)) {
+                reader.forEachRemaining(read::add);
+            }
+
+            assertEquals(3, read.size(), "Entries read back in " + format);
+            assertEquals("test_2", read.get(1).get("id").getAsString());
+            assertEquals("A3 ⊑ ∃r.B", read.get(2).getAsJsonArray("axioms").get(0).getAsJsonObject()
+                    .get("symbolic-format").getAsString());
+        }
+    }
+
+    @Test
+    void testNdjsonWritesOneEntryPerLine() throws Exception {
+        try (BenchmarkWriter writer = new BenchmarkWriter(TEST_FILE, BenchmarkWriter.Format.NDJSON)) {
+            writer.write(Map.of("id", "test_1"));
+            writer.write(Map.of("id", "test_2"));
+        }
+
+        List<String> lines = Files.readAllLines(Path.of(TEST_FILE));
+        assertEquals(List.of("{\"id\":\"test_1\"}", "{\"id\":\"test_2\"}"), lines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new File(TEST_FILE).delete();
+    }
+}
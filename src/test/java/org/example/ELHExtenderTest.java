@@ -2,6 +2,11 @@ package org.example;
 
 import com.google.gson.*;
 import org.junit.jupiter.api.*;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
@@ -63,6 +68,89 @@ class ELHExtenderTest {
         assertTrue(foundRoleHierarchy, "Expected role hierarchy axiom was not found");
     }
 
+    @Test
+    void testSemanticExtensionQueriesSuperRoleAndMatchesExtendedOntology() throws Exception {
+        String ns = "http://example.org/";
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass car = df.getOWLClass(IRI.create(ns + "Car"));
+        OWLClass engine = df.getOWLClass(IRI.create(ns + "Engine"));
+        OWLClass wheel = df.getOWLClass(IRI.create(ns + "Wheel"));
+        OWLObjectProperty hasPart = df.getOWLObjectProperty(IRI.create(ns + "hasPart"));
+        OWLObjectProperty drives = df.getOWLObjectProperty(IRI.create(ns + "drives"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(car, df.getOWLObjectSomeValuesFrom(hasPart, engine)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(engine, df.getOWLObjectSomeValuesFrom(drives, wheel)));
+
+        ELHExtender extender = new ELHExtender(ontology);
+        List<OWLAxiom> told = List.of(df.getOWLSubClassOfAxiom(car, df.getOWLObjectSomeValuesFrom(hasPart, engine)));
+        // not entailed: wheels have no engine
+        List<OWLAxiom> wrong = List.of(df.getOWLSubClassOfAxiom(wheel, df.getOWLObjectSomeValuesFrom(hasPart, engine)));
+        ELHExtender.Extension yes = extender.extend(told);
+        ELHExtender.Extension no = extender.extend(wrong);
+
+        OWLObjectProperty superOfHasPart = df.getOWLObjectProperty(IRI.create(ns + "superOfHasPart"));
+        assertEquals(df.getOWLSubClassOfAxiom(car, df.getOWLObjectSomeValuesFrom(superOfHasPart, engine)), yes.query());
+        assertTrue(yes.axioms().contains(df.getOWLSubObjectPropertyOfAxiom(hasPart, superOfHasPart)));
+        assertEquals(1, extender.delta().getAxiomCount());
+
+        // the answers from the base ontology are those of base + delta
+        OWLOntology extended = OWLManager.createOWLOntologyManager().createOntology(
+                java.util.stream.Stream.concat(ontology.axioms(), extender.delta().axioms()));
+        OWLReasoner reasoner = new Reasoner.ReasonerFactory().createReasoner(extended);
+        AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.of(ontology));
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            for (ELHExtender.Extension extension : List.of(yes, no)) {
+                Map<String, Object> entry = ELHExtender.createTestCase("test_1", extension, formatter, validator);
+                assertEquals("ELH", entry.get("dl_profile"));
+                assertEquals(reasoner.isEntailed(extension.query()) ? "Yes" : "No", entry.get("expected"));
+            }
+            assertEquals("Does every Car have superOfHasPart.Engine?",
+                    ELHExtender.createTestCase("test_1", yes, formatter, validator).get("query"));
+        } finally {
+            reasoner.dispose();
+        }
+        try (ReasoningValidator validator = new ReasoningValidator(extended)) {
+            assertTrue(validator.isEntailed(yes.query()));
+            assertFalse(validator.isEntailed(no.query()));
+        }
+    }
+
+    @Test
+    void testSuperRoleNameIsFresh() throws Exception {
+        String ns = "http://example.org/";
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLObjectProperty hasPart = df.getOWLObjectProperty(IRI.create(ns + "hasPart"));
+        // a class already uses the name the super role of hasPart would get
+        OWLClass taken = df.getOWLClass(IRI.create(ns + "superOfHasPart"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(taken, df.getOWLObjectSomeValuesFrom(hasPart, df.getOWLThing())));
+
+        ELHExtender extender = new ELHExtender(ontology);
+        assertEquals(IRI.create(ns + "superOfHasPart2"), extender.superRole(hasPart).getIRI());
+        assertEquals(extender.superRole(hasPart), extender.superRole(hasPart));
+        // HasPart would get the same name, so it gets the next one
+        OWLObjectProperty capitalized = df.getOWLObjectProperty(IRI.create(ns + "HasPart"));
+        assertEquals(IRI.create(ns + "superOfHasPart3"), extender.superRole(capitalized).getIRI());
+    }
+
+    @Test
+    void testSuperRoleNameDoesNotDependOnTheLocale() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLObjectProperty isPartOf = df.getOWLObjectProperty(IRI.create("http://example.org/isPartOf"));
+        ELHExtender extender = new ELHExtender(manager.createOntology());
+        Locale locale = Locale.getDefault();
+        try {
+            // in Turkish, "i".toUpperCase() is a dotted capital I
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertEquals(IRI.create("http://example.org/superOfIsPartOf"), extender.superRole(isPartOf).getIRI());
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
     @AfterEach
     void tearDown() {
         new File(TEST_INPUT_FILE).delete();
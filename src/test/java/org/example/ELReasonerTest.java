@@ -0,0 +1,114 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ELReasonerTest {
+
+    private static final String NS = "http://example.org/";
+
+    @Test
+    void testExistentialEntailmentThroughRoleAndClassHierarchy() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+        OWLClass cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        OWLClass cheesy = df.getOWLClass(IRI.create(NS + "CheesyPizza"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        OWLObjectProperty hasIngredient = df.getOWLObjectProperty(IRI.create(NS + "hasIngredient"));
+
+        // Margherita ⊑ ∃hasTopping.Mozzarella, Mozzarella ⊑ Cheese, hasTopping ⊑ hasIngredient,
+        // ∃hasIngredient.Cheese ⊑ CheesyPizza
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(mozzarella, cheese));
+        manager.addAxiom(ontology, df.getOWLSubObjectPropertyOfAxiom(hasTopping, hasIngredient));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(hasIngredient, cheese), cheesy));
+
+        OWLReasoner reasoner = new ELReasonerFactory().createReasoner(ontology);
+        try {
+            assertTrue(reasoner.isEntailed(df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasIngredient, cheese))));
+            assertTrue(reasoner.isEntailed(df.getOWLSubClassOfAxiom(margherita, cheesy)));
+            assertTrue(reasoner.isEntailed(df.getOWLSubObjectPropertyOfAxiom(hasTopping, hasIngredient)));
+            assertFalse(reasoner.isEntailed(df.getOWLSubClassOfAxiom(cheese, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella))));
+            assertFalse(reasoner.isEntailed(df.getOWLSubObjectPropertyOfAxiom(hasIngredient, hasTopping)));
+
+            // complex subclass: ∃hasTopping.Mozzarella ⊑ CheesyPizza
+            assertTrue(reasoner.isEntailed(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella), cheesy)));
+            assertTrue(reasoner.getSuperClasses(margherita, true).containsEntity(cheesy));
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    @Test
+    void testTransitiveRoleAndUnsatisfiableClass() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+        OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+        OWLClass c = df.getOWLClass(IRI.create(NS + "C"));
+        OWLClass d = df.getOWLClass(IRI.create(NS + "D"));
+        OWLObjectProperty partOf = df.getOWLObjectProperty(IRI.create(NS + "partOf"));
+
+        // A ⊑ ∃partOf.B, B ⊑ ∃partOf.C, partOf transitive, C ⊓ D ⊑ ⊥, D ⊑ C ... so D is unsatisfiable
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(partOf, b)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(b, df.getOWLObjectSomeValuesFrom(partOf, c)));
+        manager.addAxiom(ontology, df.getOWLTransitiveObjectPropertyAxiom(partOf));
+        manager.addAxiom(ontology, df.getOWLDisjointClassesAxiom(c, d));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(d, c));
+
+        OWLReasoner reasoner = new ELReasonerFactory().createReasoner(ontology);
+        try {
+            assertTrue(reasoner.isEntailed(df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(partOf, c))));
+            assertFalse(reasoner.isSatisfiable(d));
+            assertTrue(reasoner.getUnsatisfiableClasses().contains(d));
+            assertTrue(reasoner.isConsistent());
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    @Test
+    void testAgreesWithHermitOnPizzaOntology() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+
+        OWLReasoner el = new ELReasonerFactory().createReasoner(ontology);
+        OWLReasoner hermit = new Reasoner.ReasonerFactory().createReasoner(ontology);
+        try {
+            List<OWLClass> classes = ontology.classesInSignature().sorted().toList();
+            List<OWLObjectProperty> properties = ontology.objectPropertiesInSignature().sorted().toList();
+
+            for (OWLClass sub : classes) {
+                assertEquals(hermit.getSuperClasses(sub, false).entities().collect(Collectors.toSet()),
+                        el.getSuperClasses(sub, false).entities().collect(Collectors.toSet()),
+                        "Superclasses of " + sub);
+                // sample existential entailments A ⊑ ∃r.B over every property and a few fillers
+                for (OWLObjectProperty prop : properties) {
+                    for (OWLClass filler : classes.subList(0, Math.min(10, classes.size()))) {
+                        OWLAxiom query = df.getOWLSubClassOfAxiom(sub, df.getOWLObjectSomeValuesFrom(prop, filler));
+                        assertEquals(hermit.isEntailed(query), el.isEntailed(query), "Entailment of " + query);
+                    }
+                }
+            }
+        } finally {
+            el.dispose();
+            hermit.dispose();
+        }
+    }
+}
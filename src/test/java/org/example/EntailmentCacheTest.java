@@ -0,0 +1,111 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntailmentCacheTest {
+
+    private static final String NS = "http://example.org/";
+
+    @Test
+    void testAnswersSurviveReopenAndLeastRecentlyUsedAreEvicted(@TempDir Path dir) throws Exception {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLAxiom a = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "A")), df.getOWLClass(IRI.create(NS + "B")));
+        OWLAxiom b = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "B")), df.getOWLClass(IRI.create(NS + "C")));
+        OWLAxiom c = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "C")), df.getOWLClass(IRI.create(NS + "D")));
+        Path file = dir.resolve("cache.bin");
+
+        try (EntailmentCache cache = new EntailmentCache(file, 2)) {
+            cache.put("h", "r", a, true);
+            cache.put("h", "r", b, false);
+            assertEquals(Boolean.TRUE, cache.get("h", "r", a));
+            // b is now the least recently used entry
+            cache.put("h", "r", c, true);
+            assertNull(cache.get("h", "r", b));
+            assertEquals(1, cache.evictions());
+            // another ontology or reasoner never sees these answers
+            assertNull(cache.get("other", "r", a));
+            assertNull(cache.get("h", "other", a));
+            assertEquals(1, cache.hits());
+            assertEquals(3, cache.misses());
+        }
+
+        try (EntailmentCache cache = new EntailmentCache(file, 2)) {
+            assertEquals(2, cache.size());
+            assertEquals(Boolean.TRUE, cache.get("h", "r", a));
+            assertEquals(Boolean.TRUE, cache.get("h", "r", c));
+            assertNull(cache.get("h", "r", b));
+        }
+    }
+
+    @Test
+    void testCachedSessionDoesNotClassifyOnRerun(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        OWLAxiom yes = df.getOWLSubClassOfAxiom(margherita, pizza);
+        OWLAxiom no = df.getOWLSubClassOfAxiom(pizza, margherita);
+
+        AtomicInteger created = new AtomicInteger();
+        ELReasonerFactory factory = new ELReasonerFactory() {
+            @Override
+            public OWLReasoner createReasoner(OWLOntology o) {
+                created.incrementAndGet();
+                return super.createReasoner(o);
+            }
+        };
+
+        Path file = dir.resolve("cache.bin");
+        for (int run = 0; run < 2; run++) {
+            try (EntailmentCache cache = new EntailmentCache(file, 100);
+                 ReasoningValidator validator = new ReasoningValidator(ontology, factory, cache)) {
+                assertTrue(validator.isEntailed(yes));
+                assertFalse(validator.isEntailed(no));
+            }
+        }
+        // only the first run needed a reasoner
+        assertEquals(1, created.get());
+
+        // an edited ontology has another hash, so the answers are computed again
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, margherita));
+        try (EntailmentCache cache = new EntailmentCache(file, 100);
+             ReasoningValidator validator = new ReasoningValidator(ontology, factory, cache)) {
+            assertTrue(validator.isEntailed(no));
+            assertEquals(0, cache.hits());
+        }
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void testOpenCacheIsNotSharedAndUnversionedReasonersGetABuildId(@TempDir Path dir) throws Exception {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLAxiom a = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "A")), df.getOWLClass(IRI.create(NS + "B")));
+        Path file = dir.resolve("cache.bin");
+
+        try (EntailmentCache cache = new EntailmentCache(file, 100)) {
+            cache.put("h", "r", a, true);
+            cache.flush();
+            // a second cache on the same file could overwrite the first one's answers
+            assertThrows(IOException.class, () -> new EntailmentCache(file, 100));
+        }
+        try (EntailmentCache cache = new EntailmentCache(file, 100)) {
+            assertEquals(Boolean.TRUE, cache.get("h", "r", a));
+        }
+
+        String id = EntailmentCache.reasonerId(new ELReasonerFactory());
+        assertFalse(id.endsWith("unversioned"), id);
+        assertEquals(id, EntailmentCache.reasonerId(new ELReasonerFactory()));
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityDictionaryTest {
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDenseIdsAndIdKeyedGrouping() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass margherita = df.getOWLClass(IRI.create("http://example.org/Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create("http://example.org#Pizza"));
+        OWLClass cheese = df.getOWLClass(IRI.create("http://example.org/Cheese"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create("http://example.org/hasTopping"));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, cheese)));
+
+        EntityDictionary names = EntityDictionary.of(ontology);
+        assertEquals(4, names.size());
+        for (int id = 0; id < names.size(); id++) {
+            assertEquals(id, names.id(names.entity(id)));
+        }
+        assertEquals("Pizza", names.shortForm(pizza));
+        assertEquals("Margherita", names.shortForm(names.id(margherita)));
+        // unknown entities have no ID but still get a name
+        OWLClass fresh = df.getOWLClass(IRI.create("http://example.org/Fresh"));
+        assertEquals(-1, names.id(fresh));
+        assertEquals("Fresh", names.shortForm(fresh));
+
+        List<OWLAxiom>[] byId = AxiomGrouper.groupBySubjectId(ontology, names);
+        assertEquals(2, byId[names.id(margherita)].size());
+        assertNull(byId[names.id(pizza)]);
+
+        Map<String, List<OWLAxiom>> byName = AxiomGrouper.groupBySubject(ontology, names);
+        assertEquals(byId[names.id(margherita)], byName.get("Margherita"));
+        // the query uses the short form of slash IRIs too
+        assertEquals("Does every Margherita have hasTopping.Cheese?",
+                QueryGenerator.generateQuery(byName.get("Margherita"), names));
+    }
+}
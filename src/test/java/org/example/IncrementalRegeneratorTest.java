@@ -0,0 +1,132 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalRegeneratorTest {
+
+    private static final String NS = "http://example.org/pizza-el.owl#";
+
+    @Test
+    void testRegenerationAfterEditsMatchesFullGeneration() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+
+        try (IncrementalRegenerator regenerator = new IncrementalRegenerator(ontology, new ELReasonerFactory())) {
+            List<JsonObject> first = new ArrayList<>();
+            regenerator.regenerate(first::add);
+            assertEquals(fullGeneration(ontology), toArray(first));
+            assertEquals(0, regenerator.reusedCount());
+
+            // AnchoviesTopping ⊑ ∃hasSpiciness.Hot, plus a new subject group
+            OWLObjectProperty hasSpiciness = df.getOWLObjectProperty(IRI.create(NS + "hasSpiciness"));
+            OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "AnchoviesTopping")),
+                    df.getOWLObjectSomeValuesFrom(hasSpiciness, df.getOWLClass(IRI.create(NS + "Hot")))));
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "AnchovyPizza")),
+                    df.getOWLObjectSomeValuesFrom(hasTopping, df.getOWLClass(IRI.create(NS + "AnchoviesTopping")))));
+
+            List<JsonObject> second = new ArrayList<>();
+            regenerator.regenerate(second::add);
+            assertEquals(fullGeneration(ontology), toArray(second));
+            // both subjects now have a target axiom
+            assertEquals(first.size() + 2, second.size());
+            // only the groups that can reach the edited classes are validated again
+            assertTrue(regenerator.reusedCount() > 0);
+            assertTrue(regenerator.regeneratedCount() < second.size());
+
+            // nothing changed since: everything is reused
+            regenerator.regenerate(entry -> { });
+            assertEquals(0, regenerator.regeneratedCount());
+        }
+    }
+
+    @Test
+    void testMetamorphicVariantsAreReusedByBaseId(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        Set<MetamorphicExpander.Relation> mr = Set.of(MetamorphicExpander.Relation.MR_1, MetamorphicExpander.Relation.MR_9);
+
+        // a previous run with -Dbenchmark.mr=MR-1,MR-9: test_N_mr1 and test_N_mr9, no test_N
+        Map<String, List<OWLAxiom>> groups = IncrementalRegenerator.subjectGroups(ontology);
+        Path output = dir.resolve("benchmark_output.json");
+        List<Map<String, Object>> cases = new ArrayList<>();
+        BenchmarkRunner.generate(ontology, groups.values(), new ELReasonerFactory(), null, null, null,
+                new MetamorphicExpander(ontology, new ELReasonerFactory(), mr, null), 1, null, cases::add);
+        try (BenchmarkWriter writer = new BenchmarkWriter(output.toString(), BenchmarkWriter.Format.NDJSON)) {
+            for (Map<String, Object> entry : cases) writer.write(entry);
+        }
+        Map<String, List<JsonObject>> previous = IncrementalRegenerator.readEntries(output.toString(), groups);
+        assertTrue(previous.values().stream().allMatch(entries -> entries.size() == 2));
+
+        try (IncrementalRegenerator regenerator = new IncrementalRegenerator(ontology, new ELReasonerFactory(), groups, previous)) {
+            OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "AnchovyPizza")),
+                    df.getOWLObjectSomeValuesFrom(hasTopping, df.getOWLClass(IRI.create(NS + "AnchoviesTopping")))));
+            regenerator.withRelations(new MetamorphicExpander(ontology, new ELReasonerFactory(), mr, null));
+
+            List<JsonObject> next = new ArrayList<>();
+            regenerator.regenerate(next::add);
+            List<Map<String, Object>> full = new ArrayList<>();
+            BenchmarkRunner.generate(ontology, AxiomGrouper.inSubjectOrder(ontology), new ELReasonerFactory(), null, null, null,
+                    new MetamorphicExpander(ontology, new ELReasonerFactory(), mr, null), 1, null, full::add);
+            assertEquals(new Gson().toJsonTree(full), toArray(next));
+            assertTrue(regenerator.reusedCount() > 0);
+
+            // another set of relations: nothing can be reused
+            regenerator.withRelations(null);
+            regenerator.regenerate(entry -> { });
+            assertEquals(0, regenerator.reusedCount());
+        }
+    }
+
+    @Test
+    void testClassesSharingAShortFormMatchFullGeneration() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+
+        try (IncrementalRegenerator regenerator = new IncrementalRegenerator(ontology, new ELReasonerFactory())) {
+            List<JsonObject> first = new ArrayList<>();
+            regenerator.regenerate(first::add);
+
+            // another American, in another namespace: its own group and test case, not merged into pizza-el's
+            OWLClass american = df.getOWLClass(IRI.create("http://example.org/menu#American"));
+            OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(american,
+                    df.getOWLObjectSomeValuesFrom(hasTopping, df.getOWLClass(IRI.create(NS + "AnchoviesTopping")))));
+
+            List<JsonObject> next = new ArrayList<>();
+            regenerator.regenerate(next::add);
+            assertEquals(fullGeneration(ontology), toArray(next));
+            assertEquals(first.size() + 1, next.size());
+        }
+    }
+
+    private static JsonArray fullGeneration(OWLOntology ontology) throws Exception {
+        return new Gson().toJsonTree(BenchmarkRunner.generate(ontology, AxiomGrouper.inSubjectOrder(ontology),
+                new ELReasonerFactory(), 1)).getAsJsonArray();
+    }
+
+    private static JsonArray toArray(List<JsonObject> entries) {
+        JsonArray array = new JsonArray();
+        entries.forEach(array::add);
+        return array;
+    }
+}
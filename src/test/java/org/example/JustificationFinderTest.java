@@ -0,0 +1,116 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JustificationFinderTest {
+
+    private static final String NS = "http://example.org/";
+
+    private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    private final OWLDataFactory df = manager.getOWLDataFactory();
+    private final OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+    private final OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+    private final OWLClass namedPizza = df.getOWLClass(IRI.create(NS + "NamedPizza"));
+    private final OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+    private final OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+
+    private final OWLAxiom margheritaPizza = df.getOWLSubClassOfAxiom(margherita, pizza);
+    private final OWLAxiom pizzaTopping = df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+    private final OWLAxiom margheritaNamed = df.getOWLSubClassOfAxiom(margherita, namedPizza);
+    private final OWLAxiom namedTopping = df.getOWLSubClassOfAxiom(namedPizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+    private final OWLAxiom target = df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+
+    // Margherita ⊑ ∃hasTopping.Mozzarella is asserted and follows along two more paths
+    private OWLOntology ontology() throws OWLOntologyCreationException {
+        OWLOntology ontology = manager.createOntology();
+        manager.addAxioms(ontology, Set.of(target, margheritaPizza, pizzaTopping, margheritaNamed, namedTopping,
+                df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "Wine")), df.getOWLClass(IRI.create(NS + "Drink")))));
+        return ontology;
+    }
+
+    @Test
+    void testFindsAllJustifications() throws Exception {
+        OWLOntology ontology = ontology();
+        try (JustificationFinder finder = new JustificationFinder(ontology, new Reasoner.ReasonerFactory(), null, 0, 10)) {
+            JustificationFinder.Result result = finder.justify(target);
+            assertTrue(result.complete());
+            assertEquals(Set.of(Set.of(target), Set.of(margheritaPizza, pizzaTopping), Set.of(margheritaNamed, namedTopping)),
+                    Set.copyOf(result.justifications()));
+            assertEquals(Set.of(target), result.justifications().get(0), "smallest first");
+            assertEquals(1, result.minSize());
+            assertEquals(2, result.maxSize());
+
+            // an inferred entailment, and one that does not hold
+            OWLAxiom inferred = df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, df.getOWLThing()));
+            assertEquals(3, finder.justify(inferred).justifications().size());
+            JustificationFinder.Result none = finder.justify(df.getOWLSubClassOfAxiom(pizza, namedPizza));
+            assertTrue(none.complete());
+            assertTrue(none.justifications().isEmpty());
+        }
+    }
+
+    @Test
+    void testLimitsMarkTheResultIncomplete() throws Exception {
+        OWLOntology ontology = ontology();
+        try (JustificationFinder finder = new JustificationFinder(ontology, new ELReasonerFactory(), null, 0, 1)) {
+            JustificationFinder.Result result = finder.justify(target);
+            assertFalse(result.complete());
+            assertEquals(1, result.justifications().size());
+            assertEquals(1L, finder.stats().get("incomplete"));
+        }
+    }
+
+    @Test
+    void testResultsAreCachedAcrossRuns(@TempDir Path dir) throws Exception {
+        OWLOntology ontology = ontology();
+        Path file = dir.resolve("justifications.ndjson");
+        List<Set<OWLAxiom>> first;
+        try (JustificationFinder finder = new JustificationFinder(ontology, new ELReasonerFactory(), null, 0, 10).withCache(file)) {
+            first = finder.justify(target).justifications();
+            assertEquals(1L, finder.stats().get("searches"));
+        }
+        try (JustificationFinder finder = new JustificationFinder(ontology, new ELReasonerFactory(), null, 0, 10).withCache(file)) {
+            JustificationFinder.Result cached = finder.justify(target);
+            assertEquals(first, cached.justifications());
+            assertEquals(0L, finder.stats().get("searches"));
+            assertEquals(1L, finder.stats().get("cached"));
+        }
+        // another reasoner does not reuse the answers
+        try (JustificationFinder finder = new JustificationFinder(ontology, new Reasoner.ReasonerFactory(), null, 0, 10).withCache(file)) {
+            finder.justify(target);
+            assertEquals(1L, finder.stats().get("searches"));
+        }
+    }
+
+    @Test
+    void testParallelSearchMatchesSequential() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        List<OWLAxiom> targets = AxiomGrouper.inSubjectOrder(ontology).stream()
+                .map(QueryGenerator::getQueryAxiom)
+                .filter(Objects::nonNull)
+                .limit(20)
+                .toList();
+        ModuleCache modules = new ModuleCache(ontology, 64);
+        List<JustificationFinder.Result> sequential = new JustificationFinder(ontology, new ELReasonerFactory(), modules, 0, 10)
+                .justifyAll(targets, 1);
+        List<JustificationFinder.Result> parallel = new JustificationFinder(ontology, new ELReasonerFactory(), modules, 0, 10)
+                .justifyAll(targets, 4);
+        for (int i = 0; i < targets.size(); i++) {
+            assertEquals(targets.get(i), parallel.get(i).entailment());
+            assertEquals(Set.copyOf(sequential.get(i).justifications()), Set.copyOf(parallel.get(i).justifications()));
+            // an asserted axiom justifies itself
+            assertTrue(parallel.get(i).justifications().contains(Set.of(targets.get(i))));
+        }
+    }
+}
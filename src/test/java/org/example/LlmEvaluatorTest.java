@@ -0,0 +1,196 @@
+package org.example;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmEvaluatorTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MockLlmServer mock;
+
+    @AfterEach
+    void stop() {
+        if (mock != null) mock.close();
+    }
+
+    // n EL test cases, expected Yes for even IDs
+    private static Path benchmark(Path dir, int n) throws IOException {
+        Path file = dir.resolve("benchmark_output.json");
+        try (BenchmarkWriter writer = new BenchmarkWriter(file.toString(), BenchmarkWriter.Format.PRETTY)) {
+            for (int i = 1; i <= n; i++) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", "test_" + i);
+                entry.put("dl_profile", "EL");
+                entry.put("axioms", List.of(Map.of("symbolic-format", "Pizza" + i + " ⊑ Food", "OWL-format", "")));
+                entry.put("query", "Is Pizza" + i + " a Food?");
+                entry.put("expected", i % 2 == 0 ? "Yes" : "No");
+                writer.write(entry);
+            }
+        }
+        return file;
+    }
+
+    private static List<JsonObject> results(Path file) throws IOException {
+        List<JsonObject> results = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            results.add(JsonParser.parseString(line).getAsJsonObject());
+        }
+        return results;
+    }
+
+    private URI start() throws IOException {
+        return URI.create("http://localhost:" + mock.start(new InetSocketAddress("localhost", 0)));
+    }
+
+    @Test
+    void testConcurrentRequestsAreBoundedAndResultsAppended(@TempDir Path dir) throws Exception {
+        mock = new MockLlmServer(prompt -> "Yes", 40);
+        LlmBackend backend = new LlmBackend.Ollama(client, start(), Duration.ofSeconds(10));
+        Path output = dir.resolve("results_mock_el.ndjson");
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            LlmEvaluator.Summary summary = evaluator.evaluate(benchmark(dir, 40), output, "mock", new LlmEvaluator.Endpoint(backend, 6, 0));
+            assertEquals(40, summary.answered());
+            assertEquals(20, summary.correct());
+            assertEquals(20, summary.falsePositives().size());
+            assertEquals("test_1", summary.falsePositives().get(0));
+            assertTrue(summary.falseNegatives().isEmpty());
+        }
+        assertEquals(40, mock.requests());
+        assertTrue(mock.maxConcurrent() > 1, "requests overlap");
+        assertTrue(mock.maxConcurrent() <= 6, "at most 6 in flight, was " + mock.maxConcurrent());
+
+        List<JsonObject> results = results(output);
+        assertEquals(40, results.size());
+        JsonObject first = results.stream().filter(r -> r.get("id").getAsString().equals("test_2")).findFirst().orElseThrow();
+        assertEquals(List.of("id", "mr", "dl_profile", "query", "expected", "llm", "llm_answer", "match"), List.copyOf(first.keySet()));
+        assertEquals("Yes", first.get("match").getAsString());
+        assertEquals("mock", first.get("llm").getAsString());
+    }
+
+    @Test
+    void testBatchesAndResume(@TempDir Path dir) throws Exception {
+        mock = new MockLlmServer(prompt -> prompt.contains("Pizza3 ") ? "No" : "Yes", 0);
+        LlmBackend backend = new LlmBackend.OpenAi(client, start(), "key", 8, Duration.ofSeconds(10));
+        Path input = benchmark(dir, 20);
+        Path output = dir.resolve("results_mock_el.ndjson");
+
+        // an earlier run wrote two results and died in the middle of the third
+        List<String> earlier = List.of(
+                "{\"id\":\"test_1\",\"mr\":\"\",\"dl_profile\":\"EL\",\"query\":\"q\",\"expected\":\"No\",\"llm\":\"mock\",\"llm_answer\":\"No\",\"match\":\"Yes\"}",
+                "{\"id\":\"test_2\",\"mr\":\"\",\"dl_profile\":\"EL\",\"query\":\"q\",\"expected\":\"Yes\",\"llm\":\"mock\",\"llm_answer\":\"Yes\",\"match\":\"Yes\"}");
+        Files.writeString(output, String.join("\n", earlier) + "\n{\"id\":\"test_3\",\"mr", StandardCharsets.UTF_8);
+
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            LlmEvaluator.Endpoint endpoint = new LlmEvaluator.Endpoint(backend, 2, 0);
+            LlmEvaluator.Summary summary = evaluator.evaluate(input, output, "mock", endpoint);
+            assertEquals(2, summary.resumed());
+            assertEquals(18, summary.answered());
+            // 18 prompts in batches of 8
+            assertEquals(3, mock.requests());
+            assertEquals(18, mock.prompts());
+
+            assertEquals(0, evaluator.evaluate(input, output, "mock", endpoint).answered());
+        }
+        List<JsonObject> results = results(output);
+        assertEquals(20, results.size());
+        assertEquals(20, results.stream().map(r -> r.get("id").getAsString()).distinct().count());
+        // answers are matched to their prompts, whatever order the choices come in
+        JsonObject third = results.stream().filter(r -> r.get("id").getAsString().equals("test_3")).findFirst().orElseThrow();
+        assertEquals("No", third.get("llm_answer").getAsString());
+        assertEquals("Yes", third.get("match").getAsString());
+    }
+
+    @Test
+    void testRetriesAndRateLimit(@TempDir Path dir) throws Exception {
+        mock = new MockLlmServer(prompt -> "Yes", 0).failFirst(2);
+        LlmBackend backend = new LlmBackend.Ollama(client, start(), Duration.ofSeconds(10));
+        Path output = dir.resolve("results.ndjson");
+        long start = System.nanoTime();
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            // 10 requests per second, retried after 10 ms, 20 ms
+            LlmEvaluator.Endpoint endpoint = new LlmEvaluator.Endpoint(backend, 4, 10, 3, 10);
+            LlmEvaluator.Summary summary = evaluator.evaluate(benchmark(dir, 6), output, "mock", endpoint);
+            assertEquals(6, summary.answered());
+            assertEquals(0, summary.failed());
+            assertEquals(8, endpoint.requests());
+            assertEquals(2, endpoint.failures());
+        }
+        // 8 request starts, 100 ms apart
+        assertTrue(System.nanoTime() - start >= 650_000_000L, "rate limited");
+
+        // a query whose backend keeps failing is not written, so the next run asks it again
+        mock.failFirst(2);
+        Path failing = dir.resolve("failing.ndjson");
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            LlmEvaluator.Endpoint endpoint = new LlmEvaluator.Endpoint(backend, 1, 0, 2, 1);
+            LlmEvaluator.Summary summary = evaluator.evaluate(benchmark(dir, 1), failing, "mock", endpoint);
+            assertEquals(1, summary.failed());
+            assertEquals(0, summary.answered());
+            assertTrue(results(failing).isEmpty());
+
+            summary = evaluator.evaluate(benchmark(dir, 1), failing, "mock", endpoint);
+            assertEquals(0, summary.resumed());
+            assertEquals(1, summary.answered());
+        }
+        assertEquals("Yes", results(failing).get(0).get("llm_answer").getAsString());
+    }
+
+    @Test
+    void testUnknownCasesAreNotAsked(@TempDir Path dir) throws Exception {
+        mock = new MockLlmServer(prompt -> "Yes", 0);
+        LlmBackend backend = new LlmBackend.Ollama(client, start(), Duration.ofSeconds(10));
+        Path input = dir.resolve("benchmark_output.json");
+        try (BenchmarkWriter writer = new BenchmarkWriter(input.toString(), BenchmarkWriter.Format.NDJSON)) {
+            for (String expected : List.of("Yes", "Unknown", "No")) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", "test_" + expected);
+                entry.put("dl_profile", "EL");
+                entry.put("axioms", List.of(Map.of("symbolic-format", "A ⊑ B", "OWL-format", "")));
+                entry.put("query", "Is A a B?");
+                entry.put("expected", expected);
+                writer.write(entry);
+            }
+        }
+        Path output = dir.resolve("results.ndjson");
+        try (LlmEvaluator evaluator = new LlmEvaluator()) {
+            LlmEvaluator.Summary summary = evaluator.evaluate(input, output, "mock", new LlmEvaluator.Endpoint(backend, 1, 0));
+            assertEquals(2, summary.answered());
+            assertEquals(1, summary.correct());
+        }
+        assertEquals(2, mock.prompts());
+        assertEquals(List.of("test_Yes", "test_No"), results(output).stream().map(r -> r.get("id").getAsString()).sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    void testPromptMatchesPythonEvaluator() {
+        JsonObject entry = JsonParser.parseString("{\"dl_profile\": \"ELH\", \"query\": \"Is A a B?\","
+                + " \"axioms\": [{\"symbolic-format\": \"A ⊑ B\"}, {\"symbolic-format\": \"r ⊑ s\"}]}").getAsJsonObject();
+        assertEquals("""
+                Given the following logical axioms written in Description Logic ELH (extended with role hierarchies and existential quantifiers):
+
+                - A ⊑ B
+                - r ⊑ s
+
+                Answer the following question as truthfully as possible:
+                Is A a B?
+
+                Reply only with "Yes" or "No", and do not explain your answer.""", LlmEvaluator.buildPrompt(entry));
+        assertTrue(LlmEvaluator.matches("Yes", " yes\n"));
+        assertFalse(LlmEvaluator.matches("Yes", "Yes."));
+    }
+}
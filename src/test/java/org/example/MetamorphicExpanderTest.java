@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetamorphicExpanderTest {
+
+    private static final String NS = "http://example.org/";
+
+    private static OWLOntology pizza;
+
+    @BeforeAll
+    static void load() throws Exception {
+        pizza = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+    }
+
+    @Test
+    void testEveryCaseIsExpandedIntoItsVariants() throws Exception {
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(pizza);
+        List<Map<String, Object>> base = BenchmarkRunner.generate(pizza, groups, new ELReasonerFactory(), 1);
+        MetamorphicExpander relations = new MetamorphicExpander(pizza, new ELReasonerFactory(),
+                MetamorphicExpander.parse("all"), null);
+        List<Map<String, Object>> expanded = new ArrayList<>();
+        BenchmarkRunner.generate(pizza, groups, new ELReasonerFactory(), null, null, null, relations, 2, null, expanded::add);
+        assertEquals(3 * base.size(), expanded.size());
+
+        for (int i = 0; i < base.size(); i++) {
+            Map<String, Object> original = base.get(i);
+            Map<String, Object> mr0 = expanded.get(3 * i);
+            Map<String, Object> mr1 = expanded.get(3 * i + 1);
+            Map<String, Object> mr9 = expanded.get(3 * i + 2);
+            assertEquals(List.of("id", "mr", "dl_profile", "axioms", "query", "expected"), List.copyOf(mr9.keySet()));
+
+            assertEquals(original.get("id"), mr0.get("id"));
+            assertEquals("MR-0", mr0.get("mr"));
+            assertEquals(original.get("axioms"), mr0.get("axioms"));
+            assertEquals(original.get("expected"), mr0.get("expected"));
+
+            assertEquals(original.get("id") + "_mr1", mr1.get("id"));
+            assertEquals(QueryGenerator.paraphraseQuery((String) original.get("query")), mr1.get("query"));
+            assertEquals(original.get("expected"), mr1.get("expected"));
+
+            assertEquals(original.get("id") + "_mr9", mr9.get("id"));
+            assertEquals(original.get("query"), mr9.get("query"));
+            assertEquals(((List<?>) original.get("axioms")).size() - 1, ((List<?>) mr9.get("axioms")).size());
+        }
+        assertEquals((long) expanded.size(), relations.stats().get("variants"));
+        assertEquals((long) base.size(), relations.stats().get("removal_checks"));
+        assertTrue((double) relations.stats().get("mean_module_axioms") < pizza.getAxiomCount(),
+                "MR-9 reasons over modules, not the ontology");
+    }
+
+    @Test
+    void testRemovalAnswersAgreeWithReasoningOverTheReducedOntology() throws Exception {
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(pizza).stream()
+                .filter(axioms -> QueryGenerator.getQueryAxiom(axioms) != null)
+                .limit(15)
+                .toList();
+        MetamorphicExpander relations = new MetamorphicExpander(pizza, new Reasoner.ReasonerFactory(),
+                EnumSet.of(MetamorphicExpander.Relation.MR_9), new ModuleCache(pizza, 4));
+        for (List<OWLAxiom> group : groups) {
+            OWLAxiom target = QueryGenerator.getQueryAxiom(group);
+            OWLOntology without = OWLManager.createOWLOntologyManager().createOntology(pizza.axioms()
+                    .filter(ax -> !ax.equals(target)));
+            OWLReasoner full = new Reasoner.ReasonerFactory().createReasoner(without);
+            try {
+                assertEquals(ReasonerPool.Outcome.of(full.isEntailed(target)), relations.entailedWithout(target, group),
+                        target.toString());
+            } finally {
+                full.dispose();
+            }
+        }
+    }
+
+    @Test
+    void testRedundantKeyAxiomStaysEntailedAndAnswersAreCached(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass calzone = df.getOWLClass(IRI.create(NS + "Calzone"));
+        OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+
+        // Margherita ⊑ ∃hasTopping.Mozzarella also follows from Margherita ⊑ Pizza ⊑ ∃hasTopping.Mozzarella;
+        // Calzone ⊑ ∃hasTopping.Mozzarella follows from nothing else
+        OWLAxiom redundant = df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+        OWLAxiom key = df.getOWLSubClassOfAxiom(calzone, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+        manager.addAxiom(ontology, redundant);
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, key);
+
+        Path file = dir.resolve("entailments.bin");
+        try (EntailmentCache cache = new EntailmentCache(file, 100)) {
+            MetamorphicExpander relations = new MetamorphicExpander(ontology, new ELReasonerFactory(),
+                    EnumSet.of(MetamorphicExpander.Relation.MR_9), null).withCache(cache);
+            assertEquals(ReasonerPool.Outcome.YES, relations.entailedWithout(redundant, List.of(redundant, df.getOWLSubClassOfAxiom(margherita, pizza))));
+            assertEquals(ReasonerPool.Outcome.NO, relations.entailedWithout(key, List.of(key)));
+            assertEquals(2L, relations.stats().get("removal_checks"));
+            // answers for the ontology itself are not mistaken for answers without the axiom
+            assertNull(cache.get(EntailmentCache.ontologyHash(ontology), EntailmentCache.reasonerId(new ELReasonerFactory()), key));
+        }
+        try (EntailmentCache cache = new EntailmentCache(file, 100)) {
+            MetamorphicExpander rerun = new MetamorphicExpander(ontology, new ELReasonerFactory(),
+                    EnumSet.of(MetamorphicExpander.Relation.MR_9), null).withCache(cache);
+            assertEquals(ReasonerPool.Outcome.NO, rerun.entailedWithout(key, List.of(key)));
+            assertEquals(0L, rerun.stats().get("removal_checks"));
+            assertEquals(1L, rerun.stats().get("removal_cached"));
+        }
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(EnumSet.of(MetamorphicExpander.Relation.MR_0, MetamorphicExpander.Relation.MR_9),
+                MetamorphicExpander.parse("mr-9, MR-0"));
+        assertEquals(3, MetamorphicExpander.parse("all").size());
+        assertTrue(MetamorphicExpander.parse(" ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> MetamorphicExpander.parse("MR-4"));
+    }
+}
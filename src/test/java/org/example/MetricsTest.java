@@ -0,0 +1,66 @@
+package org.example;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testCountersAndHistograms() {
+        Metrics metrics = new Metrics();
+        metrics.counter("checks_total", "outcome", "yes").increment();
+        metrics.counter("checks_total", "outcome", "yes").add(2);
+        metrics.counter("checks_total", "outcome", "no").increment();
+        assertEquals(3, metrics.counter("checks_total", "outcome", "yes").get());
+
+        Metrics.Histogram histogram = metrics.histogram("stage_seconds", "stage", "load");
+        histogram.observeNanos(5_000);          // 5 µs
+        histogram.observeNanos(2_000_000);      // 2 ms
+        histogram.observeNanos(500_000_000_000L); // 500 s, above every bound
+        assertEquals(3, histogram.count());
+        assertEquals(500.002005, histogram.sum(), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("odd", "label"));
+    }
+
+    @Test
+    void testPrometheusFormat() {
+        Metrics metrics = new Metrics();
+        metrics.counter("checks_total", "reasoner", "HermiT", "outcome", "yes").add(4);
+        metrics.histogram("stage_seconds", "stage", "query").observeNanos(2_000_000);
+        metrics.counter("quoted_total", "subject", "a \"b\"").increment();
+
+        String text = metrics.prometheus();
+        assertTrue(text.contains("# TYPE checks_total counter\nchecks_total{reasoner=\"HermiT\",outcome=\"yes\"} 4\n"));
+        assertTrue(text.contains("# TYPE stage_seconds histogram\n"));
+        // buckets are cumulative
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"query\",le=\"0.001\"} 0\n"));
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"query\",le=\"0.01\"} 1\n"));
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"query\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("stage_seconds_count{stage=\"query\"} 1\n"));
+        assertTrue(text.contains("quoted_total{subject=\"a \\\"b\\\"\"} 1\n"));
+
+        metrics.clear();
+        assertEquals("", metrics.prometheus());
+    }
+
+    @Test
+    void testJson() {
+        Metrics metrics = new Metrics();
+        metrics.counter("checks_total", "outcome", "timeout").increment();
+        metrics.histogram("stage_seconds", "stage", "load").observeNanos(20_000);
+
+        JsonObject json = JsonParser.parseString(metrics.json()).getAsJsonObject();
+        JsonObject counter = json.getAsJsonArray("counters").get(0).getAsJsonObject();
+        assertEquals("checks_total", counter.get("name").getAsString());
+        assertEquals("timeout", counter.getAsJsonObject("labels").get("outcome").getAsString());
+        assertEquals(1, counter.get("value").getAsLong());
+        JsonObject histogram = json.getAsJsonArray("histograms").get(0).getAsJsonObject();
+        assertEquals(1, histogram.get("count").getAsLong());
+        assertEquals(0, histogram.getAsJsonObject("buckets").get("0.00001").getAsLong());
+        assertEquals(1, histogram.getAsJsonObject("buckets").get("0.0001").getAsLong());
+    }
+}
@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleCacheTest {
+
+    private static final String NS = "http://example.org/";
+
+    @Test
+    void testModuleAnswersAgreeWithWholeOntology() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(ontology).stream()
+                .filter(axioms -> QueryGenerator.getQueryAxiom(axioms) != null)
+                .limit(20)
+                .toList();
+        assertFalse(groups.isEmpty());
+
+        ModuleCache modules = new ModuleCache(ontology, 8);
+        try (ReasoningValidator full = new ReasoningValidator(ontology, new Reasoner.ReasonerFactory());
+             ReasoningValidator modular = new ReasoningValidator(ontology, new Reasoner.ReasonerFactory()).withModules(modules)) {
+            for (List<OWLAxiom> group : groups) {
+                OWLSubClassOfAxiom target = (OWLSubClassOfAxiom) QueryGenerator.getQueryAxiom(group);
+                assertEquals(full.isEntailed(target), modular.isEntailed(target, group), target.toString());
+
+                // a non-entailment over the same signature: the filler is not a subclass of the subject
+                OWLAxiom negative = df.getOWLSubClassOfAxiom(df.getOWLThing(), target.getSubClass());
+                assertEquals(full.isEntailed(negative), modular.isEntailed(negative, group), negative.toString());
+            }
+        }
+        assertTrue(modules.extractions() > 0);
+        assertTrue(modules.size() <= 8);
+        assertTrue((double) modules.stats().get("mean_axioms") < ontology.getAxiomCount(),
+                "Modules are smaller than the ontology");
+    }
+
+    @Test
+    void testCoveredSignatureReusesModule() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+        OWLClass wine = df.getOWLClass(IRI.create(NS + "Wine"));
+        OWLClass drink = df.getOWLClass(IRI.create(NS + "Drink"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+
+        // Margherita ⊑ Pizza ⊑ ∃hasTopping.Mozzarella, Wine ⊑ Drink
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(wine, drink));
+
+        ModuleCache modules = new ModuleCache(ontology, 4);
+        OWLAxiom query = df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+        ModuleCache.Module module = modules.moduleFor(List.of(query));
+        assertEquals(2, module.size(), "The unrelated Wine ⊑ Drink is not in the module");
+
+        // Pizza is in the module's signature, so the same module answers
+        assertSame(module, modules.moduleFor(List.of(df.getOWLSubClassOfAxiom(pizza, mozzarella))));
+        assertEquals(1, modules.hits());
+        assertEquals(1, modules.extractions());
+
+        try (ReasoningValidator validator = new ReasoningValidator(ontology, new Reasoner.ReasonerFactory()).withModules(modules)) {
+            assertTrue(validator.isEntailed(query));
+            assertFalse(validator.isEntailed(df.getOWLSubClassOfAxiom(margherita, drink)));
+        }
+        assertEquals(2, modules.extractions(), "A signature with Drink needs a new module");
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneExtraction() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        List<List<OWLAxiom>> groups = AxiomGrouper.inSubjectOrder(ontology).stream()
+                .filter(axioms -> QueryGenerator.getQueryAxiom(axioms) != null)
+                .toList();
+        ModuleCache modules = new ModuleCache(ontology, groups.size());
+        ModuleCache reference = new ModuleCache(ontology, 1);
+
+        int threads = 8;
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            for (List<OWLAxiom> group : groups) {
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<ModuleCache.Module>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(workers.submit(() -> {
+                        barrier.await();
+                        return modules.moduleFor(group);
+                    }));
+                }
+                ModuleCache.Module expected = reference.moduleFor(group);
+                for (Future<ModuleCache.Module> result : results) {
+                    // the module for the group, or a cached one covering it
+                    ModuleCache.Module module = result.get();
+                    assertTrue(module.signature().containsAll(expected.signature()));
+                    assertTrue(expected.ontology().axioms().allMatch(module.ontology()::containsAxiom));
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+        assertTrue(modules.extractions() <= groups.size(), "A signature is extracted at most once");
+        assertEquals(groups.size() * threads, modules.extractions() + modules.hits());
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiHopQueryGeneratorTest {
+
+    private static final String NS = "http://example.org/";
+
+    @Test
+    void testQueriesAtExactHopDistance() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+        OWLClass parmesan = df.getOWLClass(IRI.create(NS + "Parmesan"));
+        OWLClass cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        OWLObjectProperty hasIngredient = df.getOWLObjectProperty(IRI.create(NS + "hasIngredient"));
+
+        // Margherita ⊑ Pizza, Pizza ⊑ ∃hasTopping.Mozzarella, Mozzarella ⊑ Cheese, Parmesan ⊑ Cheese,
+        // hasTopping ⊑ hasIngredient
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(mozzarella, cheese));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(parmesan, cheese));
+        manager.addAxiom(ontology, df.getOWLSubObjectPropertyOfAxiom(hasTopping, hasIngredient));
+
+        OWLReasoner reasoner = new Reasoner.ReasonerFactory().createReasoner(ontology);
+        try {
+            MultiHopQueryGenerator generator = new MultiHopQueryGenerator(ontology, reasoner);
+
+            Set<OWLAxiom> oneHop = generator.positives(1).map(MultiHopQueryGenerator.Query::axiom).collect(Collectors.toSet());
+            assertEquals(Set.of(
+                    df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)),
+                    df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasIngredient, mozzarella)),
+                    df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, cheese))), oneHop);
+
+            List<MultiHopQueryGenerator.Query> threeHops = generator.positives(3).toList();
+            assertEquals(1, threeHops.size());
+            MultiHopQueryGenerator.Query deepest = threeHops.get(0);
+            assertEquals(df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasIngredient, cheese)), deepest.axiom());
+            // one edge per hop plus the seed
+            assertEquals(4, deepest.premises().size());
+
+            // the filler's sibling is a near miss that does not follow
+            List<MultiHopQueryGenerator.Query> negatives = generator.withHardNegatives(1, 2)
+                    .filter(q -> !q.entailed())
+                    .toList();
+            assertTrue(negatives.stream().anyMatch(q -> q.axiom().equals(
+                    df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, parmesan)))));
+            for (MultiHopQueryGenerator.Query q : negatives) {
+                assertFalse(reasoner.isEntailed(q.axiom()), q.axiom().toString());
+            }
+
+            Map<String, Object> entry = MultiHopQueryGenerator.toTestCase("test_1", deepest, new AxiomFormatter(EntityDictionary.of(ontology)));
+            assertEquals("ELH", entry.get("dl_profile"));
+            assertEquals("Yes", entry.get("expected"));
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    @Test
+    void testQueryReachedFromSeveralSeedsIsEmittedOnce() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass mozzarella = df.getOWLClass(IRI.create(NS + "Mozzarella"));
+        OWLClass parmesan = df.getOWLClass(IRI.create(NS + "Parmesan"));
+        OWLClass cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+
+        // Pizza ⊑ ∃hasTopping.Cheese follows in one hop from either told topping
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, parmesan)));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(mozzarella, cheese));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(parmesan, cheese));
+
+        OWLReasoner reasoner = new Reasoner.ReasonerFactory().createReasoner(ontology);
+        try {
+            MultiHopQueryGenerator generator = new MultiHopQueryGenerator(ontology, reasoner);
+            List<OWLSubClassOfAxiom> oneHop = generator.positives(1).map(MultiHopQueryGenerator.Query::axiom).toList();
+            assertEquals(List.of(df.getOWLSubClassOfAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, cheese))), oneHop);
+            List<OWLSubClassOfAxiom> all = generator.withHardNegatives(1, 5).map(MultiHopQueryGenerator.Query::axiom).toList();
+            assertEquals(Set.copyOf(all).size(), all.size());
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    @Test
+    void testPizzaQueriesChainToldExistentials() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+        OWLReasoner reasoner = new Reasoner.ReasonerFactory().createReasoner(ontology);
+        try {
+            // pizza-el has a flat class hierarchy, so one hop goes through the topping's told existentials
+            List<MultiHopQueryGenerator.Query> queries = new MultiHopQueryGenerator(ontology, reasoner)
+                    .withHardNegatives(1, 1)
+                    .limit(50)
+                    .toList();
+            assertTrue(queries.stream().anyMatch(MultiHopQueryGenerator.Query::entailed));
+            assertTrue(queries.stream().anyMatch(q -> !q.entailed()));
+            for (MultiHopQueryGenerator.Query q : queries) {
+                assertFalse(ontology.containsAxiomIgnoreAnnotations(q.axiom()), q.axiom().toString());
+                assertEquals(q.entailed(), reasoner.isEntailed(q.axiom()), q.axiom().toString());
+                assertEquals(1, q.hops());
+            }
+
+            Map<String, Object> entry = MultiHopQueryGenerator.toTestCase("test_1", queries.get(0), new AxiomFormatter(EntityDictionary.of(ontology)));
+            assertEquals("Does every American have hasTopping.(hasSpiciness.Mild)?", entry.get("query"));
+            assertEquals("EL", entry.get("dl_profile"));
+        } finally {
+            reasoner.dispose();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegativeSamplerTest {
+
+    private static OWLOntology pizza() throws Exception {
+        return OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+    }
+
+    @Test
+    void testSamplesAreDistinctNonEntailedAndReproducible() throws Exception {
+        OWLOntology ontology = pizza();
+        List<NegativeSampler.Sample> samples;
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            samples = new NegativeSampler(ontology, validator, 7).withBatchSize(128).sample(200);
+        }
+        assertEquals(200, samples.size());
+        assertEquals(200, samples.stream().map(NegativeSampler.Sample::axiom).distinct().count());
+
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            for (NegativeSampler.Sample sample : samples) {
+                assertFalse(ontology.containsAxiomIgnoreAnnotations(sample.axiom()));
+                assertFalse(validator.isEntailed(sample.axiom()), sample.axiom().toString());
+            }
+            List<NegativeSampler.Sample> again = new NegativeSampler(ontology, validator, 7).withBatchSize(128).sample(200);
+            assertEquals(samples, again);
+        }
+    }
+
+    @Test
+    void testAttemptsAreCappedByMinYield() throws Exception {
+        OWLOntology ontology = pizza();
+        // an oracle that finds every candidate entailed: nothing can be sampled
+        NegativeSampler sampler = new NegativeSampler(ontology, batch -> {
+            Map<OWLAxiom, ReasonerPool.Outcome> answers = new HashMap<>();
+            batch.forEach(ax -> answers.put(ax, ReasonerPool.Outcome.YES));
+            return answers;
+        }, 1).withMinYield(0.1);
+
+        assertTrue(sampler.sample(50).isEmpty());
+        assertEquals(500, sampler.attempts());
+        assertEquals(500, sampler.rejected());
+    }
+
+    @Test
+    void testUnansweredCandidatesAreNotNegatives() throws Exception {
+        OWLOntology ontology = pizza();
+        // a reasoner that times out on every candidate gives no "No" answers
+        NegativeSampler sampler = new NegativeSampler(ontology, batch -> {
+            Map<OWLAxiom, ReasonerPool.Outcome> answers = new HashMap<>();
+            batch.forEach(ax -> answers.put(ax, ReasonerPool.Outcome.TIMEOUT));
+            return answers;
+        }, 1).withMinYield(0.1);
+
+        assertTrue(sampler.sample(10).isEmpty());
+        assertEquals(sampler.attempts(), sampler.rejected());
+    }
+}
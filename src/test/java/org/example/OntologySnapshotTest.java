@@ -0,0 +1,105 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OntologySnapshotTest {
+
+    private static final String NS = "http://example.org/";
+
+    @Test
+    void testSnapshotRoundTripsPizza(@TempDir Path dir) throws Exception {
+        Path source = Path.of("src/main/resources/ontology/pizza-el.owl");
+        Path snapshot = dir.resolve("pizza-el.snap");
+        OWLOntology parsed = OntologySnapshot.loadOrParse(source, snapshot, OWLManager.createOWLOntologyManager());
+        assertTrue(Files.exists(snapshot));
+
+        OWLOntology loaded = OntologySnapshot.loadOrParse(source, snapshot, OWLManager.createOWLOntologyManager());
+        assertEquals(parsed.getOntologyID().getOntologyIRI(), loaded.getOntologyID().getOntologyIRI());
+        assertEquals(parsed.axioms().collect(Collectors.toSet()), loaded.axioms().collect(Collectors.toSet()));
+        // cached answers and indexes of the parsed ontology stay valid
+        assertEquals(EntailmentCache.ontologyHash(parsed), EntailmentCache.ontologyHash(loaded));
+    }
+
+    @Test
+    void testEditedSourceIsParsedAgain(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create(NS + "test"));
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        OWLObjectProperty hasIngredient = df.getOWLObjectProperty(IRI.create(NS + "hasIngredient"));
+        OWLNamedIndividual m1 = df.getOWLNamedIndividual(IRI.create(NS + "m1"));
+        OWLNamedIndividual c1 = df.getOWLNamedIndividual(IRI.create(NS + "c1"));
+        manager.addAxiom(ontology, df.getOWLDeclarationAxiom(margherita));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita,
+                df.getOWLObjectIntersectionOf(pizza, df.getOWLObjectSomeValuesFrom(hasTopping, cheese))));
+        manager.addAxiom(ontology, df.getOWLEquivalentClassesAxiom(pizza, df.getOWLObjectSomeValuesFrom(hasIngredient, df.getOWLThing())));
+        manager.addAxiom(ontology, df.getOWLSubObjectPropertyOfAxiom(hasTopping, hasIngredient));
+        manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(margherita, m1));
+        manager.addAxiom(ontology, df.getOWLObjectPropertyAssertionAxiom(hasTopping, m1, c1));
+        File source = dir.resolve("test.owl").toFile();
+        manager.saveOntology(ontology, IRI.create(source));
+
+        Path snapshot = dir.resolve("test.snap");
+        // the saved document also declares every entity
+        Set<OWLAxiom> expected = OntologySnapshot.loadOrParse(source.toPath(), snapshot, OWLManager.createOWLOntologyManager())
+                .axioms().collect(Collectors.toSet());
+        assertTrue(expected.containsAll(ontology.getAxioms()));
+        assertEquals(expected, OntologySnapshot.load(snapshot, OWLManager.createOWLOntologyManager()).axioms().collect(Collectors.toSet()));
+
+        // after an edit the snapshot no longer matches the source
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(cheese, df.getOWLThing()));
+        manager.saveOntology(ontology, IRI.create(source));
+        assertNotEquals(OntologySnapshot.checksum(source.toPath()), OntologySnapshot.sourceChecksum(snapshot));
+        OWLOntology reloaded = OntologySnapshot.loadOrParse(source.toPath(), snapshot, OWLManager.createOWLOntologyManager());
+        assertTrue(reloaded.containsAxiom(df.getOWLSubClassOfAxiom(cheese, df.getOWLThing())));
+        assertEquals(OntologySnapshot.checksum(source.toPath()), OntologySnapshot.sourceChecksum(snapshot));
+
+        // axioms outside the format are not snapshotted
+        manager.addAxiom(ontology, df.getOWLDisjointClassesAxiom(pizza, cheese));
+        assertThrows(IllegalArgumentException.class, () -> OntologySnapshot.save(ontology, 0, dir.resolve("other.snap")));
+        assertFalse(Files.exists(dir.resolve("other.snap")));
+    }
+
+    @Test
+    void testOntologyHeaderRoundTrips(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(new OWLOntologyID(
+                Optional.of(IRI.create(NS + "test")), Optional.of(IRI.create(NS + "test/1.0"))));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "Margherita")),
+                df.getOWLClass(IRI.create(NS + "Pizza"))));
+        List<OWLAnnotation> annotations = List.of(
+                df.getOWLAnnotation(df.getRDFSLabel(), df.getOWLLiteral("Pizza", "en")),
+                df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("plain")),
+                df.getOWLAnnotation(df.getOWLAnnotationProperty(IRI.create(NS + "axiomCount")), df.getOWLLiteral(1)),
+                df.getOWLAnnotation(df.getRDFSSeeAlso(), IRI.create(NS + "docs")));
+        for (OWLAnnotation annotation : annotations) manager.applyChange(new AddOntologyAnnotation(ontology, annotation));
+
+        Path snapshot = dir.resolve("test.snap");
+        OntologySnapshot.save(ontology, 0, snapshot);
+        OWLOntology loaded = OntologySnapshot.load(snapshot, OWLManager.createOWLOntologyManager());
+        assertEquals(ontology.getOntologyID(), loaded.getOntologyID());
+        assertEquals(Set.copyOf(annotations), loaded.annotations().collect(Collectors.toSet()));
+        assertEquals(ontology.axioms().collect(Collectors.toSet()), loaded.axioms().collect(Collectors.toSet()));
+
+        // the imported ontologies would not be in the snapshot
+        manager.applyChange(new AddImport(ontology, df.getOWLImportsDeclaration(IRI.create(NS + "other"))));
+        assertThrows(IllegalArgumentException.class, () -> OntologySnapshot.save(ontology, 0, dir.resolve("imports.snap")));
+    }
+}
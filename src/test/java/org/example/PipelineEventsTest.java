@@ -0,0 +1,110 @@
+package org.example;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineEventsTest {
+
+    @Test
+    void testStagesAreRecorded(@TempDir Path dir) throws Exception {
+        List<RecordedEvent> events;
+        List<OWLAxiom> american;
+        try (Recording recording = new Recording()) {
+            for (String stage : List.of("OntologyLoad", "Grouping", "QueryGeneration", "Classification",
+                    "EntailmentCheck", "Formatting")) {
+                recording.enable("org.example." + stage).withoutThreshold();
+            }
+            recording.start();
+            OWLOntology ontology = BenchmarkRunner.loadOntology(OWLManager.createConcurrentOWLOntologyManager());
+            american = AxiomGrouper.inSubjectOrder(ontology).stream()
+                    .filter(group -> ((OWLSubClassOfAxiom) group.get(0)).getSubClass().asOWLClass().getIRI().getShortForm().equals("American"))
+                    .findFirst().orElseThrow();
+            BenchmarkRunner.generate(ontology, List.of(american), new Reasoner.ReasonerFactory(), 1);
+            recording.stop();
+            Path file = dir.resolve("run.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        Set<String> types = events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+        assertTrue(types.containsAll(Set.of("org.example.OntologyLoad", "org.example.Grouping",
+                "org.example.QueryGeneration", "org.example.Classification", "org.example.EntailmentCheck",
+                "org.example.Formatting")), types.toString());
+
+        RecordedEvent check = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.EntailmentCheck"))
+                .findFirst().orElseThrow();
+        assertEquals("American", check.getString("subject"));
+        assertEquals("HermiT", check.getString("reasoner"));
+        assertEquals("YES", check.getString("outcome"));
+
+        RecordedEvent formatting = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.Formatting"))
+                .findFirst().orElseThrow();
+        assertEquals(american.size(), formatting.getLong("items"));
+    }
+
+    @Test
+    void testSpansFeedTheGlobalMetrics() {
+        Metrics.Histogram histogram = Metrics.global().histogram("benchmark_stage_seconds", "stage", "serialization", "reasoner", "");
+        long before = histogram.count();
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.SERIALIZATION, "test_1", null)) {
+            assertNotNull(span);
+        }
+        assertEquals(before + 1, histogram.count());
+
+        Metrics.Counter timeouts = Metrics.global().counter("benchmark_entailment_checks_total", "reasoner", "x", "outcome", "timeout");
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.ENTAILMENT, "A", "x")) {
+            span.outcome("TIMEOUT");
+        }
+        assertEquals(1, timeouts.get());
+    }
+
+    @Test
+    void testSpansSurviveAClearedRegistryAndAnyLocale() {
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.FORMATTING, "A", "y")) {
+            assertNotNull(span);
+        }
+        // the cached histogram was dropped with the registry, so the next span creates it again
+        Metrics.global().clear();
+        try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.FORMATTING, "A", "y")) {
+            assertNotNull(span);
+        }
+        assertEquals(1, Metrics.global().histogram("benchmark_stage_seconds", "stage", "formatting", "reasoner", "y").count());
+
+        // in Turkish, "TIMEOUT".toLowerCase() has a dotless i
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            try (PipelineEvents.Span span = PipelineEvents.start(PipelineEvents.Stage.ENTAILMENT, "A", "y")) {
+                span.outcome("TIMEOUT");
+            }
+        } finally {
+            Locale.setDefault(locale);
+        }
+        assertEquals(1, Metrics.global().counter("benchmark_entailment_checks_total", "reasoner", "y", "outcome", "timeout").get());
+    }
+
+    @Test
+    void testSubject() {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLClass a = df.getOWLClass(IRI.create("http://example.org/#A"));
+        OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("http://example.org/#r"));
+        OWLObjectProperty s = df.getOWLObjectProperty(IRI.create("http://example.org/#s"));
+        assertEquals("A", PipelineEvents.subject(df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, a))));
+        assertEquals("r", PipelineEvents.subject(df.getOWLSubObjectPropertyOfAxiom(r, s)));
+        assertEquals("", PipelineEvents.subject(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(r, a), a)));
+    }
+}
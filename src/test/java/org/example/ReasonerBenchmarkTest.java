@@ -1,11 +1,20 @@
 package org.example;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.semanticweb.HermiT.Reasoner;
 // did we not use hermit here?
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ReasonerBenchmarkTest {
@@ -33,5 +42,126 @@ public class ReasonerBenchmarkTest {
         assertDoesNotThrow(() -> ReasonerBenchmark.compareReasoners(ontology, query));
     }
 
-    // Optional: Capture and assert System.out
+    @Test
+    void testSessionRecordsTimingsAndDisagreements(@TempDir Path dir) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass margherita = factory.getOWLClass(IRI.create("http://example.org/Margherita"));
+        OWLClass mozzarella = factory.getOWLClass(IRI.create("http://example.org/Mozzarella"));
+        OWLClass cheese = factory.getOWLClass(IRI.create("http://example.org/Cheese"));
+        OWLObjectProperty hasTopping = factory.getOWLObjectProperty(IRI.create("http://example.org/hasTopping"));
+
+        // Margherita ⊑ ∃hasTopping.Mozzarella, Mozzarella ⊑ Cheese
+        OWLAxiom told = factory.getOWLSubClassOfAxiom(margherita, factory.getOWLObjectSomeValuesFrom(hasTopping, mozzarella));
+        manager.addAxiom(ontology, told);
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(mozzarella, cheese));
+        // only inferred, so the structural reasoner misses it
+        OWLAxiom inferred = factory.getOWLSubClassOfAxiom(margherita, factory.getOWLObjectSomeValuesFrom(hasTopping, cheese));
+
+        Path file = dir.resolve("metrics.json");
+        try (ReasonerBenchmark session = new ReasonerBenchmark(ontology)) {
+            assertFalse(session.measure("test_1", told).disagreement());
+            ReasonerBenchmark.QueryRecord record = session.measure("test_2", inferred);
+            assertTrue(record.disagreement());
+            assertEquals(Boolean.TRUE, record.results().get("hermit").entailed());
+            assertEquals(Boolean.FALSE, record.results().get("structural").entailed());
+            session.writeMetrics(file.toString(), 1);
+        }
+
+        JsonObject metrics = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        JsonObject summary = metrics.getAsJsonObject("summary");
+        assertEquals(2, summary.get("queries").getAsInt());
+        assertEquals(1, summary.get("disagreements").getAsInt());
+        assertTrue(summary.getAsJsonObject("reasoners").getAsJsonObject("hermit").has("entailment_p99_ns"));
+        assertEquals(1, summary.getAsJsonArray("slowest").size());
+        assertEquals("test_2", metrics.getAsJsonArray("queries").get(1).getAsJsonObject().get("id").getAsString());
+    }
+
+    @Test
+    void testConcurrentComparisonBuildsAgreementMatrix() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass margherita = factory.getOWLClass(IRI.create("http://example.org/Margherita"));
+        OWLClass pizza = factory.getOWLClass(IRI.create("http://example.org/Pizza"));
+        OWLClass food = factory.getOWLClass(IRI.create("http://example.org/Food"));
+
+        // Margherita ⊑ Pizza ⊑ Food
+        OWLAxiom told = factory.getOWLSubClassOfAxiom(margherita, pizza);
+        manager.addAxiom(ontology, told);
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(pizza, food));
+        OWLAxiom inferred = factory.getOWLSubClassOfAxiom(margherita, food);
+        OWLAxiom unrelated = factory.getOWLSubClassOfAxiom(food, margherita);
+
+        Map<String, OWLAxiom> queries = new LinkedHashMap<>();
+        queries.put("test_1", told);
+        queries.put("test_2", inferred);
+        queries.put("test_3", unrelated);
+        try (ReasonerBenchmark session = new ReasonerBenchmark(ontology, new ReasonerRegistry().select("hermit,el,structural"))) {
+            List<ReasonerBenchmark.QueryRecord> records = session.compare(queries);
+            assertEquals(List.of("test_1", "test_2", "test_3"), records.stream().map(ReasonerBenchmark.QueryRecord::id).toList());
+            assertEquals(Boolean.TRUE, records.get(1).results().get("el").entailed());
+            assertEquals(Boolean.FALSE, records.get(2).results().get("hermit").entailed());
+
+            Map<String, Map<String, Double>> agreement = session.agreement();
+            assertEquals(1.0, agreement.get("hermit").get("el"));
+            assertEquals(1.0, agreement.get("el").get("el"));
+
+            Map<String, Object> summary = session.summary(1);
+            assertEquals(3L, summary.get("queries"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> hermit = (Map<String, Object>) ((Map<String, Object>) summary.get("reasoners")).get("hermit");
+            assertTrue((double) hermit.get("queries_per_s") > 0);
+            assertTrue(session.table().contains("queries/s"));
+        }
+    }
+
+    @Test
+    void testPercentileIsNearestRank() {
+        ReasonerBenchmark.LatencyHistogram histogram = new ReasonerBenchmark.LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        for (long ns : new long[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100}) histogram.record(ns);
+        // exact below 64 ns, and never above the largest value
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(100, histogram.percentile(95));
+
+        // larger values are rounded up to their bucket, within 1/32
+        ReasonerBenchmark.LatencyHistogram large = new ReasonerBenchmark.LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) large.record(i * 1_000_000);
+        long p50 = large.percentile(50);
+        assertTrue(p50 >= 500_000_000 && p50 <= 500_000_000L * 33 / 32, String.valueOf(p50));
+        assertEquals(1_000_000_000, large.percentile(100));
+        assertEquals(1000, large.count());
+    }
+
+    @Test
+    void testConcurrentMeasurementsAreAllCounted() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass a = factory.getOWLClass(IRI.create("http://example.org/A"));
+        OWLClass b = factory.getOWLClass(IRI.create("http://example.org/B"));
+        OWLAxiom told = factory.getOWLSubClassOfAxiom(a, b);
+        manager.addAxiom(ontology, told);
+
+        try (ReasonerBenchmark session = new ReasonerBenchmark(ontology, new ReasonerRegistry().select("el,structural"))) {
+            List<Thread> threads = new java.util.ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t * 25;
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 25; i++) session.measure("test_" + (offset + i + 1), told);
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) thread.join();
+            Map<String, Object> summary = session.summary(5);
+            assertEquals(100L, summary.get("queries"));
+            assertEquals(0L, summary.get("disagreements"));
+            assertEquals(5, ((List<?>) summary.get("slowest")).size());
+            assertEquals(1.0, session.agreement().get("el").get("structural"));
+        }
+    }
 }
\ No newline at end of file
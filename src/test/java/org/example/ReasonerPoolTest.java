@@ -0,0 +1,181 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReasonerPoolTest {
+
+    private static final String NS = "http://example.org/";
+
+    /**
+     * Creates reasoners whose classification and queries hang, ignoring interrupts, until the
+     * test lets them go; they stand in for a pathological ontology.
+     */
+    private static class HangingReasonerFactory implements OWLReasonerFactory {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stop = new CountDownLatch(1);
+
+        @Override
+        public String getReasonerName() {
+            return "hanging";
+        }
+
+        @Override
+        public OWLReasoner createNonBufferingReasoner(OWLOntology ontology) {
+            return createReasoner(ontology);
+        }
+
+        @Override
+        public OWLReasoner createReasoner(OWLOntology ontology) {
+            return (OWLReasoner) Proxy.newProxyInstance(OWLReasoner.class.getClassLoader(), new Class<?>[]{OWLReasoner.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "precomputeInferences", "isEntailed" -> {
+                            started.countDown();
+                            stop.await();
+                            throw new ReasonerInterruptedException(new InterruptedException());
+                        }
+                        case "getPendingChanges" -> Collections.emptyList();
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public OWLReasoner createNonBufferingReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+            return createReasoner(ontology);
+        }
+
+        @Override
+        public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+            return createReasoner(ontology);
+        }
+    }
+
+    private static OWLOntology pizza(OWLOntologyManager manager) throws OWLOntologyCreationException {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "Margherita")),
+                df.getOWLClass(IRI.create(NS + "Pizza"))));
+        return ontology;
+    }
+
+    @Test
+    void testSlowQueryTimesOutAndReasonerIsNotReused() throws Exception {
+        OWLOntology ontology = pizza(OWLManager.createOWLOntologyManager());
+        try (ReasonerPool pool = new ReasonerPool(new Reasoner.ReasonerFactory(), 1_000, 1)) {
+            OWLReasoner reasoner = pool.classify(ontology, InferenceType.CLASS_HIERARCHY);
+            assertThrows(TimeOutException.class, () -> pool.call(reasoner, () -> {
+                Thread.sleep(30_000);
+                return true;
+            }));
+            assertEquals(1L, pool.stats().get("timeouts"));
+
+            // a timed-out reasoner is discarded, so it is never handed out again, even if released
+            pool.release(ontology, reasoner);
+            assertEquals(0, pool.stats().get("idle"));
+            pool.release(ontology, pool.classify(ontology, InferenceType.CLASS_HIERARCHY));
+            assertNotSame(reasoner, pool.classify(ontology, InferenceType.CLASS_HIERARCHY));
+        }
+    }
+
+    @Test
+    void testReleasedReasonerIsReused() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = pizza(manager);
+        OWLDataFactory df = manager.getOWLDataFactory();
+        try (ReasonerPool pool = new ReasonerPool(new Reasoner.ReasonerFactory(), 0, 1)) {
+            OWLReasoner reasoner = pool.classify(ontology, InferenceType.CLASS_HIERARCHY);
+            OWLAxiom axiom = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create(NS + "Margherita")),
+                    df.getOWLClass(IRI.create(NS + "Pizza")));
+            assertEquals(ReasonerPool.Outcome.YES, pool.isEntailed(reasoner, axiom));
+            pool.release(ontology, reasoner);
+            assertEquals(1, pool.stats().get("idle"));
+            assertSame(reasoner, pool.classify(ontology, InferenceType.CLASS_HIERARCHY));
+
+            // a reasoner that has not seen the latest changes is not reused
+            pool.release(ontology, reasoner);
+            manager.addAxiom(ontology, df.getOWLDeclarationAxiom(df.getOWLClass(IRI.create(NS + "Calzone"))));
+            assertNotSame(reasoner, pool.classify(ontology, InferenceType.CLASS_HIERARCHY));
+        }
+    }
+
+    @Test
+    void testUnsupportedQueryKeepsReasoner() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = pizza(manager);
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        try (ReasonerPool pool = new ReasonerPool(new ELReasonerFactory(), 1_000, 1)) {
+            OWLReasoner reasoner = pool.classify(ontology, InferenceType.CLASS_HIERARCHY);
+
+            // the EL reasoner rejects a transitivity query, which is an error but not a broken reasoner
+            assertEquals(ReasonerPool.Outcome.ERROR, pool.isEntailed(reasoner, df.getOWLTransitiveObjectPropertyAxiom(hasTopping)));
+            assertEquals(1L, pool.stats().get("errors"));
+            assertFalse(pool.isDiscarded(reasoner));
+
+            assertEquals(ReasonerPool.Outcome.YES, pool.isEntailed(reasoner, df.getOWLSubClassOfAxiom(
+                    df.getOWLClass(IRI.create(NS + "Margherita")), df.getOWLClass(IRI.create(NS + "Pizza")))));
+            pool.release(ontology, reasoner);
+            assertSame(reasoner, pool.classify(ontology, InferenceType.CLASS_HIERARCHY));
+        }
+    }
+
+    @Test
+    void testClassificationsAreCapped() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        HangingReasonerFactory factory = new HangingReasonerFactory();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try (ReasonerPool pool = new ReasonerPool(factory, 500, 1)) {
+            Future<?> first = other.submit(() -> pool.classify(pizza(manager)));
+            assertTrue(factory.started.await(5, TimeUnit.SECONDS));
+
+            // the only slot is taken by the hanging classification
+            TimeOutException e = assertThrows(TimeOutException.class, () -> pool.classify(pizza(manager)));
+            assertTrue(e.getMessage().contains("slot"), e.getMessage());
+
+            ExecutionException hung = assertThrows(ExecutionException.class, first::get);
+            assertEquals(ReasonerPool.Outcome.TIMEOUT, ReasonerPool.outcome(hung.getCause()));
+            assertEquals(2L, pool.stats().get("timeouts"));
+        } finally {
+            factory.stop.countDown();
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTimeoutIsRecordedAsUnknown() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = pizza(manager);
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        List<OWLAxiom> group = List.of(df.getOWLSubClassOfAxiom(margherita, pizza),
+                df.getOWLSubClassOfAxiom(margherita, df.getOWLObjectSomeValuesFrom(hasTopping, pizza)));
+
+        HangingReasonerFactory factory = new HangingReasonerFactory();
+        try (ReasonerPool pool = new ReasonerPool(factory, 200, 1);
+             ReasoningValidator validator = new ReasoningValidator(ontology, factory).withPool(pool)) {
+            OWLAxiom target = QueryGenerator.getQueryAxiom(group);
+            assertEquals(ReasonerPool.Outcome.TIMEOUT, validator.check(target, group));
+            assertFalse(validator.isEntailed(target));
+
+            AxiomFormatter formatter = new AxiomFormatter(EntityDictionary.of(ontology));
+            assertEquals("Unknown", BenchmarkRunner.createTestCase("test_1", group, formatter, validator, null).get("expected"));
+        } finally {
+            factory.stop.countDown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReasonerRegistryTest {
+
+    /**
+     * Registered as a service provider in src/test/resources, so discovery finds it as `stub`.
+     */
+    public static class StubReasonerFactory extends StructuralReasonerFactory {
+    }
+
+    @Test
+    void testBuiltInsAndClassNames() {
+        ReasonerRegistry registry = new ReasonerRegistry();
+        assertEquals(List.of("hermit", "el", "structural"), List.copyOf(registry.names()));
+        assertInstanceOf(Reasoner.ReasonerFactory.class, registry.factory("HermiT"));
+        assertInstanceOf(ELReasonerFactory.class, registry.factory(ELReasonerFactory.class.getName()));
+        // every lookup creates its own factory
+        assertNotSame(registry.factory("el"), registry.factory("el"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> registry.factory("pellet"));
+        assertTrue(e.getMessage().contains("hermit, el, structural"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> registry.factory("java.lang.String"));
+    }
+
+    @Test
+    void testServiceLoaderDiscovery() {
+        ReasonerRegistry registry = ReasonerRegistry.discover();
+        assertTrue(registry.names().contains("stub"), registry.names().toString());
+        assertInstanceOf(StubReasonerFactory.class, registry.factory("stub"));
+
+        Map<String, OWLReasonerFactory> all = registry.select("all");
+        assertEquals(registry.names(), all.keySet());
+        assertEquals(List.of("el", "stub"), List.copyOf(registry.select(" el, ,stub").keySet()));
+        assertTrue(registry.select("").isEmpty());
+    }
+
+    @Test
+    void testNameOf() {
+        assertEquals("stub", ReasonerRegistry.nameOf(StubReasonerFactory.class));
+        assertEquals("el", ReasonerRegistry.nameOf(ELReasonerFactory.class));
+        assertEquals("reasoner", ReasonerRegistry.nameOf(Reasoner.ReasonerFactory.class));
+    }
+}
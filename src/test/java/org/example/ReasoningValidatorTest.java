@@ -6,6 +6,10 @@ import org.semanticweb.HermiT.Reasoner;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ReasoningValidatorTest {
@@ -47,4 +51,73 @@ public class ReasoningValidatorTest {
 
         assertFalse(result, "Expected axiom to NOT be entailed by ontology");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSessionAnswersBatchFromOneClassification() throws Exception {
+        // Setup OWL ontology
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+
+        OWLClass pizza = factory.getOWLClass(IRI.create("http://example.org/Pizza"));
+        OWLClass margherita = factory.getOWLClass(IRI.create("http://example.org/Margherita"));
+        OWLClass cheese = factory.getOWLClass(IRI.create("http://example.org/Cheese"));
+        OWLClass mozzarella = factory.getOWLClass(IRI.create("http://example.org/Mozzarella"));
+        OWLObjectProperty hasTopping = factory.getOWLObjectProperty(IRI.create("http://example.org/hasTopping"));
+
+        // Margherita ⊑ Pizza, Margherita ⊑ ∃hasTopping.Mozzarella, Mozzarella ⊑ Cheese
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(margherita,
+                factory.getOWLObjectSomeValuesFrom(hasTopping, mozzarella)));
+        manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(mozzarella, cheese));
+
+        OWLAxiom inferred = factory.getOWLSubClassOfAxiom(margherita,
+                factory.getOWLObjectSomeValuesFrom(hasTopping, cheese));
+        OWLAxiom named = factory.getOWLSubClassOfAxiom(margherita, pizza);
+        OWLAxiom notEntailed = factory.getOWLSubClassOfAxiom(pizza, margherita);
+
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            Map<OWLAxiom, ReasonerPool.Outcome> results = validator.check(List.of(inferred, named, notEntailed));
+
+            assertEquals(List.of(inferred, named, notEntailed), new ArrayList<>(results.keySet()));
+            assertEquals(ReasonerPool.Outcome.YES, results.get(inferred), "Existential over a superclass filler should be entailed");
+            assertEquals(ReasonerPool.Outcome.YES, results.get(named), "Told subsumption should be entailed");
+            assertEquals(ReasonerPool.Outcome.NO, results.get(notEntailed), "Reverse subsumption should not be entailed");
+
+            // repeated checks are answered by the same session
+            assertTrue(validator.isEntailed(inferred));
+        }
+    }
+
+    @Test
+    void testLargeBatchAgreesWithSingleChecks() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new java.io.File("src/main/resources/ontology/pizza-el.owl"));
+        OWLDataFactory factory = ontology.getOWLOntologyManager().getOWLDataFactory();
+
+        // every subject with every told filler of hasTopping: a mix of entailed and not entailed
+        List<OWLSubClassOfAxiom> told = ontology.axioms(AxiomType.SUBCLASS_OF)
+                .filter(ax -> ax.getSuperClass() instanceof OWLObjectSomeValuesFrom)
+                .sorted()
+                .toList();
+        List<OWLAxiom> batch = new ArrayList<>();
+        for (OWLSubClassOfAxiom a : told.subList(0, 20)) {
+            for (OWLSubClassOfAxiom b : told.subList(0, 10)) {
+                batch.add(factory.getOWLSubClassOfAxiom(a.getSubClass(), b.getSuperClass()));
+            }
+        }
+        assertTrue(batch.size() >= ReasoningValidator.MIN_BATCH);
+
+        Map<OWLAxiom, ReasonerPool.Outcome> batched;
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            batched = validator.check(batch);
+        }
+        try (ReasoningValidator validator = new ReasoningValidator(ontology)) {
+            for (OWLAxiom axiom : batch) {
+                assertEquals(validator.check(axiom, List.of()), batched.get(axiom), axiom.toString());
+            }
+        }
+        assertTrue(batched.containsValue(ReasonerPool.Outcome.YES));
+        assertTrue(batched.containsValue(ReasonerPool.Outcome.NO));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalingSweepTest {
+
+    @Test
+    void testEveryStageIsMeasuredAtEverySize(@TempDir Path dir) throws Exception {
+        ScalingSweep sweep = new ScalingSweep(new SyntheticOntologyGenerator().withFanOut(1), new ELReasonerFactory(), 2, dir);
+        List<ScalingSweep.Row> rows = sweep.run(List.of(2000L, 500L));
+        assertEquals(List.of("write", "load", "group", "generate", "write", "load", "group", "generate"),
+                rows.stream().map(ScalingSweep.Row::stage).toList());
+        assertEquals(250, rows.get(0).classes(), "smallest size first");
+        assertEquals(1000, rows.get(4).classes());
+        for (ScalingSweep.Row row : rows) {
+            assertFalse(row.failed());
+            assertTrue(row.peakHeapBytes() > 0);
+            assertTrue(row.items() > 0);
+        }
+        // one test case per class, each with one existential
+        assertEquals(1000, rows.get(7).items());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count(), "intermediate files are removed");
+        }
+        assertTrue(ScalingSweep.table(rows).contains("generate"));
+    }
+
+    @Test
+    void testOutOfMemoryOnAWorkerEndsTheSweep(@TempDir Path dir) throws Exception {
+        // every reasoner runs out of memory as it is created, on the parallel generation workers
+        ELReasonerFactory exhausted = new ELReasonerFactory() {
+            @Override
+            public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        };
+        ScalingSweep sweep = new ScalingSweep(new SyntheticOntologyGenerator().withFanOut(1), exhausted, 2, dir);
+        List<ScalingSweep.Row> rows = new ArrayList<>();
+        sweep.run(List.of(500L, 2000L), row -> {
+            // each row arrives as its stage ends, after the rows before it
+            assertEquals(rows.size(), List.of("write", "load", "group", "generate").indexOf(row.stage()));
+            rows.add(row);
+        });
+        assertEquals(List.of("write", "load", "group", "generate"), rows.stream().map(ScalingSweep.Row::stage).toList());
+        assertTrue(rows.get(3).failed(), "the generate stage ran out of memory");
+        assertFalse(rows.get(2).failed());
+    }
+}
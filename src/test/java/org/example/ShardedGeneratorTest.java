@@ -0,0 +1,121 @@
+package org.example;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedGeneratorTest {
+
+    private static OWLOntology ontology;
+
+    @BeforeAll
+    static void load() throws Exception {
+        ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(new File("src/main/resources/ontology/pizza-el.owl"));
+    }
+
+    @Test
+    void testMergedShardsEqualUnshardedRun(@TempDir Path dir) throws Exception {
+        ShardedGenerator generator = new ShardedGenerator(ontology, new ELReasonerFactory(), dir.resolve("shards"), 4)
+                .withParallelism(2);
+        int total = IntStream.range(0, 4).map(generator::size).sum();
+        assertEquals(total, generator.runAll());
+        assertTrue(IntStream.range(0, 4).allMatch(generator::isComplete));
+        assertTrue(IntStream.range(0, 4).allMatch(shard -> generator.size(shard) > 0), "every shard gets groups");
+        // a second task finds nothing left to do
+        assertEquals(0, generator.runAll());
+
+        Path merged = dir.resolve("benchmark_output.json");
+        assertEquals(total, generator.merge(merged, BenchmarkWriter.Format.PRETTY));
+        List<?> expected = BenchmarkRunner.generate(ontology, AxiomGrouper.inSubjectOrder(ontology), new ELReasonerFactory(), 1);
+        assertEquals(new Gson().toJsonTree(expected), JsonParser.parseString(Files.readString(merged, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testInterruptedShardResumes(@TempDir Path dir) throws Exception {
+        ShardedGenerator generator = new ShardedGenerator(ontology, new ELReasonerFactory(), dir, 2);
+        generator.run(0);
+        Path done = generator.shardFile(0);
+        String complete = Files.readString(done, StandardCharsets.UTF_8);
+        List<String> lines = complete.lines().toList();
+        assertEquals(generator.size(0), lines.size());
+
+        // a crash after two cases, in the middle of writing the third
+        String torn = lines.get(0) + "\n" + lines.get(1) + "\n" + lines.get(2).substring(0, lines.get(2).length() / 2);
+        Files.delete(done);
+        Files.writeString(dir.resolve(done.getFileName() + ".part"), torn, StandardCharsets.UTF_8);
+
+        assertEquals(generator.size(0) - 2, generator.run(0));
+        assertEquals(complete, Files.readString(done, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve(done.getFileName() + ".part")));
+    }
+
+    @Test
+    void testVariantsAreShardedAndResumedPerEntry(@TempDir Path dir) throws Exception {
+        Set<MetamorphicExpander.Relation> mr = Set.of(MetamorphicExpander.Relation.MR_1, MetamorphicExpander.Relation.MR_9);
+        ShardedGenerator generator = new ShardedGenerator(ontology, new ELReasonerFactory(), dir, 3)
+                .withRelations(new MetamorphicExpander(ontology, new ELReasonerFactory(), mr, null));
+        generator.run(0);
+        Path done = generator.shardFile(0);
+        String complete = Files.readString(done, StandardCharsets.UTF_8);
+        List<String> lines = complete.lines().toList();
+        assertEquals(generator.size(0), lines.size());
+
+        // a crash between the two variants of the second case
+        Files.delete(done);
+        Files.writeString(dir.resolve(done.getFileName() + ".part"),
+                lines.get(0) + "\n" + lines.get(1) + "\n" + lines.get(2) + "\n", StandardCharsets.UTF_8);
+        assertEquals(generator.size(0) - 3, generator.run(0));
+        assertEquals(complete, Files.readString(done, StandardCharsets.UTF_8));
+
+        generator.runAll();
+        Path merged = dir.resolve("benchmark_output.json");
+        generator.merge(merged, BenchmarkWriter.Format.PRETTY);
+        List<Object> expected = new ArrayList<>();
+        BenchmarkRunner.generate(ontology, AxiomGrouper.inSubjectOrder(ontology), new ELReasonerFactory(), null, null, null,
+                new MetamorphicExpander(ontology, new ELReasonerFactory(), mr, null), 1, null, expected::add);
+        assertEquals(new Gson().toJsonTree(expected), JsonParser.parseString(Files.readString(merged, StandardCharsets.UTF_8)));
+
+        // a task without the relations belongs to another run
+        ShardedGenerator plain = new ShardedGenerator(ontology, new ELReasonerFactory(), dir, 3);
+        assertThrows(IllegalStateException.class, () -> plain.run(1));
+    }
+
+    @Test
+    void testForeignDirectoryAndMissingShardsAreRejected(@TempDir Path dir) throws Exception {
+        ShardedGenerator generator = new ShardedGenerator(ontology, new ELReasonerFactory(), dir, 3);
+        generator.run(1);
+        IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> generator.merge(dir.resolve("out.json"), BenchmarkWriter.Format.NDJSON));
+        assertTrue(missing.getMessage().contains("[0, 2]"), missing.getMessage());
+
+        ShardedGenerator other = new ShardedGenerator(ontology, new ELReasonerFactory(), dir, 5);
+        assertThrows(IllegalStateException.class, () -> other.run(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.run(3));
+    }
+
+    @Test
+    void testShardAssignmentAndSelection() {
+        assertEquals(ShardedGenerator.shardOf("Margherita", 16), ShardedGenerator.shardOf("Margherita", 16));
+        assertTrue(ShardedGenerator.shardOf("Margherita", 16) < 16);
+        assertEquals(Set.of(0, 1, 2, 3, 7), ShardedGenerator.parseShards("0-3, 7", 8));
+        assertEquals(8, ShardedGenerator.parseShards("all", 8).size());
+        assertThrows(IllegalArgumentException.class, () -> ShardedGenerator.parseShards("6-9", 8));
+        assertThrows(IllegalArgumentException.class, () -> ShardedGenerator.parseShards("x", 8));
+    }
+}
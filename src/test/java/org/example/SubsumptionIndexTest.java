@@ -0,0 +1,145 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNode;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubsumptionIndexTest {
+
+    private static final String NS = "http://example.org/";
+
+    private OWLOntology ontology() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass food = df.getOWLClass(IRI.create(NS + "Food"));
+        OWLClass meal = df.getOWLClass(IRI.create(NS + "Meal"));
+        OWLClass broken = df.getOWLClass(IRI.create(NS + "Broken"));
+        OWLObjectProperty hasTopping = df.getOWLObjectProperty(IRI.create(NS + "hasTopping"));
+        OWLObjectProperty hasIngredient = df.getOWLObjectProperty(IRI.create(NS + "hasIngredient"));
+        OWLObjectProperty hasPart = df.getOWLObjectProperty(IRI.create(NS + "hasPart"));
+
+        // Margherita ⊑ Pizza ⊑ Food ≡ Meal, Broken ⊑ ⊥, hasTopping ⊑ hasIngredient ⊑ hasPart
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(margherita, pizza));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(pizza, food));
+        manager.addAxiom(ontology, df.getOWLEquivalentClassesAxiom(food, meal));
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(broken, df.getOWLNothing()));
+        manager.addAxiom(ontology, df.getOWLSubObjectPropertyOfAxiom(hasTopping, hasIngredient));
+        manager.addAxiom(ontology, df.getOWLSubObjectPropertyOfAxiom(hasIngredient, hasPart));
+        return ontology;
+    }
+
+    @Test
+    void testClosureAgreesWithReasoner() throws Exception {
+        OWLOntology ontology = ontology();
+        OWLReasoner reasoner = new Reasoner.ReasonerFactory().createReasoner(ontology);
+        try {
+            SubsumptionIndex index = SubsumptionIndex.build(ontology, reasoner);
+            OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+            List<OWLClass> classes = ontology.classesInSignature().toList();
+            for (OWLClass sub : classes) {
+                for (OWLClass sup : classes) {
+                    assertEquals(reasoner.isEntailed(df.getOWLSubClassOfAxiom(sub, sup)), index.isSubClassOf(sub, sup),
+                            sub + " ⊑ " + sup);
+                }
+            }
+            List<OWLObjectProperty> roles = ontology.objectPropertiesInSignature().toList();
+            for (OWLObjectProperty r : roles) {
+                for (OWLObjectProperty s : roles) {
+                    assertEquals(reasoner.isEntailed(df.getOWLSubObjectPropertyOfAxiom(r, s)), index.isSubRole(r, s), r + " ⊑ " + s);
+                }
+            }
+            assertTrue(index.isUnsatisfiable(df.getOWLClass(IRI.create(NS + "Broken"))));
+            assertFalse(index.isUnsatisfiable(df.getOWLClass(IRI.create(NS + "Pizza"))));
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    @Test
+    void testSavedIndexAnswersWithoutClassification(@TempDir Path dir) throws Exception {
+        OWLOntology ontology = ontology();
+        OWLDataFactory df = ontology.getOWLOntologyManager().getOWLDataFactory();
+        Path file = dir.resolve("subsumption.idx");
+        AtomicInteger created = new AtomicInteger();
+        ELReasonerFactory factory = new ELReasonerFactory() {
+            @Override
+            public OWLReasoner createReasoner(OWLOntology o) {
+                created.incrementAndGet();
+                return super.createReasoner(o);
+            }
+        };
+
+        SubsumptionIndex.loadOrBuild(file, ontology, factory);
+        assertEquals(1, created.get());
+
+        SubsumptionIndex loaded = SubsumptionIndex.loadOrBuild(file, ontology, factory);
+        assertEquals(1, created.get(), "An up-to-date index is loaded, not rebuilt");
+        OWLClass margherita = df.getOWLClass(IRI.create(NS + "Margherita"));
+        OWLClass meal = df.getOWLClass(IRI.create(NS + "Meal"));
+        assertTrue(loaded.isSubClassOf(margherita, meal));
+        assertFalse(loaded.isSubClassOf(meal, margherita));
+
+        try (ReasoningValidator validator = new ReasoningValidator(ontology, factory, null, loaded)) {
+            assertTrue(validator.isEntailed(df.getOWLSubClassOfAxiom(margherita, meal)));
+            assertTrue(validator.isEntailed(df.getOWLSubObjectPropertyOfAxiom(
+                    df.getOWLObjectProperty(IRI.create(NS + "hasTopping")), df.getOWLObjectProperty(IRI.create(NS + "hasPart")))));
+        }
+        assertEquals(1, created.get(), "Named subsumptions are answered from the index");
+
+        // an edit makes the saved index stale
+        ontology.getOWLOntologyManager().addAxiom(ontology, df.getOWLSubClassOfAxiom(meal, margherita));
+        SubsumptionIndex.loadOrBuild(file, ontology, factory);
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void testDeepHierarchyIsClosedWithoutRecursion() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology();
+        // C0 ⊑ C1 ⊑ ... ⊑ Cn, deeper than a recursive closure could go
+        int depth = 5_000;
+        for (int i = 0; i < depth; i++) {
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(
+                    df.getOWLClass(IRI.create(NS + "C" + i)), df.getOWLClass(IRI.create(NS + "C" + (i + 1)))));
+        }
+        // Ci ⊑ Ci+1 answered directly, as classifying a chain this long takes long
+        OWLReasoner reasoner = (OWLReasoner) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OWLReasoner.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getEquivalentClasses" -> ((OWLClass) args[0]).isOWLNothing()
+                            ? OWLClassNode.getBottomNode() : new OWLClassNode((OWLClass) args[0]);
+                    case "getSuperClasses" -> {
+                        OWLClass c = (OWLClass) args[0];
+                        if (c.isOWLThing()) yield new OWLClassNodeSet();
+                        int i = Integer.parseInt(c.getIRI().getShortForm().substring(1));
+                        yield new OWLClassNodeSet(new OWLClassNode(i == depth ? df.getOWLThing()
+                                : df.getOWLClass(IRI.create(NS + "C" + (i + 1)))));
+                    }
+                    default -> null;
+                });
+        SubsumptionIndex index = SubsumptionIndex.build(ontology, reasoner);
+        OWLClass bottom = df.getOWLClass(IRI.create(NS + "C0"));
+        OWLClass top = df.getOWLClass(IRI.create(NS + "C" + depth));
+        assertTrue(index.isSubClassOf(bottom, top));
+        assertFalse(index.isSubClassOf(top, bottom));
+        AtomicInteger supers = new AtomicInteger();
+        index.forEachSuperClass(index.classId(bottom), sup -> supers.incrementAndGet());
+        // C0 ... Cn and owl:Thing
+        assertEquals(depth + 2, supers.get());
+    }
+}
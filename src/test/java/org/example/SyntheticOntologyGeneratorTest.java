@@ -0,0 +1,79 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticOntologyGeneratorTest {
+
+    private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+    @Test
+    void testSameSeedGivesSameOntology() {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator().withClasses(500).withSeed(7);
+        List<OWLAxiom> first = generator.axioms(df).toList();
+        assertEquals(first, generator.axioms(df).toList());
+        assertNotEquals(first, new SyntheticOntologyGenerator().withClasses(500).withSeed(8).axioms(df).toList());
+        assertEquals(generator.axiomCount(), first.size());
+    }
+
+    @Test
+    void testShapeFollowsTheSettings() {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator()
+                .withClasses(1200).withRoles(12).withDepth(3).withFanOut(4).withRoleDepth(2);
+        List<OWLAxiom> axioms = generator.axioms(df).toList();
+        assertEquals(generator.axiomCount(), axioms.size());
+
+        Map<OWLClass, OWLClass> superClass = new HashMap<>();
+        Map<OWLClass, Integer> existentials = new HashMap<>();
+        Map<OWLObjectPropertyExpression, OWLObjectPropertyExpression> superRole = new HashMap<>();
+        for (OWLAxiom axiom : axioms) {
+            if (axiom instanceof OWLSubObjectPropertyOfAxiom inclusion) {
+                superRole.put(inclusion.getSubProperty(), inclusion.getSuperProperty());
+            } else {
+                OWLSubClassOfAxiom sca = (OWLSubClassOfAxiom) axiom;
+                OWLClass subject = sca.getSubClass().asOWLClass();
+                if (sca.getSuperClass() instanceof OWLObjectSomeValuesFrom) existentials.merge(subject, 1, Integer::sum);
+                else assertNull(superClass.put(subject, sca.getSuperClass().asOWLClass()), "one told superclass");
+            }
+        }
+        assertEquals(1200, existentials.size());
+        assertTrue(existentials.values().stream().allMatch(n -> n == 4));
+        assertEquals(3, longestChain(superClass));
+        assertEquals(2, longestChain(superRole));
+        assertEquals(8, superRole.size(), "the top third of the roles has no super-role");
+
+        SyntheticOntologyGenerator el = new SyntheticOntologyGenerator().withClasses(100).withDepth(0);
+        assertTrue(el.axioms(df).allMatch(ax -> ax instanceof OWLSubClassOfAxiom sca
+                && sca.getSuperClass() instanceof OWLObjectSomeValuesFrom));
+    }
+
+    private static <T> int longestChain(Map<T, T> parent) {
+        int longest = 0;
+        for (T start : parent.keySet()) {
+            int length = 0;
+            for (T t = start; parent.containsKey(t); t = parent.get(t)) length++;
+            longest = Math.max(longest, length);
+        }
+        return longest;
+    }
+
+    @Test
+    void testWrittenFileLoadsToTheSameAxioms(@TempDir Path dir) throws Exception {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator().withAxioms(3000).withRoleDepth(1);
+        Path file = dir.resolve("synthetic.ofn");
+        assertEquals(generator.axiomCount(), generator.write(file));
+        OWLOntology loaded = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        assertEquals(generator.axioms(df).collect(Collectors.toSet()), loaded.logicalAxioms(Imports.INCLUDED).collect(Collectors.toSet()));
+        // the pipeline finds one group per class with a target axiom
+        assertEquals(generator.classes(), AxiomGrouper.inSubjectOrder(loaded).size());
+    }
+}